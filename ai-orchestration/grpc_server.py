@@ -0,0 +1,221 @@
+"""
+gRPC endpoint for the backend (proto/ledgerflow/extraction/v1/extraction.proto)
+
+Same extraction as POST /extract-invoice and POST /extract-invoice-by-key (and
+Store as POST /store-document), but
+the document arrives as a stream of chunks and the answer is a stream of
+progress events followed by one typed result. main.py starts it next to the
+HTTP API when GRPC_PORT is set.
+
+The message classes are generated from the .proto at import time (grpcio-tools),
+so the contract has a single source; PROTO_ROOT points at the repository's
+proto/ directory (the Docker image copies it to /proto and sets PROTO_ROOT).
+"""
+import logging
+import os
+import sys
+import uuid
+from datetime import datetime
+
+import aiofiles
+import grpc
+
+from services.invoice_extractor import InvoiceExtractor
+
+PROTO_ROOT = os.path.abspath(os.getenv("PROTO_ROOT", os.path.join(os.path.dirname(__file__), "..", "proto")))
+if PROTO_ROOT not in sys.path:
+    sys.path.append(PROTO_ROOT)
+
+pb, services = grpc.protos_and_services("ledgerflow/extraction/v1/extraction.proto")
+
+logger = logging.getLogger(__name__)
+
+
+def _progress(stage, fraction):
+    return pb.ExtractResponse(progress=pb.Progress(stage=stage, fraction=fraction))
+
+
+def _to_result(result, filename, storage_key, storage_url):
+    """Map InvoiceExtractor output onto ExtractionResult"""
+    data = result.get("extracted_data") or {}
+    invoice_date = data.get("invoice_date")
+    if isinstance(invoice_date, datetime):
+        invoice_date = invoice_date.isoformat()
+
+    invoice = pb.InvoiceData(
+        invoice_number=str(data.get("invoice_number") or ""),
+        vendor_name=str(data.get("vendor_name") or ""),
+        invoice_date=str(invoice_date or ""),
+        total_amount=float(data.get("total_amount") or 0),
+        currency=data.get("currency") or "USD",
+        line_items=[
+            pb.LineItem(
+                description=str(item.get("description") or ""),
+                quantity=float(item.get("quantity") or 0),
+                unit_price=float(item.get("unit_price") or 0),
+                amount=float(item.get("amount") or 0),
+            )
+            for item in data.get("line_items") or []
+        ],
+    )
+    # Optional fields stay unset rather than zero/empty, like null in the JSON response
+    if data.get("due_date") is not None:
+        invoice.due_date = str(data["due_date"])
+    if data.get("tax_amount") is not None:
+        invoice.tax_amount = float(data["tax_amount"])
+    if data.get("shipping_amount") is not None:
+        invoice.shipping_amount = float(data["shipping_amount"])
+    if data.get("payment_terms") is not None:
+        invoice.payment_terms = str(data["payment_terms"])
+
+    extraction = pb.ExtractionResult(
+        invoice=invoice,
+        confidence_score=float(result.get("confidence_score") or 0),
+        filename=filename or "",
+    )
+    if storage_key is not None:
+        extraction.storage_key = storage_key
+    if storage_url is not None:
+        extraction.storage_url = storage_url
+    return pb.ExtractResponse(result=extraction)
+
+
+class InvoiceExtractionServicer(services.InvoiceExtractionServicer):
+
+    def __init__(self, upload_dir, storage_backend, local_storage_root, get_s3_service):
+        self.upload_dir = upload_dir
+        self.storage_backend = storage_backend
+        self.local_storage_root = local_storage_root
+        self.get_s3_service = get_s3_service
+
+    async def _spool(self, request_iterator, context):
+        """Write the streamed document to disk as it arrives; nothing is held in memory"""
+        header = None
+        file_path = None
+        out_file = None
+        try:
+            async for request in request_iterator:
+                if request.HasField("header"):
+                    header = request.header
+                    file_extension = os.path.splitext(header.filename)[1] if header.filename else ".pdf"
+                    file_path = os.path.join(self.upload_dir, f"{uuid.uuid4()}{file_extension}")
+                    out_file = await aiofiles.open(file_path, "wb")
+                elif out_file is None:
+                    await context.abort(grpc.StatusCode.INVALID_ARGUMENT, "DocumentHeader must come first")
+                else:
+                    await out_file.write(request.chunk)
+            if out_file is None:
+                await context.abort(grpc.StatusCode.INVALID_ARGUMENT, "No document received")
+            return header, file_path
+        except BaseException:
+            if out_file is not None:
+                await out_file.close()
+                out_file = None
+            if file_path and os.path.exists(file_path):
+                os.remove(file_path)
+            raise
+        finally:
+            if out_file is not None:
+                await out_file.close()
+
+    async def _store(self, file_path, tenant_id):
+        """Upload to S3 as tenant_id/year/month/filename; (None, None) if that fails"""
+        try:
+            year = datetime.now().strftime("%Y")
+            month = datetime.now().strftime("%m")
+            s3_key = f"{tenant_id}/{year}/{month}/{os.path.basename(file_path)}"
+            s3_url = await self.get_s3_service().upload_file(file_path, s3_key)
+            return s3_key, s3_url
+        except Exception as s3_error:
+            logging.warning(f"S3 upload failed: {s3_error}. Continuing with extraction...")
+            return None, None
+
+    async def Extract(self, request_iterator, context):
+        file_path = None
+        try:
+            header, file_path = await self._spool(request_iterator, context)
+            yield _progress(pb.Progress.RECEIVED, 0.1)
+
+            s3_key = None
+            s3_url = None
+            # Page ranges of a larger document are not kept; the backend stores the original via Store
+            if not header.skip_storage:
+                s3_key, s3_url = await self._store(file_path, header.tenant_id)
+                if s3_key is not None:
+                    yield _progress(pb.Progress.STORED, 0.2)
+
+            result = await InvoiceExtractor().extract(file_path, header.tenant_id)
+            yield _progress(pb.Progress.FIELDS_EXTRACTED, 0.9)
+            yield _to_result(result, header.filename, s3_key, s3_url)
+
+        except grpc.aio.AbortError:
+            raise
+        except Exception as e:
+            logger.error(f"gRPC extraction failed: {e}", exc_info=True)
+            await context.abort(grpc.StatusCode.INTERNAL, str(e))
+        finally:
+            if file_path and os.path.exists(file_path):
+                os.remove(file_path)
+
+    async def Store(self, request_iterator, context):
+        file_path = None
+        try:
+            header, file_path = await self._spool(request_iterator, context)
+            s3_key, s3_url = await self._store(file_path, header.tenant_id)
+            result = pb.StoreResult()
+            if s3_key is not None:
+                result.storage_key = s3_key
+                result.storage_url = s3_url
+            return result
+        except grpc.aio.AbortError:
+            raise
+        except Exception as e:
+            logger.error(f"gRPC store failed: {e}", exc_info=True)
+            await context.abort(grpc.StatusCode.INTERNAL, str(e))
+        finally:
+            if file_path and os.path.exists(file_path):
+                os.remove(file_path)
+
+    async def ExtractByKey(self, request, context):
+        file_path = None
+        downloaded = False
+        try:
+            if self.storage_backend == "local":
+                file_path = os.path.abspath(os.path.join(self.local_storage_root, request.storage_key))
+                if not file_path.startswith(self.local_storage_root + os.sep):
+                    await context.abort(grpc.StatusCode.INVALID_ARGUMENT, "Invalid storage key")
+                if not os.path.isfile(file_path):
+                    await context.abort(grpc.StatusCode.NOT_FOUND, "Document not found")
+                s3_url = None
+            else:
+                file_path = os.path.join(self.upload_dir, f"{uuid.uuid4()}.pdf")
+                s3_service = self.get_s3_service()
+                await s3_service.download_file(request.storage_key, file_path)
+                downloaded = True
+                s3_url = f"s3://{s3_service.bucket_name}/{request.storage_key}"
+            yield _progress(pb.Progress.RECEIVED, 0.1)
+
+            result = await InvoiceExtractor().extract(file_path, request.tenant_id)
+            yield _progress(pb.Progress.FIELDS_EXTRACTED, 0.9)
+            yield _to_result(result, os.path.basename(request.storage_key), request.storage_key, s3_url)
+
+        except grpc.aio.AbortError:
+            raise
+        except Exception as e:
+            logger.error(f"gRPC extraction by key failed: {e}", exc_info=True)
+            await context.abort(grpc.StatusCode.INTERNAL, str(e))
+        finally:
+            # Only remove our own temporary download, never the stored original
+            if downloaded and file_path and os.path.exists(file_path):
+                os.remove(file_path)
+
+
+async def serve(port, upload_dir, storage_backend, local_storage_root, get_s3_service):
+    """Start the gRPC server on the running event loop and return it"""
+    server = grpc.aio.server()
+    services.add_InvoiceExtractionServicer_to_server(
+        InvoiceExtractionServicer(upload_dir, storage_backend, local_storage_root, get_s3_service), server)
+    server.add_insecure_port(f"[::]:{port}")
+    await server.start()
+    logger.info(f"gRPC extraction service listening on port {port}")
+    return server
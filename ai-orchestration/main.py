@@ -1,5 +1,6 @@
 from fastapi import FastAPI,UploadFile,File,Form,HTTPException
 from fastapi.middleware.cors import CORSMiddleware
+from pydantic import BaseModel
 import uvicorn
 from services.invoice_extractor import InvoiceExtractor
 from services.s3_service import S3Service
@@ -21,6 +22,11 @@ app = FastAPI(
 UPLOAD_DIR = "uploads"
 os.makedirs(UPLOAD_DIR, exist_ok=True)
 
+# Where direct uploads live: "s3" (S3_BUCKET_NAME) or "local" (a directory shared
+# with the backend's app.documents.root)
+STORAGE_BACKEND = os.getenv("STORAGE_BACKEND", "s3")
+LOCAL_STORAGE_ROOT = os.path.abspath(os.getenv("LOCAL_STORAGE_ROOT", "../backend/ledgerflow-backend/data/documents"))
+
 # Initialize S3 service
 s3_service = None
 
@@ -52,13 +58,27 @@ async def health_check():
 
 
 
+async def store_document(file_path: str, tenant_id: str):
+    """Upload a document to S3 as tenant_id/year/month/filename; (None, None) if that fails"""
+    try:
+        year = datetime.now().strftime("%Y")
+        month = datetime.now().strftime("%m")
+        s3_key = f"{tenant_id}/{year}/{month}/{os.path.basename(file_path)}"
+        s3_url = await get_s3_service().upload_file(file_path, s3_key)
+        return s3_key, s3_url
+    except Exception as s3_error:
+        logging.warning(f"S3 upload failed: {s3_error}. Continuing with extraction...")
+        return None, None
+
+
 @app.post("/extract-invoice")
-async def extract_invoice(file: UploadFile = File(...), tenant_id: str = Form(...)):
+async def extract_invoice(file: UploadFile = File(...), tenant_id: str = Form(...), store: bool = Form(True)):
     """
     Extract invoice data from uploaded PDF and upload to S3
     
     - Saves file locally temporarily
-    - Uploads to S3 with organized path structure
+    - Uploads to S3 with organized path structure, unless store is false
+      (page ranges of a larger document, whose original is stored once via /store-document)
     - Extracts invoice data using AI
     - Returns extraction result with S3 URL
     - Cleans up local file
@@ -78,15 +98,8 @@ async def extract_invoice(file: UploadFile = File(...), tenant_id: str = Form(..
             await out_file.write(content)
         
         # Step 2: Upload to S3
-        try:
-            s3_service_instance = get_s3_service()
-            # Organize S3 path: tenant_id/year/month/filename
-            year = datetime.now().strftime("%Y")
-            month = datetime.now().strftime("%m")
-            s3_key = f"{tenant_id}/{year}/{month}/{unique_filename}"
-            s3_url = await s3_service_instance.upload_file(file_path, s3_key)
-        except Exception as s3_error:
-            logging.warning(f"S3 upload failed: {s3_error}. Continuing with extraction...")
+        if store:
+            s3_key, s3_url = await store_document(file_path, tenant_id)
         
         # Step 3: Extract invoice data
         extractor_instance = InvoiceExtractor()
@@ -111,6 +124,98 @@ async def extract_invoice(file: UploadFile = File(...), tenant_id: str = Form(..
             os.remove(file_path)
         raise HTTPException(status_code=500, detail=str(e))
 
+@app.post("/store-document")
+async def store_document_only(file: UploadFile = File(...), tenant_id: str = Form(...)):
+    """
+    Upload a document to S3 without extracting it
+
+    The backend extracts long PDFs in page ranges (store=false) and stores the
+    original once through here. s3_key and s3_url are null if the upload failed.
+    """
+    file_extension = os.path.splitext(file.filename)[1] if file.filename else ".pdf"
+    file_path = os.path.join(UPLOAD_DIR, f"{uuid.uuid4()}{file_extension}")
+    try:
+        async with aiofiles.open(file_path, 'wb') as out_file:
+            await out_file.write(await file.read())
+        s3_key, s3_url = await store_document(file_path, tenant_id)
+        return {"status": "success", "s3_key": s3_key, "s3_url": s3_url}
+    except Exception as e:
+        raise HTTPException(status_code=500, detail=str(e))
+    finally:
+        if os.path.exists(file_path):
+            os.remove(file_path)
+
+class ExtractByKeyRequest(BaseModel):
+    storage_key: str
+    tenant_id: str
+
+
+@app.post("/extract-invoice-by-key")
+async def extract_invoice_by_key(request: ExtractByKeyRequest):
+    """
+    Extract invoice data from a document the client uploaded directly to storage
+
+    - Reads the object by key (S3 download, or the shared local directory)
+    - Extracts invoice data using AI
+    - Returns the same shape as /extract-invoice, with s3_key set to the key
+    """
+    file_path = None
+    downloaded = False
+
+    try:
+        if STORAGE_BACKEND == "local":
+            file_path = os.path.abspath(os.path.join(LOCAL_STORAGE_ROOT, request.storage_key))
+            if not file_path.startswith(LOCAL_STORAGE_ROOT + os.sep):
+                raise HTTPException(status_code=400, detail="Invalid storage key")
+            if not os.path.isfile(file_path):
+                raise HTTPException(status_code=404, detail="Document not found")
+            s3_url = None
+        else:
+            file_path = os.path.join(UPLOAD_DIR, f"{uuid.uuid4()}.pdf")
+            s3_service_instance = get_s3_service()
+            await s3_service_instance.download_file(request.storage_key, file_path)
+            downloaded = True
+            s3_url = f"s3://{s3_service_instance.bucket_name}/{request.storage_key}"
+
+        extractor_instance = InvoiceExtractor()
+        result = await extractor_instance.extract(file_path, request.tenant_id)
+
+        return {
+            "status": "success",
+            "filename": os.path.basename(request.storage_key),
+            "s3_key": request.storage_key,
+            "s3_url": s3_url,
+            **result
+        }
+
+    except HTTPException:
+        raise
+    except Exception as e:
+        raise HTTPException(status_code=500, detail=str(e))
+    finally:
+        # Only remove our own temporary download, never the stored original
+        if downloaded and file_path and os.path.exists(file_path):
+            os.remove(file_path)
+
+# gRPC endpoint for the backend's app.ai-orchestration.transport=grpc (off unless GRPC_PORT is set)
+GRPC_PORT = os.getenv("GRPC_PORT")
+
+
+@app.on_event("startup")
+async def start_grpc_server():
+    if GRPC_PORT:
+        import grpc_server
+        app.state.grpc_server = await grpc_server.serve(
+            int(GRPC_PORT), UPLOAD_DIR, STORAGE_BACKEND, LOCAL_STORAGE_ROOT, get_s3_service)
+
+
+@app.on_event("shutdown")
+async def stop_grpc_server():
+    server = getattr(app.state, "grpc_server", None)
+    if server is not None:
+        await server.stop(grace=5)
+
+
 if __name__ == "__main__":
     uvicorn.run(app, host="0.0.0.0", port=8001)
     
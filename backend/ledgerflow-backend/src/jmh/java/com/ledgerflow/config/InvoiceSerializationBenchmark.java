@@ -0,0 +1,118 @@
+package com.ledgerflow.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.entity.InvoiceLineItem;
+import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.entity.Tenant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice read payloads as JSON, Smile and CBOR, with the mappers the HTTP converters use.
+ *
+ * Payload sizes are printed once per trial; the benchmarks time encoding and
+ * decoding of one invoice with {@code lineItems} line items.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvoiceSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int lineItems;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private Invoice invoice;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        MessageFormatConfig config = new MessageFormatConfig();
+        ObjectMapper mapper = switch (format) {
+            case "smile" -> config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+            case "cbor" -> config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+            default -> new Jackson2ObjectMapperBuilder().build();
+        };
+        writer = mapper.writerFor(Invoice.class);
+        reader = mapper.readerFor(Invoice.class);
+        invoice = sample(lineItems);
+        payload = writer.writeValueAsBytes(invoice);
+        System.out.printf("%n%s payload, %d line items: %d bytes%n", format, lineItems, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(invoice);
+    }
+
+    @Benchmark
+    public Invoice deserialize() throws Exception {
+        return reader.readValue(payload);
+    }
+
+    private static Invoice sample(int lineItems) {
+        Tenant tenant = new Tenant();
+        tenant.setId(42L);
+        tenant.setName("Acme Holdings");
+        tenant.setSlug("acme-holdings");
+
+        Invoice invoice = new Invoice();
+        invoice.setId(1_234_567L);
+        invoice.setInvoiceNumber("INV-2025-000123");
+        invoice.setVendorName("Northwind Industrial Supplies Ltd.");
+        invoice.setInvoiceDate(LocalDate.of(2025, 11, 3));
+        invoice.setDueDate(LocalDate.of(2025, 12, 3));
+        invoice.setCurrency("EUR");
+        invoice.setStatus(InvoiceStatus.EXTRACTED);
+        invoice.setTenant(tenant);
+        invoice.setCreatedAt(LocalDateTime.of(2025, 11, 4, 9, 15, 30, 123_456_000));
+        invoice.setUpdatedAt(LocalDateTime.of(2025, 11, 4, 9, 15, 31, 654_321_000));
+        invoice.setPaymentTerms("Net 30");
+        invoice.setS3Key("tenants/42/invoices/2025/11/9f2c1e7a-invoice.pdf");
+        invoice.setConfidenceScore(0.97);
+        invoice.setDocumentSha256("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        invoice.setDocumentSize(184_320L);
+        invoice.setDocumentContentType("application/pdf");
+
+        List<InvoiceLineItem> items = new ArrayList<>(lineItems);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lineItems; i++) {
+            InvoiceLineItem item = new InvoiceLineItem();
+            item.setId(10_000_000L + i);
+            item.setDescription("Stainless hex bolt M" + (6 + i % 10) + " x " + (20 + i % 50) + "mm, box of 100");
+            item.setQuantity(BigDecimal.valueOf(1 + i % 12));
+            item.setUnitPrice(new BigDecimal("12.35").add(BigDecimal.valueOf(i % 100, 2)));
+            item.setAmount(item.getUnitPrice().multiply(item.getQuantity()));
+            item.setInvoice(invoice);
+            items.add(item);
+            total = total.add(item.getAmount());
+        }
+        invoice.setLineItems(items);
+        invoice.setTaxAmount(total.multiply(new BigDecimal("0.19")).setScale(2, RoundingMode.HALF_UP));
+        invoice.setTotalAmount(total.add(invoice.getTaxAmount()));
+        return invoice;
+    }
+}
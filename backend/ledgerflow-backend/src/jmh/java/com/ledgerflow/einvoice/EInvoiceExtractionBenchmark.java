@@ -0,0 +1,71 @@
+package com.ledgerflow.einvoice;
+
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the in-process e-invoice path: StAX parsing of UBL and CII, a
+ * full Factur-X extraction (PDF attachment + CII), and the detection overhead a
+ * plain PDF pays before falling back to AI extraction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EInvoiceExtractionBenchmark {
+
+    @Param({"1", "20", "200"})
+    public int lineItems;
+
+    private StructuredInvoiceExtractor extractor;
+    private byte[] ubl;
+    private byte[] cii;
+    private byte[] facturX;
+    private byte[] plainPdf;
+
+    @Setup
+    public void setUp() throws IOException {
+        extractor = new StructuredInvoiceExtractor(new LedgerFlowMetrics(new SimpleMeterRegistry(), 16));
+        ubl = EInvoiceSamples.ubl(lineItems);
+        cii = EInvoiceSamples.cii(lineItems);
+        facturX = EInvoiceSamples.pdf(cii);
+        plainPdf = EInvoiceSamples.pdf(null);
+        if (extractFacturX().isEmpty() || detectPlainPdf().isPresent()) {
+            throw new IllegalStateException("Sample documents are not extracted as expected");
+        }
+    }
+
+    @Benchmark
+    public EInvoiceXmlParser.Parsed parseUbl() throws XMLStreamException {
+        return EInvoiceXmlParser.parse(new ByteArrayInputStream(ubl));
+    }
+
+    @Benchmark
+    public EInvoiceXmlParser.Parsed parseCii() throws XMLStreamException {
+        return EInvoiceXmlParser.parse(new ByteArrayInputStream(cii));
+    }
+
+    @Benchmark
+    public Optional<Map<String, Object>> extractFacturX() throws IOException {
+        return extractor.extract(new ByteArrayInputStream(facturX), "factur-x.pdf", 1L);
+    }
+
+    @Benchmark
+    public Optional<Map<String, Object>> detectPlainPdf() throws IOException {
+        return extractor.extract(new ByteArrayInputStream(plainPdf), "scan.pdf", 1L);
+    }
+}
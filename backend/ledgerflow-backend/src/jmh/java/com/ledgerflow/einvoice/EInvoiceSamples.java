@@ -0,0 +1,139 @@
+package com.ledgerflow.einvoice;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentNameDictionary;
+import org.apache.pdfbox.pdmodel.PDEmbeddedFilesNameTreeNode;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.filespecification.PDComplexFileSpecification;
+import org.apache.pdfbox.pdmodel.common.filespecification.PDEmbeddedFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Synthetic e-invoices for the extraction benchmarks.
+ */
+final class EInvoiceSamples {
+
+    private EInvoiceSamples() {
+    }
+
+    static byte[] ubl(int lineItems) {
+        StringBuilder xml = new StringBuilder(1024 + lineItems * 600);
+        xml.append("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <Invoice xmlns="urn:oasis:names:specification:ubl:schema:xsd:Invoice-2"
+                         xmlns:cac="urn:oasis:names:specification:ubl:schema:xsd:CommonAggregateComponents-2"
+                         xmlns:cbc="urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2">
+                  <cbc:CustomizationID>urn:cen.eu:en16931:2017</cbc:CustomizationID>
+                  <cbc:ID>UBL-2025-0001</cbc:ID>
+                  <cbc:IssueDate>2025-11-03</cbc:IssueDate>
+                  <cbc:DueDate>2025-12-03</cbc:DueDate>
+                  <cbc:InvoiceTypeCode>380</cbc:InvoiceTypeCode>
+                  <cbc:DocumentCurrencyCode>EUR</cbc:DocumentCurrencyCode>
+                  <cac:AccountingSupplierParty><cac:Party>
+                    <cac:PartyName><cbc:Name>Acme Supplies GmbH</cbc:Name></cac:PartyName>
+                    <cac:PartyLegalEntity><cbc:RegistrationName>Acme Supplies GmbH</cbc:RegistrationName></cac:PartyLegalEntity>
+                  </cac:Party></cac:AccountingSupplierParty>
+                  <cac:AccountingCustomerParty><cac:Party>
+                    <cac:PartyName><cbc:Name>LedgerFlow Customer Ltd</cbc:Name></cac:PartyName>
+                  </cac:Party></cac:AccountingCustomerParty>
+                  <cac:PaymentTerms><cbc:Note>Net 30</cbc:Note></cac:PaymentTerms>
+                """);
+        xml.append("  <cac:TaxTotal><cbc:TaxAmount currencyID=\"EUR\">").append(19 * lineItems).append(".00</cbc:TaxAmount></cac:TaxTotal>\n");
+        xml.append("  <cac:LegalMonetaryTotal><cbc:PayableAmount currencyID=\"EUR\">").append(119 * lineItems)
+                .append(".00</cbc:PayableAmount></cac:LegalMonetaryTotal>\n");
+        for (int i = 1; i <= lineItems; i++) {
+            xml.append("  <cac:InvoiceLine><cbc:ID>").append(i).append("</cbc:ID>")
+                    .append("<cbc:InvoicedQuantity unitCode=\"C62\">4</cbc:InvoicedQuantity>")
+                    .append("<cbc:LineExtensionAmount currencyID=\"EUR\">100.00</cbc:LineExtensionAmount>")
+                    .append("<cac:Item><cbc:Name>Widget ").append(i).append("</cbc:Name>")
+                    .append("<cac:ClassifiedTaxCategory><cbc:ID>S</cbc:ID><cbc:Percent>19</cbc:Percent></cac:ClassifiedTaxCategory></cac:Item>")
+                    .append("<cac:Price><cbc:PriceAmount currencyID=\"EUR\">25.00</cbc:PriceAmount></cac:Price>")
+                    .append("</cac:InvoiceLine>\n");
+        }
+        xml.append("</Invoice>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] cii(int lineItems) {
+        StringBuilder xml = new StringBuilder(1024 + lineItems * 800);
+        xml.append("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <rsm:CrossIndustryInvoice xmlns:rsm="urn:un:unece:uncefact:data:standard:CrossIndustryInvoice:100"
+                    xmlns:ram="urn:un:unece:uncefact:data:standard:ReusableAggregateBusinessInformationEntity:100"
+                    xmlns:udt="urn:un:unece:uncefact:data:standard:UnqualifiedDataType:100">
+                  <rsm:ExchangedDocumentContext><ram:GuidelineSpecifiedDocumentContextParameter>
+                    <ram:ID>urn:cen.eu:en16931:2017</ram:ID>
+                  </ram:GuidelineSpecifiedDocumentContextParameter></rsm:ExchangedDocumentContext>
+                  <rsm:ExchangedDocument>
+                    <ram:ID>CII-2025-0001</ram:ID>
+                    <ram:TypeCode>380</ram:TypeCode>
+                    <ram:IssueDateTime><udt:DateTimeString format="102">20251103</udt:DateTimeString></ram:IssueDateTime>
+                  </rsm:ExchangedDocument>
+                  <rsm:SupplyChainTradeTransaction>
+                """);
+        for (int i = 1; i <= lineItems; i++) {
+            xml.append("    <ram:IncludedSupplyChainTradeLineItem>")
+                    .append("<ram:AssociatedDocumentLineDocument><ram:LineID>").append(i).append("</ram:LineID></ram:AssociatedDocumentLineDocument>")
+                    .append("<ram:SpecifiedTradeProduct><ram:Name>Widget ").append(i).append("</ram:Name></ram:SpecifiedTradeProduct>")
+                    .append("<ram:SpecifiedLineTradeAgreement><ram:NetPriceProductTradePrice><ram:ChargeAmount>25.00</ram:ChargeAmount></ram:NetPriceProductTradePrice></ram:SpecifiedLineTradeAgreement>")
+                    .append("<ram:SpecifiedLineTradeDelivery><ram:BilledQuantity unitCode=\"C62\">4</ram:BilledQuantity></ram:SpecifiedLineTradeDelivery>")
+                    .append("<ram:SpecifiedLineTradeSettlement><ram:SpecifiedTradeSettlementLineMonetarySummation><ram:LineTotalAmount>100.00</ram:LineTotalAmount></ram:SpecifiedTradeSettlementLineMonetarySummation></ram:SpecifiedLineTradeSettlement>")
+                    .append("</ram:IncludedSupplyChainTradeLineItem>\n");
+        }
+        xml.append("""
+                    <ram:ApplicableHeaderTradeAgreement>
+                      <ram:SellerTradeParty><ram:Name>Acme Supplies GmbH</ram:Name></ram:SellerTradeParty>
+                      <ram:BuyerTradeParty><ram:Name>LedgerFlow Customer Ltd</ram:Name></ram:BuyerTradeParty>
+                    </ram:ApplicableHeaderTradeAgreement>
+                    <ram:ApplicableHeaderTradeSettlement>
+                      <ram:InvoiceCurrencyCode>EUR</ram:InvoiceCurrencyCode>
+                      <ram:SpecifiedTradePaymentTerms>
+                        <ram:Description>Net 30</ram:Description>
+                        <ram:DueDateDateTime><udt:DateTimeString format="102">20251203</udt:DateTimeString></ram:DueDateDateTime>
+                      </ram:SpecifiedTradePaymentTerms>
+                      <ram:SpecifiedTradeSettlementHeaderMonetarySummation>
+                """);
+        xml.append("        <ram:TaxTotalAmount currencyID=\"EUR\">").append(19 * lineItems).append(".00</ram:TaxTotalAmount>\n");
+        xml.append("        <ram:GrandTotalAmount>").append(119 * lineItems).append(".00</ram:GrandTotalAmount>\n");
+        xml.append("""
+                      </ram:SpecifiedTradeSettlementHeaderMonetarySummation>
+                    </ram:ApplicableHeaderTradeSettlement>
+                  </rsm:SupplyChainTradeTransaction>
+                </rsm:CrossIndustryInvoice>
+                """);
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Single-page PDF, optionally carrying the XML as a factur-x.xml attachment.
+     */
+    static byte[] pdf(byte[] facturX) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            if (facturX != null) {
+                PDEmbeddedFile embedded = new PDEmbeddedFile(document, new ByteArrayInputStream(facturX));
+                embedded.setSubtype("text/xml");
+                embedded.setSize(facturX.length);
+                PDComplexFileSpecification spec = new PDComplexFileSpecification();
+                spec.setFile("factur-x.xml");
+                spec.setFileUnicode("factur-x.xml");
+                spec.setEmbeddedFile(embedded);
+                spec.setEmbeddedFileUnicode(embedded);
+
+                PDEmbeddedFilesNameTreeNode tree = new PDEmbeddedFilesNameTreeNode();
+                tree.setNames(Map.of("factur-x.xml", spec));
+                PDDocumentNameDictionary names = new PDDocumentNameDictionary(document.getDocumentCatalog());
+                names.setEmbeddedFiles(tree);
+                document.getDocumentCatalog().setNames(names);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
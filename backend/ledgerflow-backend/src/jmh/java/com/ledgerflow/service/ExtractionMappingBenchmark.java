@@ -0,0 +1,82 @@
+package com.ledgerflow.service;
+
+import com.ledgerflow.einvoice.StructuredInvoiceExtractor;
+import com.ledgerflow.extraction.GrpcExtractionClient;
+import com.ledgerflow.extraction.PageParallelExtractor;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.scheduling.ExtractionScheduler;
+import com.ledgerflow.scheduling.TenantShare;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON response mapping in AiOrchestrationService for invoices of varying size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExtractionMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lineItems;
+
+    private AiOrchestrationService service;
+    private String responseBody;
+
+    @Setup
+    public void setUp() {
+        LedgerFlowMetrics metrics = new LedgerFlowMetrics(new SimpleMeterRegistry(), 16);
+        ExtractionScheduler scheduler = new ExtractionScheduler(tenantId -> new TenantShare(1, 1), metrics, 1, 1,
+                Duration.ZERO, Thread.ofVirtual().factory());
+        service = new AiOrchestrationService(new RestTemplate(), new StructuredInvoiceExtractor(metrics),
+                new PageParallelExtractor(metrics, scheduler, false, 20, 10, 1, 1, false), scheduler,
+                new GrpcExtractionClient("localhost:50051", false, 65536, 30, 16 << 20, 300_000),
+                metrics);
+        responseBody = extractionResponse(lineItems);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseExtractionResponse() throws IOException {
+        return service.parseExtractionResponse(responseBody);
+    }
+
+    static String extractionResponse(int lineItems) {
+        StringBuilder json = new StringBuilder()
+                .append("{\"extracted_data\":{")
+                .append("\"invoice_number\":\"INV-2025-0001\",")
+                .append("\"vendor_name\":\"Acme Office Supplies\",")
+                .append("\"invoice_date\":\"2025-12-28T00:00:00+00:00\",")
+                .append("\"due_date\":\"2026-01-27\",")
+                .append("\"total_amount\":1234.56,")
+                .append("\"currency\":\"USD\",")
+                .append("\"tax_amount\":98.76,")
+                .append("\"shipping_amount\":null,")
+                .append("\"payment_terms\":\"Net 30\",")
+                .append("\"line_items\":[");
+        for (int i = 0; i < lineItems; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"description\":\"Item ").append(i)
+                    .append("\",\"quantity\":2,\"unit_price\":12.5,\"amount\":25.0}");
+        }
+        return json.append("]},\"confidence_score\":0.93,")
+                .append("\"s3_key\":\"tenants/1/invoices/abc.pdf\",")
+                .append("\"s3_url\":null,")
+                .append("\"filename\":\"invoice.pdf\"}")
+                .toString();
+    }
+}
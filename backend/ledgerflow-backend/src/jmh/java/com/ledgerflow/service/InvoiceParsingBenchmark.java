@@ -0,0 +1,43 @@
+package com.ledgerflow.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field parsing used by InvoiceService.createInvoiceFromExtraction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvoiceParsingBenchmark {
+
+    @Param({"2025-12-28", "2025-12-28T00:00:00+00:00"})
+    public String date;
+
+    private final Object doubleAmount = 1234.56d;
+    private final Object stringAmount = "1234.56";
+
+    @Benchmark
+    public LocalDate parseDate() {
+        return InvoiceService.parseDate(date);
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimalFromDouble() {
+        return InvoiceService.parseBigDecimal(doubleAmount);
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimalFromString() {
+        return InvoiceService.parseBigDecimal(stringAmount);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.LedgerFlowApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent Upload Benchmark
+ *
+ * Compares the upload path, which spends most of its time waiting on the
+ * extraction call, in three modes:
+ * - platform: /api/invoices/upload on Tomcat platform threads
+ * - virtual: the same endpoint with {@code spring.threads.virtual.enabled=true}
+ * - reactive: /api/reactive/invoices/upload (WebClient + bounded persist scheduler)
+ * For each mode the backend is started in-process, then {@code --concurrency}
+ * uploads are released at once against an embedded {@link StubExtractionServer}
+ * with a fixed {@code --stub-latency-ms}. With more concurrent uploads than
+ * Tomcat's 200 platform threads, the platform run queues while the other two do
+ * not. Requires Java 21 and the configured datasource:
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.ConcurrentUploadBenchmark \
+ *     -Dloadtest.args="--concurrency=1000 --stub-latency-ms=2000"
+ * </pre>
+ */
+public class ConcurrentUploadBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        int concurrency = 1000;
+        long stubLatencyMs = 2000;
+        int rounds = 3;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "stub-latency-ms" -> stubLatencyMs = Long.parseLong(value);
+                case "rounds" -> rounds = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        List<String> results = new ArrayList<>();
+        try (StubExtractionServer stub = new StubExtractionServer(0,
+                LatencyDistribution.parse("fixed:" + stubLatencyMs), 0.0, 5).start()) {
+            results.add(run("platform", false, "/api/invoices/upload", stub, concurrency, rounds));
+            results.add(run("virtual", true, "/api/invoices/upload", stub, concurrency, rounds));
+            results.add(run("reactive", false, "/api/reactive/invoices/upload", stub, concurrency, rounds));
+        }
+
+        System.out.printf("%n%-10s %12s %10s %10s %8s%n", "mode", "uploads/s", "p50 ms", "p99 ms", "errors");
+        results.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private static String run(String mode, boolean virtual, String path, StubExtractionServer stub,
+                              int concurrency, int rounds) throws Exception {
+        ConfigurableApplicationContext backend = SpringApplication.run(LedgerFlowApplication.class,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--app.ai-orchestration.url=" + stub.baseUrl(),
+                // One tenant drives every upload; lift the per-tenant limits being compared around
+                "--app.rate-limit.enabled=false",
+                "--app.extraction-scheduler.workers=" + concurrency,
+                "--app.extraction-scheduler.default-max-concurrency=" + concurrency,
+                "--app.extraction-scheduler.max-queued-per-tenant=" + concurrency,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.ledgerflow=INFO");
+        try {
+            String target = "http://127.0.0.1:" + ((WebServerApplicationContext) backend).getWebServer().getPort();
+            LedgerFlowClient client = new LedgerFlowClient(target);
+            String user = "cu-" + mode + "-" + Long.toString(System.currentTimeMillis(), 36);
+            LedgerFlowClient.Session session = client.register(user, "loadtest-password", user);
+            byte[] pdf = LoadTestRunner.samplePdf(64 * 1024);
+
+            // Warm-up round so JIT and connection pools are comparable between modes
+            burst(client, session, pdf, path, Math.min(concurrency, 50), new ConcurrentHistogram(3), new AtomicInteger());
+
+            Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(5), 3);
+            AtomicInteger errors = new AtomicInteger();
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                burst(client, session, pdf, path, concurrency, latency, errors);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            return String.format("%-10s %12.1f %10.1f %10.1f %8d", mode,
+                    latency.getTotalCount() / seconds,
+                    latency.getValueAtPercentile(50) / 1e6,
+                    latency.getValueAtPercentile(99) / 1e6,
+                    errors.get());
+        } finally {
+            backend.close();
+        }
+    }
+
+    private static void burst(LedgerFlowClient client, LedgerFlowClient.Session session, byte[] pdf,
+                              String path, int concurrency, Histogram latency, AtomicInteger errors) throws InterruptedException {
+        CountDownLatch go = new CountDownLatch(1);
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                callers.execute(() -> {
+                    try {
+                        go.await();
+                        long start = System.nanoTime();
+                        client.upload(session, pdf, path);
+                        latency.recordValue(System.nanoTime() - start);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                });
+            }
+            go.countDown();
+        }
+    }
+}
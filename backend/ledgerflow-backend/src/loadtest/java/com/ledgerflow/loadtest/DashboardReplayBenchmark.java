@@ -0,0 +1,193 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.LedgerFlowApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Dashboard Replay Benchmark
+ *
+ * Replays the traffic of open invoice dashboards, which mostly re-poll the
+ * invoice list and re-open the same invoices while status changes trickle in,
+ * and compares two clients against the same in-process backend:
+ * - baseline: plain GETs, no validators, identity encoding
+ * - conditional: keeps the last ETag per URL, sends If-None-Match and
+ *   {@code Accept-Encoding: gzip}, and decompresses what it receives
+ * Both passes use the same seeded request mix, so the difference in wire bytes,
+ * 304 ratio and latency comes from the ETag and compression support alone.
+ * Requires Java 21 and the configured datasource:
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.DashboardReplayBenchmark \
+ *     -Dloadtest.args="--invoices=200 --dashboards=20 --requests=500"
+ * </pre>
+ */
+public class DashboardReplayBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        int invoices = 200;
+        int dashboards = 20;
+        int requests = 500;
+        double listShare = 0.7;
+        double writeShare = 0.02;
+        long thinkMs = 0;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "invoices" -> invoices = Integer.parseInt(value);
+                case "dashboards" -> dashboards = Integer.parseInt(value);
+                case "requests" -> requests = Integer.parseInt(value);
+                case "list-share" -> listShare = Double.parseDouble(value);
+                case "write-share" -> writeShare = Double.parseDouble(value);
+                case "think-ms" -> thinkMs = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        List<String> results = new ArrayList<>();
+        try (StubExtractionServer stub = new StubExtractionServer(0,
+                LatencyDistribution.parse("fixed:0"), 0.0, 20).start()) {
+            ConfigurableApplicationContext backend = SpringApplication.run(LedgerFlowApplication.class,
+                    "--server.port=0",
+                    "--app.ai-orchestration.url=" + stub.baseUrl(),
+                    "--app.rate-limit.enabled=false",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.com.ledgerflow=INFO");
+            try {
+                String target = "http://127.0.0.1:" + ((WebServerApplicationContext) backend).getWebServer().getPort();
+                LedgerFlowClient client = new LedgerFlowClient(target);
+                String user = "dr-" + Long.toString(System.currentTimeMillis(), 36);
+                LedgerFlowClient.Session session = client.register(user, "loadtest-password", user);
+                byte[] pdf = LoadTestRunner.samplePdf(16 * 1024);
+                long[] ids = new long[invoices];
+                for (int i = 0; i < invoices; i++) {
+                    ids[i] = client.upload(session, pdf);
+                }
+
+                Replay replay = new Replay(target, client, session, ids, dashboards, requests, listShare, writeShare, thinkMs);
+                // Warm-up pass so JIT and connection pools are comparable between clients
+                replay.run(false, Math.min(requests, 50));
+                results.add(replay.run(false, requests));
+                results.add(replay.run(true, requests));
+            } finally {
+                backend.close();
+            }
+        }
+
+        System.out.printf("%n%-12s %10s %12s %10s %8s %10s %10s %8s%n",
+                "client", "requests", "wire KB", "B/req", "304 %", "p50 ms", "p99 ms", "errors");
+        results.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private record Replay(String target, LedgerFlowClient client, LedgerFlowClient.Session session, long[] ids,
+                          int dashboards, int requests, double listShare, double writeShare, long thinkMs) {
+
+        String run(boolean conditional, int requestsPerDashboard) throws InterruptedException {
+            HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+            AtomicLong wireBytes = new AtomicLong();
+            AtomicInteger reads = new AtomicInteger();
+            AtomicInteger notModified = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+
+            try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int d = 0; d < dashboards; d++) {
+                    Random random = new Random(d);
+                    callers.execute(() -> {
+                        // Each dashboard is one browser tab with its own cache
+                        Map<String, String> eTags = new ConcurrentHashMap<>();
+                        for (int i = 0; i < requestsPerDashboard; i++) {
+                            double roll = random.nextDouble();
+                            long id = ids[random.nextInt(ids.length)];
+                            try {
+                                if (roll < writeShare) {
+                                    client.updateStatus(session, id, random.nextBoolean() ? "APPROVED" : "EXTRACTED");
+                                } else {
+                                    String path = roll < writeShare + listShare
+                                            ? "/api/invoices?tenantId=" + session.tenantId()
+                                            : "/api/invoices/" + id + "?tenantId=" + session.tenantId();
+                                    long start = System.nanoTime();
+                                    HttpResponse<byte[]> response = get(http, path, conditional ? eTags : null);
+                                    latency.recordValue(System.nanoTime() - start);
+                                    wireBytes.addAndGet(response.body().length);
+                                    reads.incrementAndGet();
+                                    if (response.statusCode() == 304) {
+                                        notModified.incrementAndGet();
+                                    } else if (response.statusCode() != 200) {
+                                        errors.incrementAndGet();
+                                    }
+                                }
+                                if (thinkMs > 0) {
+                                    Thread.sleep(thinkMs);
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    });
+                }
+            }
+
+            int total = Math.max(reads.get(), 1);
+            return String.format("%-12s %10d %12.1f %10d %8.1f %10.2f %10.2f %8d",
+                    conditional ? "conditional" : "baseline", reads.get(),
+                    wireBytes.get() / 1024.0,
+                    wireBytes.get() / total,
+                    100.0 * notModified.get() / total,
+                    latency.getValueAtPercentile(50) / 1e6,
+                    latency.getValueAtPercentile(99) / 1e6,
+                    errors.get());
+        }
+
+        private HttpResponse<byte[]> get(HttpClient http, String path, Map<String, String> eTags)
+                throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(target + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + session.token())
+                    .GET();
+            if (eTags != null) {
+                request.header("Accept-Encoding", "gzip");
+                String eTag = eTags.get(path);
+                if (eTag != null) {
+                    request.header("If-None-Match", eTag);
+                }
+            }
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (eTags != null && response.statusCode() == 200) {
+                response.headers().firstValue("ETag").ifPresent(eTag -> eTags.put(path, eTag));
+                // Decode inside the timed section: the browser pays for it too
+                if (response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent()) {
+                    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+                        in.readAllBytes();
+                    }
+                }
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.deadline.Deadline;
+import com.ledgerflow.deadline.DeadlineCandidate;
+import com.ledgerflow.deadline.DeadlineHandler;
+import com.ledgerflow.deadline.DeadlineKind;
+import com.ledgerflow.deadline.DeadlinePolicy;
+import com.ledgerflow.deadline.DeadlineScheduler;
+import com.ledgerflow.deadline.DeadlineStore;
+import com.ledgerflow.deadline.HierarchicalTimingWheel;
+import com.ledgerflow.dto.InvoiceEvent;
+import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deadline Scheduler Check
+ *
+ * Drives the timing wheel and the deadline scheduler with a manual clock,
+ * without a database:
+ * - wheel: {@code --timers} random timers over {@code --horizon-hours}, 10% of
+ *   them cancelled and 10% moved, advanced in random steps; every remaining
+ *   timer must fire exactly once, never before its due time and at the first
+ *   advance past its tick
+ * - scheduler: two nodes share an in-memory store of {@code --invoices}
+ *   invoices (the store's claim plays invoice_deadline_fires) and are driven
+ *   minute by minute over {@code --days}, while node A approves, pays,
+ *   re-dates and extracts invoices and updates only its own wheel. Every
+ *   deadline must fire at most once across both nodes, only while it still
+ *   applies, and every deadline still current at the end must have fired.
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.DeadlineSchedulerCheck \
+ *     -Dloadtest.args="--timers=1000000 --invoices=100000 --days=3"
+ * </pre>
+ */
+public class DeadlineSchedulerCheck {
+
+    private static final long TICK_MS = 1000;
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+
+    public static void main(String[] argv) {
+        int timers = 1_000_000;
+        int invoices = 100_000;
+        int days = 3;
+        int horizonHours = 6;
+        long seed = 42;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "timers" -> timers = Integer.parseInt(value);
+                case "invoices" -> invoices = Integer.parseInt(value);
+                case "days" -> days = Integer.parseInt(value);
+                case "horizon-hours" -> horizonHours = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        boolean ok = checkWheel(timers, Duration.ofHours(horizonHours), new Random(seed));
+        ok &= checkScheduler(invoices, days, Duration.ofHours(horizonHours), new Random(seed));
+        System.out.println(ok ? "\nPASS" : "\nFAIL");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean checkWheel(int timers, Duration horizon, Random random) {
+        long start = 1_700_000_000_123L;
+        HierarchicalTimingWheel<Integer, Integer> wheel = new HierarchicalTimingWheel<>(TICK_MS, 60, start);
+        long[] due = new long[timers];
+        boolean[] live = new boolean[timers];
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < timers; i++) {
+            due[i] = start + 1 + (long) (random.nextDouble() * horizon.toMillis());
+            live[i] = wheel.schedule(i, due[i], i);
+        }
+        double scheduleNs = (System.nanoTime() - begin) / (double) timers;
+        for (int i = 0; i < timers / 10; i++) {
+            int victim = random.nextInt(timers);
+            wheel.cancel(victim);
+            live[victim] = false;
+        }
+        for (int i = 0; i < timers / 10; i++) {
+            int moved = random.nextInt(timers);
+            due[moved] = start + 1 + (long) (random.nextDouble() * horizon.toMillis());
+            live[moved] = wheel.schedule(moved, due[moved], moved);
+        }
+        int levels = wheel.levels();
+
+        int[] fired = new int[timers];
+        AtomicInteger early = new AtomicInteger();
+        AtomicInteger late = new AtomicInteger();
+        long now = start;
+        long end = start + horizon.toMillis() + 2 * TICK_MS;
+        begin = System.nanoTime();
+        while (now < end) {
+            long previous = now;
+            now += 1 + random.nextInt(120_000);
+            long current = now;
+            wheel.advance(current, id -> {
+                fired[id]++;
+                long boundary = Math.ceilDiv(due[id], TICK_MS) * TICK_MS;
+                if (due[id] > current) {
+                    early.incrementAndGet();
+                } else if (boundary <= previous) {
+                    late.incrementAndGet();
+                }
+            });
+        }
+        double advanceMs = (System.nanoTime() - begin) / 1e6;
+
+        int missing = 0;
+        int duplicate = 0;
+        int stray = 0;
+        for (int i = 0; i < timers; i++) {
+            if (live[i] && fired[i] == 0) {
+                missing++;
+            } else if (fired[i] > 1) {
+                duplicate++;
+            } else if (!live[i] && fired[i] > 0) {
+                stray++;
+            }
+        }
+        boolean ok = missing == 0 && duplicate == 0 && stray == 0 && early.get() == 0 && late.get() == 0
+                && wheel.size() == 0;
+        System.out.printf("wheel: %d timers, %d levels, schedule %.0f ns/op, drain %.0f ms%n",
+                timers, levels, scheduleNs, advanceMs);
+        System.out.printf("  missing=%d duplicate=%d cancelled-but-fired=%d early=%d late=%d left=%d -> %s%n",
+                missing, duplicate, stray, early.get(), late.get(), wheel.size(), ok ? "ok" : "FAILED");
+        return ok;
+    }
+
+    private static boolean checkScheduler(int invoiceCount, int days, Duration horizon, Random random) {
+        ManualClock clock = new ManualClock(LocalDate.of(2026, 3, 1).atStartOfDay(ZONE).toInstant());
+        DeadlinePolicy policy = new DeadlinePolicy(3, 30);
+        SharedStore store = new SharedStore(policy, clock);
+        LocalDate today = LocalDate.now(clock);
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (long id = 1; id <= invoiceCount; id++) {
+            InvoiceStatus status = random.nextInt(10) < 6 ? InvoiceStatus.APPROVED
+                    : random.nextBoolean() ? InvoiceStatus.EXTRACTED : InvoiceStatus.PAID;
+            store.put(new DeadlineCandidate(id, id % 50, status, today.plusDays(random.nextInt(120) - 10),
+                    now.minusMinutes(random.nextInt(600))));
+        }
+
+        Map<String, AtomicInteger> handled = new ConcurrentHashMap<>();
+        AtomicInteger invalid = new AtomicInteger();
+        DeadlineHandler recorder = new DeadlineHandler() {
+            @Override
+            public boolean supports(DeadlineKind kind) {
+                return true;
+            }
+
+            @Override
+            public void handle(Deadline deadline) {
+                handled.computeIfAbsent(id(deadline), key -> new AtomicInteger()).incrementAndGet();
+                Optional<Deadline> current = store.current(deadline.tenantId(), deadline.invoiceId(),
+                        deadline.kind());
+                if (current.isEmpty() || !current.get().dueAt().equals(deadline.dueAt())
+                        || deadline.dueAt().isAfter(LocalDateTime.now(clock))) {
+                    invalid.incrementAndGet();
+                }
+            }
+        };
+
+        Duration refresh = Duration.ofMinutes(15);
+        Duration catchUp = Duration.ofHours(24);
+        DeadlineScheduler nodeA = node(store, policy, recorder, clock, horizon, catchUp, refresh);
+        DeadlineScheduler nodeB = node(store, policy, recorder, clock, horizon, catchUp, refresh);
+        int maxScheduled = 0;
+        int changes = 0;
+        long begin = System.nanoTime();
+        long minutes = Duration.ofDays(days).toMinutes();
+        for (long minute = 0; minute <= minutes; minute++) {
+            if (minute % refresh.toMinutes() == 0) {
+                nodeA.refresh();
+                nodeB.refresh();
+            }
+            for (int i = 0; i < 20; i++) {
+                changes++;
+                nodeA.onInvoiceEvent(change(store, 1 + random.nextInt(invoiceCount), random,
+                        LocalDateTime.now(clock)));
+            }
+            nodeA.tick();
+            nodeB.tick();
+            maxScheduled = Math.max(maxScheduled, Math.max(nodeA.scheduled(), nodeB.scheduled()));
+            clock.advance(Duration.ofMinutes(1));
+        }
+        double runSeconds = (System.nanoTime() - begin) / 1e9;
+
+        // Every deadline that still applies and was due before the end must have fired exactly once
+        LocalDateTime end = LocalDateTime.now(clock).minusMinutes(2);
+        LocalDateTime startedAt = end.minusDays(days).plusMinutes(2);
+        int missing = 0;
+        int expected = 0;
+        for (DeadlineCandidate invoice : store.invoices.values()) {
+            for (Deadline deadline : policy.deadlinesOf(invoice)) {
+                if (deadline.dueAt().isAfter(end) || deadline.dueAt().isBefore(startedAt.minus(catchUp))) {
+                    continue;
+                }
+                expected++;
+                if (!handled.containsKey(id(deadline))) {
+                    missing++;
+                }
+            }
+        }
+        long duplicates = handled.values().stream().filter(count -> count.get() > 1).count();
+        boolean ok = missing == 0 && duplicates == 0 && invalid.get() == 0;
+        System.out.printf("%nscheduler: %d invoices, %d days, %d changes on node A, %.1f s%n",
+                invoiceCount, days, changes, runSeconds);
+        System.out.printf("  fired=%d (both nodes) claims lost to the other node=%d peak wheel size=%d%n",
+                handled.size(), store.lostClaims.get(), maxScheduled);
+        System.out.printf("  expected=%d missing=%d duplicate=%d fired-while-obsolete=%d -> %s%n",
+                expected, missing, duplicates, invalid.get(), ok ? "ok" : "FAILED");
+        return ok;
+    }
+
+    private static DeadlineScheduler node(DeadlineStore store, DeadlinePolicy policy, DeadlineHandler handler,
+                                          Clock clock, Duration horizon, Duration catchUp, Duration refresh) {
+        return new DeadlineScheduler(store, policy, List.of(handler),
+                new LedgerFlowMetrics(new SimpleMeterRegistry(), 16), clock, Runnable::run, TICK_MS, 60,
+                horizon, catchUp, refresh, Thread.ofPlatform().daemon().factory());
+    }
+
+    /**
+     * Apply a random invoice change to the store (the commit) and return its event.
+     */
+    private static InvoiceEvent change(SharedStore store, long id, Random random, LocalDateTime now) {
+        DeadlineCandidate invoice = store.invoices.get(id);
+        InvoiceStatus previous = invoice.status();
+        LocalDate dueDate = invoice.dueDate();
+        InvoiceStatus status = switch (random.nextInt(5)) {
+            case 0 -> InvoiceStatus.APPROVED;
+            case 1 -> InvoiceStatus.PAID;
+            case 2 -> {
+                dueDate = now.toLocalDate().plusDays(random.nextInt(10) - 2);
+                yield previous;
+            }
+            case 3 -> InvoiceStatus.EXTRACTING;
+            default -> InvoiceStatus.EXTRACTED;
+        };
+        // The event is stamped just after the write, like InvoiceService's
+        store.put(new DeadlineCandidate(id, invoice.tenantId(), status, dueDate, now));
+        return new InvoiceEvent(InvoiceEvent.Type.STATUS_CHANGED, invoice.tenantId(), id, null, status, previous,
+                dueDate, now.plusNanos(500_000));
+    }
+
+    private static String id(Deadline deadline) {
+        return deadline.invoiceId() + "/" + deadline.kind() + "/" + deadline.dueAt();
+    }
+
+    /**
+     * The invoices table and invoice_deadline_fires, shared by both nodes.
+     */
+    private static final class SharedStore implements DeadlineStore {
+        private final Map<Long, DeadlineCandidate> invoices = new HashMap<>();
+        private final Set<String> fired = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger lostClaims = new AtomicInteger();
+        private final DeadlinePolicy policy;
+        private final Clock clock;
+
+        SharedStore(DeadlinePolicy policy, Clock clock) {
+            this.policy = policy;
+            this.clock = clock;
+        }
+
+        void put(DeadlineCandidate invoice) {
+            invoices.put(invoice.invoiceId(), invoice);
+        }
+
+        @Override
+        public List<Deadline> load(LocalDateTime from, LocalDateTime to) {
+            List<Deadline> deadlines = new ArrayList<>();
+            for (DeadlineCandidate invoice : invoices.values()) {
+                for (Deadline deadline : policy.deadlinesOf(invoice)) {
+                    if (!deadline.dueAt().isBefore(from) && !deadline.dueAt().isAfter(to)
+                            && !fired.contains(id(deadline))) {
+                        deadlines.add(deadline);
+                    }
+                }
+            }
+            return deadlines;
+        }
+
+        @Override
+        public Optional<Deadline> current(long tenantId, long invoiceId, DeadlineKind kind) {
+            DeadlineCandidate invoice = invoices.get(invoiceId);
+            return invoice == null ? Optional.empty() : policy.deadlineOf(invoice, kind);
+        }
+
+        @Override
+        public boolean claim(Deadline deadline, LocalDateTime firedAt) {
+            if (fired.add(id(deadline))) {
+                return true;
+            }
+            lostClaims.incrementAndGet();
+            return false;
+        }
+
+        @Override
+        public int purgeFired(LocalDateTime before) {
+            // Kept for the final check
+            return 0;
+        }
+    }
+
+    private static final class ManualClock extends Clock {
+        private final AtomicLong millis;
+
+        ManualClock(Instant start) {
+            this.millis = new AtomicLong(start.toEpochMilli());
+        }
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.einvoice.StructuredInvoiceExtractor;
+import com.ledgerflow.extraction.GrpcExtractionClient;
+import com.ledgerflow.extraction.PageParallelExtractor;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.scheduling.ExtractionScheduler;
+import com.ledgerflow.scheduling.TenantShare;
+import com.ledgerflow.service.AiOrchestrationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Extraction Transport Benchmark
+ *
+ * Sends the same uploads through AiOrchestrationService.extractInvoice with
+ * {@code app.ai-orchestration.transport} set to http (multipart POST, JSON
+ * response) and to grpc (chunked stream over one HTTP/2 channel, protobuf
+ * result), against the in-process {@link StubExtractionServer} and
+ * {@link GrpcStubExtractionServer}. With a zero stub latency the difference is
+ * transport overhead: framing, parsing and connections. The transports must
+ * also produce the same extraction result. Needs no database:
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.ExtractionTransportBenchmark \
+ *     -Dloadtest.args="--concurrency=64 --requests=5000 --pdf-kb=256 --line-items=20"
+ * </pre>
+ */
+public class ExtractionTransportBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        int concurrency = 64;
+        int requests = 5000;
+        int pdfKb = 256;
+        int lineItems = 20;
+        long stubLatencyMs = 0;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "requests" -> requests = Integer.parseInt(value);
+                case "pdf-kb" -> pdfKb = Integer.parseInt(value);
+                case "line-items" -> lineItems = Integer.parseInt(value);
+                case "stub-latency-ms" -> stubLatencyMs = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        byte[] pdf = LoadTestRunner.samplePdf(pdfKb * 1024);
+        LatencyDistribution latency = LatencyDistribution.parse("fixed:" + stubLatencyMs);
+        List<String> results = new ArrayList<>();
+        try (StubExtractionServer httpStub = new StubExtractionServer(0, latency, 0.0, lineItems).start();
+             GrpcStubExtractionServer grpcStub = new GrpcStubExtractionServer(0, latency, 0.0, lineItems).start()) {
+            GrpcExtractionClient grpcClient = new GrpcExtractionClient(grpcStub.target(), false, 65536, 30,
+                    16 << 20, 60_000);
+            try {
+                AiOrchestrationService http = service(httpStub.baseUrl(), "http", grpcClient, concurrency);
+                AiOrchestrationService grpc = service(httpStub.baseUrl(), "grpc", grpcClient, concurrency);
+
+                Map<String, Object> viaHttp = http.extractInvoice(upload(pdf), "1");
+                Map<String, Object> viaGrpc = grpc.extractInvoice(upload(pdf), "1");
+                System.out.println("Same extraction result: " + sameShape(viaHttp, viaGrpc));
+
+                // Warm-up so JIT and connections are comparable between transports
+                run("http", http, pdf, concurrency, Math.min(requests, 500));
+                run("grpc", grpc, pdf, concurrency, Math.min(requests, 500));
+                results.add(run("http", http, pdf, concurrency, requests));
+                results.add(run("grpc", grpc, pdf, concurrency, requests));
+            } finally {
+                grpcClient.shutdown();
+            }
+        }
+
+        System.out.printf("%n%-6s %12s %10s %10s %8s%n", "mode", "calls/s", "p50 ms", "p99 ms", "errors");
+        results.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private static AiOrchestrationService service(String url, String transport, GrpcExtractionClient grpcClient,
+                                                  int concurrency) {
+        LedgerFlowMetrics metrics = new LedgerFlowMetrics(new SimpleMeterRegistry(), 16);
+        java.net.http.HttpClient httpClient = java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ExtractionScheduler scheduler = new ExtractionScheduler(tenantId -> new TenantShare(1, concurrency), metrics,
+                concurrency, concurrency, Duration.ZERO, Thread.ofVirtual().factory());
+        AiOrchestrationService service = new AiOrchestrationService(
+                new RestTemplate(new JdkClientHttpRequestFactory(httpClient)),
+                new StructuredInvoiceExtractor(metrics),
+                new PageParallelExtractor(metrics, scheduler, false, 20, 10, 1, 1, false),
+                scheduler, grpcClient, metrics);
+        ReflectionTestUtils.setField(service, "aiOrchestrationUrl", url);
+        ReflectionTestUtils.setField(service, "transport", transport);
+        return service;
+    }
+
+    private static MockMultipartFile upload(byte[] pdf) {
+        return new MockMultipartFile("file", "invoice.pdf", "application/pdf", pdf);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean sameShape(Map<String, Object> a, Map<String, Object> b) {
+        Map<String, Object> dataA = (Map<String, Object>) a.get("extracted_data");
+        Map<String, Object> dataB = (Map<String, Object>) b.get("extracted_data");
+        // These derive from each stub's own sequence number; everything else must match
+        for (String key : List.of("invoice_number", "vendor_name", "invoice_date", "due_date")) {
+            dataA.remove(key);
+            dataB.remove(key);
+        }
+        return dataA.equals(dataB) && a.get("confidence_score").equals(b.get("confidence_score"));
+    }
+
+    private static String run(String mode, AiOrchestrationService service, byte[] pdf, int concurrency,
+                              int requests) throws InterruptedException {
+        Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        long start;
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                callers.execute(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    while (remaining.getAndDecrement() > 0) {
+                        long begin = System.nanoTime();
+                        try {
+                            service.extractInvoice(upload(pdf), "1");
+                            latency.recordValue(System.nanoTime() - begin);
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start = System.nanoTime();
+            go.countDown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return String.format("%-6s %12.1f %10.2f %10.2f %8d", mode,
+                latency.getTotalCount() / seconds,
+                latency.getValueAtPercentile(50) / 1e6,
+                latency.getValueAtPercentile(99) / 1e6,
+                errors.get());
+    }
+}
@@ -0,0 +1,126 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.scheduling.ExtractionScheduler;
+import com.ledgerflow.scheduling.TenantShare;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fair Scheduling Benchmark
+ *
+ * Shows what a bulk load does to another tenant's upload latency. Tenant 1
+ * submits {@code --bulk} extractions at once; meanwhile tenant 2 submits one
+ * every {@code --interactive-interval-ms} until the bulk load has drained.
+ * Each extraction sleeps {@code --service-ms}. The same workload runs twice on
+ * {@code --workers} workers:
+ * - fifo: one shared queue, the behaviour before ExtractionScheduler
+ * - fair: ExtractionScheduler, with tenant 1 capped at {@code --bulk-cap}
+ * No backend or database is needed:
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.FairSchedulingBenchmark \
+ *     -Dloadtest.args="--bulk=5000 --workers=64 --service-ms=20"
+ * </pre>
+ */
+public class FairSchedulingBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        int bulk = 5000;
+        int workers = 64;
+        long serviceMs = 20;
+        long interactiveIntervalMs = 50;
+        int bulkCap = 64;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "bulk" -> bulk = Integer.parseInt(value);
+                case "workers" -> workers = Integer.parseInt(value);
+                case "service-ms" -> serviceMs = Long.parseLong(value);
+                case "interactive-interval-ms" -> interactiveIntervalMs = Long.parseLong(value);
+                case "bulk-cap" -> bulkCap = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        ExecutorService fifoPool = Executors.newFixedThreadPool(workers);
+        Scheduler fifo = new Scheduler() {
+            @Override
+            public <T> T call(long tenantId, Callable<T> work) throws Exception {
+                return fifoPool.submit(work).get();
+            }
+        };
+        String fifoResult = run("fifo", fifo, bulk, serviceMs, interactiveIntervalMs);
+        fifoPool.shutdownNow();
+
+        int cap = bulkCap;
+        int workerCount = workers;
+        ExtractionScheduler scheduler = new ExtractionScheduler(
+                tenantId -> new TenantShare(1, tenantId == 1L ? cap : workerCount),
+                new LedgerFlowMetrics(new SimpleMeterRegistry(), 16), workers, bulk, Duration.ofMinutes(5),
+                Thread.ofPlatform().name("extraction-worker-", 0).daemon().factory());
+        String fairResult = run("fair", new Scheduler() {
+            @Override
+            public <T> T call(long tenantId, Callable<T> work) throws Exception {
+                return scheduler.call(tenantId, work);
+            }
+        }, bulk, serviceMs, interactiveIntervalMs);
+        scheduler.shutdown();
+
+        System.out.printf("%n%-6s %14s %12s %12s %12s%n", "mode", "bulk drain ms", "int. p50 ms", "int. p99 ms",
+                "int. max ms");
+        System.out.println(fifoResult);
+        System.out.println(fairResult);
+        System.exit(0);
+    }
+
+    private interface Scheduler {
+        <T> T call(long tenantId, Callable<T> work) throws Exception;
+    }
+
+    private static String run(String mode, Scheduler scheduler, int bulk, long serviceMs, long intervalMs)
+            throws Exception {
+        Callable<Boolean> extraction = () -> {
+            Thread.sleep(serviceMs);
+            return true;
+        };
+        Histogram interactive = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(10), 3);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            List<Future<?>> bulkCalls = new ArrayList<>(bulk);
+            for (int i = 0; i < bulk; i++) {
+                bulkCalls.add(callers.submit(() -> scheduler.call(1L, extraction)));
+            }
+            List<Future<?>> interactiveCalls = new ArrayList<>();
+            while (bulkCalls.stream().anyMatch(call -> !call.isDone())) {
+                interactiveCalls.add(callers.submit(() -> {
+                    long submitted = System.nanoTime();
+                    scheduler.call(2L, extraction);
+                    interactive.recordValue(System.nanoTime() - submitted);
+                    return null;
+                }));
+                Thread.sleep(intervalMs);
+            }
+            long drainMs = (System.nanoTime() - start) / 1_000_000;
+            for (Future<?> call : interactiveCalls) {
+                call.get();
+            }
+            return String.format("%-6s %14d %12.1f %12.1f %12.1f", mode, drainMs,
+                    interactive.getValueAtPercentile(50) / 1e6, interactive.getValueAtPercentile(99) / 1e6,
+                    interactive.getMaxValue() / 1e6);
+        }
+    }
+}
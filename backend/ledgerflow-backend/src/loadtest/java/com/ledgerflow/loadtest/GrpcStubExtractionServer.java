@@ -0,0 +1,164 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.extraction.grpc.ExtractByKeyRequest;
+import com.ledgerflow.extraction.grpc.ExtractRequest;
+import com.ledgerflow.extraction.grpc.ExtractResponse;
+import com.ledgerflow.extraction.grpc.ExtractionResult;
+import com.ledgerflow.extraction.grpc.InvoiceData;
+import com.ledgerflow.extraction.grpc.InvoiceExtractionGrpc;
+import com.ledgerflow.extraction.grpc.LineItem;
+import com.ledgerflow.extraction.grpc.Progress;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the orchestration service's gRPC endpoint.
+ *
+ * The gRPC counterpart of {@link StubExtractionServer}: consumes the streamed
+ * document, waits a delay drawn from a {@link LatencyDistribution}, then sends
+ * RECEIVED and FIELDS_EXTRACTED progress followed by a result with the same
+ * content as the HTTP stub's JSON. A configurable fraction of calls fails with
+ * INTERNAL.
+ */
+public class GrpcStubExtractionServer implements AutoCloseable {
+
+    private final Server server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final int lineItems;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public GrpcStubExtractionServer(int port, LatencyDistribution latency, double errorRate, int lineItems) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.lineItems = lineItems;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .executor(executor)
+                .addService(new Service())
+                .build();
+    }
+
+    public GrpcStubExtractionServer start() throws IOException {
+        server.start();
+        return this;
+    }
+
+    public String target() {
+        return "127.0.0.1:" + server.getPort();
+    }
+
+    private final class Service extends InvoiceExtractionGrpc.InvoiceExtractionImplBase {
+
+        @Override
+        public StreamObserver<ExtractRequest> extract(StreamObserver<ExtractResponse> responses) {
+            return new StreamObserver<>() {
+                private String filename = "stub.pdf";
+
+                @Override
+                public void onNext(ExtractRequest request) {
+                    // Chunks are consumed and dropped, like the HTTP stub's request body
+                    if (request.hasHeader()) {
+                        filename = request.getHeader().getFilename();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    // Client cancelled; nothing to answer
+                }
+
+                @Override
+                public void onCompleted() {
+                    respond(responses, filename, null);
+                }
+            };
+        }
+
+        @Override
+        public void extractByKey(ExtractByKeyRequest request, StreamObserver<ExtractResponse> responses) {
+            respond(responses, request.getStorageKey(), request.getStorageKey());
+        }
+    }
+
+    private void respond(StreamObserver<ExtractResponse> responses, String filename, String storageKey) {
+        responses.onNext(progress(Progress.Stage.RECEIVED, 0.1f));
+        try {
+            Thread.sleep(Math.max(0, latency.nextMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            responses.onError(Status.INTERNAL.withDescription("Simulated extraction failure").asRuntimeException());
+            return;
+        }
+        responses.onNext(progress(Progress.Stage.FIELDS_EXTRACTED, 0.9f));
+        ExtractionResult.Builder result = extractionResult(sequence.incrementAndGet(), lineItems).toBuilder()
+                .setFilename(filename);
+        if (storageKey != null) {
+            result.setStorageKey(storageKey);
+        }
+        responses.onNext(ExtractResponse.newBuilder().setResult(result).build());
+        responses.onCompleted();
+    }
+
+    private static ExtractResponse progress(Progress.Stage stage, float fraction) {
+        return ExtractResponse.newBuilder()
+                .setProgress(Progress.newBuilder().setStage(stage).setFraction(fraction))
+                .build();
+    }
+
+    static ExtractionResult extractionResult(long sequence, int lineItems) {
+        LocalDate invoiceDate = LocalDate.now().minusDays(sequence % 60);
+        InvoiceData.Builder invoice = InvoiceData.newBuilder()
+                .setInvoiceNumber("STUB-" + sequence)
+                .setVendorName("Stub Vendor " + sequence % 50)
+                .setInvoiceDate(invoiceDate + "T00:00:00+00:00")
+                .setDueDate(invoiceDate.plusDays(30).toString())
+                .setTotalAmount(lineItems * 25.0)
+                .setCurrency("USD")
+                .setPaymentTerms("Net 30");
+        for (int i = 0; i < lineItems; i++) {
+            invoice.addLineItems(LineItem.newBuilder()
+                    .setDescription("Stub item " + i)
+                    .setQuantity(2)
+                    .setUnitPrice(12.5)
+                    .setAmount(25.0));
+        }
+        return ExtractionResult.newBuilder()
+                .setInvoice(invoice)
+                .setConfidenceScore(0.9)
+                .setFilename("stub.pdf")
+                .build();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run the stub on its own, e.g. to point a separately started backend at it
+     * with {@code app.ai-orchestration.transport=grpc}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        GrpcStubExtractionServer stub = new GrpcStubExtractionServer(config.stubPort == 0 ? 50051 : config.stubPort,
+                LatencyDistribution.parse(config.stubLatency), config.stubErrorRate, config.stubLineItems).start();
+        System.out.println("gRPC stub extraction service listening on " + stub.target());
+        stub.server.awaitTermination();
+    }
+}
@@ -0,0 +1,345 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.LedgerFlowApplication;
+import com.ledgerflow.archive.ArchivedInvoices;
+import com.ledgerflow.archive.InvoiceArchiver;
+import com.ledgerflow.archive.InvoicePartitions;
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Invoice Partitioning Check
+ *
+ * Runs InvoicePartitions and InvoiceArchiver against a real PostgreSQL: an
+ * embedded server (binaries from Maven Central, no Docker) unless
+ * {@code --jdbc-url} names an empty database. The backend starts in-process
+ * with partitioning off, so Hibernate creates the plain tables, and
+ * {@code --months} months of {@code --invoices-per-month} invoices (three line
+ * items each) are inserted, all PAID except one open invoice in the oldest
+ * month. Then, checking rows (count and hash sum), the id sequences, indexes
+ * and foreign keys (to tenants, and line items to invoices) after each step:
+ * - convert=partition
+ * - convert=revert, and back to partitioned
+ * - an archive pass while a writer holds an open transaction on a current
+ *   invoice for longer than the lock timeout: the writer must not block on
+ *   the export or deadlock, and the pass gives up without leaving files
+ * - an archive pass while a writer commits during the pass: every closed
+ *   month past the retention is archived, the open month stays, archived
+ *   invoices read back through ArchivedInvoices
+ * - convert=revert is refused once months are archived
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.InvoicePartitioningCheck \
+ *     -Dloadtest.args="--months=16 --invoices-per-month=200"
+ * </pre>
+ */
+public class InvoicePartitioningCheck {
+
+    private static final int RETENTION_MONTHS = 12;
+    private static final long LOCK_TIMEOUT_MS = 1000;
+
+    public static void main(String[] argv) throws Exception {
+        String jdbcUrl = null;
+        String username = "postgres";
+        String password = "postgres";
+        int months = 16;
+        int invoicesPerMonth = 200;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "jdbc-url" -> jdbcUrl = value;
+                case "username" -> username = value;
+                case "password" -> password = value;
+                case "months" -> months = Integer.parseInt(value);
+                case "invoices-per-month" -> invoicesPerMonth = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (months <= RETENTION_MONTHS + 1) {
+            throw new IllegalArgumentException("--months must exceed " + (RETENTION_MONTHS + 1));
+        }
+
+        EmbeddedPostgres embedded = null;
+        if (jdbcUrl == null) {
+            embedded = EmbeddedPostgres.builder().start();
+            jdbcUrl = embedded.getJdbcUrl(username, "postgres");
+        }
+        Path archiveRoot = Files.createTempDirectory("invoice-archive");
+        boolean ok;
+        // Devtools would restart main() with the backend's arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try {
+            ConfigurableApplicationContext backend = SpringApplication.run(LedgerFlowApplication.class,
+                    "--server.port=0",
+                    "--management.server.port=0",
+                    "--spring.datasource.url=" + jdbcUrl,
+                    "--spring.datasource.username=" + username,
+                    "--spring.datasource.password=" + password,
+                    "--spring.jpa.hibernate.ddl-auto=update",
+                    "--spring.jpa.show-sql=false",
+                    "--app.partitioning.enabled=false",
+                    "--app.partitioning.archive.root=" + archiveRoot,
+                    "--logging.level.com.ledgerflow=INFO");
+            try {
+                ok = new Run(backend, jdbcUrl, username, password, archiveRoot, months, invoicesPerMonth).run();
+            } finally {
+                backend.close();
+            }
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+        System.out.println(ok ? "Invoice partitioning check passed" : "Invoice partitioning check FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static final class Run {
+        private final DataSource dataSource;
+        private final String jdbcUrl;
+        private final String username;
+        private final String password;
+        private final JdbcTemplate jdbc;
+        private final PlatformTransactionManager transactionManager;
+        private final ArchivedInvoices archivedInvoices;
+        private final Path archiveRoot;
+        private final int months;
+        private final int invoicesPerMonth;
+        private final Shards shards = new Shards(Map.of(), Map.of());
+        private final LedgerFlowMetrics metrics = new LedgerFlowMetrics(new SimpleMeterRegistry(), 16);
+        private boolean ok = true;
+
+        Run(ConfigurableApplicationContext backend, String jdbcUrl, String username, String password, Path archiveRoot,
+            int months, int invoicesPerMonth) {
+            this.dataSource = backend.getBean(DataSource.class);
+            this.jdbcUrl = jdbcUrl;
+            this.username = username;
+            this.password = password;
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.transactionManager = backend.getBean(PlatformTransactionManager.class);
+            this.archivedInvoices = backend.getBean(ArchivedInvoices.class);
+            this.archiveRoot = archiveRoot;
+            this.months = months;
+            this.invoicesPerMonth = invoicesPerMonth;
+        }
+
+        boolean run() throws Exception {
+            long tenantId = seed();
+            String rows = rowHash();
+            check("plain tables after seeding", !partitioned());
+
+            partitions("partition").start();
+            check("partitioned", partitioned());
+            checkLayout(rows, "after partitioning");
+            check("line items carry their invoice's created_at", Boolean.FALSE.equals(jdbc.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM invoice_line_items li JOIN invoices i ON i.id = li.invoice_id"
+                    + " WHERE li.invoice_created_at IS DISTINCT FROM i.created_at)", Boolean.class)));
+
+            partitions("revert").start();
+            check("plain after revert", !partitioned());
+            checkLayout(rows, "after revert");
+
+            partitions("partition").start();
+            check("partitioned again", partitioned());
+            checkLayout(rows, "after partitioning again");
+
+            YearMonth oldest = YearMonth.now().minusMonths(months - 1);
+            YearMonth cutoff = YearMonth.now().minusMonths(RETENTION_MONTHS);
+            long archivable = Stream.iterate(oldest.plusMonths(1), month -> month.isBefore(cutoff),
+                    month -> month.plusMonths(1)).count();
+            InvoiceArchiver archiver = archiver();
+            Long current = jdbc.queryForObject("SELECT max(id) FROM invoices", Long.class);
+            Long other = jdbc.queryForObject("SELECT max(id) FROM invoices WHERE id < ?", Long.class, current);
+
+            // A writer holds its transaction open past the lock timeout: the pass exports, then gives up
+            try (Connection writer = DriverManager.getConnection(jdbcUrl, username, password)) {
+                writer.setAutoCommit(false);
+                update(writer, current);
+                long started = System.nanoTime();
+                archiver.run();
+                long passMs = (System.nanoTime() - started) / 1_000_000;
+                update(writer, other);
+                writer.commit();
+                System.out.printf("Archive pass behind an open writer: %d ms%n", passMs);
+            }
+            check("nothing archived while a writer held the tables", archives() == 0
+                    && monthPartitions() == months + 3);
+            check("no archive files left behind", files() == 0);
+
+            // A writer commits while the pass runs: the pass waits for it, then archives
+            try (Connection writer = DriverManager.getConnection(jdbcUrl, username, password)) {
+                writer.setAutoCommit(false);
+                update(writer, current);
+                CompletableFuture<Void> pass = CompletableFuture.runAsync(archiver::run);
+                // Once the pass queues for the parent tables' locks, the writer goes on and commits
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                while (!waitingForLock() && System.nanoTime() < deadline) {
+                    Thread.sleep(5);
+                }
+                update(writer, other);
+                writer.commit();
+                pass.get(60, TimeUnit.SECONDS);
+            }
+            check(archivable + " months archived", archives() == archivable);
+            check("archive files written", files() == 2 * archivable);
+            check("open month kept", Boolean.TRUE.equals(jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL",
+                    Boolean.class, InvoicePartitions.partitionName(InvoicePartitions.INVOICES, oldest))));
+            check("archived months detached", monthPartitions() == months + 3 - archivable);
+            Long archivedCount = jdbc.queryForObject("SELECT sum(invoice_count) FROM invoice_archives", Long.class);
+            Long live = jdbc.queryForObject("SELECT count(*) FROM invoices", Long.class);
+            check("archived plus live invoices add up", archivedCount != null
+                    && archivedCount + live == (long) months * invoicesPerMonth);
+
+            Long archivedId = jdbc.queryForObject("SELECT min_invoice_id FROM invoice_archives"
+                    + " ORDER BY range_from LIMIT 1", Long.class);
+            Optional<Invoice> archived = archivedInvoices.find(archivedId, tenantId);
+            check("archived invoice reads back with its line items", archived.isPresent()
+                    && archived.get().isArchived() && archived.get().getLineItems().size() == 3);
+            check("archived invoice hidden from other tenants", archivedInvoices.find(archivedId, tenantId + 1).isEmpty());
+
+            try {
+                partitions("revert").start();
+                check("revert refused once archived", false);
+            } catch (IllegalStateException e) {
+                check("revert refused once archived", partitioned());
+            }
+            return ok;
+        }
+
+        private long seed() {
+            jdbc.update("INSERT INTO tenants (name, slug, active, created_at) VALUES ('Partitioning', 'partitioning',"
+                    + " true, now())");
+            long tenantId = jdbc.queryForObject("SELECT id FROM tenants WHERE slug = 'partitioning'", Long.class);
+            LocalDateTime first = YearMonth.now().minusMonths(months - 1).atDay(1).atStartOfDay();
+            List<Object[]> invoices = new ArrayList<>();
+            for (int month = 0; month < months; month++) {
+                for (int i = 0; i < invoicesPerMonth; i++) {
+                    LocalDateTime created = first.plusMonths(month).plusMinutes(10L * i + 1);
+                    String status = month == 0 && i == 0 ? "PENDING" : "PAID";
+                    invoices.add(new Object[]{"INV-" + month + "-" + i, "Vendor " + (i % 17),
+                            created.toLocalDate(), 100 + i, status, tenantId, Timestamp.valueOf(created)});
+                }
+            }
+            jdbc.batchUpdate("INSERT INTO invoices (invoice_number, vendor_name, invoice_date, total_amount, currency,"
+                    + " status, tenant_id, created_at, updated_at) VALUES (?, ?, ?, ?, 'EUR', ?, ?, ?, ?)",
+                    invoices.stream().map(row -> new Object[]{row[0], row[1], row[2], row[3], row[4], row[5], row[6],
+                            row[6]}).toList());
+            // Left NULL as by rows from before the partition key column: conversion fills it in
+            jdbc.update("INSERT INTO invoice_line_items (description, quantity, unit_price, amount, invoice_id)"
+                    + " SELECT 'Item ' || n, n, 10, 10 * n, i.id FROM invoices i, generate_series(1, 3) n");
+            return tenantId;
+        }
+
+        private void checkLayout(String rows, String step) {
+            check("rows unchanged " + step, rows.equals(rowHash()));
+            check("tenant foreign key " + step, foreignKey("invoices", "tenants"));
+            check("line item foreign key " + step, foreignKey("invoice_line_items", "invoices"));
+            check("secondary indexes " + step, Boolean.TRUE.equals(jdbc.queryForObject(
+                    "SELECT to_regclass('idx_invoices_tenant_status') IS NOT NULL", Boolean.class)));
+            Long max = jdbc.queryForObject("SELECT max(id) FROM invoices", Long.class);
+            Long next = jdbc.queryForObject("INSERT INTO invoices (invoice_number, vendor_name, invoice_date,"
+                    + " total_amount, currency, status, tenant_id, created_at) SELECT 'SEQ', 'Vendor', current_date, 1,"
+                    + " 'EUR', 'PAID', id, now() FROM tenants WHERE slug = 'partitioning' RETURNING id", Long.class);
+            check("id sequence continues " + step, next != null && max != null && next > max);
+            jdbc.update("DELETE FROM invoices WHERE id = ?", next);
+            try {
+                jdbc.update("INSERT INTO invoices (invoice_number, vendor_name, invoice_date, total_amount, currency,"
+                        + " status, tenant_id, created_at) VALUES ('FK', 'Vendor', current_date, 1, 'EUR', 'PAID',"
+                        + " -1, now())");
+                check("unknown tenant rejected " + step, false);
+            } catch (RuntimeException e) {
+                check("unknown tenant rejected " + step, true);
+            }
+        }
+
+        private InvoicePartitions partitions(String conversion) {
+            return new InvoicePartitions(jdbc, transactionManager, shards, 3, conversion);
+        }
+
+        private InvoiceArchiver archiver() {
+            return new InvoiceArchiver(partitions("none"), dataSource, transactionManager, shards, metrics, 60, true,
+                    RETENTION_MONTHS, archiveRoot.toString(), 64, LOCK_TIMEOUT_MS);
+        }
+
+        private boolean partitioned() {
+            return "p".equals(jdbc.queryForObject("SELECT relkind::text FROM pg_class WHERE oid = 'invoices'::regclass",
+                    String.class));
+        }
+
+        /**
+         * Line items without invoice_created_at, which the conversion fills in.
+         */
+        private String rowHash() {
+            return jdbc.queryForObject("SELECT (SELECT count(*) || ':' || sum(hashtext(to_jsonb(t)::text))"
+                    + " FROM invoices t) || '/' || (SELECT count(*) || ':'"
+                    + " || sum(hashtext((to_jsonb(t) - 'invoice_created_at')::text)) FROM invoice_line_items t)",
+                    String.class);
+        }
+
+        private boolean foreignKey(String table, String referenced) {
+            return Boolean.TRUE.equals(jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_constraint"
+                    + " WHERE conrelid = ?::regclass AND confrelid = ?::regclass AND contype = 'f')",
+                    Boolean.class, table, referenced));
+        }
+
+        private boolean waitingForLock() {
+            return Boolean.TRUE.equals(jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_locks WHERE NOT granted)",
+                    Boolean.class));
+        }
+
+        private long archives() {
+            return jdbc.queryForObject("SELECT count(*) FROM invoice_archives", Long.class);
+        }
+
+        private long monthPartitions() {
+            return jdbc.queryForObject("SELECT count(*) FROM pg_inherits WHERE inhparent = 'invoices'::regclass"
+                    + " AND inhrelid::regclass::text <> 'invoices_default'", Long.class);
+        }
+
+        private long files() throws Exception {
+            try (Stream<Path> files = Files.walk(archiveRoot)) {
+                return files.filter(Files::isRegularFile).count();
+            }
+        }
+
+        private static void update(Connection writer, Long id) throws SQLException {
+            try (Statement statement = writer.createStatement()) {
+                statement.executeUpdate("UPDATE invoices SET payment_terms = 'NET30' WHERE id = " + id);
+            }
+        }
+
+        private void check(String what, boolean passed) {
+            System.out.printf("%-60s %s%n", what, passed ? "ok" : "FAILED");
+            ok &= passed;
+        }
+    }
+}
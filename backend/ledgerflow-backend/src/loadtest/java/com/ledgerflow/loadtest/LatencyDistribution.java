@@ -0,0 +1,36 @@
+package com.ledgerflow.loadtest;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency distribution for the stub extraction service, parsed from a spec:
+ * - {@code fixed:2000}           always 2000 ms
+ * - {@code uniform:500:3000}     uniform between 500 and 3000 ms
+ * - {@code lognormal:1500:0.6}   log-normal with median 1500 ms and sigma 0.6 (long tail)
+ */
+public interface LatencyDistribution {
+
+    long nextMillis();
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.toLowerCase(Locale.ROOT).split(":");
+        switch (parts[0]) {
+            case "fixed" -> {
+                long millis = Long.parseLong(parts[1]);
+                return () -> millis;
+            }
+            case "uniform" -> {
+                long min = Long.parseLong(parts[1]);
+                long max = Long.parseLong(parts[2]);
+                return () -> ThreadLocalRandom.current().nextLong(min, max + 1);
+            }
+            case "lognormal" -> {
+                double mu = Math.log(Double.parseDouble(parts[1]));
+                double sigma = Double.parseDouble(parts[2]);
+                return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ledgerflow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Minimal HTTP client for the backend endpoints exercised by the load test.
+ * Uses the Bearer token from the auth response rather than the cookie.
+ */
+public class LedgerFlowClient {
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    public LedgerFlowClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    public record Session(String token, long tenantId) { }
+
+    public Session register(String username, String password, String tenantSlug) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "username", username,
+                "password", password,
+                "email", username + "@loadtest.local",
+                "tenantName", "Load Test " + tenantSlug,
+                "tenantSlug", tenantSlug));
+        JsonNode json = send(HttpRequest.newBuilder(uri("/api/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)), 201);
+        return new Session(json.get("token").asText(), json.get("tenantId").asLong());
+    }
+
+    public Session login(String username, String password) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("username", username, "password", password));
+        JsonNode json = send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)), 200);
+        return new Session(json.get("token").asText(), json.get("tenantId").asLong());
+    }
+
+    public long upload(Session session, byte[] pdf) throws IOException, InterruptedException {
+        return upload(session, pdf, "/api/invoices/upload");
+    }
+
+    public long upload(Session session, byte[] pdf, String path) throws IOException, InterruptedException {
+        String boundary = "----ledgerflow-" + UUID.randomUUID();
+        JsonNode json = send(authorized(session, path)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, session.tenantId(), pdf))), 201);
+        return json.get("id").asLong();
+    }
+
+    public int list(Session session) throws IOException, InterruptedException {
+        JsonNode json = send(authorized(session, "/api/invoices?tenantId=" + session.tenantId()).GET(), 200);
+        return json.size();
+    }
+
+    public void updateStatus(Session session, long invoiceId, String status) throws IOException, InterruptedException {
+        send(authorized(session, "/api/invoices/" + invoiceId + "/status?tenantId=" + session.tenantId()
+                + "&status=" + status).PUT(HttpRequest.BodyPublishers.noBody()), 200);
+    }
+
+    private HttpRequest.Builder authorized(Session session, String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + session.token());
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private JsonNode send(HttpRequest.Builder request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(request.timeout(Duration.ofSeconds(60)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus) {
+            throw new IOException("Unexpected HTTP " + response.statusCode() + " from " + response.uri());
+        }
+        byte[] body = response.body();
+        return body.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(body);
+    }
+
+    private static byte[] multipart(String boundary, long tenantId, byte[] pdf) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pdf.length + 512);
+        out.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"tenantId\"\r\n\r\n"
+                + tenantId + "\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"loadtest.pdf\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.write(pdf);
+        out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,64 @@
+package com.ledgerflow.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code --key=value} arguments.
+ */
+public class LoadTestConfig {
+
+    /** Backend base URL; when absent the backend is started in-process. */
+    final String target;
+    /** New register -> login -> upload -> list -> status flows started per second. */
+    final double rate;
+    final Duration duration;
+    final Duration warmup;
+    final int maxConcurrency;
+    final int uploadsPerFlow;
+    final int pdfSizeBytes;
+
+    final int stubPort;
+    final String stubLatency;
+    final double stubErrorRate;
+    final int stubLineItems;
+
+    final String reportFile;
+    final String baselineFile;
+    /** Allowed relative p99/throughput regression against the baseline. */
+    final double tolerance;
+
+    LoadTestConfig(Map<String, String> args) {
+        this.target = args.get("target");
+        this.rate = Double.parseDouble(args.getOrDefault("rate", "5"));
+        this.duration = Duration.ofSeconds(Long.parseLong(args.getOrDefault("duration-seconds", "60")));
+        this.warmup = Duration.ofSeconds(Long.parseLong(args.getOrDefault("warmup-seconds", "10")));
+        this.maxConcurrency = Integer.parseInt(args.getOrDefault("max-concurrency", "256"));
+        this.uploadsPerFlow = Integer.parseInt(args.getOrDefault("uploads-per-flow", "1"));
+        this.pdfSizeBytes = Integer.parseInt(args.getOrDefault("pdf-size-bytes", "204800"));
+        this.stubPort = Integer.parseInt(args.getOrDefault("stub-port", "0"));
+        this.stubLatency = args.getOrDefault("stub-latency", "lognormal:1500:0.5");
+        this.stubErrorRate = Double.parseDouble(args.getOrDefault("stub-error-rate", "0.0"));
+        this.stubLineItems = Integer.parseInt(args.getOrDefault("stub-line-items", "10"));
+        this.reportFile = args.getOrDefault("report", "target/loadtest-report.json");
+        this.baselineFile = args.get("baseline");
+        this.tolerance = Double.parseDouble(args.getOrDefault("tolerance", "0.10"));
+    }
+
+    static LoadTestConfig fromArgs(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                args.put(arg.substring(2), "true");
+            } else {
+                args.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return new LoadTestConfig(args);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ledgerflow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-endpoint HdrHistogram latencies and error counts, with a JSON report that
+ * can be compared against a previous run.
+ */
+public class LoadTestReport {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private final AtomicLong droppedFlows = new AtomicLong();
+    private volatile boolean recording;
+
+    void startRecording() {
+        recording = true;
+    }
+
+    void stopRecording() {
+        recording = false;
+    }
+
+    void recordSuccess(String endpoint, long nanos) {
+        if (recording) {
+            histogram(endpoint).recordValue(Math.min(nanos, MAX_TRACKABLE_NANOS));
+        }
+    }
+
+    void recordError(String endpoint) {
+        if (recording) {
+            errors.computeIfAbsent(endpoint, e -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    void recordDroppedFlow() {
+        if (recording) {
+            droppedFlows.incrementAndGet();
+        }
+    }
+
+    private Histogram histogram(String endpoint) {
+        return latencies.computeIfAbsent(endpoint, e -> new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3));
+    }
+
+    Map<String, Object> summarize(double durationSeconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(latencies.keySet());
+        errors.keySet().stream().filter(name -> !names.contains(name)).forEach(names::add);
+        names.sort(null);
+        for (String name : names) {
+            Histogram histogram = latencies.getOrDefault(name, new Histogram(3));
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getTotalCount());
+            stats.put("errors", errors.getOrDefault(name, new AtomicLong()).get());
+            stats.put("throughputPerSec", round(histogram.getTotalCount() / durationSeconds));
+            stats.put("meanMs", toMillis(histogram.getMean()));
+            stats.put("p50Ms", toMillis(histogram.getValueAtPercentile(50)));
+            stats.put("p90Ms", toMillis(histogram.getValueAtPercentile(90)));
+            stats.put("p99Ms", toMillis(histogram.getValueAtPercentile(99)));
+            stats.put("p999Ms", toMillis(histogram.getValueAtPercentile(99.9)));
+            stats.put("maxMs", toMillis(histogram.getMaxValue()));
+            endpoints.put(name, stats);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("durationSeconds", durationSeconds);
+        summary.put("droppedFlows", droppedFlows.get());
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+
+    static void print(Map<String, Object> summary) {
+        System.out.printf("%n%-10s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) summary.get("endpoints");
+        endpoints.forEach((name, stats) -> System.out.printf("%-10s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                name, stats.get("count"), stats.get("errors"), stats.get("throughputPerSec"),
+                stats.get("p50Ms"), stats.get("p90Ms"), stats.get("p99Ms"), stats.get("p999Ms"), stats.get("maxMs")));
+        System.out.printf("dropped flows (harness saturated): %s%n", summary.get("droppedFlows"));
+    }
+
+    static void write(Map<String, Object> summary, String file) throws IOException {
+        File target = new File(file);
+        if (target.getParentFile() != null) {
+            target.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(target, summary);
+    }
+
+    /**
+     * Compare p99 latency and throughput per endpoint with a baseline report.
+     *
+     * @return descriptions of regressions beyond the tolerance (empty if none)
+     */
+    static List<String> compare(Map<String, Object> summary, String baselineFile, double tolerance) throws IOException {
+        JsonNode baseline = new ObjectMapper().readTree(new File(baselineFile)).get("endpoints");
+        JsonNode current = new ObjectMapper().valueToTree(summary).get("endpoints");
+        List<String> regressions = new ArrayList<>();
+        baseline.fieldNames().forEachRemaining(name -> {
+            JsonNode before = baseline.get(name);
+            JsonNode after = current.get(name);
+            if (after == null) {
+                regressions.add(name + ": missing from this run");
+                return;
+            }
+            double p99Before = before.get("p99Ms").asDouble();
+            double p99After = after.get("p99Ms").asDouble();
+            if (p99After > p99Before * (1 + tolerance)) {
+                regressions.add(String.format("%s: p99 %.1f ms -> %.1f ms", name, p99Before, p99After));
+            }
+            double tputBefore = before.get("throughputPerSec").asDouble();
+            double tputAfter = after.get("throughputPerSec").asDouble();
+            if (tputAfter < tputBefore * (1 - tolerance)) {
+                regressions.add(String.format("%s: throughput %.2f/s -> %.2f/s", name, tputBefore, tputAfter));
+            }
+        });
+        return regressions;
+    }
+
+    private static double toMillis(double nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,177 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.LedgerFlowApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load Test Runner
+ *
+ * Open-model load generator: starts {@code --rate} register -> login -> upload ->
+ * list -> status flows per second for {@code --duration-seconds}, regardless of how
+ * fast earlier flows complete. The first request of each flow is timed from its
+ * scheduled start, so queueing inside the harness or backend is not hidden
+ * (coordinated omission).
+ *
+ * Without {@code --target} the backend is started in-process against the
+ * configured datasource, with the AI orchestration URL pointed at an embedded
+ * {@link StubExtractionServer}. Run with:
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.args="--rate=10 --duration-seconds=120 --stub-latency=lognormal:1500:0.5"
+ * </pre>
+ * Exits non-zero when {@code --baseline} is given and p99 or throughput regress
+ * beyond {@code --tolerance}.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        int exitCode;
+        try (StubExtractionServer stub = new StubExtractionServer(config.stubPort,
+                LatencyDistribution.parse(config.stubLatency), config.stubErrorRate, config.stubLineItems).start()) {
+            ConfigurableApplicationContext backend = null;
+            String target = config.target;
+            if (target == null) {
+                backend = SpringApplication.run(LedgerFlowApplication.class,
+                        "--server.port=0",
+                        "--app.ai-orchestration.url=" + stub.baseUrl(),
+                        "--app.rate-limit.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.ledgerflow=INFO");
+                target = "http://127.0.0.1:" + ((WebServerApplicationContext) backend).getWebServer().getPort();
+            } else {
+                System.out.println("Using external backend " + target
+                        + "; point its app.ai-orchestration.url at " + stub.baseUrl());
+            }
+            try {
+                exitCode = new LoadTestRunner(config, new LedgerFlowClient(target)).run();
+            } finally {
+                if (backend != null) {
+                    backend.close();
+                }
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private final LoadTestConfig config;
+    private final LedgerFlowClient client;
+    private final LoadTestReport report = new LoadTestReport();
+    private final AtomicLong flowSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final byte[] pdf;
+
+    LoadTestRunner(LoadTestConfig config, LedgerFlowClient client) {
+        this.config = config;
+        this.client = client;
+        this.pdf = samplePdf(config.pdfSizeBytes);
+    }
+
+    int run() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService workers = Executors.newCachedThreadPool();
+        Semaphore inFlight = new Semaphore(config.maxConcurrency);
+        long periodNanos = (long) (1_000_000_000L / config.rate);
+
+        scheduler.scheduleAtFixedRate(() -> {
+            long intendedStart = System.nanoTime();
+            if (!inFlight.tryAcquire()) {
+                report.recordDroppedFlow();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    runFlow(intendedStart);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        System.out.printf("Warming up for %ds at %.1f flows/s%n", config.warmup.toSeconds(), config.rate);
+        Thread.sleep(config.warmup.toMillis());
+        report.startRecording();
+        long measureStart = System.nanoTime();
+        System.out.printf("Measuring for %ds%n", config.duration.toSeconds());
+        Thread.sleep(config.duration.toMillis());
+        report.stopRecording();
+        double measuredSeconds = (System.nanoTime() - measureStart) / 1e9;
+
+        scheduler.shutdownNow();
+        workers.shutdown();
+        workers.awaitTermination(2, TimeUnit.MINUTES);
+
+        Map<String, Object> summary = report.summarize(measuredSeconds);
+        LoadTestReport.print(summary);
+        LoadTestReport.write(summary, config.reportFile);
+        System.out.println("Report written to " + config.reportFile);
+
+        if (config.baselineFile != null) {
+            List<String> regressions = LoadTestReport.compare(summary, config.baselineFile, config.tolerance);
+            if (!regressions.isEmpty()) {
+                System.out.println("Regressions against " + config.baselineFile + ":");
+                regressions.forEach(r -> System.out.println("  " + r));
+                return 1;
+            }
+            System.out.println("No regressions against " + config.baselineFile);
+        }
+        return 0;
+    }
+
+    private void runFlow(long intendedStart) {
+        long n = flowSequence.incrementAndGet();
+        String username = "lt-" + runId + "-" + n;
+        String password = "loadtest-password";
+        try {
+            timed("register", intendedStart, () -> client.register(username, password, "lt-" + runId + "-" + n));
+            LedgerFlowClient.Session session = timed("login", System.nanoTime(), () -> client.login(username, password));
+            long invoiceId = -1;
+            for (int i = 0; i < config.uploadsPerFlow; i++) {
+                invoiceId = timed("upload", System.nanoTime(), () -> client.upload(session, pdf));
+            }
+            timed("list", System.nanoTime(), () -> client.list(session));
+            long approvedId = invoiceId;
+            timed("status", System.nanoTime(), () -> {
+                client.updateStatus(session, approvedId, "APPROVED");
+                return null;
+            });
+        } catch (Exception e) {
+            // Already counted against the failing endpoint; abandon the rest of the flow
+        }
+    }
+
+    private <T> T timed(String endpoint, long startNanos, Step<T> step) throws Exception {
+        try {
+            T result = step.call();
+            report.recordSuccess(endpoint, System.nanoTime() - startNanos);
+            return result;
+        } catch (Exception e) {
+            report.recordError(endpoint);
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step<T> {
+        T call() throws Exception;
+    }
+
+    static byte[] samplePdf(int size) {
+        byte[] bytes = new byte[Math.max(size, 16)];
+        new Random(42).nextBytes(bytes);
+        byte[] header = "%PDF-1.4\n".getBytes();
+        System.arraycopy(header, 0, bytes, 0, header.length);
+        return bytes;
+    }
+}
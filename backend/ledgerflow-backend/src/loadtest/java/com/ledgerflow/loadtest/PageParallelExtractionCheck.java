@@ -0,0 +1,244 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.extraction.PageChunk;
+import com.ledgerflow.extraction.PageParallelExtractor;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.scheduling.ExtractionScheduler;
+import com.ledgerflow.scheduling.TenantShare;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Page-Parallel Extraction Check
+ *
+ * Exercises the split/merge stage without the AI service or a database. A
+ * synthetic multi-page bill is generated with PDFBox: header on page 1,
+ * "Brought forward" / "Carried forward" subtotal rows on every page break, and
+ * the grand total on the last page. A page-aware stub stands in for
+ * /extract-invoice: it reads the chunk's text back, returns the same JSON shape
+ * (reporting the carried-forward figure as the chunk "total", as a model would),
+ * and sleeps {@code --page-latency-ms} per page.
+ *
+ * For each of {@code --tenants} concurrent tenants the bill is extracted once
+ * unsplit and once page-parallel. The run checks that the merged line items
+ * and total match the generated ones, and that in-flight chunks never exceeded
+ * the per-tenant and global bounds:
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.PageParallelExtractionCheck \
+ *     -Dloadtest.args="--pages=60 --items-per-page=25 --tenants=3"
+ * </pre>
+ */
+public class PageParallelExtractionCheck {
+
+    private static final Pattern ITEM = Pattern.compile(
+            "^(.+?) qty (\\S+) unit (\\S+) amount (\\S+)$", Pattern.MULTILINE);
+    private static final Pattern HEADER = Pattern.compile("^(Invoice number|Vendor|Invoice date|Total|Tax): (.+)$",
+            Pattern.MULTILINE);
+    private static final BigDecimal UNIT_PRICE = new BigDecimal("12.50");
+
+    private final AtomicInteger globalInFlight = new AtomicInteger();
+    private final AtomicInteger globalPeak = new AtomicInteger();
+    private final Map<Long, AtomicInteger> tenantInFlight = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> tenantPeak = new ConcurrentHashMap<>();
+    private final long pageLatencyMs;
+
+    PageParallelExtractionCheck(long pageLatencyMs) {
+        this.pageLatencyMs = pageLatencyMs;
+    }
+
+    public static void main(String[] argv) throws Exception {
+        int pages = 60;
+        int itemsPerPage = 25;
+        int pagesPerChunk = 10;
+        int tenants = 3;
+        int perTenant = 4;
+        int global = 8;
+        long pageLatencyMs = 50;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "pages" -> pages = Integer.parseInt(value);
+                case "items-per-page" -> itemsPerPage = Integer.parseInt(value);
+                case "pages-per-chunk" -> pagesPerChunk = Integer.parseInt(value);
+                case "tenants" -> tenants = Integer.parseInt(value);
+                case "per-tenant" -> perTenant = Integer.parseInt(value);
+                case "global" -> global = Integer.parseInt(value);
+                case "page-latency-ms" -> pageLatencyMs = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        File pdf = File.createTempFile("paged-invoice_", ".pdf");
+        pdf.deleteOnExit();
+        BigDecimal expectedTotal = writeBill(pdf, pages, itemsPerPage);
+        int expectedItems = pages * itemsPerPage;
+
+        PageParallelExtractionCheck check = new PageParallelExtractionCheck(pageLatencyMs);
+        LedgerFlowMetrics metrics = new LedgerFlowMetrics(new SimpleMeterRegistry(), 16);
+        ExtractionScheduler scheduler = new ExtractionScheduler(tenantId -> new TenantShare(1, 1), metrics,
+                1, 1, Duration.ZERO, Thread.ofVirtual().factory());
+        PageParallelExtractor extractor = new PageParallelExtractor(metrics, scheduler, true, 2, pagesPerChunk,
+                global, perTenant, false);
+
+        // Unsplit baseline: the whole document in one stub call
+        long start = System.nanoTime();
+        byte[] whole = java.nio.file.Files.readAllBytes(pdf.toPath());
+        check.stubExtract(new PageChunk(1, pages, pdf.getName(), whole), 0L);
+        long sequentialMs = (System.nanoTime() - start) / 1_000_000;
+
+        ExecutorService callers = Executors.newFixedThreadPool(tenants);
+        List<Future<Map<String, Object>>> results = new ArrayList<>();
+        start = System.nanoTime();
+        for (int t = 1; t <= tenants; t++) {
+            long tenantId = t;
+            results.add(callers.submit(() -> extractor.extract(pdf, pdf.getName(), tenantId,
+                    chunk -> check.stubExtract(chunk, tenantId)).orElseThrow()));
+        }
+        boolean ok = true;
+        for (Future<Map<String, Object>> future : results) {
+            Map<?, ?> data = (Map<?, ?>) future.get().get("extracted_data");
+            int items = ((List<?>) data.get("line_items")).size();
+            BigDecimal total = new BigDecimal(data.get("total_amount").toString());
+            boolean match = items == expectedItems && total.compareTo(expectedTotal) == 0
+                    && "PAGED-0001".equals(data.get("invoice_number"));
+            ok &= match;
+            System.out.printf("merged: %d line items (expected %d), total %s (expected %s), number %s -> %s%n",
+                    items, expectedItems, total, expectedTotal, data.get("invoice_number"), match ? "OK" : "MISMATCH");
+        }
+        long parallelMs = (System.nanoTime() - start) / 1_000_000;
+        callers.shutdown();
+        extractor.shutdown();
+
+        int worstTenantPeak = check.tenantPeak.values().stream().mapToInt(AtomicInteger::get).max().orElse(0);
+        boolean bounded = worstTenantPeak <= perTenant && check.globalPeak.get() <= global;
+        System.out.printf("%nunsplit (1 tenant):      %6d ms%n", sequentialMs);
+        System.out.printf("page-parallel (%d tenants): %6d ms%n", tenants, parallelMs);
+        System.out.printf("peak in-flight chunks: per tenant %d (limit %d), global %d (limit %d) -> %s%n",
+                worstTenantPeak, perTenant, check.globalPeak.get(), global, bounded ? "OK" : "EXCEEDED");
+        System.exit(ok && bounded ? 0 : 1);
+    }
+
+    /**
+     * Stand-in for /extract-invoice: reads the chunk's text and answers like the model would.
+     */
+    private Map<String, Object> stubExtract(PageChunk chunk, long tenantId) throws IOException {
+        AtomicInteger tenant = tenantInFlight.computeIfAbsent(tenantId, id -> new AtomicInteger());
+        tenantPeak.computeIfAbsent(tenantId, id -> new AtomicInteger())
+                .accumulateAndGet(tenant.incrementAndGet(), Math::max);
+        globalPeak.accumulateAndGet(globalInFlight.incrementAndGet(), Math::max);
+        try {
+            String text;
+            int pages;
+            try (PDDocument document = Loader.loadPDF(chunk.pdf())) {
+                pages = document.getNumberOfPages();
+                text = new PDFTextStripper().getText(document);
+            }
+            Thread.sleep(pageLatencyMs * pages);
+
+            Map<String, Object> data = new HashMap<>();
+            Matcher header = HEADER.matcher(text);
+            while (header.find()) {
+                switch (header.group(1)) {
+                    case "Invoice number" -> data.put("invoice_number", header.group(2).trim());
+                    case "Vendor" -> data.put("vendor_name", header.group(2).trim());
+                    case "Invoice date" -> data.put("invoice_date", header.group(2).trim());
+                    case "Total" -> data.put("total_amount", Double.parseDouble(header.group(2).trim()));
+                    default -> data.put("tax_amount", Double.parseDouble(header.group(2).trim()));
+                }
+            }
+            List<Map<String, Object>> lineItems = new ArrayList<>();
+            Matcher item = ITEM.matcher(text);
+            while (item.find()) {
+                lineItems.add(Map.of(
+                        "description", item.group(1).trim(),
+                        "quantity", Double.parseDouble(item.group(2)),
+                        "unit_price", Double.parseDouble(item.group(3)),
+                        "amount", Double.parseDouble(item.group(4))));
+            }
+            // Without a printed total, a model reports the last subtotal it saw
+            if (!data.containsKey("total_amount") && !lineItems.isEmpty()) {
+                data.put("total_amount", lineItems.get(lineItems.size() - 1).get("amount"));
+            }
+            data.put("currency", "USD");
+            data.put("line_items", lineItems);
+            return Map.of("extracted_data", data, "confidence_score", 0.9, "filename", chunk.filename());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            tenant.decrementAndGet();
+            globalInFlight.decrementAndGet();
+        }
+    }
+
+    private static BigDecimal writeBill(File target, int pages, int itemsPerPage) throws IOException {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        BigDecimal running = BigDecimal.ZERO;
+        try (PDDocument document = new PDDocument()) {
+            int line = 0;
+            for (int p = 1; p <= pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                List<String> lines = new ArrayList<>();
+                if (p == 1) {
+                    lines.add("Invoice number: PAGED-0001");
+                    lines.add("Vendor: Metro Telecom");
+                    lines.add("Invoice date: 2025-11-01");
+                } else {
+                    lines.add("Brought forward qty 1 unit " + running + " amount " + running);
+                }
+                for (int i = 0; i < itemsPerPage; i++) {
+                    line++;
+                    BigDecimal quantity = BigDecimal.valueOf(line % 4 + 1);
+                    BigDecimal amount = UNIT_PRICE.multiply(quantity);
+                    running = running.add(amount);
+                    lines.add("Call charges line " + line + " qty " + quantity + " unit " + UNIT_PRICE
+                            + " amount " + amount);
+                }
+                if (p < pages) {
+                    lines.add("Carried forward qty 1 unit " + running + " amount " + running);
+                } else {
+                    lines.add("Total: " + running);
+                }
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 7);
+                    content.setLeading(9);
+                    content.newLineAtOffset(36, 760);
+                    for (String text : lines) {
+                        content.showText(text);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(target);
+        }
+        return running;
+    }
+}
@@ -0,0 +1,410 @@
+package com.ledgerflow.loadtest;
+
+import com.ledgerflow.reconciliation.BankTransaction;
+import com.ledgerflow.reconciliation.Camt053StatementReader;
+import com.ledgerflow.reconciliation.CsvStatementReader;
+import com.ledgerflow.reconciliation.MatchType;
+import com.ledgerflow.reconciliation.OpenInvoice;
+import com.ledgerflow.reconciliation.ReconciliationEngine;
+import com.ledgerflow.reconciliation.StatementReadResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Reconciliation Check
+ *
+ * Runs the statement readers and ReconciliationEngine on synthetic data,
+ * without a database:
+ * - {@code --invoices} open invoices from {@code --vendors} vendors (EUR and
+ *   USD, random amounts, plus recurring same-amount invoices per vendor)
+ * - a CSV statement of {@code --transactions} entries written to a temp
+ *   file: payments quoting the invoice number (in varying spellings), payments
+ *   naming only the vendor, payments with a mistyped number and a
+ *   decorated vendor name, incoming credits, and payments of nothing open
+ * The file is streamed through CsvStatementReader into the engine and every
+ * proposal is checked against the invoice the entry was generated for.
+ * Reports build, read+match and finish times and per-pass precision/recall.
+ * The first {@code --camt-entries} entries are also written as CAMT.053 and
+ * must read back identical to the CSV.
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.ReconciliationCheck \
+ *     -Dloadtest.args="--invoices=1000000 --transactions=1000000"
+ * </pre>
+ */
+public class ReconciliationCheck {
+
+    private static final String[] SYLLABLES = {"ac", "me", "no", "va", "tek", "lin", "so", "ra", "bel", "gro",
+            "mar", "ti", "zen", "dor", "ka", "lu", "pri", "sto", "vik", "wen"};
+    private static final String[] LEGAL_FORMS = {"GmbH", "Ltd", "Inc.", "AG", "S.A.", "B.V.", "LLC"};
+    private static final LocalDate BASE_DATE = LocalDate.of(2026, 1, 1);
+
+    public static void main(String[] argv) throws Exception {
+        int invoiceCount = 1_000_000;
+        int transactionCount = 1_000_000;
+        int vendorCount = 20_000;
+        int camtEntries = 10_000;
+        double maxSeconds = 30;
+        long seed = 42;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "invoices" -> invoiceCount = Integer.parseInt(value);
+                case "transactions" -> transactionCount = Integer.parseInt(value);
+                case "vendors" -> vendorCount = Integer.parseInt(value);
+                case "camt-entries" -> camtEntries = Integer.parseInt(value);
+                case "max-seconds" -> maxSeconds = Double.parseDouble(value);
+                case "seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        Random random = new Random(seed);
+        String[] vendors = vendors(vendorCount, random);
+        List<OpenInvoice> invoices = invoices(invoiceCount, vendors, random);
+        Path csv = Files.createTempFile("statement", ".csv");
+        Path camt = Files.createTempFile("statement", ".xml");
+        try {
+            Scenario scenario = writeStatement(csv, invoices, transactionCount, random);
+            boolean ok = checkCamt(csv, camt, camtEntries);
+            ok &= checkMatching(csv, invoices, scenario, maxSeconds);
+            System.out.println(ok ? "\nPASS" : "\nFAIL");
+            System.exit(ok ? 0 : 1);
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(camt);
+        }
+    }
+
+    private enum Kind {
+        REFERENCE, VENDOR_ONLY, TYPO, CREDIT, NOISE
+    }
+
+    /**
+     * Expected invoice id per generated entry (0 = none), and the entry's kind.
+     */
+    private record Scenario(long[] expected, Kind[] kinds) {
+    }
+
+    private static boolean checkMatching(Path csv, List<OpenInvoice> invoices, Scenario scenario,
+                                         double maxSeconds) throws IOException {
+        ReconciliationEngine engine = new ReconciliationEngine(0.6, 256, 60);
+        Map<Kind, int[]> outcome = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            outcome.put(kind, new int[3]); // correct, wrong, unmatched
+        }
+        Map<MatchType, int[]> byType = new EnumMap<>(MatchType.class);
+        for (MatchType type : MatchType.values()) {
+            byType.put(type, new int[2]); // correct, wrong
+        }
+        long[] wrongToOtherInvoice = new long[1];
+
+        System.gc();
+        long begin = System.nanoTime();
+        ReconciliationEngine.Session session = engine.start(invoices, match -> {
+            int entry = Integer.parseInt(match.transaction().transactionRef().substring(1));
+            long expected = scenario.expected()[entry];
+            int[] counts = outcome.get(scenario.kinds()[entry]);
+            if (!match.matched()) {
+                counts[2]++;
+                return;
+            }
+            boolean correct = match.invoice().id() == expected;
+            counts[correct ? 0 : 1]++;
+            byType.get(match.type())[correct ? 0 : 1]++;
+            if (!correct && expected != 0) {
+                wrongToOtherInvoice[0]++;
+            }
+        });
+        long built = System.nanoTime();
+        StatementReadResult read;
+        try (InputStream in = Files.newInputStream(csv)) {
+            read = CsvStatementReader.read(in, "EUR", session::add);
+        }
+        long streamed = System.nanoTime();
+        ReconciliationEngine.Summary summary = session.finish();
+        long finished = System.nanoTime();
+
+        double buildSeconds = (built - begin) / 1e9;
+        double streamSeconds = (streamed - built) / 1e9;
+        double finishSeconds = (finished - streamed) / 1e9;
+        double total = (finished - begin) / 1e9;
+        System.out.printf(Locale.ROOT, "%n%,d invoices x %,d statement entries (%,d rejected)%n",
+                invoices.size(), read.entries(), read.rejected());
+        System.out.printf(Locale.ROOT, "  index build        %6.2f s%n", buildSeconds);
+        System.out.printf(Locale.ROOT, "  read + pass 1      %6.2f s  (%,.0f entries/s)%n", streamSeconds,
+                read.entries() / streamSeconds);
+        System.out.printf(Locale.ROOT, "  passes 2 + 3       %6.2f s%n", finishSeconds);
+        System.out.printf(Locale.ROOT, "  total              %6.2f s%n", total);
+        System.out.printf(Locale.ROOT, "  summary: %s%n", summary);
+
+        System.out.printf(Locale.ROOT, "%n  %-12s %10s %10s %10s%n", "entries", "correct", "wrong", "unmatched");
+        for (Map.Entry<Kind, int[]> entry : outcome.entrySet()) {
+            int[] c = entry.getValue();
+            System.out.printf(Locale.ROOT, "  %-12s %,10d %,10d %,10d%n", entry.getKey(), c[0], c[1], c[2]);
+        }
+        System.out.printf(Locale.ROOT, "%n  %-14s %10s %10s %10s%n", "proposals", "correct", "wrong", "precision");
+        long correctTotal = 0;
+        long proposed = 0;
+        for (Map.Entry<MatchType, int[]> entry : byType.entrySet()) {
+            int[] c = entry.getValue();
+            correctTotal += c[0];
+            proposed += c[0] + c[1];
+            System.out.printf(Locale.ROOT, "  %-14s %,10d %,10d %9.4f%n", entry.getKey(), c[0], c[1],
+                    c[0] + c[1] == 0 ? 1.0 : c[0] / (double) (c[0] + c[1]));
+        }
+        long matchable = 0;
+        for (Kind kind : List.of(Kind.REFERENCE, Kind.VENDOR_ONLY, Kind.TYPO)) {
+            int[] c = outcome.get(kind);
+            matchable += c[0] + c[1] + c[2];
+        }
+        double precision = proposed == 0 ? 1 : correctTotal / (double) proposed;
+        double recall = matchable == 0 ? 1 : correctTotal / (double) matchable;
+        System.out.printf(Locale.ROOT, "%n  precision %.4f, recall %.4f (%,d proposals, %,d paying an invoice"
+                + " other than the generated one)%n", precision, recall, proposed, wrongToOtherInvoice[0]);
+
+        boolean ok = true;
+        if (read.rejected() != 0) {
+            System.out.println("  FAIL: rejected entries, first: " + read.firstError());
+            ok = false;
+        }
+        if (outcome.get(Kind.REFERENCE)[0] != sum(outcome.get(Kind.REFERENCE))) {
+            System.out.println("  FAIL: not every payment quoting its invoice number was matched to it");
+            ok = false;
+        }
+        if (precision < 0.99 || recall < 0.95) {
+            System.out.println("  FAIL: precision must be >= 0.99 and recall >= 0.95");
+            ok = false;
+        }
+        if (total > maxSeconds) {
+            System.out.printf(Locale.ROOT, "  FAIL: %.2f s exceeds --max-seconds=%.0f%n", total, maxSeconds);
+            ok = false;
+        }
+        return ok;
+    }
+
+    /**
+     * Write the first {@code entries} CSV rows as a CAMT.053 statement and
+     * require both readers to produce the same transactions.
+     */
+    private static boolean checkCamt(Path csv, Path camt, int entries) throws Exception {
+        List<BankTransaction> fromCsv = new ArrayList<>(entries);
+        try (InputStream in = Files.newInputStream(csv)) {
+            CsvStatementReader.read(in, "EUR", transaction -> {
+                if (fromCsv.size() < entries) {
+                    fromCsv.add(transaction);
+                }
+            });
+        }
+        try (Writer out = Files.newBufferedWriter(camt, StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\"><BkToCstmrStmt>"
+                    + "<GrpHdr><MsgId>CHECK</MsgId></GrpHdr><Stmt><Id>1</Id><Acct><Id><IBAN>DE00</IBAN></Id></Acct>\n");
+            for (BankTransaction t : fromCsv) {
+                String amount = String.format(Locale.ROOT, "%d.%02d", t.amountCents() / 100, t.amountCents() % 100);
+                String party = t.debit() ? "Cdtr" : "Dbtr";
+                out.write("<Ntry><Amt Ccy=\"" + t.currency() + "\">" + amount + "</Amt><CdtDbtInd>"
+                        + (t.debit() ? "DBIT" : "CRDT") + "</CdtDbtInd><Sts><Cd>BOOK</Cd></Sts><BookgDt><Dt>"
+                        + t.bookingDate() + "</Dt></BookgDt><ValDt><Dt>" + t.bookingDate().plusDays(1)
+                        + "</Dt></ValDt><NtryDtls><TxDtls><Refs><EndToEndId>" + t.transactionRef()
+                        + "</EndToEndId></Refs>"
+                        + (t.counterparty() != null ? "<RltdPties><" + party + "><Pty><Nm>" + xml(t.counterparty())
+                        + "</Nm></Pty></" + party + "></RltdPties>" : "")
+                        + (t.reference() != null ? "<RmtInf><Ustrd>" + xml(t.reference()) + "</Ustrd></RmtInf>" : "")
+                        + "</TxDtls></NtryDtls></Ntry>\n");
+            }
+            out.write("</Stmt></BkToCstmrStmt></Document>\n");
+        }
+
+        List<BankTransaction> fromCamt = new ArrayList<>(entries);
+        long begin = System.nanoTime();
+        StatementReadResult read;
+        try (InputStream in = Files.newInputStream(camt)) {
+            read = Camt053StatementReader.read(in, "EUR", fromCamt::add);
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        int mismatches = 0;
+        for (int i = 0; i < Math.min(fromCsv.size(), fromCamt.size()); i++) {
+            if (!fromCsv.get(i).equals(fromCamt.get(i))) {
+                if (mismatches++ == 0) {
+                    System.out.println("  first CAMT mismatch:\n    csv  " + fromCsv.get(i) + "\n    camt "
+                            + fromCamt.get(i));
+                }
+            }
+        }
+        boolean ok = mismatches == 0 && fromCsv.size() == fromCamt.size() && read.rejected() == 0;
+        System.out.printf(Locale.ROOT, "CAMT.053: %,d entries read in %.2f s, %,d mismatches -> %s%n",
+                fromCamt.size(), seconds, mismatches, ok ? "ok" : "FAIL");
+        return ok;
+    }
+
+    private static Scenario writeStatement(Path csv, List<OpenInvoice> invoices, int count, Random random)
+            throws IOException {
+        // Each invoice is paid at most once: walk a shuffled order
+        int[] order = new int[invoices.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        long[] expected = new long[count];
+        Kind[] kinds = new Kind[count];
+        int next = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("Booking Date;Amount;Currency;Counterparty;Reference;Transaction ID\n");
+            for (int e = 0; e < count; e++) {
+                double roll = random.nextDouble();
+                Kind kind = next >= order.length ? Kind.NOISE
+                        : roll < 0.55 ? Kind.REFERENCE : roll < 0.75 ? Kind.VENDOR_ONLY : roll < 0.85 ? Kind.TYPO
+                        : roll < 0.90 ? Kind.CREDIT : Kind.NOISE;
+                kinds[e] = kind;
+                OpenInvoice invoice = kind.ordinal() <= Kind.TYPO.ordinal() ? invoices.get(order[next++]) : null;
+                expected[e] = invoice != null ? invoice.id() : 0;
+
+                LocalDate booked;
+                long cents;
+                String currency;
+                String counterparty;
+                String reference;
+                if (invoice != null) {
+                    booked = invoice.dueDate().plusDays(random.nextInt(21) - 10);
+                    cents = -invoice.amountCents();
+                    currency = invoice.currency();
+                    counterparty = switch (kind) {
+                        case REFERENCE -> random.nextBoolean() ? invoice.vendorName() : "";
+                        case VENDOR_ONLY -> vendorVariant(invoice.vendorName(), random);
+                        default -> invoice.vendorName().split(" ")[0].toUpperCase(Locale.ROOT) + " "
+                                + (random.nextBoolean() ? "BERLIN" : "PAYMENTS");
+                    };
+                    reference = switch (kind) {
+                        case REFERENCE -> referenceVariant(invoice.invoiceNumber(), random);
+                        case VENDOR_ONLY -> random.nextBoolean() ? "Invoice payment" : "";
+                        default -> "Rechnung " + typo(invoice.invoiceNumber(), random);
+                    };
+                } else {
+                    booked = BASE_DATE.plusDays(random.nextInt(120));
+                    // Odd cents outside the invoice range, so noise cannot pay an invoice by accident
+                    cents = (kind == Kind.CREDIT ? 1 : -1) * (5_000_001L + random.nextInt(50_000_000));
+                    currency = "EUR";
+                    counterparty = "Unknown Party " + random.nextInt(1000);
+                    reference = kind == Kind.CREDIT ? "Refund " + random.nextInt(100_000) : "Card payment";
+                }
+                out.write(booked.toString());
+                out.write(';');
+                out.write(germanAmount(cents));
+                out.write(';');
+                out.write(currency);
+                out.write(';');
+                out.write(quote(counterparty));
+                out.write(';');
+                out.write(quote(reference));
+                out.write(";T");
+                out.write(Integer.toString(e));
+                out.write('\n');
+            }
+        }
+        return new Scenario(expected, kinds);
+    }
+
+    private static String[] vendors(int count, Random random) {
+        String[] vendors = new String[count];
+        for (int v = 0; v < count; v++) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            // Suffix keeps generated names distinct
+            vendors[v] = name + Integer.toString(v, 36) + " " + LEGAL_FORMS[random.nextInt(LEGAL_FORMS.length)];
+        }
+        return vendors;
+    }
+
+    private static List<OpenInvoice> invoices(int count, String[] vendors, Random random) {
+        List<OpenInvoice> invoices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String vendor = vendors[random.nextInt(vendors.length)];
+            // One in ten is a recurring fee: a small set of round amounts shared across vendors
+            long cents = random.nextInt(10) == 0 ? (1 + random.nextInt(50)) * 1_000L : 1_000 + random.nextInt(4_999_000);
+            invoices.add(new OpenInvoice(i + 1, String.format(Locale.ROOT, "INV-2026-%07d", i + 1), vendor, cents,
+                    random.nextInt(10) == 0 ? "USD" : "EUR", BASE_DATE.plusDays(random.nextInt(120))));
+        }
+        return invoices;
+    }
+
+    private static String referenceVariant(String number, Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> number;
+            case 1 -> "Payment " + number + " thank you";
+            case 2 -> "Invoice " + number.replace("-", " ");
+            default -> number.toLowerCase(Locale.ROOT).replace("-", "/") + ", customer 4711";
+        };
+    }
+
+    private static String vendorVariant(String vendor, Random random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> vendor;
+            case 1 -> vendor.toUpperCase(Locale.ROOT);
+            default -> vendor.substring(0, vendor.lastIndexOf(' '));
+        };
+    }
+
+    /**
+     * Drop or duplicate one digit of the number part. Changing the length keeps
+     * the result from being another invoice's number (all have seven digits).
+     */
+    private static String typo(String number, Random random) {
+        StringBuilder value = new StringBuilder(number);
+        int position = number.length() - 1 - random.nextInt(4);
+        if (random.nextBoolean()) {
+            value.deleteCharAt(position);
+        } else {
+            value.insert(position, value.charAt(position));
+        }
+        return value.toString();
+    }
+
+    private static String germanAmount(long cents) {
+        long abs = Math.abs(cents);
+        String units = String.format(Locale.GERMANY, "%,d", abs / 100);
+        return (cents < 0 ? "-" : "") + units + "," + String.format(Locale.ROOT, "%02d", abs % 100);
+    }
+
+    private static String quote(String value) {
+        return value.indexOf(';') >= 0 || value.indexOf('"') >= 0 || value.indexOf(',') >= 0
+                ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+
+    private static String xml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;");
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,114 @@
+package com.ledgerflow.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Startup Benchmark
+ *
+ * Measures time-to-first-successful-request: each variant's command is launched
+ * {@code --runs} times, and the URL is polled until it answers with one of the
+ * accepted statuses. Compare the plain fat jar with the faststart build:
+ * <pre>
+ * --variant=baseline='java -Dspring.profiles.active=prod -jar target/ledgerflow-backend-1.0.0.jar'
+ * --variant=faststart='java -XX:SharedArchiveFile=target/ledgerflow-backend.jsa -Dspring.aot.enabled=true
+ *     -Dspring.profiles.active=prod -jar target/ledgerflow-backend-1.0.0-thin.jar'
+ * </pre>
+ * Without Redis/PostgreSQL running, /actuator/health answers 503; pass
+ * {@code --accept=200,503} to count that as "serving".
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> variants = new LinkedHashMap<>();
+        String url = "http://127.0.0.1:8081/actuator/health";  // management.server.port
+        int runs = 5;
+        Set<Integer> accepted = Set.of(200);
+        long timeoutMillis = 120_000;
+
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "variant" -> {
+                    int sep = value.indexOf('=');
+                    variants.put(value.substring(0, sep), value.substring(sep + 1));
+                }
+                case "url" -> url = value;
+                case "runs" -> runs = Integer.parseInt(value);
+                case "accept" -> accepted = Arrays.stream(value.split(","))
+                        .map(String::trim).map(Integer::valueOf).collect(Collectors.toSet());
+                case "timeout-seconds" -> timeoutMillis = Long.parseLong(value) * 1000;
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (variants.isEmpty()) {
+            throw new IllegalArgumentException("At least one --variant=name=command is required");
+        }
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> variant : variants.entrySet()) {
+            List<Long> samples = new ArrayList<>();
+            for (int run = 1; run <= runs; run++) {
+                long millis = measure(http, variant.getValue(), url, accepted, timeoutMillis);
+                System.out.printf("%s run %d: %d ms%n", variant.getKey(), run, millis);
+                samples.add(millis);
+            }
+            results.put(variant.getKey(), samples);
+        }
+
+        System.out.printf("%n%-12s %8s %8s %8s%n", "variant", "min ms", "median", "max ms");
+        results.forEach((name, samples) -> {
+            List<Long> sorted = samples.stream().sorted().toList();
+            System.out.printf("%-12s %8d %8d %8d%n", name, sorted.get(0), sorted.get(sorted.size() / 2),
+                    sorted.get(sorted.size() - 1));
+        });
+    }
+
+    private static long measure(HttpClient http, String command, String url, Set<Integer> accepted,
+                                long timeoutMillis) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder("sh", "-c", "exec " + command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "ledgerflow-startup.log"));
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(2)).GET().build();
+            while (System.nanoTime() - start < timeoutMillis * 1_000_000) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Process exited with " + process.exitValue() + ": " + command);
+                }
+                try {
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (accepted.contains(response.statusCode())) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful response within " + timeoutMillis + " ms: " + command);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.ledgerflow.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Python AI orchestration service.
+ *
+ * Serves {@code POST /extract-invoice} with the same JSON shape as the real
+ * service, after a delay drawn from a {@link LatencyDistribution}. A configurable
+ * fraction of calls fails with HTTP 500, and the response size is controlled by
+ * the number of generated line items.
+ */
+public class StubExtractionServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final int lineItems;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public StubExtractionServer(int port, LatencyDistribution latency, double errorRate, int lineItems)
+            throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.lineItems = lineItems;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(executor);
+        this.server.createContext("/extract-invoice", this::handleExtract);
+        this.server.createContext("/health", exchange -> respond(exchange, 200, "{\"status\":\"healthy\"}"));
+    }
+
+    public StubExtractionServer start() {
+        server.start();
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handleExtract(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "{\"detail\":\"Method Not Allowed\"}");
+            return;
+        }
+        try (InputStream body = exchange.getRequestBody()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        try {
+            Thread.sleep(Math.max(0, latency.nextMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            respond(exchange, 500, "{\"detail\":\"Simulated extraction failure\"}");
+            return;
+        }
+        respond(exchange, 200, extractionResponse(sequence.incrementAndGet(), lineItems));
+    }
+
+    static String extractionResponse(long sequence, int lineItems) {
+        LocalDate invoiceDate = LocalDate.now().minusDays(sequence % 60);
+        StringBuilder json = new StringBuilder(256 + lineItems * 96)
+                .append("{\"success\":true,\"extracted_data\":{")
+                .append("\"invoice_number\":\"STUB-").append(sequence).append("\",")
+                .append("\"vendor_name\":\"Stub Vendor ").append(sequence % 50).append("\",")
+                .append("\"invoice_date\":\"").append(invoiceDate).append("T00:00:00+00:00\",")
+                .append("\"due_date\":\"").append(invoiceDate.plusDays(30)).append("\",")
+                .append("\"total_amount\":").append(lineItems * 25.0).append(',')
+                .append("\"currency\":\"USD\",")
+                .append("\"tax_amount\":null,\"shipping_amount\":null,")
+                .append("\"payment_terms\":\"Net 30\",")
+                .append("\"line_items\":[");
+        for (int i = 0; i < lineItems; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"description\":\"Stub item ").append(i)
+                    .append("\",\"quantity\":2,\"unit_price\":12.5,\"amount\":25.0}");
+        }
+        return json.append("]},\"confidence_score\":0.9,")
+                .append("\"s3_key\":null,\"s3_url\":null,\"filename\":\"stub.pdf\"}")
+                .toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run the stub on its own, e.g. to point a separately started backend at it.
+     */
+    public static void main(String[] args) throws IOException {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        StubExtractionServer stub = new StubExtractionServer(config.stubPort == 0 ? 8001 : config.stubPort,
+                LatencyDistribution.parse(config.stubLatency), config.stubErrorRate, config.stubLineItems).start();
+        System.out.println("Stub extraction service listening on " + stub.baseUrl());
+    }
+}
@@ -0,0 +1,113 @@
+package com.ledgerflow.loadtest.datagen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic Dataset Generator
+ *
+ * Creates {@code --tenants} tenants (one login user each) sharing
+ * {@code --invoices} invoices with Zipf-skewed per-tenant counts, and loads them
+ * straight into PostgreSQL. Output is fully determined by {@code --seed} (and
+ * {@code --today}), so benchmarks can be rerun against the same data.
+ *
+ * The schema must already exist (start the backend once). Run with:
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.main=com.ledgerflow.loadtest.datagen.DatasetGenerator \
+ *     -Dloadtest.args="--tenants=200 --invoices=500000 --seed=42"
+ * </pre>
+ * A manifest of generated tenants, usernames and invoice counts is written to
+ * {@code --manifest} (default target/dataset-manifest.json). Every user's
+ * password is {@code --password} (default "password").
+ */
+public class DatasetGenerator {
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            args.put(arg.substring(2, eq < 0 ? arg.length() : eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+
+        String jdbcUrl = args.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/ledgerflow");
+        Properties props = new Properties();
+        props.setProperty("user", args.getOrDefault("db-user", "ledgerflow"));
+        props.setProperty("password", args.getOrDefault("db-password", "ledgerflow_dev"));
+        props.setProperty("reWriteBatchedInserts", "true");
+
+        int tenants = Integer.parseInt(args.getOrDefault("tenants", "100"));
+        long invoices = Long.parseLong(args.getOrDefault("invoices", "100000"));
+        double tenantSkew = Double.parseDouble(args.getOrDefault("tenant-zipf", "1.1"));
+        double vendorSkew = Double.parseDouble(args.getOrDefault("vendor-zipf", "1.0"));
+        long seed = Long.parseLong(args.getOrDefault("seed", "42"));
+        LocalDate today = LocalDate.parse(args.getOrDefault("today", "2026-01-01"));
+        int historyDays = Integer.parseInt(args.getOrDefault("history-days", "730"));
+        boolean useCopy = !"batch".equals(args.getOrDefault("mode", "copy"));
+        String password = args.getOrDefault("password", "password");
+        String manifestFile = args.getOrDefault("manifest", "target/dataset-manifest.json");
+
+        long[] counts = SyntheticInvoices.zipfCounts(tenants, invoices, tenantSkew);
+        SyntheticInvoices generator = new SyntheticInvoices(today, historyDays, vendorSkew);
+        String passwordHash = new BCryptPasswordEncoder().encode(password);
+        String prefix = "gen" + seed;
+
+        long started = System.nanoTime();
+        List<Map<String, Object>> manifestTenants = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, props);
+             PostgresLoader loader = new PostgresLoader(connection, useCopy)) {
+            for (int t = 0; t < tenants; t++) {
+                String slug = prefix + "-t" + t;
+                long tenantId = loader.insertTenant("Generated Tenant " + slug, slug);
+                loader.insertUser(tenantId, slug + "-user", passwordHash);
+
+                // Per-tenant stream keeps each tenant's data stable when --tenants changes
+                SplittableRandom random = new SplittableRandom(seed * 1_000_003L + t);
+                double[] vendorWeights = generator.vendorWeights(random);
+                for (long i = 1; i <= counts[t]; i++) {
+                    loader.add(generator.next(random, tenantId, i, vendorWeights));
+                }
+                loader.flush();
+
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("tenantId", tenantId);
+                entry.put("slug", slug);
+                entry.put("username", slug + "-user");
+                entry.put("invoices", counts[t]);
+                manifestTenants.add(entry);
+            }
+            loader.finish();
+
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("Loaded %d tenants, %d invoices, %d line items in %.1fs (%.0f invoices/s, %s)%n",
+                    tenants, loader.invoicesLoaded(), loader.lineItemsLoaded(), seconds,
+                    loader.invoicesLoaded() / seconds, useCopy ? "COPY" : "batched INSERT");
+
+            Map<String, Object> manifest = new LinkedHashMap<>();
+            manifest.put("seed", seed);
+            manifest.put("today", today.toString());
+            manifest.put("password", password);
+            manifest.put("invoices", loader.invoicesLoaded());
+            manifest.put("lineItems", loader.lineItemsLoaded());
+            manifest.put("tenants", manifestTenants);
+            File target = new File(manifestFile);
+            if (target.getParentFile() != null) {
+                target.getParentFile().mkdirs();
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(target, manifest);
+            System.out.println("Manifest written to " + manifestFile);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.ledgerflow.loadtest.datagen;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bulk loader for generated rows.
+ *
+ * Ids are assigned client-side (starting after the current maximum) so line
+ * items can reference their invoice without a round trip; identity sequences
+ * are moved past the loaded ids at the end. {@code copy} mode streams CSV chunks
+ * through {@code COPY ... FROM STDIN}; {@code batch} mode uses multi-row JDBC
+ * batches for databases or proxies that do not support COPY.
+ */
+class PostgresLoader implements AutoCloseable {
+
+    private static final String INVOICE_COLUMNS = "id, invoice_number, vendor_name, invoice_date, due_date, "
+            + "total_amount, currency, status, tenant_id, created_at, updated_at, tax_amount, shipping_amount, "
+            + "payment_terms, s3_key, s3_url, confidence_score";
+    private static final String LINE_ITEM_COLUMNS = "id, description, quantity, unit_price, amount, invoice_id, "
+            + "invoice_created_at";
+
+    private final Connection connection;
+    private final boolean useCopy;
+    private final StringBuilder invoiceCsv = new StringBuilder(1 << 20);
+    private final StringBuilder lineItemCsv = new StringBuilder(1 << 22);
+    private PreparedStatement invoiceInsert;
+    private PreparedStatement lineItemInsert;
+    private int pendingRows;
+
+    private long nextInvoiceId;
+    private long nextLineItemId;
+    private long invoicesLoaded;
+    private long lineItemsLoaded;
+
+    PostgresLoader(Connection connection, boolean useCopy) throws SQLException {
+        this.connection = connection;
+        this.useCopy = useCopy;
+        connection.setAutoCommit(false);
+        this.nextInvoiceId = maxId("invoices") + 1;
+        this.nextLineItemId = maxId("invoice_line_items") + 1;
+        if (!useCopy) {
+            invoiceInsert = connection.prepareStatement("INSERT INTO invoices (" + INVOICE_COLUMNS
+                    + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            lineItemInsert = connection.prepareStatement("INSERT INTO invoice_line_items (" + LINE_ITEM_COLUMNS
+                    + ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+        }
+    }
+
+    long insertTenant(String name, String slug) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO tenants (name, slug, active, created_at, updated_at) VALUES (?, ?, true, ?, ?) RETURNING id")) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            statement.setString(1, name);
+            statement.setString(2, slug);
+            statement.setTimestamp(3, now);
+            statement.setTimestamp(4, now);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    void insertUser(long tenantId, String username, String passwordHash) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO users (username, password, email, active, tenant_id, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, true, ?, ?, ?)")) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            statement.setString(1, username);
+            statement.setString(2, passwordHash);
+            statement.setString(3, username + "@datagen.local");
+            statement.setLong(4, tenantId);
+            statement.setTimestamp(5, now);
+            statement.setTimestamp(6, now);
+            statement.executeUpdate();
+        }
+    }
+
+    void add(SyntheticInvoices.Invoice invoice) throws SQLException, IOException {
+        long invoiceId = nextInvoiceId++;
+        LocalDateTime createdAt = invoice.invoiceDate().atTime(9, 0).plusMinutes(invoiceId % 600);
+        if (useCopy) {
+            appendCsv(invoiceCsv, invoiceId, invoice.invoiceNumber(), invoice.vendorName(), invoice.invoiceDate(),
+                    invoice.dueDate(), invoice.totalAmount(), invoice.currency(), invoice.status(),
+                    invoice.tenantId(), createdAt, createdAt, invoice.taxAmount(), invoice.shippingAmount(),
+                    invoice.paymentTerms(), null, null, invoice.confidenceScore());
+            for (SyntheticInvoices.LineItem item : invoice.lineItems()) {
+                appendCsv(lineItemCsv, nextLineItemId++, item.description(), item.quantity(), item.unitPrice(),
+                        item.amount(), invoiceId, createdAt);
+            }
+        } else {
+            Timestamp created = Timestamp.valueOf(createdAt);
+            invoiceInsert.setLong(1, invoiceId);
+            invoiceInsert.setString(2, invoice.invoiceNumber());
+            invoiceInsert.setString(3, invoice.vendorName());
+            invoiceInsert.setObject(4, invoice.invoiceDate());
+            invoiceInsert.setObject(5, invoice.dueDate());
+            invoiceInsert.setBigDecimal(6, invoice.totalAmount());
+            invoiceInsert.setString(7, invoice.currency());
+            invoiceInsert.setString(8, invoice.status());
+            invoiceInsert.setLong(9, invoice.tenantId());
+            invoiceInsert.setTimestamp(10, created);
+            invoiceInsert.setTimestamp(11, created);
+            invoiceInsert.setBigDecimal(12, invoice.taxAmount());
+            invoiceInsert.setBigDecimal(13, invoice.shippingAmount());
+            invoiceInsert.setString(14, invoice.paymentTerms());
+            invoiceInsert.setString(15, null);
+            invoiceInsert.setString(16, null);
+            invoiceInsert.setDouble(17, invoice.confidenceScore());
+            invoiceInsert.addBatch();
+            for (SyntheticInvoices.LineItem item : invoice.lineItems()) {
+                lineItemInsert.setLong(1, nextLineItemId++);
+                lineItemInsert.setString(2, item.description());
+                lineItemInsert.setBigDecimal(3, item.quantity());
+                lineItemInsert.setBigDecimal(4, item.unitPrice());
+                lineItemInsert.setBigDecimal(5, item.amount());
+                lineItemInsert.setLong(6, invoiceId);
+                lineItemInsert.setTimestamp(7, created);
+                lineItemInsert.addBatch();
+            }
+        }
+        invoicesLoaded++;
+        lineItemsLoaded += invoice.lineItems().size();
+        if (++pendingRows >= 5_000) {
+            flush();
+        }
+    }
+
+    void flush() throws SQLException, IOException {
+        if (pendingRows == 0) {
+            return;
+        }
+        if (useCopy) {
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            copy.copyIn("COPY invoices (" + INVOICE_COLUMNS + ") FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(invoiceCsv.toString()));
+            copy.copyIn("COPY invoice_line_items (" + LINE_ITEM_COLUMNS + ") FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(lineItemCsv.toString()));
+            invoiceCsv.setLength(0);
+            lineItemCsv.setLength(0);
+        } else {
+            invoiceInsert.executeBatch();
+            lineItemInsert.executeBatch();
+        }
+        connection.commit();
+        pendingRows = 0;
+    }
+
+    /**
+     * Move identity sequences past the client-assigned ids so the application
+     * keeps generating unique keys.
+     */
+    void finish() throws SQLException, IOException {
+        flush();
+        try (Statement statement = connection.createStatement()) {
+            for (String table : List.of("invoices", "invoice_line_items")) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                        + "(SELECT COALESCE(MAX(id), 1) FROM " + table + "))");
+            }
+            statement.execute("ANALYZE invoices");
+            statement.execute("ANALYZE invoice_line_items");
+        }
+        connection.commit();
+    }
+
+    long invoicesLoaded() {
+        return invoicesLoaded;
+    }
+
+    long lineItemsLoaded() {
+        return lineItemsLoaded;
+    }
+
+    private long maxId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void appendCsv(StringBuilder csv, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof String s) {
+                csv.append('"').append(s.replace("\"", "\"\"")).append('"');
+            } else if (value instanceof BigDecimal d) {
+                csv.append(d.toPlainString());
+            } else {
+                csv.append(value);
+            }
+        }
+        csv.append('\n');
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (invoiceInsert != null) {
+            invoiceInsert.close();
+            lineItemInsert.close();
+        }
+        connection.close();
+    }
+}
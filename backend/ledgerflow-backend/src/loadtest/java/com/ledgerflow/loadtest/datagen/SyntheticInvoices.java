@@ -0,0 +1,208 @@
+package com.ledgerflow.loadtest.datagen;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of invoice rows shaped like the {@code invoices} and
+ * {@code invoice_line_items} tables.
+ *
+ * Distributions are chosen to resemble real AP data: vendor popularity is Zipf
+ * within a tenant, invoice dates cluster at month end, line-item counts are
+ * mostly small with a long tail, and status depends on invoice age (old
+ * invoices are mostly PAID, recent ones still in review).
+ */
+public class SyntheticInvoices {
+
+    static final String[] VENDORS = {
+            "Amazon Web Services", "Microsoft Corporation", "Google Cloud", "Salesforce", "Adobe Inc.",
+            "Staples Business", "Office Depot", "FedEx", "UPS", "DHL Express", "Verizon Business",
+            "AT&T", "Comcast Business", "Dell Technologies", "HP Inc.", "Lenovo", "Cisco Systems",
+            "Oracle America", "SAP SE", "Atlassian", "Slack Technologies", "Zoom Video", "DocuSign",
+            "WeWork", "Regus", "Uline", "Grainger", "Fastenal", "Sysco", "Aramark", "Cintas",
+            "ADP", "Paychex", "Deloitte", "KPMG", "PwC", "Ernst & Young", "Accenture", "Iron Mountain",
+            "Pitney Bowes", "Xerox", "Ricoh", "Canon Business", "Konica Minolta", "Twilio", "Stripe",
+            "Shopify", "HubSpot", "Zendesk", "Datadog", "Cloudflare", "GitHub", "JetBrains", "Figma",
+            "Acme Industrial Supply", "Northwind Traders", "Contoso Ltd.", "Fabrikam Inc.", "Globex",
+            "Initech", "Umbrella Corp", "Stark Industries", "Wayne Enterprises", "Tyrell Corp"
+    };
+
+    static final String[] ITEMS = {
+            "Consulting services", "Software license", "Cloud compute", "Storage", "Support plan",
+            "Office supplies", "Printer toner", "Shipping", "Freight", "Hardware", "Laptop", "Monitor",
+            "Network equipment", "Maintenance", "Subscription", "Professional services", "Training",
+            "Travel expenses", "Catering", "Cleaning services", "Electricity", "Internet service",
+            "Mobile plan", "Data transfer", "API usage", "Seat license", "Implementation fee"
+    };
+
+    static final String[] CURRENCIES = {"USD", "EUR", "GBP", "CAD", "INR", "AUD"};
+    static final double[] CURRENCY_WEIGHTS = {0.70, 0.14, 0.07, 0.04, 0.03, 0.02};
+
+    static final String[] PAYMENT_TERMS = {"Net 15", "Net 30", "Net 45", "Net 60", "Due on receipt"};
+    static final int[] PAYMENT_DAYS = {15, 30, 45, 60, 0};
+    static final double[] PAYMENT_WEIGHTS = {0.15, 0.55, 0.10, 0.12, 0.08};
+
+    record LineItem(String description, BigDecimal quantity, BigDecimal unitPrice, BigDecimal amount) { }
+
+    record Invoice(long tenantId, String invoiceNumber, String vendorName, LocalDate invoiceDate,
+                   LocalDate dueDate, BigDecimal totalAmount, String currency, String status,
+                   BigDecimal taxAmount, BigDecimal shippingAmount, String paymentTerms,
+                   double confidenceScore, List<LineItem> lineItems) { }
+
+    private final LocalDate today;
+    private final int historyDays;
+    private final double vendorZipfExponent;
+
+    public SyntheticInvoices(LocalDate today, int historyDays, double vendorZipfExponent) {
+        this.today = today;
+        this.historyDays = historyDays;
+        this.vendorZipfExponent = vendorZipfExponent;
+    }
+
+    /**
+     * Generate one invoice. All randomness comes from {@code random}, so a
+     * tenant-seeded random yields the same invoices on every run.
+     */
+    Invoice next(SplittableRandom random, long tenantId, long sequence, double[] vendorWeights) {
+        LocalDate invoiceDate = invoiceDate(random);
+        int terms = pick(random, PAYMENT_WEIGHTS);
+        String currency = CURRENCIES[pick(random, CURRENCY_WEIGHTS)];
+
+        List<LineItem> items = lineItems(random);
+        BigDecimal subtotal = items.stream().map(LineItem::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal tax = random.nextDouble() < 0.7
+                ? subtotal.multiply(BigDecimal.valueOf(random.nextInt(5, 21))).movePointLeft(2).setScale(2, RoundingMode.HALF_UP)
+                : null;
+        BigDecimal shipping = random.nextDouble() < 0.25
+                ? BigDecimal.valueOf(random.nextInt(500, 15000), 2)
+                : null;
+        BigDecimal total = subtotal
+                .add(tax != null ? tax : BigDecimal.ZERO)
+                .add(shipping != null ? shipping : BigDecimal.ZERO);
+
+        return new Invoice(
+                tenantId,
+                "INV-" + invoiceDate.getYear() + "-" + String.format("%07d", sequence),
+                VENDORS[pick(random, vendorWeights)],
+                invoiceDate,
+                invoiceDate.plusDays(PAYMENT_DAYS[terms]),
+                total,
+                currency,
+                status(random, invoiceDate),
+                tax,
+                shipping,
+                PAYMENT_TERMS[terms],
+                0.75 + random.nextDouble() * 0.25,
+                items);
+    }
+
+    /**
+     * Zipf weights over the vendor list, rotated per tenant so tenants have
+     * different favourite vendors.
+     */
+    double[] vendorWeights(SplittableRandom random) {
+        double[] zipf = zipfWeights(VENDORS.length, vendorZipfExponent);
+        int offset = random.nextInt(VENDORS.length);
+        double[] weights = new double[VENDORS.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[(i + offset) % weights.length] = zipf[i];
+        }
+        return weights;
+    }
+
+    private LocalDate invoiceDate(SplittableRandom random) {
+        LocalDate date = today.minusDays(random.nextInt(historyDays));
+        // About a third of invoices are issued in the last three days of the month
+        if (random.nextDouble() < 0.33) {
+            date = date.withDayOfMonth(date.lengthOfMonth()).minusDays(random.nextInt(3));
+            if (date.isAfter(today)) {
+                date = today;
+            }
+        }
+        return date;
+    }
+
+    private static List<LineItem> lineItems(SplittableRandom random) {
+        // Geometric body (mean ~3) with a 2% tail of long utility/telecom style invoices
+        int count = random.nextDouble() < 0.02
+                ? random.nextInt(50, 400)
+                : 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(0.65));
+        List<LineItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BigDecimal quantity = BigDecimal.valueOf(random.nextDouble() < 0.6 ? 1 : random.nextInt(2, 50));
+            BigDecimal unitPrice = BigDecimal.valueOf(Math.round(Math.exp(random.nextDouble(1.0, 9.0)) * 100), 2);
+            BigDecimal amount = quantity.multiply(unitPrice).setScale(2, RoundingMode.HALF_UP);
+            items.add(new LineItem(ITEMS[random.nextInt(ITEMS.length)], quantity.setScale(2), unitPrice, amount));
+        }
+        return items;
+    }
+
+    private String status(SplittableRandom random, LocalDate invoiceDate) {
+        long ageDays = today.toEpochDay() - invoiceDate.toEpochDay();
+        double r = random.nextDouble();
+        if (ageDays > 90) {
+            return r < 0.90 ? "PAID" : r < 0.97 ? "REJECTED" : "APPROVED";
+        }
+        if (ageDays > 30) {
+            return r < 0.55 ? "PAID" : r < 0.85 ? "APPROVED" : r < 0.92 ? "REJECTED" : "EXTRACTED";
+        }
+        return r < 0.10 ? "PENDING" : r < 0.15 ? "EXTRACTING" : r < 0.55 ? "EXTRACTED"
+                : r < 0.85 ? "APPROVED" : r < 0.92 ? "REJECTED" : "PAID";
+    }
+
+    static double[] zipfWeights(int n, double exponent) {
+        double[] weights = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, exponent);
+            sum += weights[i];
+        }
+        for (int i = 0; i < n; i++) {
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+
+    /**
+     * Split {@code total} into {@code n} Zipf-distributed integer counts that sum
+     * exactly to {@code total} (largest remainder rounding).
+     */
+    static long[] zipfCounts(int n, long total, double exponent) {
+        double[] weights = zipfWeights(n, exponent);
+        long[] counts = new long[n];
+        double[] remainders = new double[n];
+        long assigned = 0;
+        for (int i = 0; i < n; i++) {
+            double exact = weights[i] * total;
+            counts[i] = (long) Math.floor(exact);
+            remainders[i] = exact - counts[i];
+            assigned += counts[i];
+        }
+        for (long left = total - assigned; left > 0; left--) {
+            int best = 0;
+            for (int i = 1; i < n; i++) {
+                if (remainders[i] > remainders[best]) {
+                    best = i;
+                }
+            }
+            counts[best]++;
+            remainders[best] = -1;
+        }
+        return counts;
+    }
+
+    static int pick(SplittableRandom random, double[] weights) {
+        double r = random.nextDouble();
+        for (int i = 0; i < weights.length - 1; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ledgerflow.archive;
+
+/**
+ * Name and encoding of one column of a columnar archive file.
+ */
+public record ArchiveColumn(String name, ColumnType type) {
+}
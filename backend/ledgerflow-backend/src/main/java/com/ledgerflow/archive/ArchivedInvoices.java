@@ -0,0 +1,177 @@
+package com.ledgerflow.archive;
+
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.entity.InvoiceLineItem;
+import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.repository.TenantRepository;
+import com.ledgerflow.sharding.ShardContext;
+import com.ledgerflow.sharding.Shards;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Archived Invoices
+ *
+ * Read-only access to invoices whose month InvoiceArchiver moved to columnar
+ * files. An invoice is looked up in the invoice_archives entries whose id
+ * range covers it: the tenant's shard first, then the other shards, since a
+ * tenant that moved leaves its archived months behind. Only the row group
+ * holding the id is decompressed; file footers are cached per file.
+ *
+ * Returned invoices are detached and flagged {@code archived}; they must not
+ * be saved.
+ */
+@Component
+public class ArchivedInvoices {
+    private static final Logger log = LoggerFactory.getLogger(ArchivedInvoices.class);
+
+    private static final String FIND = "SELECT invoices_file, line_items_file FROM invoice_archives"
+            + " WHERE min_invoice_id <= ? AND max_invoice_id >= ? ORDER BY range_from DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final TenantRepository tenantRepository;
+    private final LedgerFlowMetrics metrics;
+    private final Path root;
+    private final Map<String, JdbcTemplate> shardTemplates = new ConcurrentHashMap<>();
+    private final Map<Path, ColumnarArchiveReader> readers = new ConcurrentHashMap<>();
+
+    public ArchivedInvoices(JdbcTemplate jdbcTemplate, Shards shards, TenantRepository tenantRepository,
+                            LedgerFlowMetrics metrics,
+                            @Value("${app.partitioning.archive.root:./data/archive}") String root) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.tenantRepository = tenantRepository;
+        this.metrics = metrics;
+        this.root = Paths.get(root);
+    }
+
+    /**
+     * The archived invoice with its line items, if it was archived and belongs to the tenant.
+     */
+    public Optional<Invoice> find(Long id, Long tenantId) {
+        for (JdbcTemplate catalog : catalogs()) {
+            List<CatalogEntry> entries = catalog.query(FIND, (resultSet, row) -> new CatalogEntry(
+                    resultSet.getString("invoices_file"), resultSet.getString("line_items_file")), id, id);
+            for (CatalogEntry entry : entries) {
+                Optional<Invoice> invoice = read(entry, id, tenantId);
+                if (invoice.isPresent()) {
+                    metrics.increment(LedgerFlowMetrics.ARCHIVE_READS, Tags.of("outcome", "found"));
+                    return invoice;
+                }
+            }
+        }
+        metrics.increment(LedgerFlowMetrics.ARCHIVE_READS, Tags.of("outcome", "missing"));
+        return Optional.empty();
+    }
+
+    /**
+     * Catalogs to search: the current shard's, then the others.
+     */
+    private List<JdbcTemplate> catalogs() {
+        if (!shards.isSharded()) {
+            return List.of(jdbcTemplate);
+        }
+        String current = ShardContext.current() != null ? ShardContext.current() : Shards.PRIMARY;
+        List<JdbcTemplate> catalogs = new ArrayList<>();
+        catalogs.add(shardTemplate(current));
+        for (String shard : shards.names()) {
+            if (!shard.equals(current)) {
+                catalogs.add(shardTemplate(shard));
+            }
+        }
+        return catalogs;
+    }
+
+    private JdbcTemplate shardTemplate(String shard) {
+        return shardTemplates.computeIfAbsent(shard, name -> new JdbcTemplate(shards.dataSource(name)));
+    }
+
+    private Optional<Invoice> read(CatalogEntry entry, Long id, Long tenantId) {
+        try {
+            List<Map<String, Object>> rows = reader(entry.invoicesFile()).findByKey(id);
+            if (rows.isEmpty() || !tenantId.equals(asLong(rows.get(0).get("tenant_id")))) {
+                return Optional.empty();
+            }
+            List<Map<String, Object>> lineItems = reader(entry.lineItemsFile()).findByKey(id);
+            return Optional.of(toInvoice(rows.get(0), lineItems, tenantId));
+        } catch (IOException e) {
+            log.warn("Could not read archived invoice {} from {}: {}", id, entry.invoicesFile(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private ColumnarArchiveReader reader(String file) throws IOException {
+        Path path = root.resolve(file);
+        ColumnarArchiveReader reader = readers.get(path);
+        if (reader == null) {
+            reader = ColumnarArchiveReader.open(path);
+            readers.put(path, reader);
+        }
+        return reader;
+    }
+
+    private Invoice toInvoice(Map<String, Object> row, List<Map<String, Object>> lineItemRows, Long tenantId) {
+        Invoice invoice = new Invoice();
+        invoice.setId(asLong(row.get("id")));
+        invoice.setInvoiceNumber((String) row.get("invoice_number"));
+        invoice.setVendorName((String) row.get("vendor_name"));
+        invoice.setInvoiceDate((LocalDate) row.get("invoice_date"));
+        invoice.setDueDate((LocalDate) row.get("due_date"));
+        invoice.setTotalAmount((BigDecimal) row.get("total_amount"));
+        invoice.setCurrency((String) row.get("currency"));
+        invoice.setStatus(InvoiceStatus.valueOf((String) row.get("status")));
+        invoice.setTenant(tenantRepository.findById(tenantId).orElse(null));
+        invoice.setCreatedAt((LocalDateTime) row.get("created_at"));
+        invoice.setUpdatedAt((LocalDateTime) row.get("updated_at"));
+        invoice.setTaxAmount((BigDecimal) row.get("tax_amount"));
+        invoice.setShippingAmount((BigDecimal) row.get("shipping_amount"));
+        invoice.setPaymentTerms((String) row.get("payment_terms"));
+        invoice.setS3Key((String) row.get("s3_key"));
+        invoice.setS3Url((String) row.get("s3_url"));
+        invoice.setConfidenceScore((Double) row.get("confidence_score"));
+        invoice.setDocumentSha256((String) row.get("document_sha256"));
+        invoice.setDocumentSize(asLong(row.get("document_size")));
+        invoice.setDocumentContentType((String) row.get("document_content_type"));
+        invoice.setArchived(true);
+
+        List<InvoiceLineItem> lineItems = new ArrayList<>(lineItemRows.size());
+        for (Map<String, Object> itemRow : lineItemRows) {
+            InvoiceLineItem item = new InvoiceLineItem();
+            item.setId(asLong(itemRow.get("id")));
+            item.setDescription((String) itemRow.get("description"));
+            item.setQuantity((BigDecimal) itemRow.get("quantity"));
+            item.setUnitPrice((BigDecimal) itemRow.get("unit_price"));
+            item.setAmount((BigDecimal) itemRow.get("amount"));
+            item.setInvoiceCreatedAt((LocalDateTime) itemRow.get("invoice_created_at"));
+            item.setInvoice(invoice);
+            lineItems.add(item);
+        }
+        invoice.setLineItems(lineItems);
+        return invoice;
+    }
+
+    private static Long asLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private record CatalogEntry(String invoicesFile, String lineItemsFile) {
+    }
+}
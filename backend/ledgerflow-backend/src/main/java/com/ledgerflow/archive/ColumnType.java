@@ -0,0 +1,154 @@
+package com.ledgerflow.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Column Type
+ *
+ * Value encodings of the columnar archive format. Integers, dates and
+ * timestamps are stored as zigzag varint deltas from the previous value in
+ * the chunk, which keeps ordered ids and creation times to a byte or two
+ * before compression.
+ */
+public enum ColumnType {
+    LONG, DOUBLE, DECIMAL, BOOLEAN, DATE, TIMESTAMP, STRING;
+
+    /**
+     * Archive type of a JDBC column; anything without its own encoding is kept as text.
+     */
+    public static ColumnType of(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> LONG;
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> DOUBLE;
+            case Types.NUMERIC, Types.DECIMAL -> DECIMAL;
+            case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+            case Types.DATE -> DATE;
+            case Types.TIMESTAMP -> TIMESTAMP;
+            default -> STRING;
+        };
+    }
+
+    /**
+     * Read this column's value from the current row, null for SQL NULL.
+     */
+    public Object read(ResultSet resultSet, int column) throws SQLException {
+        Object value = switch (this) {
+            case LONG -> resultSet.getLong(column);
+            case DOUBLE -> resultSet.getDouble(column);
+            case DECIMAL -> resultSet.getBigDecimal(column);
+            case BOOLEAN -> resultSet.getBoolean(column);
+            case DATE -> resultSet.getObject(column, LocalDate.class);
+            case TIMESTAMP -> resultSet.getObject(column, LocalDateTime.class);
+            case STRING -> resultSet.getString(column);
+        };
+        return resultSet.wasNull() ? null : value;
+    }
+
+    /**
+     * Write a non-null value.
+     *
+     * @param previous last value written for the column in this chunk (0 at the start)
+     * @return the new {@code previous} for delta-encoded types
+     */
+    long write(DataOutput out, Object value, long previous) throws IOException {
+        switch (this) {
+            case LONG, DATE, TIMESTAMP -> {
+                long current = toLong(value);
+                writeVarLong(out, current - previous);
+                return current;
+            }
+            case DOUBLE -> out.writeDouble((Double) value);
+            case DECIMAL -> {
+                BigDecimal decimal = (BigDecimal) value;
+                writeVarLong(out, decimal.scale());
+                writeBytes(out, decimal.unscaledValue().toByteArray());
+            }
+            case BOOLEAN -> out.writeBoolean((Boolean) value);
+            case STRING -> writeBytes(out, value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return previous;
+    }
+
+    /**
+     * Read one value written by {@link #write}; {@code previous[0]} carries the delta base.
+     */
+    Object read(DataInput in, long[] previous) throws IOException {
+        return switch (this) {
+            case LONG, DATE, TIMESTAMP -> {
+                previous[0] += readVarLong(in);
+                yield fromLong(previous[0]);
+            }
+            case DOUBLE -> in.readDouble();
+            case DECIMAL -> {
+                int scale = (int) readVarLong(in);
+                yield new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case BOOLEAN -> in.readBoolean();
+            case STRING -> new String(readBytes(in), StandardCharsets.UTF_8);
+        };
+    }
+
+    private long toLong(Object value) {
+        return switch (this) {
+            case DATE -> ((LocalDate) value).toEpochDay();
+            case TIMESTAMP -> {
+                LocalDateTime timestamp = (LocalDateTime) value;
+                // Microseconds, the precision the database keeps
+                yield timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+            }
+            default -> ((Number) value).longValue();
+        };
+    }
+
+    private Object fromLong(long value) {
+        return switch (this) {
+            case DATE -> LocalDate.ofEpochDay(value);
+            case TIMESTAMP -> LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1_000_000L),
+                    (int) Math.floorMod(value, 1_000_000L) * 1_000, ZoneOffset.UTC);
+            default -> value;
+        };
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,210 @@
+package com.ledgerflow.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Columnar Archive Reader
+ *
+ * Reads files written by {@link ColumnarArchiveWriter}. Opening reads only
+ * the footer; {@link #findByKey} decodes the key chunk of the row groups whose
+ * key range covers the key, and the other chunks of a group only when it
+ * holds a match. Instances are immutable and can be shared; every read opens
+ * its own channel.
+ */
+public final class ColumnarArchiveReader {
+
+    private static final ColumnType[] TYPES = ColumnType.values();
+
+    private final Path path;
+    private final List<ArchiveColumn> columns;
+    private final int keyColumn;
+    private final long rows;
+    private final List<ColumnarArchiveWriter.RowGroup> rowGroups;
+
+    private ColumnarArchiveReader(Path path, List<ArchiveColumn> columns, int keyColumn, long rows,
+                                  List<ColumnarArchiveWriter.RowGroup> rowGroups) {
+        this.path = path;
+        this.columns = columns;
+        this.keyColumn = keyColumn;
+        this.rows = rows;
+        this.rowGroups = rowGroups;
+    }
+
+    public static ColumnarArchiveReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 13) {
+                throw new IOException("Not an invoice archive: " + path);
+            }
+            ByteBuffer head = read(channel, 0, 5);
+            ByteBuffer tail = read(channel, size - 8, 8);
+            int footerLength = tail.getInt();
+            if (head.getInt() != ColumnarArchiveWriter.MAGIC || tail.getInt() != ColumnarArchiveWriter.MAGIC) {
+                throw new IOException("Not an invoice archive: " + path);
+            }
+            if (head.get() != ColumnarArchiveWriter.VERSION) {
+                throw new IOException("Unsupported archive version in " + path);
+            }
+
+            ByteBuffer footerBytes = read(channel, size - 8 - footerLength, footerLength);
+            DataInputStream footer = new DataInputStream(new ByteArrayInputStream(
+                    footerBytes.array(), 0, footerLength));
+            int columnCount = footer.readInt();
+            List<ArchiveColumn> columns = new ArrayList<>(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                columns.add(new ArchiveColumn(footer.readUTF(), TYPES[footer.readByte()]));
+            }
+            int keyColumn = footer.readInt();
+            long rows = footer.readLong();
+            int groupCount = footer.readInt();
+            List<ColumnarArchiveWriter.RowGroup> rowGroups = new ArrayList<>(groupCount);
+            for (int g = 0; g < groupCount; g++) {
+                int groupRows = footer.readInt();
+                long minKey = footer.readLong();
+                long maxKey = footer.readLong();
+                long[] offsets = new long[columnCount];
+                int[] lengths = new int[columnCount];
+                for (int c = 0; c < columnCount; c++) {
+                    offsets[c] = footer.readLong();
+                    lengths[c] = footer.readInt();
+                }
+                rowGroups.add(new ColumnarArchiveWriter.RowGroup(groupRows, minKey, maxKey, offsets, lengths));
+            }
+            return new ColumnarArchiveReader(path, List.copyOf(columns), keyColumn, rows, List.copyOf(rowGroups));
+        }
+    }
+
+    public List<ArchiveColumn> columns() {
+        return columns;
+    }
+
+    public long rowCount() {
+        return rows;
+    }
+
+    /**
+     * Rows whose key column equals {@code key}, as column name to value, in file order.
+     */
+    public List<Map<String, Object>> findByKey(long key) throws IOException {
+        List<Map<String, Object>> found = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (ColumnarArchiveWriter.RowGroup group : rowGroups) {
+                if (key < group.minKey() || key > group.maxKey()) {
+                    continue;
+                }
+                Object[] keys = decode(channel, group, keyColumn);
+                List<Integer> matches = new ArrayList<>();
+                for (int r = 0; r < keys.length; r++) {
+                    if (keys[r] != null && ((Number) keys[r]).longValue() == key) {
+                        matches.add(r);
+                    }
+                }
+                if (matches.isEmpty()) {
+                    continue;
+                }
+                Object[][] values = new Object[columns.size()][];
+                for (int c = 0; c < columns.size(); c++) {
+                    values[c] = c == keyColumn ? keys : decode(channel, group, c);
+                }
+                for (int r : matches) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int c = 0; c < columns.size(); c++) {
+                        row.put(columns.get(c).name(), values[c][r]);
+                    }
+                    found.add(row);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Decode every chunk of the file and check the row counts against the footer.
+     *
+     * @return number of rows read
+     */
+    public long verify() throws IOException {
+        long total = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (ColumnarArchiveWriter.RowGroup group : rowGroups) {
+                for (int c = 0; c < columns.size(); c++) {
+                    if (decode(channel, group, c).length != group.rows()) {
+                        throw new IOException("Row count mismatch in column " + columns.get(c).name()
+                                + " of " + path);
+                    }
+                }
+                total += group.rows();
+            }
+        }
+        if (total != rows) {
+            throw new IOException("Expected " + rows + " rows in " + path + ", read " + total);
+        }
+        return total;
+    }
+
+    /**
+     * Hex SHA-256 of a file, as {@link ColumnarArchiveWriter.ArchiveFile#sha256()} reports it.
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Object[] decode(FileChannel channel, ColumnarArchiveWriter.RowGroup group, int column)
+            throws IOException {
+        ByteBuffer chunk = read(channel, group.offsets()[column], group.lengths()[column]);
+        ColumnType type = columns.get(column).type();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(chunk.array(), 0, group.lengths()[column])))) {
+            int count = (int) ColumnType.readVarLong(in);
+            byte[] present = new byte[(count + 7) / 8];
+            in.readFully(present);
+            Object[] values = new Object[count];
+            long[] previous = {0};
+            for (int r = 0; r < count; r++) {
+                if ((present[r >> 3] & (1 << (r & 7))) != 0) {
+                    values[r] = type.read(in, previous);
+                }
+            }
+            return values;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive");
+            }
+        }
+        return buffer.flip();
+    }
+}
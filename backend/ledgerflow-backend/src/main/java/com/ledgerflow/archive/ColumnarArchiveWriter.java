@@ -0,0 +1,216 @@
+package com.ledgerflow.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Columnar Archive Writer
+ *
+ * Writes rows to a compressed column-oriented file:
+ * - header: magic and format version
+ * - row groups of up to {@code rowGroupSize} rows; each column of a group is
+ *   one deflate-compressed chunk (row count, null bitmap, encoded values, see
+ *   {@link ColumnType})
+ * - footer: column names and types, the key column, and per row group its
+ *   row count, min/max key and the offset and length of every chunk
+ * - footer length and magic
+ * Rows should arrive in key order, so a key lookup (ColumnarArchiveReader)
+ * touches one row group and decodes only the chunks it needs.
+ *
+ * The file is written next to its final name and moved into place by
+ * {@link #finish()}; closing an unfinished writer deletes it.
+ */
+public final class ColumnarArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x4C464131; // "LFA1"
+    static final int VERSION = 1;
+
+    private final Path target;
+    private final Path temp;
+    private final List<ArchiveColumn> columns;
+    private final int keyColumn;
+    private final int rowGroupSize;
+    private final FileOutputStream file;
+    private final MessageDigest digest;
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final List<Object[]> buffer;
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private long position;
+    private long rows;
+    private long minKey = Long.MAX_VALUE;
+    private long maxKey = Long.MIN_VALUE;
+    private boolean finished;
+
+    public ColumnarArchiveWriter(Path target, List<ArchiveColumn> columns, String keyColumn, int rowGroupSize)
+            throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.columns = List.copyOf(columns);
+        this.keyColumn = indexOf(columns, keyColumn);
+        if (columns.get(this.keyColumn).type() != ColumnType.LONG) {
+            throw new IllegalArgumentException("Key column " + keyColumn + " is not an integer column");
+        }
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        this.buffer = new ArrayList<>(this.rowGroupSize);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        this.file = new FileOutputStream(temp.toFile());
+        this.out = new DataOutputStream(new BufferedOutputStream(new DigestOutputStream(file, digest), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        position = 5;
+    }
+
+    /**
+     * Add a row, values in column order. The key must not be null.
+     */
+    public void append(Object[] row) throws IOException {
+        if (row.length != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values, got " + row.length);
+        }
+        if (row[keyColumn] == null) {
+            throw new IllegalArgumentException("Key column " + columns.get(keyColumn).name() + " is null");
+        }
+        buffer.add(row);
+        if (buffer.size() >= rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * Write the footer, sync the file to disk and move it to its final name.
+     */
+    public ArchiveFile finish() throws IOException {
+        flushRowGroup();
+
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(footerBytes);
+        footer.writeInt(columns.size());
+        for (ArchiveColumn column : columns) {
+            footer.writeUTF(column.name());
+            footer.writeByte(column.type().ordinal());
+        }
+        footer.writeInt(keyColumn);
+        footer.writeLong(rows);
+        footer.writeInt(rowGroups.size());
+        for (RowGroup group : rowGroups) {
+            footer.writeInt(group.rows());
+            footer.writeLong(group.minKey());
+            footer.writeLong(group.maxKey());
+            for (int c = 0; c < columns.size(); c++) {
+                footer.writeLong(group.offsets()[c]);
+                footer.writeInt(group.lengths()[c]);
+            }
+        }
+        footer.flush();
+        out.write(footerBytes.toByteArray());
+        out.writeInt(footerBytes.size());
+        out.writeInt(MAGIC);
+        out.flush();
+        file.getChannel().force(true);
+        out.close();
+        deflater.end();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+        return new ArchiveFile(target, rows, HexFormat.of().formatHex(digest.digest()),
+                rows > 0 ? minKey : 0, rows > 0 ? maxKey : 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            deflater.end();
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        long groupMin = Long.MAX_VALUE;
+        long groupMax = Long.MIN_VALUE;
+        for (Object[] row : buffer) {
+            long key = ((Number) row[keyColumn]).longValue();
+            groupMin = Math.min(groupMin, key);
+            groupMax = Math.max(groupMax, key);
+        }
+
+        long[] offsets = new long[columns.size()];
+        int[] lengths = new int[columns.size()];
+        for (int c = 0; c < columns.size(); c++) {
+            byte[] chunk = encodeChunk(c);
+            offsets[c] = position;
+            lengths[c] = chunk.length;
+            out.write(chunk);
+            position += chunk.length;
+        }
+        rowGroups.add(new RowGroup(buffer.size(), groupMin, groupMax, offsets, lengths));
+        rows += buffer.size();
+        minKey = Math.min(minKey, groupMin);
+        maxKey = Math.max(maxKey, groupMax);
+        buffer.clear();
+    }
+
+    private byte[] encodeChunk(int column) throws IOException {
+        ColumnType type = columns.get(column).type();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        deflater.reset();
+        try (DataOutputStream chunk = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 1 << 13))) {
+            ColumnType.writeVarLong(chunk, buffer.size());
+            byte[] present = new byte[(buffer.size() + 7) / 8];
+            for (int r = 0; r < buffer.size(); r++) {
+                if (buffer.get(r)[column] != null) {
+                    present[r >> 3] |= (byte) (1 << (r & 7));
+                }
+            }
+            chunk.write(present);
+            long previous = 0;
+            for (Object[] row : buffer) {
+                if (row[column] != null) {
+                    previous = type.write(chunk, row[column], previous);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int indexOf(List<ArchiveColumn> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No column " + name);
+    }
+
+    record RowGroup(int rows, long minKey, long maxKey, long[] offsets, int[] lengths) {
+    }
+
+    /**
+     * A finished archive file.
+     */
+    public record ArchiveFile(Path path, long rows, String sha256, long minKey, long maxKey) {
+    }
+}
@@ -0,0 +1,369 @@
+package com.ledgerflow.archive;
+
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.sharding.ShardContext;
+import com.ledgerflow.sharding.Shards;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice Archiver
+ *
+ * Every {@code maintenance-interval-minutes}, on each shard:
+ * - creates upcoming monthly partitions (InvoicePartitions)
+ * - archives monthly partitions that ended more than {@code retention-months}
+ *   ago and hold only PAID or REJECTED invoices
+ * A pass holds a session advisory lock on the shard, so only one node
+ * archives it. A month is archived in two transactions:
+ * - export: from one REPEATABLE READ snapshot and without table locks beyond
+ *   the readers' own, invoices (by id) and line items (by invoice id) go to
+ *   columnar files under {@code root/<shard>/}, which are read back to verify
+ *   them, and a fingerprint (row count and row hash sum) of both partitions is
+ *   taken
+ * - detach: ACCESS EXCLUSIVE locks on the parent tables, which also covers
+ *   their partitions, so the lock order matches writers and DETACH, waiting at
+ *   most {@code lock-timeout-ms}; if the fingerprint still matches, the files
+ *   are recorded in invoice_archives and then the partitions are detached and
+ *   dropped, all committed together
+ * Writers are only blocked for the second transaction (one scan of the month
+ * plus the detach). A month that changed in between, e.g. a tenant moved onto
+ * the shard, is exported again on the next run. DETACH CONCURRENTLY is not an
+ * option: the tables have DEFAULT partitions. Months with open invoices are
+ * left alone until they close; the DEFAULT partition is never archived.
+ * ArchivedInvoices serves archived invoices read-only.
+ */
+@Component
+@ConditionalOnProperty(name = "app.partitioning.enabled", havingValue = "true")
+public class InvoiceArchiver {
+    private static final Logger log = LoggerFactory.getLogger(InvoiceArchiver.class);
+
+    static final String FILE_SUFFIX = ".lfa";
+    // pg_try_advisory_lock key, so only one node archives a shard at a time
+    private static final long ARCHIVE_LOCK = 0x4C46_5041_5254_0002L;
+    private static final String INSERT_ARCHIVE = "INSERT INTO invoice_archives (partition_name, range_from, range_to,"
+            + " min_invoice_id, max_invoice_id, invoice_count, line_item_count, invoices_file, invoices_sha256,"
+            + " line_items_file, line_items_sha256, archived_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final InvoicePartitions partitions;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate exportTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+    private final LedgerFlowMetrics metrics;
+    private final long intervalMinutes;
+    private final boolean archiveEnabled;
+    private final int retentionMonths;
+    private final Path root;
+    private final int rowGroupSize;
+    private final long lockTimeoutMs;
+    private final ScheduledExecutorService scheduler;
+
+    public InvoiceArchiver(InvoicePartitions partitions,
+                           DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           Shards shards,
+                           LedgerFlowMetrics metrics,
+                           @Value("${app.partitioning.maintenance-interval-minutes:60}") long intervalMinutes,
+                           @Value("${app.partitioning.archive.enabled:true}") boolean archiveEnabled,
+                           @Value("${app.partitioning.archive.retention-months:12}") int retentionMonths,
+                           @Value("${app.partitioning.archive.root:./data/archive}") String root,
+                           @Value("${app.partitioning.archive.row-group-size:8192}") int rowGroupSize,
+                           @Value("${app.partitioning.archive.lock-timeout-ms:5000}") long lockTimeoutMs) {
+        this.partitions = partitions;
+        this.dataSource = dataSource;
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        // Streams the export through a cursor instead of loading a month into memory
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(this.rowGroupSize);
+        this.exportTransaction = new TransactionTemplate(transactionManager);
+        this.exportTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.exportTransaction.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.metrics = metrics;
+        this.intervalMinutes = Math.max(1, intervalMinutes);
+        this.archiveEnabled = archiveEnabled;
+        this.retentionMonths = Math.max(1, retentionMonths);
+        this.root = Paths.get(root);
+        this.lockTimeoutMs = Math.max(1, lockTimeoutMs);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invoice-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::run, 1, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * One maintenance pass over every shard, as scheduled.
+     */
+    public void run() {
+        for (String shard : shards.names()) {
+            ShardContext.runOn(shard, () -> {
+                try {
+                    partitions.ensurePartitions();
+                    if (archiveEnabled) {
+                        archiveClosedMonths(shard);
+                    }
+                } catch (RuntimeException e) {
+                    // Keep the schedule alive; the next run retries
+                    log.warn("Invoice partition maintenance failed{}: {}", partitions.onShard(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void archiveClosedMonths(String shard) {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        Collection<YearMonth> months = partitions.monthlyPartitions().headMap(cutoff, false).keySet();
+        if (months.isEmpty()) {
+            return;
+        }
+        try (Connection session = dataSource.getConnection()) {
+            if (!advisoryLock(session, "pg_try_advisory_lock")) {
+                metrics.increment(LedgerFlowMetrics.ARCHIVE_PARTITIONS, Tags.of("outcome", Outcome.BUSY.tag));
+                return;
+            }
+            try {
+                for (YearMonth month : months) {
+                    archiveMonth(shard, month);
+                }
+            } finally {
+                advisoryLock(session, "pg_advisory_unlock");
+            }
+        } catch (SQLException e) {
+            log.warn("Could not lock the invoice archive{}: {}", partitions.onShard(), e.getMessage());
+        }
+    }
+
+    private static boolean advisoryLock(Connection session, String function) throws SQLException {
+        try (PreparedStatement statement = session.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, ARCHIVE_LOCK);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private void archiveMonth(String shard, YearMonth month) {
+        long started = System.nanoTime();
+        String invoices = InvoicePartitions.partitionName(InvoicePartitions.INVOICES, month);
+        String lineItems = InvoicePartitions.partitionName(InvoicePartitions.LINE_ITEMS, month);
+        Outcome outcome;
+        Export export = null;
+        try {
+            export = exportTransaction.execute(status -> export(shard, invoices, lineItems));
+            outcome = export.outcome();
+            if (outcome == Outcome.ARCHIVED || outcome == Outcome.EMPTY) {
+                Export exported = export;
+                outcome = transactionTemplate.execute(status -> detach(month, invoices, lineItems, exported));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Archiving invoices of {}{} failed: {}", month, partitions.onShard(), e.getMessage());
+            outcome = Outcome.ERROR;
+        }
+        if (outcome != Outcome.ARCHIVED && export != null) {
+            export.delete();
+        }
+        metrics.increment(LedgerFlowMetrics.ARCHIVE_PARTITIONS, Tags.of("outcome", outcome.tag));
+        if (outcome == Outcome.ARCHIVED) {
+            metrics.increment(LedgerFlowMetrics.ARCHIVE_ROWS, Tags.of("table", InvoicePartitions.INVOICES),
+                    export.invoiceFile().rows());
+            metrics.increment(LedgerFlowMetrics.ARCHIVE_ROWS, Tags.of("table", InvoicePartitions.LINE_ITEMS),
+                    export.lineItemFile().rows());
+            log.info("Archived invoices of {}{} in {} ms", month, partitions.onShard(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } else if (outcome == Outcome.CHANGED) {
+            log.info("Invoices of {}{} changed during the export; retrying on the next run", month,
+                    partitions.onShard());
+        }
+    }
+
+    /**
+     * First transaction: files and fingerprint from one snapshot.
+     */
+    private Export export(String shard, String invoices, String lineItems) {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class,
+                invoices))) {
+            return new Export(Outcome.BUSY, null, null, null);
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + invoices
+                + " WHERE status NOT IN ('PAID', 'REJECTED'))", Boolean.class))) {
+            return new Export(Outcome.OPEN, null, null, null);
+        }
+        String fingerprint = fingerprint(invoices, lineItems);
+        Path directory = root.resolve(shard);
+        ColumnarArchiveWriter.ArchiveFile invoiceFile = export("SELECT * FROM " + invoices + " ORDER BY id",
+                directory.resolve(invoices + FILE_SUFFIX), "id");
+        if (invoiceFile.rows() == 0) {
+            delete(invoiceFile.path());
+            return new Export(Outcome.EMPTY, fingerprint, null, null);
+        }
+        Export export = new Export(Outcome.ARCHIVED, fingerprint, invoiceFile, null);
+        try {
+            ColumnarArchiveWriter.ArchiveFile lineItemFile = export("SELECT * FROM " + lineItems
+                    + " ORDER BY invoice_id, id", directory.resolve(lineItems + FILE_SUFFIX), "invoice_id");
+            export = new Export(Outcome.ARCHIVED, fingerprint, invoiceFile, lineItemFile);
+            verify(invoiceFile);
+            verify(lineItemFile);
+            return export;
+        } catch (RuntimeException e) {
+            export.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Second transaction: lock, compare, record, then detach and drop. Line
+     * items first: the invoices partition can only be detached once no line
+     * item references it.
+     */
+    private Outcome detach(YearMonth month, String invoices, String lineItems, Export export) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+        jdbcTemplate.execute("LOCK TABLE " + InvoicePartitions.INVOICES + ", " + InvoicePartitions.LINE_ITEMS
+                + " IN ACCESS EXCLUSIVE MODE");
+        if (!export.fingerprint().equals(fingerprint(invoices, lineItems))) {
+            return Outcome.CHANGED;
+        }
+        if (export.outcome() == Outcome.ARCHIVED) {
+            ColumnarArchiveWriter.ArchiveFile invoiceFile = export.invoiceFile();
+            ColumnarArchiveWriter.ArchiveFile lineItemFile = export.lineItemFile();
+            Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+            Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+            jdbcTemplate.update(INSERT_ARCHIVE, invoices, from, to, invoiceFile.minKey(), invoiceFile.maxKey(),
+                    invoiceFile.rows(), lineItemFile.rows(), relative(invoiceFile.path()), invoiceFile.sha256(),
+                    relative(lineItemFile.path()), lineItemFile.sha256(), Timestamp.valueOf(LocalDateTime.now()));
+        }
+        jdbcTemplate.execute("ALTER TABLE " + InvoicePartitions.LINE_ITEMS + " DETACH PARTITION " + lineItems);
+        jdbcTemplate.execute("DROP TABLE " + lineItems);
+        jdbcTemplate.execute("ALTER TABLE " + InvoicePartitions.INVOICES + " DETACH PARTITION " + invoices);
+        jdbcTemplate.execute("DROP TABLE " + invoices);
+        return export.outcome();
+    }
+
+    /**
+     * Row count and sum of row hashes of both partitions; any insert, update
+     * or delete changes it (barring a hash collision).
+     */
+    private String fingerprint(String invoices, String lineItems) {
+        return jdbcTemplate.queryForObject("SELECT (SELECT count(*) || ':' || coalesce(sum(hashtext(t::text)), 0)"
+                + " FROM " + invoices + " t) || '/' || (SELECT count(*) || ':' || coalesce(sum(hashtext(t::text)), 0)"
+                + " FROM " + lineItems + " t)", String.class);
+    }
+
+    private ColumnarArchiveWriter.ArchiveFile export(String sql, Path target, String keyColumn) {
+        return jdbcTemplate.query(sql, (ResultSetExtractor<ColumnarArchiveWriter.ArchiveFile>) resultSet -> {
+            ResultSetMetaData meta = resultSet.getMetaData();
+            List<ArchiveColumn> columns = new ArrayList<>(meta.getColumnCount());
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                columns.add(new ArchiveColumn(meta.getColumnName(i), ColumnType.of(meta.getColumnType(i))));
+            }
+            try (ColumnarArchiveWriter writer = new ColumnarArchiveWriter(target, columns, keyColumn, rowGroupSize)) {
+                while (resultSet.next()) {
+                    Object[] row = new Object[columns.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = columns.get(i).type().read(resultSet, i + 1);
+                    }
+                    writer.append(row);
+                }
+                return writer.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + target, e);
+            }
+        });
+    }
+
+    /**
+     * Read the file back: every chunk must decode, and rows and checksum must
+     * match what was written.
+     */
+    private void verify(ColumnarArchiveWriter.ArchiveFile file) {
+        try {
+            long rows = ColumnarArchiveReader.open(file.path()).verify();
+            if (rows != file.rows() || !ColumnarArchiveReader.sha256(file.path()).equals(file.sha256())) {
+                throw new IllegalStateException("Archive " + file.path() + " does not match what was written");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not verify " + file.path(), e);
+        }
+    }
+
+    private String relative(Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record Export(Outcome outcome, String fingerprint, ColumnarArchiveWriter.ArchiveFile invoiceFile,
+                          ColumnarArchiveWriter.ArchiveFile lineItemFile) {
+
+        void delete() {
+            if (invoiceFile != null) {
+                InvoiceArchiver.delete(invoiceFile.path());
+            }
+            if (lineItemFile != null) {
+                InvoiceArchiver.delete(lineItemFile.path());
+            }
+        }
+    }
+
+    private enum Outcome {
+        ARCHIVED("archived"), EMPTY("empty"), OPEN("open"), BUSY("busy"), CHANGED("changed"), ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.ledgerflow.archive;
+
+import com.ledgerflow.sharding.ShardContext;
+import com.ledgerflow.sharding.Shards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Invoice Partitions
+ *
+ * Keeps invoices and invoice_line_items range partitioned by month:
+ * invoices on created_at, line items on invoice_created_at (the invoice's
+ * created_at), in partitions named {@code <table>_pYYYY_MM} plus a DEFAULT
+ * partition for rows outside every month. The line items reference their
+ * invoice by (id, created_at), so matching months can be detached together.
+ *
+ * Changing the layout is explicit: with {@code convert=partition} the plain
+ * tables left by Hibernate are converted on start-up, before the web server
+ * takes requests, and {@code convert=revert} turns partitioned tables back
+ * into plain ones (refused once months have been archived). Either runs once
+ * per shard in one transaction that holds ACCESS EXCLUSIVE locks while the
+ * rows are copied, so it needs a maintenance window on a large database. Rows,
+ * id sequences, non-unique indexes, CHECK constraints and foreign keys (to
+ * tenants, and between the two tables) are carried over; a unique index or a
+ * foreign key from another table aborts the conversion instead of being lost.
+ * With {@code convert=none} (the default) the layout is left as found.
+ *
+ * While the tables are partitioned, the current month and the next
+ * {@code premake-months} are created here and by every InvoiceArchiver run.
+ */
+@Component
+@ConditionalOnProperty(name = "app.partitioning.enabled", havingValue = "true")
+public class InvoicePartitions implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(InvoicePartitions.class);
+
+    public static final String INVOICES = "invoices";
+    public static final String LINE_ITEMS = "invoice_line_items";
+
+    private static final String SUFFIX = "_p";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // pg_advisory_xact_lock key, so only one node converts a shard
+    private static final long CONVERSION_LOCK = 0x4C46_5041_5254_0001L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+    private final int premakeMonths;
+    private final Conversion conversion;
+    private volatile boolean running;
+
+    public InvoicePartitions(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             Shards shards,
+                             @Value("${app.partitioning.premake-months:3}") int premakeMonths,
+                             @Value("${app.partitioning.convert:none}") String conversion) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.premakeMonths = Math.max(1, premakeMonths);
+        this.conversion = Conversion.valueOf(conversion.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Convert or revert (once, if configured) and create upcoming partitions
+     * on every shard. Runs after all singletons, so Hibernate and
+     * ShardSchemaInitializer have brought each shard's schema up to date.
+     */
+    @Override
+    public void start() {
+        for (String shard : shards.names()) {
+            ShardContext.runOn(shard, () -> {
+                switch (conversion) {
+                    case PARTITION -> rebuild(true);
+                    case REVERT -> rebuild(false);
+                    case NONE -> { }
+                }
+                if (isPartitioned(INVOICES)) {
+                    ensurePartitions();
+                } else if (conversion != Conversion.REVERT) {
+                    log.warn("{} is not partitioned{}; set app.partitioning.convert=partition to convert it",
+                            INVOICES, onShard());
+                }
+            });
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Before WebServerStartStopLifecycle
+        return 0;
+    }
+
+    /**
+     * Create the partitions of the current month and the next
+     * {@code premake-months} on the current shard, where missing.
+     */
+    public void ensurePartitions() {
+        if (!isPartitioned(INVOICES)) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> createMonth(month));
+            } catch (DataAccessException e) {
+                // Another node created it first, or rows of that month already sit in the DEFAULT partition
+                log.warn("Could not create invoice partitions for {}{}: {}", month, onShard(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Monthly partitions of invoices on the current shard, oldest first.
+     */
+    public NavigableMap<YearMonth, String> monthlyPartitions() {
+        List<String> names = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass", String.class, INVOICES);
+        NavigableMap<YearMonth, String> partitions = new TreeMap<>();
+        String prefix = INVOICES + SUFFIX;
+        for (String name : names) {
+            if (!name.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                partitions.put(YearMonth.parse(name.substring(prefix.length()), MONTH), name);
+            } catch (DateTimeParseException e) {
+                log.debug("Ignoring partition {} of {}", name, INVOICES);
+            }
+        }
+        return partitions;
+    }
+
+    public static String partitionName(String table, YearMonth month) {
+        return table + SUFFIX + month.format(MONTH);
+    }
+
+    String onShard() {
+        return shards.isSharded() ? " on shard " + ShardContext.current() : "";
+    }
+
+    private void createMonth(YearMonth month) {
+        String bounds = " FOR VALUES FROM ('" + month.atDay(1).atStartOfDay().format(BOUND) + "') TO ('"
+                + month.plusMonths(1).atDay(1).atStartOfDay().format(BOUND) + "')";
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(INVOICES, month)
+                + " PARTITION OF " + INVOICES + bounds);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(LINE_ITEMS, month)
+                + " PARTITION OF " + LINE_ITEMS + bounds);
+    }
+
+    private boolean isPartitioned(String table) {
+        String kind = jdbcTemplate.queryForObject("SELECT relkind::text FROM pg_class WHERE oid = ?::regclass",
+                String.class, table);
+        return "p".equals(kind);
+    }
+
+    /**
+     * Replace the plain tables with partitioned ones holding the same rows,
+     * or the partitioned tables with plain ones, on the current shard.
+     */
+    private void rebuild(boolean partitioned) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + CONVERSION_LOCK + ")");
+            if (isPartitioned(INVOICES) == partitioned) {
+                return;
+            }
+            long started = System.nanoTime();
+            log.info("{} {} and {}{}", partitioned ? "Partitioning" : "Reverting", INVOICES, LINE_ITEMS, onShard());
+            jdbcTemplate.execute("LOCK TABLE " + INVOICES + ", " + LINE_ITEMS + " IN ACCESS EXCLUSIVE MODE");
+            if (!partitioned && Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass('invoice_archives')"
+                    + " IS NOT NULL AND EXISTS (SELECT 1 FROM invoice_archives)", Boolean.class))) {
+                throw new IllegalStateException("Cannot revert " + INVOICES + onShard()
+                        + ": archived months would no longer be readable");
+            }
+            if (partitioned) {
+                jdbcTemplate.update("UPDATE " + LINE_ITEMS + " li SET invoice_created_at = i.created_at FROM "
+                        + INVOICES + " i WHERE li.invoice_id = i.id AND li.invoice_created_at IS NULL");
+            }
+            checkCarriedOver(INVOICES);
+            checkCarriedOver(LINE_ITEMS);
+            for (String constraint : jdbcTemplate.queryForList("SELECT conname FROM pg_constraint"
+                    + " WHERE conrelid = ?::regclass AND confrelid = ?::regclass AND contype = 'f'",
+                    String.class, LINE_ITEMS, INVOICES)) {
+                jdbcTemplate.execute("ALTER TABLE " + LINE_ITEMS + " DROP CONSTRAINT \"" + constraint + "\"");
+            }
+
+            List<String> recreate = new ArrayList<>();
+            for (String table : List.of(INVOICES, LINE_ITEMS)) {
+                recreate.addAll(secondaryIndexes(table));
+                recreate.addAll(foreignKeys(table));
+            }
+            String invoiceSequence = releaseSequence(INVOICES);
+            String lineItemSequence = releaseSequence(LINE_ITEMS);
+            String aside = partitioned ? "_unpartitioned" : "_partitioned";
+            replace(INVOICES, aside, partitioned ? "created_at" : null);
+            if (partitioned) {
+                jdbcTemplate.execute("ALTER TABLE " + LINE_ITEMS + " ALTER COLUMN invoice_created_at SET NOT NULL");
+            }
+            replace(LINE_ITEMS, aside, partitioned ? "invoice_created_at" : null);
+
+            YearMonth first = YearMonth.now();
+            YearMonth last = YearMonth.now();
+            if (partitioned) {
+                LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT min(created_at) FROM " + INVOICES + aside,
+                        LocalDateTime.class);
+                LocalDateTime newest = jdbcTemplate.queryForObject("SELECT max(created_at) FROM " + INVOICES + aside,
+                        LocalDateTime.class);
+                first = oldest != null && YearMonth.from(oldest).isBefore(first) ? YearMonth.from(oldest) : first;
+                last = newest != null && YearMonth.from(newest).isAfter(last) ? YearMonth.from(newest) : last;
+                for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                    createMonth(month);
+                }
+                for (String table : List.of(INVOICES, LINE_ITEMS)) {
+                    jdbcTemplate.execute("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+                }
+            }
+
+            jdbcTemplate.update("INSERT INTO " + INVOICES + " SELECT * FROM " + INVOICES + aside);
+            jdbcTemplate.update("INSERT INTO " + LINE_ITEMS + " SELECT * FROM " + LINE_ITEMS + aside);
+            jdbcTemplate.execute("DROP TABLE " + LINE_ITEMS + aside + ", " + INVOICES + aside);
+
+            jdbcTemplate.execute("ALTER TABLE " + INVOICES + " ADD PRIMARY KEY (id" + (partitioned ? ", created_at)" : ")"));
+            jdbcTemplate.execute("ALTER TABLE " + LINE_ITEMS + " ADD PRIMARY KEY (id"
+                    + (partitioned ? ", invoice_created_at)" : ")"));
+            jdbcTemplate.execute("ALTER SEQUENCE " + invoiceSequence + " OWNED BY " + INVOICES + ".id");
+            jdbcTemplate.execute("ALTER SEQUENCE " + lineItemSequence + " OWNED BY " + LINE_ITEMS + ".id");
+            for (String statement : recreate) {
+                jdbcTemplate.execute(statement);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + LINE_ITEMS + " ADD CONSTRAINT fk_invoice_line_items_invoice"
+                    + (partitioned
+                            ? " FOREIGN KEY (invoice_id, invoice_created_at) REFERENCES " + INVOICES + " (id, created_at)"
+                            : " FOREIGN KEY (invoice_id) REFERENCES " + INVOICES + " (id)"));
+            log.info("{} {} and {} in {} ms{}", partitioned ? "Partitioned" : "Reverted", INVOICES, LINE_ITEMS,
+                    (System.nanoTime() - started) / 1_000_000, onShard());
+        });
+    }
+
+    /**
+     * Refuse what the other layout cannot hold: unique indexes other than
+     * the primary key (a partitioned table needs the partition key in them)
+     * and foreign keys from other tables (the primary key changes).
+     */
+    private void checkCarriedOver(String table) {
+        List<String> unique = jdbcTemplate.queryForList("SELECT c.relname FROM pg_index i"
+                + " JOIN pg_class c ON c.oid = i.indexrelid"
+                + " WHERE i.indrelid = ?::regclass AND i.indisunique AND NOT i.indisprimary", String.class, table);
+        List<String> referencing = jdbcTemplate.queryForList("SELECT conrelid::regclass::text FROM pg_constraint"
+                + " WHERE confrelid = ?::regclass AND contype = 'f' AND conparentid = 0"
+                + " AND conrelid NOT IN (?::regclass, ?::regclass)", String.class, table, INVOICES, LINE_ITEMS);
+        if (!unique.isEmpty() || !referencing.isEmpty()) {
+            throw new IllegalStateException("Cannot change the layout of " + table + onShard() + ": unique indexes "
+                    + unique + " and foreign keys from " + referencing + " would be lost; drop them first");
+        }
+    }
+
+    /**
+     * Non-unique indexes of {@code table}, as CREATE INDEX statements that
+     * name the table (taken before it is renamed).
+     */
+    private List<String> secondaryIndexes(String table) {
+        List<String> indexes = new ArrayList<>();
+        for (String index : jdbcTemplate.queryForList("SELECT pg_get_indexdef(indexrelid) FROM pg_index"
+                + " WHERE indrelid = ?::regclass AND NOT indisunique", String.class, table)) {
+            // A partitioned table's index is defined ON ONLY the parent
+            indexes.add(index.replace(" ON ONLY ", " ON "));
+        }
+        return indexes;
+    }
+
+    /**
+     * Foreign keys from {@code table} to other tables (tenants), as ALTER
+     * TABLE statements. The key between the two tables is rebuilt separately.
+     */
+    private List<String> foreignKeys(String table) {
+        return jdbcTemplate.queryForList("SELECT 'ALTER TABLE ' || ? || ' ADD CONSTRAINT ' || quote_ident(conname)"
+                + " || ' ' || pg_get_constraintdef(oid) FROM pg_constraint WHERE conrelid = ?::regclass"
+                + " AND contype = 'f' AND confrelid NOT IN (?::regclass, ?::regclass)",
+                String.class, table, table, INVOICES, LINE_ITEMS);
+    }
+
+    /**
+     * Turn the id column's sequence into a free-standing one that the
+     * replacement table's id default (copied by LIKE) can keep using: an
+     * IDENTITY column (as Hibernate creates it) becomes a plain column with a
+     * nextval default, since partitioned tables only take identity columns
+     * from PostgreSQL 17 on. Hibernate's IDENTITY inserts only rely on the
+     * column default.
+     *
+     * @return the sequence, to be owned by the replacement table's id column
+     */
+    private String releaseSequence(String table) {
+        String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+        Boolean identity = jdbcTemplate.queryForObject("SELECT attidentity <> '' FROM pg_attribute"
+                + " WHERE attrelid = ?::regclass AND attname = 'id'", Boolean.class, table);
+        if (Boolean.TRUE.equals(identity)) {
+            Long next = jdbcTemplate.queryForObject("SELECT CASE WHEN is_called THEN last_value + 1 ELSE last_value END"
+                    + " FROM " + sequence, Long.class);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+            sequence = table + "_id_seq";
+            jdbcTemplate.execute("CREATE SEQUENCE " + sequence);
+            jdbcTemplate.execute("SELECT setval('" + sequence + "', " + (next != null ? next : 1) + ", false)");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " OWNED BY NONE");
+        return sequence;
+    }
+
+    /**
+     * Rename {@code table} to {@code table + aside} and create its
+     * replacement, partitioned by {@code key} or plain if it is null.
+     */
+    private void replace(String table, String aside, String key) {
+        String old = table + aside;
+        jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + old);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + old
+                + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE INCLUDING COMMENTS)"
+                + (key != null ? " PARTITION BY RANGE (" + key + ")" : ""));
+    }
+
+    private enum Conversion {
+        NONE, PARTITION, REVERT
+    }
+}
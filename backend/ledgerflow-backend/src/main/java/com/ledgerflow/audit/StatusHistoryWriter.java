@@ -0,0 +1,233 @@
+package com.ledgerflow.audit;
+
+import com.ledgerflow.dto.InvoiceEvent;
+import com.ledgerflow.entity.InvoiceStatusHistory;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.sharding.ShardContext;
+import com.ledgerflow.sharding.ShardDirectory;
+import com.ledgerflow.sharding.Shards;
+import com.ledgerflow.util.SecurityUtil;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Status History Writer
+ *
+ * Records every invoice status transition in invoice_status_history without
+ * adding a write to the request's transaction:
+ * - after the invoice change commits, the entry (with the acting user from
+ *   SecurityUtil, read on the request thread) goes into a bounded queue
+ * - one writer thread drains the queue and inserts whatever has accumulated,
+ *   up to {@code batch-size} rows, as one JDBC batch in one transaction; the
+ *   busier the queue, the larger the batches (group commit)
+ * - when the queue is full the request thread waits up to
+ *   {@code offer-timeout-ms}, then writes its entry itself, so a slow database
+ *   slows producers down instead of growing memory or losing entries
+ * - on shutdown the queue is drained before the context closes
+ * Entries reach the table up to {@code flush-interval-ms} after the change
+ * (longer under backlog). Entries still queued when the process dies are lost.
+ * With sharding on, a batch is split by the tenants' shards and each part is
+ * written (and retried) on its own shard.
+ */
+@Component
+public class StatusHistoryWriter {
+    private static final Logger log = LoggerFactory.getLogger(StatusHistoryWriter.class);
+
+    private static final String INSERT = "INSERT INTO invoice_status_history"
+            + " (tenant_id, invoice_id, previous_status, new_status, changed_by, changed_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate inlineTransactionTemplate;
+    private final LedgerFlowMetrics metrics;
+    private final Shards shards;
+    private final ShardDirectory shardDirectory;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final BlockingQueue<InvoiceStatusHistory> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public StatusHistoryWriter(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               LedgerFlowMetrics metrics,
+                               Shards shards,
+                               ShardDirectory shardDirectory,
+                               @Value("${app.audit.enabled:true}") boolean enabled,
+                               @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+                               @Value("${app.audit.batch-size:500}") int batchSize,
+                               @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMs,
+                               @Value("${app.audit.offer-timeout-ms:100}") long offerTimeoutMs,
+                               @Value("${app.audit.shutdown-timeout-seconds:10}") long shutdownTimeoutSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The inline path runs in an after-commit callback, where the request's transaction is
+        // still bound but already committed: joining it would commit nothing
+        this.inlineTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.inlineTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.metrics = metrics;
+        this.shards = shards;
+        this.shardDirectory = shardDirectory;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.shutdownTimeoutMs = TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        metrics.gauge(LedgerFlowMetrics.AUDIT_QUEUE_DEPTH, Tags.empty(), queue, BlockingQueue::size);
+
+        this.writer = new Thread(this::run, "status-history-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    /**
+     * Runs after the invoice transaction commits, on the request thread, so
+     * rolled-back changes are never recorded and the user is still known.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceEvent(InvoiceEvent event) {
+        if (!enabled || !event.getType().isChange()) {
+            return;
+        }
+        InvoiceEvent.Type type = event.getType();
+        if (type == InvoiceEvent.Type.STATUS_CHANGED && event.getPreviousStatus() == event.getStatus()) {
+            return;
+        }
+        InvoiceStatusHistory entry = new InvoiceStatusHistory(null, event.getTenantId(), event.getInvoiceId(),
+                type == InvoiceEvent.Type.STATUS_CHANGED ? event.getPreviousStatus() : null,
+                event.getStatus(), SecurityUtil.getCurrentUserId(), event.getTimestamp());
+        try {
+            enqueue(entry);
+        } catch (RuntimeException e) {
+            // The invoice change is committed; do not fail the request over its audit entry
+            log.error("Could not record status history {}: {}", entry, e.getMessage());
+            metrics.increment(LedgerFlowMetrics.AUDIT_WRITTEN, Tags.of("outcome", "dropped"));
+        }
+    }
+
+    void enqueue(InvoiceStatusHistory entry) {
+        boolean queued = false;
+        if (running) {
+            try {
+                queued = queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queued) {
+            // Backpressure: the caller pays for its own insert while the writer catches up
+            insert(inlineTransactionTemplate, List.of(entry));
+            metrics.increment(LedgerFlowMetrics.AUDIT_WRITTEN, Tags.of("outcome", "inline"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        if (!queue.isEmpty()) {
+            log.warn("{} status history entries not written before shutdown", queue.size());
+        }
+    }
+
+    private void run() {
+        List<InvoiceStatusHistory> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                InvoiceStatusHistory first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // Shutdown uses the running flag; keep draining
+                Thread.interrupted();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<InvoiceStatusHistory> batch) throws InterruptedException {
+        if (!shards.isSharded()) {
+            writeShard(batch);
+            return;
+        }
+        Map<String, List<InvoiceStatusHistory>> byShard = new LinkedHashMap<>();
+        for (InvoiceStatusHistory entry : batch) {
+            byShard.computeIfAbsent(shardDirectory.shardOf(entry.getTenantId()), shard -> new ArrayList<>())
+                    .add(entry);
+        }
+        for (Map.Entry<String, List<InvoiceStatusHistory>> part : byShard.entrySet()) {
+            try (ShardContext.Scope ignored = ShardContext.open(part.getKey())) {
+                writeShard(part.getValue());
+            }
+        }
+    }
+
+    private void writeShard(List<InvoiceStatusHistory> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(transactionTemplate, batch);
+                metrics.increment(LedgerFlowMetrics.AUDIT_WRITTEN, Tags.of("outcome", "batched"), batch.size());
+                metrics.record(LedgerFlowMetrics.AUDIT_BATCH, "entries", Tags.empty(), batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    log.error("Dropping {} status history entries after {} attempts: {}", batch.size(), attempt,
+                            e.getMessage());
+                    batch.forEach(entry -> log.error("Unwritten status history: {}", entry));
+                    metrics.increment(LedgerFlowMetrics.AUDIT_WRITTEN, Tags.of("outcome", "dropped"), batch.size());
+                    return;
+                }
+                log.warn("Status history batch of {} failed (attempt {}): {}", batch.size(), attempt, e.getMessage());
+                Thread.sleep(flushIntervalMs * attempt);
+            }
+        }
+    }
+
+    private void insert(TransactionTemplate transaction, List<InvoiceStatusHistory> entries) {
+        transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, entries, entries.size(),
+                (ps, entry) -> {
+                    ps.setLong(1, entry.getTenantId());
+                    ps.setLong(2, entry.getInvoiceId());
+                    ps.setString(3, entry.getPreviousStatus() != null ? entry.getPreviousStatus().name() : null);
+                    ps.setString(4, entry.getNewStatus().name());
+                    if (entry.getChangedBy() != null) {
+                        ps.setLong(5, entry.getChangedBy());
+                    } else {
+                        ps.setNull(5, Types.BIGINT);
+                    }
+                    ps.setTimestamp(6, Timestamp.valueOf(entry.getChangedAt()));
+                }));
+    }
+}
@@ -0,0 +1,54 @@
+package com.ledgerflow.config;
+
+import com.ledgerflow.deadline.DeadlineHandler;
+import com.ledgerflow.deadline.DeadlinePolicy;
+import com.ledgerflow.deadline.DeadlineScheduler;
+import com.ledgerflow.deadline.DeadlineStore;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Deadline Scheduler Configuration
+ *
+ * Wires the invoice deadline scheduler with the system clock, the
+ * invoices-table store and every DeadlineHandler bean. Handlers run on a small
+ * pool of their own, so a slow handler does not hold up the wheel.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.deadlines.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineSchedulerConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public DeadlineScheduler deadlineScheduler(
+            DeadlineStore store,
+            DeadlinePolicy policy,
+            List<DeadlineHandler> handlers,
+            LedgerFlowMetrics metrics,
+            Clock clock,
+            @Value("${app.deadlines.tick-ms:1000}") long tickMs,
+            @Value("${app.deadlines.wheel-size:60}") int wheelSize,
+            @Value("${app.deadlines.horizon-minutes:360}") long horizonMinutes,
+            @Value("${app.deadlines.catch-up-hours:24}") long catchUpHours,
+            @Value("${app.deadlines.refresh-minutes:15}") long refreshMinutes,
+            @Value("${app.deadlines.handler-threads:2}") int handlerThreads) {
+        return new DeadlineScheduler(store, policy, handlers, metrics, clock,
+                Executors.newFixedThreadPool(handlerThreads,
+                        Thread.ofPlatform().name("deadline-handler-", 0).daemon().factory()),
+                tickMs, wheelSize, Duration.ofMinutes(horizonMinutes), Duration.ofHours(catchUpHours),
+                Duration.ofMinutes(refreshMinutes),
+                Thread.ofPlatform().name("deadline-wheel-", 0).daemon().factory());
+    }
+}
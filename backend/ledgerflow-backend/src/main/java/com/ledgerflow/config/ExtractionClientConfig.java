@@ -0,0 +1,71 @@
+package com.ledgerflow.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Extraction Client Configuration
+ *
+ * HTTP clients used to call the AI orchestration service:
+ * - extractionRestTemplate: blocking client for /api/invoices/upload, backed by
+ *   the JDK HttpClient, which blocks without pinning when called from a virtual
+ *   thread. With {@code spring.threads.virtual.enabled=true} its internal
+ *   executor also runs on virtual threads.
+ * - extractionWebClient: non-blocking client for /api/reactive/invoices/upload,
+ *   running on the Reactor Netty event loop. Uploads beyond max-connections
+ *   wait for a pooled connection; ReactiveInvoiceUploadService rejects those
+ *   beyond max-in-flight before they reach the pool.
+ */
+@Configuration
+public class ExtractionClientConfig {
+
+    @Bean
+    public RestTemplate extractionRestTemplate(
+            @Value("${app.ai-orchestration.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${app.ai-orchestration.read-timeout-ms:300000}") long readTimeoutMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        java.net.http.HttpClient.Builder httpClient = java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (virtualThreads) {
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
+    }
+
+    @Bean
+    public WebClient extractionWebClient(
+            WebClient.Builder builder,
+            @Value("${app.ai-orchestration.url:http://localhost:8001}") String baseUrl,
+            @Value("${app.ai-orchestration.connect-timeout-ms:5000}") int connectTimeoutMs,
+            @Value("${app.ai-orchestration.read-timeout-ms:300000}") long readTimeoutMs,
+            @Value("${app.reactive-upload.max-connections:1000}") int maxConnections,
+            @Value("${app.reactive-upload.max-in-flight:5000}") int maxInFlight) {
+        ConnectionProvider pool = ConnectionProvider.builder("extraction")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxInFlight)
+                .pendingAcquireTimeout(Duration.ofMillis(readTimeoutMs))
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        return builder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
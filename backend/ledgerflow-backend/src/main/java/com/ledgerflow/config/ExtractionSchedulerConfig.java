@@ -0,0 +1,47 @@
+package com.ledgerflow.config;
+
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.repository.TenantRepository;
+import com.ledgerflow.scheduling.ExtractionScheduler;
+import com.ledgerflow.scheduling.TenantShare;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Extraction Scheduler Configuration
+ *
+ * Wires the shared extraction worker pool. Each tenant's weight and concurrency
+ * cap come from the tenants table (extraction_weight,
+ * extraction_max_concurrency), falling back to the app defaults when unset.
+ * They are re-read after share-ttl-seconds, so changes apply without a restart.
+ */
+@Configuration
+public class ExtractionSchedulerConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExtractionScheduler extractionScheduler(
+            TenantRepository tenantRepository,
+            LedgerFlowMetrics metrics,
+            @Value("${app.extraction-scheduler.workers:64}") int workers,
+            @Value("${app.extraction-scheduler.default-weight:1}") int defaultWeight,
+            @Value("${app.extraction-scheduler.default-max-concurrency:16}") int defaultMaxConcurrency,
+            @Value("${app.extraction-scheduler.max-queued-per-tenant:100}") int maxQueuedPerTenant,
+            @Value("${app.extraction-scheduler.share-ttl-seconds:60}") long shareTtlSeconds,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        TenantShare defaults = new TenantShare(defaultWeight, defaultMaxConcurrency);
+        return new ExtractionScheduler(
+                tenantId -> tenantRepository.findById(tenantId)
+                        .map(tenant -> new TenantShare(
+                                tenant.getExtractionWeight() != null ? tenant.getExtractionWeight() : defaultWeight,
+                                tenant.getExtractionMaxConcurrency() != null
+                                        ? tenant.getExtractionMaxConcurrency() : defaultMaxConcurrency))
+                        .orElse(defaults),
+                metrics, workers, maxQueuedPerTenant, Duration.ofSeconds(shareTtlSeconds),
+                virtualThreads
+                        ? Thread.ofVirtual().name("extraction-worker-", 0).factory()
+                        : Thread.ofPlatform().name("extraction-worker-", 0).daemon().factory());
+    }
+}
@@ -0,0 +1,44 @@
+package com.ledgerflow.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Message Format Configuration
+ *
+ * Binary formats next to JSON for API consumers that ask for them with an
+ * Accept header, such as the ERP sync job pulling invoices in bulk:
+ * - application/x-jackson-smile: back-references repeated property names and
+ *   short values, so invoice lists with many line items shrink the most
+ * - application/cbor: RFC 8949, for consumers without a Smile decoder
+ * Both mappers come from Spring Boot's builder so every format carries the same
+ * fields, modules and date handling. The beans take the place of Spring's
+ * default binary converters, after JSON, so JSON stays the default for
+ * browsers and {@code Accept: *}{@code /*}.
+ */
+@Configuration
+public class MessageFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false)
+                .factory(factory)
+                .build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false)
+                .factory(new CBORFactory())
+                .build());
+    }
+}
@@ -1,16 +1,28 @@
 package com.ledgerflow.config;
 
+import com.ledgerflow.ratelimit.RateLimitFilter;
 import com.ledgerflow.security.JwtAuthenticationFilter;
+import com.ledgerflow.sharding.ShardRoutingFilter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -31,6 +43,9 @@ import java.util.List;
  * - PasswordEncoder: BCrypt password hasher (similar to .NET's IPasswordHasher)
  * - JWT Filter: Custom filter to validate JWT tokens on each request
  * - CORS: Cross-Origin Resource Sharing configuration
+ * - Management port: its own chain; health and prometheus are open to the
+ *   scraper, every other actuator endpoint needs HTTP Basic as the
+ *   management user (ROLE_ADMIN)
  */
 @Configuration
 @EnableWebSecurity
@@ -38,9 +53,23 @@ import java.util.List;
 public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final ShardRoutingFilter shardRoutingFilter;
+    private final int managementPort;
+    private final String managementUsername;
+    private final String managementPassword;
     
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, RateLimitFilter rateLimitFilter,
+                          ShardRoutingFilter shardRoutingFilter,
+                          @Value("${management.server.port:-1}") int managementPort,
+                          @Value("${app.management.username:admin}") String managementUsername,
+                          @Value("${app.management.password:}") String managementPassword) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.shardRoutingFilter = shardRoutingFilter;
+        this.managementPort = managementPort;
+        this.managementUsername = managementUsername;
+        this.managementPassword = managementPassword;
     }
     
     /**
@@ -62,6 +91,42 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
     
+    /**
+     * Management Port Filter Chain
+     * Checked before the API chain; only matches requests on management.server.port.
+     * Without app.management.password there is no management user, so only the
+     * anonymous endpoints answer.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http) throws Exception {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        if (!managementPassword.isBlank()) {
+            users.createUser(User.withUsername(managementUsername)
+                    .password(passwordEncoder().encode(managementPassword))
+                    .roles("ADMIN")
+                    .build());
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(users);
+        provider.setPasswordEncoder(passwordEncoder());
+
+        http
+            .securityMatcher(this::onManagementPort)
+            // No browser session to ride on: Basic credentials come with every request
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authenticationManager(new ProviderManager(provider))
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus").permitAll()
+                // Metrics, flight recordings, shard moves
+                .anyRequest().hasRole("ADMIN")
+            )
+            .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+    
     /**
      * Security Filter Chain
      * Defines security rules for the application
@@ -87,6 +152,13 @@ public class SecurityConfig {
                 // Public endpoints (no authentication required)
                 .requestMatchers("/api/auth/register", "/api/auth/login").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                // Actuator (metrics, flight recordings, shard moves) lives on management.server.port,
+                // which is bound to an internal address and has its own chain; never served on the API port
+                .requestMatchers("/actuator/**").denyAll()
+                // Local direct-upload storage; authorized by the signed upload token instead
+                .requestMatchers(HttpMethod.PUT, "/storage/uploads").permitAll()
+                // Async dispatches of Mono/DeferredResult handlers were authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
@@ -94,11 +166,21 @@ public class SecurityConfig {
             
             // Add JWT filter before UsernamePasswordAuthenticationFilter
             // This ensures JWT tokens are validated on every request
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            
+            // Route the request to the tenant's database shard before anything reads tenant data
+            .addFilterAfter(shardRoutingFilter, JwtAuthenticationFilter.class)
+            
+            // Per-tenant rate limits need the tenant id the JWT filter just resolved
+            .addFilterAfter(rateLimitFilter, ShardRoutingFilter.class);
         
         return http.build();
     }
     
+    private boolean onManagementPort(HttpServletRequest request) {
+        return managementPort > 0 && request.getLocalPort() == managementPort;
+    }
+    
     /**
      * CORS Configuration
      * Allows frontend to make requests from different origin
@@ -112,7 +194,8 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true); // Important for httpOnly cookies
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Server-Timing",
+                "Retry-After", "RateLimit-Limit", "RateLimit-Remaining"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
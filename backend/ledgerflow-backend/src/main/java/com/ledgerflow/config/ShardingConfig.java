@@ -0,0 +1,91 @@
+package com.ledgerflow.config;
+
+import com.ledgerflow.sharding.ShardSchemaInitializer;
+import com.ledgerflow.sharding.ShardingProperties;
+import com.ledgerflow.sharding.Shards;
+import com.ledgerflow.sharding.TenantRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharding Configuration
+ *
+ * With app.sharding.enabled the application DataSource becomes a
+ * TenantRoutingDataSource over one Hikari pool per shard: the primary from
+ * spring.datasource, the others from app.sharding.shards. Every shard holds
+ * the full schema. With sharding off (the default) Spring Boot's DataSource
+ * is used as before and Shards reports a single primary shard.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    private static final String ENABLED = "app.sharding.enabled";
+
+    @Bean
+    public Shards shards(ShardingProperties properties, DataSourceProperties dataSourceProperties) {
+        if (!properties.enabled()) {
+            return new Shards(Map.of(), Map.of());
+        }
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        Map<String, Long> idOffsets = new LinkedHashMap<>();
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("shard-" + Shards.PRIMARY);
+        dataSources.put(Shards.PRIMARY, primary);
+        idOffsets.put(Shards.PRIMARY, 0L);
+
+        properties.shards().forEach((name, shard) -> {
+            if (Shards.PRIMARY.equals(name)) {
+                throw new IllegalStateException("app.sharding.shards must not redefine the primary shard");
+            }
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            dataSource.setPoolName("shard-" + name);
+            dataSources.put(name, dataSource);
+            idOffsets.put(name, shard.idOffset());
+        });
+        return new Shards(dataSources, idOffsets);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public DataSource dataSource(Shards shards) {
+        return new TenantRoutingDataSource(shards);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public ShardSchemaInitializer shardSchemaInitializer(Shards shards, ObjectProvider<Flyway> flyway) {
+        return new ShardSchemaInitializer(shards, flyway);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaInitializer initializer) {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(initializer));
+    }
+}
@@ -3,29 +3,53 @@ package com.ledgerflow.controller;
 import com.ledgerflow.dto.ErrorResponse;
 import com.ledgerflow.entity.Invoice;
 import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.entity.InvoiceStatusHistory;
 import com.ledgerflow.service.AiOrchestrationService;
+import com.ledgerflow.metrics.StageTimer;
 import com.ledgerflow.service.InvoiceService;
+import com.ledgerflow.storage.DocumentDownloadWriter;
+import com.ledgerflow.storage.DocumentStorage;
+import com.ledgerflow.storage.StoredDocument;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/invoices")
 public class InvoiceController {
+    // Browsers may keep invoice reads but must revalidate them (If-None-Match) before reuse
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    // Reads come as JSON, Smile or CBOR depending on Accept; caches must keep the two apart
+    private static final String[] VARY = {HttpHeaders.ACCEPT};
+
     private final InvoiceService invoiceService;
     private final AiOrchestrationService aiOrchestrationService;
+    private final DocumentStorage documentStorage;
+    private final DocumentDownloadWriter documentDownloadWriter;
 
-    public InvoiceController(InvoiceService invoiceService,AiOrchestrationService aiOrchestrationService) {
+    public InvoiceController(InvoiceService invoiceService,AiOrchestrationService aiOrchestrationService,
+                             DocumentStorage documentStorage, DocumentDownloadWriter documentDownloadWriter) {
         this.invoiceService = invoiceService;
         this.aiOrchestrationService = aiOrchestrationService;
+        this.documentStorage = documentStorage;
+        this.documentDownloadWriter = documentDownloadWriter;
     }
 
     @GetMapping
-    public ResponseEntity<?> getInvoices(@RequestParam(required = false) Long tenantId) {
+    public ResponseEntity<?> getInvoices(@RequestParam(required = false) Long tenantId, WebRequest webRequest) {
         // Handle missing tenantId parameter
         if (tenantId == null) {
             ErrorResponse error = new ErrorResponse(
@@ -36,8 +60,13 @@ public class InvoiceController {
         }
         
         try {
+            // Check the cheap validator first; a 304 skips loading and serializing the list
+            String eTag = invoiceService.getInvoiceListETag(tenantId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
             List<Invoice> invoices = invoiceService.getInvoicesByTenant(tenantId);
-            return ResponseEntity.ok(invoices);
+            return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).varyBy(VARY).body(invoices);
         } catch (RuntimeException e) {
             ErrorResponse error = new ErrorResponse(
                 e.getMessage(),
@@ -48,15 +77,64 @@ public class InvoiceController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Invoice> getInvoice(@PathVariable Long id, @RequestParam Long tenantId) {
+    public ResponseEntity<Invoice> getInvoice(@PathVariable Long id, @RequestParam Long tenantId,
+                                              WebRequest webRequest) {
         try {
+            if (webRequest.checkNotModified(invoiceService.getInvoiceETag(id, tenantId))) {
+                return null;
+            }
             Invoice invoice = invoiceService.getInvoiceById(id, tenantId);
-            return ResponseEntity.ok(invoice);
+            return ResponseEntity.ok().eTag(InvoiceService.eTagOf(invoice)).cacheControl(REVALIDATE)
+                    .varyBy(VARY).body(invoice);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    /**
+     * Status timeline of an invoice: every transition with its user and time, oldest first.
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<InvoiceStatusHistory>> getInvoiceHistory(@PathVariable Long id,
+                                                                        @RequestParam Long tenantId) {
+        try {
+            return ResponseEntity.ok(invoiceService.getStatusHistory(id, tenantId));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
 
+    /**
+     * Stream the original uploaded document (Range, ETag and caching handled by
+     * DocumentDownloadWriter).
+     */
+    @GetMapping("/{id}/document")
+    public void getInvoiceDocument(
+            @PathVariable Long id,
+            @RequestParam Long tenantId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Invoice invoice;
+        try {
+            invoice = invoiceService.getInvoiceById(id, tenantId);
+        } catch (RuntimeException e) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        Optional<Path> file = documentStorage.resolve(invoice.getDocumentSha256());
+        if (file.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        StoredDocument document = new StoredDocument(invoice.getDocumentSha256(), invoice.getDocumentSize(),
+                invoice.getDocumentContentType());
+        String extension = document.contentType() != null && document.contentType().contains("xml") ? ".xml" : ".pdf";
+        String filename = "invoice-" + invoice.getInvoiceNumber().replaceAll("[^A-Za-z0-9._-]", "_") + extension;
+        documentDownloadWriter.write(request, response, file.get(), document, filename);
+    }
+
     @PostMapping
     public ResponseEntity<Invoice> createInvoice(@RequestBody Map<String, Object> invoiceData) {
         // TODO: Create proper DTO for invoice creation
@@ -88,14 +166,27 @@ public class InvoiceController {
         }
 
         try {
+            // Keep the original document (stored once per distinct content)
+            StoredDocument document;
+            try (StageTimer.Stage ignored = StageTimer.current().start("store")) {
+                document = documentStorage.store(file.getInputStream(), file.getContentType());
+            }
+
             // Call AI orchestration service
             Map<String, Object> extractionResult = aiOrchestrationService.extractInvoice(file, tenantId.toString());
 
             // Create invoice from extraction result
-            Invoice invoice = invoiceService.createInvoiceFromExtraction(tenantId, extractionResult);
+            Invoice invoice = invoiceService.createInvoiceFromExtraction(tenantId, extractionResult, document);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(invoice);
 
+        } catch (RejectedExecutionException e) {
+            // The tenant's extraction queue is full; the client should back off and retry
+            ErrorResponse error = new ErrorResponse(
+                    "Failed to process invoice: " + e.getMessage(),
+                    HttpStatus.SERVICE_UNAVAILABLE.value()
+            );
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
         } catch (Exception e) {
             ErrorResponse error = new ErrorResponse(
                     "Failed to process invoice: " + e.getMessage(),
@@ -0,0 +1,67 @@
+package com.ledgerflow.controller;
+
+import com.ledgerflow.dto.ErrorResponse;
+import com.ledgerflow.exception.ValidationException;
+import com.ledgerflow.service.UploadIntentService;
+import com.ledgerflow.storage.LocalDirectUploadStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Local Upload Controller
+ *
+ * Storage endpoint for the local direct-upload stand-in, playing the role of an
+ * S3 presigned PUT. The upload token in the query string is the only
+ * credential (the path is public in SecurityConfig). The raw request body is
+ * streamed to disk; it is neither parsed as multipart nor buffered in memory.
+ * A PUT to a key that already holds a document is rejected with 412.
+ */
+@RestController
+@ConditionalOnProperty(name = "app.uploads.store", havingValue = "local", matchIfMissing = true)
+public class LocalUploadController {
+
+    private final UploadIntentService uploadIntentService;
+    private final LocalDirectUploadStore store;
+
+    public LocalUploadController(UploadIntentService uploadIntentService, LocalDirectUploadStore store) {
+        this.uploadIntentService = uploadIntentService;
+        this.store = store;
+    }
+
+    @PutMapping("/storage/uploads")
+    public ResponseEntity<?> upload(@RequestParam String token, HttpServletRequest request) throws IOException {
+        UploadIntentService.UploadGrant grant;
+        try {
+            grant = uploadIntentService.verifyForUpload(token);
+        } catch (ValidationException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ErrorResponse(e.getMessage(), HttpStatus.FORBIDDEN.value()));
+        }
+
+        if (request.getContentLengthLong() > grant.maxBytes()) {
+            return tooLarge(grant.maxBytes());
+        }
+        try {
+            store.write(grant.storageKey(), request.getInputStream(), grant.maxBytes());
+        } catch (LocalDirectUploadStore.UploadTooLargeException e) {
+            return tooLarge(grant.maxBytes());
+        } catch (LocalDirectUploadStore.UploadExistsException e) {
+            // S3 answers a repeated conditional PUT the same way
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(new ErrorResponse(e.getMessage(), HttpStatus.PRECONDITION_FAILED.value()));
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private static ResponseEntity<ErrorResponse> tooLarge(long maxBytes) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse("Upload exceeds " + maxBytes + " bytes", HttpStatus.PAYLOAD_TOO_LARGE.value()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.ledgerflow.controller;
+
+import com.ledgerflow.dto.ErrorResponse;
+import com.ledgerflow.service.ReactiveInvoiceUploadService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive Invoice Controller
+ *
+ * Same contract as POST /api/invoices/upload, but the handler returns a Mono:
+ * the servlet request goes async and the Tomcat thread is released while the
+ * extraction is in flight. Overload is reported as 503 instead of queueing.
+ */
+@RestController
+@RequestMapping("/api/reactive/invoices")
+public class ReactiveInvoiceController {
+
+    private final ReactiveInvoiceUploadService reactiveInvoiceUploadService;
+
+    public ReactiveInvoiceController(ReactiveInvoiceUploadService reactiveInvoiceUploadService) {
+        this.reactiveInvoiceUploadService = reactiveInvoiceUploadService;
+    }
+
+    @PostMapping("/upload")
+    public Mono<ResponseEntity<?>> uploadInvoice(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("tenantId") Long tenantId) {
+
+        if (file.isEmpty()) {
+            ErrorResponse error = new ErrorResponse("File is empty", HttpStatus.BAD_REQUEST.value());
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error));
+        }
+
+        return reactiveInvoiceUploadService.uploadInvoice(file, tenantId)
+                .<ResponseEntity<?>>map(invoice -> ResponseEntity.status(HttpStatus.CREATED).body(invoice))
+                .onErrorResume(e -> {
+                    HttpStatus status = e instanceof RejectedExecutionException
+                            ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.INTERNAL_SERVER_ERROR;
+                    ErrorResponse error = new ErrorResponse("Failed to process invoice: " + e.getMessage(), status.value());
+                    return Mono.just(ResponseEntity.status(status).body(error));
+                });
+    }
+}
@@ -0,0 +1,93 @@
+package com.ledgerflow.controller;
+
+import com.ledgerflow.dto.ProposalDecisionRequest;
+import com.ledgerflow.entity.ReconciliationProposal;
+import com.ledgerflow.entity.ReconciliationRun;
+import com.ledgerflow.reconciliation.ProposalStatus;
+import com.ledgerflow.service.ReconciliationService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconciliation Controller
+ *
+ * Bank statement reconciliation (see ReconciliationService):
+ * - POST /api/reconciliation/statements?tenantId=&format=&filename=&currency=
+ *   raw CSV or CAMT.053 body (not multipart, so size is not capped), streamed
+ *   into the matcher; returns the completed run
+ * - GET  /api/reconciliation/runs/{runId}?tenantId=
+ * - GET  /api/reconciliation/runs/{runId}/proposals?tenantId=&status=&afterId=&limit=
+ * - POST /api/reconciliation/runs/{runId}/confirm?tenantId=   {proposalIds} or {minScore}
+ * - POST /api/reconciliation/runs/{runId}/reject?tenantId=    {proposalIds} or {minScore}
+ * - POST /api/reconciliation/runs/{runId}/apply?tenantId=     marks confirmed invoices PAID
+ */
+@RestController
+@RequestMapping("/api/reconciliation")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @PostMapping("/statements")
+    public ResponseEntity<ReconciliationRun> importStatement(
+            @RequestParam Long tenantId,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String filename,
+            @RequestParam(required = false) String currency,
+            HttpServletRequest request) throws IOException {
+        ReconciliationRun run = reconciliationService.importStatement(tenantId, request.getInputStream(), format,
+                filename, request.getContentType(), currency);
+        return ResponseEntity.status(HttpStatus.CREATED).body(run);
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<ReconciliationRun> getRun(@PathVariable Long runId, @RequestParam Long tenantId) {
+        return ResponseEntity.ok(reconciliationService.getRun(runId, tenantId));
+    }
+
+    @GetMapping("/runs/{runId}/proposals")
+    public ResponseEntity<List<ReconciliationProposal>> getProposals(
+            @PathVariable Long runId,
+            @RequestParam Long tenantId,
+            @RequestParam(required = false) ProposalStatus status,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(reconciliationService.getProposals(runId, tenantId, status, afterId, limit));
+    }
+
+    @PostMapping("/runs/{runId}/confirm")
+    public ResponseEntity<Map<String, Integer>> confirm(@PathVariable Long runId, @RequestParam Long tenantId,
+                                                        @RequestBody ProposalDecisionRequest decision) {
+        int confirmed = reconciliationService.confirm(runId, tenantId, decision.getProposalIds(),
+                decision.getMinScore());
+        return ResponseEntity.ok(Map.of("confirmed", confirmed));
+    }
+
+    @PostMapping("/runs/{runId}/reject")
+    public ResponseEntity<Map<String, Integer>> reject(@PathVariable Long runId, @RequestParam Long tenantId,
+                                                       @RequestBody ProposalDecisionRequest decision) {
+        int rejected = reconciliationService.reject(runId, tenantId, decision.getProposalIds(),
+                decision.getMinScore());
+        return ResponseEntity.ok(Map.of("rejected", rejected));
+    }
+
+    @PostMapping("/runs/{runId}/apply")
+    public ResponseEntity<ReconciliationRun> apply(@PathVariable Long runId, @RequestParam Long tenantId) {
+        return ResponseEntity.ok(reconciliationService.apply(runId, tenantId));
+    }
+}
@@ -0,0 +1,56 @@
+package com.ledgerflow.controller;
+
+import com.ledgerflow.dto.ErrorResponse;
+import com.ledgerflow.dto.UploadIntentResponse;
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.service.UploadIntentService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Upload Intent Controller
+ *
+ * Direct-to-storage upload flow (see UploadIntentService):
+ * - POST /api/invoices/upload-intents?tenantId=                       returns uploadUrl + token
+ * - PUT  {uploadUrl}                                                  raw PDF body, straight to storage
+ * - POST /api/invoices/upload-intents/{uploadId}/confirm?tenantId=&token=   extracts and creates the invoice
+ */
+@RestController
+@RequestMapping("/api/invoices/upload-intents")
+public class UploadIntentController {
+
+    private final UploadIntentService uploadIntentService;
+
+    public UploadIntentController(UploadIntentService uploadIntentService) {
+        this.uploadIntentService = uploadIntentService;
+    }
+
+    @PostMapping
+    public ResponseEntity<UploadIntentResponse> createIntent(@RequestParam Long tenantId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadIntentService.createIntent(tenantId));
+    }
+
+    @PostMapping("/{uploadId}/confirm")
+    public ResponseEntity<?> confirm(
+            @PathVariable String uploadId,
+            @RequestParam Long tenantId,
+            @RequestParam String token) {
+        try {
+            Invoice invoice = uploadIntentService.confirm(uploadId, tenantId, token);
+            return ResponseEntity.status(HttpStatus.CREATED).body(invoice);
+        } catch (IOException e) {
+            ErrorResponse error = new ErrorResponse(
+                    "Failed to process invoice: " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR.value()
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ledgerflow.deadline;
+
+import java.time.LocalDateTime;
+
+/**
+ * A point in time at which something has to happen to an invoice.
+ * An invoice has at most one deadline per kind, hence {@link Key}.
+ */
+public record Deadline(long invoiceId, long tenantId, DeadlineKind kind, LocalDateTime dueAt) {
+
+    public Key key() {
+        return new Key(invoiceId, kind);
+    }
+
+    public record Key(long invoiceId, DeadlineKind kind) {
+    }
+}
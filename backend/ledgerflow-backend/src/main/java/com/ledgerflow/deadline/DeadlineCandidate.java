@@ -0,0 +1,13 @@
+package com.ledgerflow.deadline;
+
+import com.ledgerflow.entity.InvoiceStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The invoice columns deadlines are derived from (JPQL constructor projection).
+ */
+public record DeadlineCandidate(Long invoiceId, Long tenantId, InvoiceStatus status, LocalDate dueDate,
+                                LocalDateTime updatedAt) {
+}
@@ -0,0 +1,12 @@
+package com.ledgerflow.deadline;
+
+/**
+ * Acts on a deadline once it is due. Called at most once per deadline across
+ * all nodes, after the claim has committed; a failure is logged and not retried.
+ */
+public interface DeadlineHandler {
+
+    boolean supports(DeadlineKind kind);
+
+    void handle(Deadline deadline);
+}
@@ -0,0 +1,25 @@
+package com.ledgerflow.deadline;
+
+import com.ledgerflow.entity.InvoiceStatus;
+
+/**
+ * What a deadline is about, and the invoice status it applies to.
+ */
+public enum DeadlineKind {
+    // APPROVED and due within app.deadlines.reminder-days
+    PAYMENT_DUE_SOON(InvoiceStatus.APPROVED),
+    // APPROVED and the due date has passed
+    PAYMENT_OVERDUE(InvoiceStatus.APPROVED),
+    // Still EXTRACTING app.deadlines.extraction-stuck-minutes after the last update
+    EXTRACTION_STUCK(InvoiceStatus.EXTRACTING);
+
+    private final InvoiceStatus status;
+
+    DeadlineKind(InvoiceStatus status) {
+        this.status = status;
+    }
+
+    public InvoiceStatus status() {
+        return status;
+    }
+}
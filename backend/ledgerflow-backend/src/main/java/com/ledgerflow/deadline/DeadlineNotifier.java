@@ -0,0 +1,43 @@
+package com.ledgerflow.deadline;
+
+import com.ledgerflow.dto.InvoiceEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Default deadline handler: logs the reminder or escalation and pushes it to
+ * the tenant's dashboards as an InvoiceEvent (PAYMENT_DUE_SOON,
+ * PAYMENT_OVERDUE, EXTRACTION_STUCK) through InvoiceEventBroadcaster.
+ */
+@Component
+public class DeadlineNotifier implements DeadlineHandler {
+    private static final Logger log = LoggerFactory.getLogger(DeadlineNotifier.class);
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DeadlineNotifier(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public boolean supports(DeadlineKind kind) {
+        return true;
+    }
+
+    @Override
+    public void handle(Deadline deadline) {
+        InvoiceEvent.Type type = switch (deadline.kind()) {
+            case PAYMENT_DUE_SOON -> InvoiceEvent.Type.PAYMENT_DUE_SOON;
+            case PAYMENT_OVERDUE -> InvoiceEvent.Type.PAYMENT_OVERDUE;
+            case EXTRACTION_STUCK -> InvoiceEvent.Type.EXTRACTION_STUCK;
+        };
+        log.info("Invoice {} of tenant {}: {} (due {})", deadline.invoiceId(), deadline.tenantId(),
+                deadline.kind(), deadline.dueAt());
+        eventPublisher.publishEvent(new InvoiceEvent(type, deadline.tenantId(), deadline.invoiceId(), null,
+                deadline.kind().status(), null, null, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.ledgerflow.deadline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Deadline Policy
+ *
+ * Derives an invoice's deadlines from its status, due date and last update:
+ * - APPROVED: PAYMENT_DUE_SOON at the start of the day {@code reminder-days}
+ *   before the due date (none if negative), PAYMENT_OVERDUE at the start of the
+ *   day after it
+ * - EXTRACTING: EXTRACTION_STUCK {@code extraction-stuck-minutes} after the last update
+ * Times are server-local, like the invoice timestamps. The same rules serve
+ * loading, incremental updates and the re-check before firing.
+ */
+@Component
+public class DeadlinePolicy {
+
+    private final int reminderDays;
+    private final Duration extractionStuckAfter;
+
+    public DeadlinePolicy(@Value("${app.deadlines.reminder-days:3}") int reminderDays,
+                          @Value("${app.deadlines.extraction-stuck-minutes:30}") long extractionStuckMinutes) {
+        this.reminderDays = reminderDays;
+        this.extractionStuckAfter = Duration.ofMinutes(extractionStuckMinutes);
+    }
+
+    public List<Deadline> deadlinesOf(DeadlineCandidate invoice) {
+        List<Deadline> deadlines = new ArrayList<>(2);
+        for (DeadlineKind kind : DeadlineKind.values()) {
+            deadlineOf(invoice, kind).ifPresent(deadlines::add);
+        }
+        return deadlines;
+    }
+
+    public Optional<Deadline> deadlineOf(DeadlineCandidate invoice, DeadlineKind kind) {
+        if (invoice.status() != kind.status()) {
+            return Optional.empty();
+        }
+        LocalDateTime dueAt = switch (kind) {
+            case PAYMENT_DUE_SOON -> invoice.dueDate() != null && reminderDays >= 0
+                    ? invoice.dueDate().minusDays(reminderDays).atStartOfDay() : null;
+            case PAYMENT_OVERDUE -> invoice.dueDate() != null
+                    ? invoice.dueDate().plusDays(1).atStartOfDay() : null;
+            case EXTRACTION_STUCK -> invoice.updatedAt() != null
+                    ? invoice.updatedAt().plus(extractionStuckAfter) : null;
+        };
+        return dueAt == null ? Optional.empty()
+                : Optional.of(new Deadline(invoice.invoiceId(), invoice.tenantId(), kind, dueAt));
+    }
+
+    /**
+     * Earliest due date that can have an APPROVED deadline between {@code from} and {@code to}.
+     */
+    public LocalDate dueDateFrom(LocalDateTime from) {
+        return from.toLocalDate().minusDays(1);
+    }
+
+    /**
+     * Latest due date that can have an APPROVED deadline between {@code from} and {@code to}.
+     */
+    public LocalDate dueDateTo(LocalDateTime to) {
+        return to.toLocalDate().plusDays(Math.max(0, reminderDays));
+    }
+
+    /**
+     * Last-update range of EXTRACTING invoices that get stuck between {@code from} and {@code to}.
+     */
+    public LocalDateTime updatedFrom(LocalDateTime from) {
+        return from.minus(extractionStuckAfter);
+    }
+
+    public LocalDateTime updatedTo(LocalDateTime to) {
+        return to.minus(extractionStuckAfter);
+    }
+}
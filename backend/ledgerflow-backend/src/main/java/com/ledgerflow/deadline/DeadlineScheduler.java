@@ -0,0 +1,269 @@
+package com.ledgerflow.deadline;
+
+import com.ledgerflow.dto.InvoiceEvent;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Deadline Scheduler
+ *
+ * Fires invoice deadlines (payment reminders, overdue escalation, stuck
+ * extractions) without scanning the invoices table:
+ * - every {@code refresh-interval} only the deadlines due within
+ *   {@code horizon} (and missed ones up to {@code catch-up} back) are loaded
+ *   into a {@link HierarchicalTimingWheel}; anything later waits for a later refresh
+ * - InvoiceService writes update the wheel after commit, from the
+ *   InvoiceEvent, so changes take effect without waiting for a refresh
+ * - the wheel advances every {@code tick}; due entries go to the handler pool
+ * - before running handlers the invoice is re-read: a deadline that no longer
+ *   applies is dropped, one that moved later is rescheduled, and otherwise it
+ *   is claimed in invoice_deadline_fires; only the node whose claim inserts
+ *   runs the handlers, and a claim is never retried, so a deadline fires at
+ *   most once across all nodes
+ * Each node keeps its own wheel; changes made on other nodes reach it at the
+ * next refresh. All times come from the injected {@link Clock}, and
+ * {@link #refresh()} and {@link #tick()} can be driven directly, so the
+ * scheduler runs deterministically under a controlled clock.
+ */
+public class DeadlineScheduler {
+    private static final Logger log = LoggerFactory.getLogger(DeadlineScheduler.class);
+
+    private final DeadlineStore store;
+    private final DeadlinePolicy policy;
+    private final List<DeadlineHandler> handlers;
+    private final LedgerFlowMetrics metrics;
+    private final Clock clock;
+    private final Executor handlerExecutor;
+    private final long tickMs;
+    private final Duration horizon;
+    private final Duration catchUp;
+    private final Duration refreshInterval;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final HierarchicalTimingWheel<Deadline.Key, Deadline> wheel;
+    private final ScheduledExecutorService ticker;
+    // End of the window the last refresh loaded; later deadlines are left to the next one
+    private volatile LocalDateTime loadedUntil;
+
+    public DeadlineScheduler(DeadlineStore store, DeadlinePolicy policy, List<DeadlineHandler> handlers,
+                             LedgerFlowMetrics metrics, Clock clock, Executor handlerExecutor,
+                             long tickMs, int wheelSize, Duration horizon, Duration catchUp,
+                             Duration refreshInterval, ThreadFactory tickerThreads) {
+        if (refreshInterval.compareTo(horizon) >= 0) {
+            throw new IllegalArgumentException("refresh interval must be shorter than the horizon");
+        }
+        this.store = store;
+        this.policy = policy;
+        this.handlers = handlers;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.handlerExecutor = handlerExecutor;
+        this.tickMs = tickMs;
+        this.horizon = horizon;
+        this.catchUp = catchUp;
+        this.refreshInterval = refreshInterval;
+        this.wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, clock.millis());
+        this.ticker = Executors.newScheduledThreadPool(2, tickerThreads);
+        metrics.gauge(LedgerFlowMetrics.DEADLINE_SCHEDULED, Tags.empty(), wheel, HierarchicalTimingWheel::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ticker.scheduleWithFixedDelay(() -> run(this::refresh, "refresh"),
+                0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(() -> run(this::tick, "tick"), tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() throws InterruptedException {
+        ticker.shutdownNow();
+        if (handlerExecutor instanceof ExecutorService handlerPool) {
+            handlerPool.shutdown();
+            handlerPool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Load the deadlines of the next {@code horizon} (plus missed ones) into the wheel.
+     *
+     * @return number of deadlines loaded
+     */
+    public int refresh() {
+        Timer.Sample sample = metrics.start();
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.plus(horizon);
+        List<Deadline> loaded = store.load(now.minus(catchUp), until);
+        List<Deadline> due;
+        lock.lock();
+        try {
+            loadedUntil = until;
+            due = scheduleLocked(loaded);
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(this::dispatch);
+        store.purgeFired(now.minus(catchUp));
+        metrics.stop(sample, LedgerFlowMetrics.DEADLINE_REFRESH, Tags.empty());
+        return loaded.size();
+    }
+
+    /**
+     * Advance the wheel to the clock's current time and dispatch what came due.
+     *
+     * @return number of deadlines dispatched
+     */
+    public int tick() {
+        List<Deadline> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advance(clock.millis(), due::add);
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(this::dispatch);
+        return due.size();
+    }
+
+    /**
+     * Keep the wheel in step with InvoiceService writes once they commit.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceEvent(InvoiceEvent event) {
+        if (!event.getType().isChange()) {
+            return;
+        }
+        // The event is stamped right after the write, close enough to updated_at; firing re-reads it
+        List<Deadline> deadlines = policy.deadlinesOf(new DeadlineCandidate(event.getInvoiceId(),
+                event.getTenantId(), event.getStatus(), event.getDueDate(), event.getTimestamp()));
+        List<Deadline> due;
+        lock.lock();
+        try {
+            for (DeadlineKind kind : DeadlineKind.values()) {
+                wheel.cancel(new Deadline.Key(event.getInvoiceId(), kind));
+            }
+            due = scheduleLocked(deadlines);
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(this::dispatch);
+    }
+
+    public int scheduled() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the deadlines that are already due and must be dispatched now
+     */
+    private List<Deadline> scheduleLocked(List<Deadline> deadlines) {
+        List<Deadline> due = new ArrayList<>();
+        LocalDateTime until = loadedUntil;
+        for (Deadline deadline : deadlines) {
+            if (until == null || deadline.dueAt().isAfter(until)) {
+                continue;
+            }
+            long dueMs = deadline.dueAt().atZone(clock.getZone()).toInstant().toEpochMilli();
+            if (!wheel.schedule(deadline.key(), dueMs, deadline)) {
+                due.add(deadline);
+            }
+        }
+        return due;
+    }
+
+    private void dispatch(Deadline deadline) {
+        try {
+            handlerExecutor.execute(() -> fire(deadline));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; another node or the next start picks it up within catch-up
+            log.debug("Deadline {} not dispatched: {}", deadline, e.getMessage());
+        }
+    }
+
+    void fire(Deadline trigger) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Deadline deadline;
+        try {
+            deadline = store.current(trigger.tenantId(), trigger.invoiceId(), trigger.kind()).orElse(null);
+            if (deadline == null) {
+                count(trigger, "obsolete");
+                return;
+            }
+            if (deadline.dueAt().isAfter(now)) {
+                List<Deadline> due;
+                lock.lock();
+                try {
+                    due = scheduleLocked(List.of(deadline));
+                } finally {
+                    lock.unlock();
+                }
+                due.forEach(this::dispatch);
+                count(trigger, "rescheduled");
+                return;
+            }
+            if (!store.claim(deadline, now)) {
+                count(trigger, "claimed_elsewhere");
+                return;
+            }
+        } catch (RuntimeException e) {
+            // Not claimed, so the next refresh retries it
+            log.warn("Deadline {} could not be claimed: {}", trigger, e.getMessage());
+            count(trigger, "error");
+            return;
+        }
+
+        metrics.recordTime(LedgerFlowMetrics.DEADLINE_LATENESS, Tags.of("kind", deadline.kind().name()),
+                Duration.between(deadline.dueAt(), now));
+        String outcome = "handled";
+        for (DeadlineHandler handler : handlers) {
+            if (!handler.supports(deadline.kind())) {
+                continue;
+            }
+            try {
+                handler.handle(deadline);
+            } catch (RuntimeException e) {
+                // Claimed, so never retried (at most once)
+                log.error("Deadline handler {} failed for {}: {}", handler.getClass().getSimpleName(), deadline,
+                        e.getMessage());
+                outcome = "failed";
+            }
+        }
+        count(deadline, outcome);
+    }
+
+    private void count(Deadline deadline, String outcome) {
+        metrics.increment(LedgerFlowMetrics.DEADLINE_FIRED,
+                Tags.of("kind", deadline.kind().name(), "outcome", outcome));
+    }
+
+    private void run(Runnable task, String name) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run retries
+            log.warn("Deadline scheduler {} failed: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ledgerflow.deadline;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where the scheduler reads deadlines from and records the ones it fired.
+ */
+public interface DeadlineStore {
+
+    /**
+     * Deadlines due between {@code from} and {@code to} that have not fired yet.
+     */
+    List<Deadline> load(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * The invoice's current deadline of this kind, if it still has one.
+     */
+    Optional<Deadline> current(long tenantId, long invoiceId, DeadlineKind kind);
+
+    /**
+     * Record that the deadline fired. Exactly one caller across all nodes gets
+     * true for a given deadline; only that caller may run the handlers.
+     */
+    boolean claim(Deadline deadline, LocalDateTime firedAt);
+
+    /**
+     * Forget fired deadlines due before {@code before}.
+     */
+    int purgeFired(LocalDateTime before);
+}
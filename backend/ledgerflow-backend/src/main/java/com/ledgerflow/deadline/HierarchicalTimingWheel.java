@@ -0,0 +1,227 @@
+package com.ledgerflow.deadline;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical Timing Wheel
+ *
+ * Keyed timers with {@code tickMs} resolution. Level 0 has {@code wheelSize}
+ * buckets of one tick each; every further level, created on demand, has
+ * buckets as wide as the whole level below, so any horizon fits in a few
+ * levels. Scheduling and cancelling are O(1). Only non-empty buckets are
+ * queued (by expiration), so {@link #advance} jumps straight to the next due
+ * bucket however far the clock moved; entries of a higher-level bucket are
+ * re-inserted into finer levels when it comes due and fire from level 0.
+ *
+ * A timer never fires before its due time and at most one tick after it.
+ * Time is whatever the caller passes in (epoch millis of its clock), which
+ * keeps the wheel deterministic under a controlled clock. Not thread-safe.
+ */
+public class HierarchicalTimingWheel<K, V> {
+
+    private final PriorityQueue<Bucket<K, V>> dueBuckets =
+            new PriorityQueue<>((a, b) -> Long.compare(a.expiration, b.expiration));
+    private final Map<K, Entry<K, V>> entries = new HashMap<>();
+    private final Level<K, V> root;
+    private final long tickMs;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs < 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be >= 1 and wheelSize >= 2");
+        }
+        this.tickMs = tickMs;
+        this.root = new Level<>(tickMs, wheelSize, startMs, dueBuckets);
+    }
+
+    /**
+     * Schedule {@code value} under {@code key}, replacing any timer the key had.
+     *
+     * @return false if {@code dueMs} has already passed; nothing is scheduled and
+     *         the caller should act on it now
+     */
+    public boolean schedule(K key, long dueMs, V value) {
+        cancel(key);
+        // Place by the next tick boundary, so the level-0 bucket expires at or after dueMs
+        Entry<K, V> entry = new Entry<>(key, value, dueMs + tickMs - 1);
+        if (!root.add(entry)) {
+            return false;
+        }
+        entries.put(key, entry);
+        return true;
+    }
+
+    public boolean cancel(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.bucket.remove(entry);
+        return true;
+    }
+
+    /**
+     * Move the wheel to {@code nowMs} and hand every timer due by then to
+     * {@code expired}, in bucket order.
+     *
+     * @return number of timers fired
+     */
+    public int advance(long nowMs, Consumer<V> expired) {
+        int fired = 0;
+        Bucket<K, V> bucket;
+        while ((bucket = dueBuckets.peek()) != null && bucket.expiration <= nowMs) {
+            dueBuckets.poll();
+            root.advanceClock(bucket.expiration);
+            for (Entry<K, V> entry : bucket.drain()) {
+                // Re-inserting moves it down a level, or reports it due
+                if (!root.add(entry)) {
+                    entries.remove(entry.key);
+                    expired.accept(entry.value);
+                    fired++;
+                }
+            }
+        }
+        root.advanceClock(nowMs);
+        return fired;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Number of levels currently allocated, for sizing checks.
+     */
+    public int levels() {
+        int levels = 0;
+        for (Level<K, V> level = root; level != null; level = level.overflow) {
+            levels++;
+        }
+        return levels;
+    }
+
+    private static final class Level<K, V> {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket<K, V>[] buckets;
+        private final PriorityQueue<Bucket<K, V>> dueBuckets;
+        private long currentTime;
+        private Level<K, V> overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(long tickMs, int wheelSize, long startMs, PriorityQueue<Bucket<K, V>> dueBuckets) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>();
+            }
+            this.dueBuckets = dueBuckets;
+            this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+        }
+
+        boolean add(Entry<K, V> entry) {
+            if (entry.slotMs < currentTime + tickMs) {
+                return false;
+            }
+            if (entry.slotMs < currentTime + interval) {
+                long virtualId = entry.slotMs / tickMs;
+                Bucket<K, V> bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(entry);
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    dueBuckets.add(bucket);
+                }
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(interval, wheelSize, currentTime, dueBuckets);
+            }
+            return overflow.add(entry);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - Math.floorMod(timeMs, tickMs);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of entries with a sentinel head, so removal is O(1).
+     */
+    private static final class Bucket<K, V> {
+        private final Entry<K, V> head = new Entry<>(null, null, 0);
+        private long expiration = -1;
+
+        Bucket() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(Entry<K, V> entry) {
+            entry.bucket = this;
+            entry.prev = head.prev;
+            entry.next = head;
+            head.prev.next = entry;
+            head.prev = entry;
+        }
+
+        void remove(Entry<K, V> entry) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+
+        /**
+         * @return true if the expiration changed, i.e. the bucket must be (re)queued
+         */
+        boolean setExpiration(long expiration) {
+            if (this.expiration == expiration) {
+                return false;
+            }
+            this.expiration = expiration;
+            return true;
+        }
+
+        List<Entry<K, V>> drain() {
+            List<Entry<K, V>> drained = new ArrayList<>();
+            while (head.next != head) {
+                Entry<K, V> entry = head.next;
+                remove(entry);
+                drained.add(entry);
+            }
+            expiration = -1;
+            return drained;
+        }
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long slotMs;
+        private Bucket<K, V> bucket;
+        private Entry<K, V> prev;
+        private Entry<K, V> next;
+
+        Entry(K key, V value, long slotMs) {
+            this.key = key;
+            this.value = value;
+            this.slotMs = slotMs;
+        }
+    }
+}
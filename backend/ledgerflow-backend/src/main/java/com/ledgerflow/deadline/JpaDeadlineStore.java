@@ -0,0 +1,102 @@
+package com.ledgerflow.deadline;
+
+import com.ledgerflow.entity.DeadlineFire;
+import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.repository.DeadlineFireRepository;
+import com.ledgerflow.repository.InvoiceRepository;
+import com.ledgerflow.sharding.ShardContext;
+import com.ledgerflow.sharding.ShardDirectory;
+import com.ledgerflow.sharding.Shards;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Deadline store on the invoices table. Loading reads only invoices whose
+ * deadlines fall in the requested window, through the (status, due_date) and
+ * (status, updated_at) indexes; fired deadlines are kept in
+ * invoice_deadline_fires, whose unique key doubles as the cross-node claim.
+ * With sharding on, loading and purging cover every shard, and a deadline is
+ * re-read and claimed on its tenant's shard.
+ */
+@Component
+public class JpaDeadlineStore implements DeadlineStore {
+
+    private final InvoiceRepository invoiceRepository;
+    private final DeadlineFireRepository deadlineFireRepository;
+    private final DeadlinePolicy policy;
+    private final Shards shards;
+    private final ShardDirectory shardDirectory;
+
+    public JpaDeadlineStore(InvoiceRepository invoiceRepository, DeadlineFireRepository deadlineFireRepository,
+                            DeadlinePolicy policy, Shards shards, ShardDirectory shardDirectory) {
+        this.invoiceRepository = invoiceRepository;
+        this.deadlineFireRepository = deadlineFireRepository;
+        this.policy = policy;
+        this.shards = shards;
+        this.shardDirectory = shardDirectory;
+    }
+
+    @Override
+    public List<Deadline> load(LocalDateTime from, LocalDateTime to) {
+        List<Deadline> deadlines = new ArrayList<>();
+        for (String shard : shards.names()) {
+            deadlines.addAll(ShardContext.callOn(shard, () -> loadShard(shard, from, to)));
+        }
+        return deadlines;
+    }
+
+    private List<Deadline> loadShard(String shard, LocalDateTime from, LocalDateTime to) {
+        List<DeadlineCandidate> candidates = new ArrayList<>(invoiceRepository.findDeadlineCandidatesByDueDate(
+                InvoiceStatus.APPROVED, policy.dueDateFrom(from), policy.dueDateTo(to)));
+        candidates.addAll(invoiceRepository.findDeadlineCandidatesByUpdatedAt(
+                InvoiceStatus.EXTRACTING, policy.updatedFrom(from), policy.updatedTo(to)));
+
+        Map<Deadline.Key, Set<LocalDateTime>> fired = new HashMap<>();
+        for (DeadlineFire fire : deadlineFireRepository.findByDueAtBetween(from, to)) {
+            fired.computeIfAbsent(new Deadline.Key(fire.getInvoiceId(), fire.getKind()), key -> new HashSet<>())
+                    .add(fire.getDueAt());
+        }
+
+        List<Deadline> deadlines = new ArrayList<>(candidates.size());
+        for (DeadlineCandidate candidate : candidates) {
+            for (Deadline deadline : policy.deadlinesOf(candidate)) {
+                boolean inWindow = !deadline.dueAt().isBefore(from) && !deadline.dueAt().isAfter(to);
+                // A tenant being moved is on two shards for a while; only its directory shard counts
+                if (inWindow && !fired.getOrDefault(deadline.key(), Set.of()).contains(deadline.dueAt())
+                        && shard.equals(shardDirectory.shardOf(deadline.tenantId()))) {
+                    deadlines.add(deadline);
+                }
+            }
+        }
+        return deadlines;
+    }
+
+    @Override
+    public Optional<Deadline> current(long tenantId, long invoiceId, DeadlineKind kind) {
+        return shardDirectory.callAs(tenantId, () -> invoiceRepository.findDeadlineCandidate(invoiceId)
+                .flatMap(candidate -> policy.deadlineOf(candidate, kind)));
+    }
+
+    @Override
+    public boolean claim(Deadline deadline, LocalDateTime firedAt) {
+        return shardDirectory.callAs(deadline.tenantId(), () -> deadlineFireRepository.claim(deadline.invoiceId(),
+                deadline.kind().name(), deadline.dueAt(), firedAt)) == 1;
+    }
+
+    @Override
+    public int purgeFired(LocalDateTime before) {
+        int purged = 0;
+        for (String shard : shards.names()) {
+            purged += ShardContext.callOn(shard, () -> deadlineFireRepository.deleteByDueAtBefore(before));
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ledgerflow.dto;
+
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.entity.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Invoice change notification pushed to WebSocket subscribers of a tenant.
+ * Carries only the fields the dashboard needs to patch its local list.
+ * The deadline types are reminders from DeadlineScheduler, not changes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceEvent {
+
+    public enum Type {
+        CREATED, EXTRACTION_FINISHED, STATUS_CHANGED,
+        PAYMENT_DUE_SOON, PAYMENT_OVERDUE, EXTRACTION_STUCK;
+
+        public boolean isChange() {
+            return this == CREATED || this == EXTRACTION_FINISHED || this == STATUS_CHANGED;
+        }
+    }
+
+    private Type type;
+    private Long tenantId;
+    private Long invoiceId;
+    private String invoiceNumber;
+    private InvoiceStatus status;
+    private InvoiceStatus previousStatus;
+    private LocalDate dueDate;
+    private LocalDateTime timestamp;
+
+    public static InvoiceEvent of(Type type, Invoice invoice, InvoiceStatus previousStatus) {
+        return new InvoiceEvent(type, invoice.getTenant().getId(), invoice.getId(),
+                invoice.getInvoiceNumber(), invoice.getStatus(), previousStatus, invoice.getDueDate(),
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,17 @@
+package com.ledgerflow.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Which proposals of a reconciliation run to confirm or reject: the listed
+ * ids, or, when no ids are given, every open proposal scoring at least
+ * {@code minScore}.
+ */
+@Data
+public class ProposalDecisionRequest {
+    private List<Long> proposalIds;
+
+    private Double minScore;
+}
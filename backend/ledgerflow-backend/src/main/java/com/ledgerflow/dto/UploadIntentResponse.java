@@ -0,0 +1,22 @@
+package com.ledgerflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadIntentResponse {
+    private String uploadId;
+    private String uploadUrl; // PUT the raw PDF here before expiresAt
+    private String method;
+    private String contentType;
+    private Map<String, String> headers; // Send these with the PUT as well
+    private long maxBytes;
+    private Instant expiresAt;
+    private String token; // Pass back to the confirm endpoint
+}
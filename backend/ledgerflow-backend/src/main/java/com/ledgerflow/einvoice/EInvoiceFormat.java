@@ -0,0 +1,10 @@
+package com.ledgerflow.einvoice;
+
+/**
+ * Structured e-invoice syntaxes handled in-process.
+ */
+public enum EInvoiceFormat {
+    UBL,        // OASIS UBL 2.1 Invoice / CreditNote
+    CII,        // UN/CEFACT Cross Industry Invoice (D16B), standalone XML
+    FACTUR_X    // CII embedded in a PDF/A-3 (Factur-X, ZUGFeRD 2.x, XRechnung attachments)
+}
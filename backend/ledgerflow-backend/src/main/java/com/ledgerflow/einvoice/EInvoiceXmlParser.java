@@ -0,0 +1,239 @@
+package com.ledgerflow.einvoice;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * E-Invoice XML Parser
+ *
+ * Single-pass StAX parser for UBL 2.1 and CII documents. It produces the same
+ * extraction map as AiOrchestrationService.parseExtractionResponse, so the
+ * result goes through InvoiceService.createInvoiceFromExtraction unchanged.
+ *
+ * Elements are matched by their local-name path below the root (for example
+ * {@code /LegalMonetaryTotal/PayableAmount}). Only the few paths listed in the
+ * field tables are looked at; everything else is skipped without building a
+ * tree. When a field has several candidate paths, the first one found in the
+ * document wins. Amounts and quantities stay decimal strings, so no precision
+ * is lost to doubles.
+ *
+ * Credit notes (a UBL CreditNote root, or a UNTDID 1001 credit note type code
+ * in a UBL Invoice or CII document) carry positive amounts that mean money
+ * owed to the buyer. They are flagged rather than mapped, so the caller can
+ * keep them out of the payable invoice path.
+ */
+public final class EInvoiceXmlParser {
+
+    static final String UBL_INVOICE_NS = "urn:oasis:names:specification:ubl:schema:xsd:Invoice-2";
+    static final String UBL_CREDIT_NOTE_NS = "urn:oasis:names:specification:ubl:schema:xsd:CreditNote-2";
+    static final String CII_NS = "urn:un:unece:uncefact:data:standard:CrossIndustryInvoice:100";
+
+    // UNTDID 1001 document type codes for credit notes
+    private static final Set<String> CREDIT_NOTE_TYPE_CODES = Set.of(
+            "81", "83", "261", "262", "296", "308", "381", "396", "420", "458", "532");
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static final Syntax UBL = new Syntax(
+            Map.ofEntries(
+                    Map.entry("/ID", "invoice_number"),
+                    Map.entry("/IssueDate", "invoice_date"),
+                    Map.entry("/DueDate", "due_date"),
+                    Map.entry("/PaymentMeans/PaymentDueDate", "due_date"),
+                    Map.entry("/DocumentCurrencyCode", "currency"),
+                    Map.entry("/AccountingSupplierParty/Party/PartyName/Name", "vendor_name"),
+                    Map.entry("/AccountingSupplierParty/Party/PartyLegalEntity/RegistrationName", "vendor_name"),
+                    Map.entry("/LegalMonetaryTotal/PayableAmount", "total_amount"),
+                    Map.entry("/TaxTotal/TaxAmount", "tax_amount"),
+                    Map.entry("/PaymentTerms/Note", "payment_terms"),
+                    Map.entry("/InvoiceTypeCode", "type_code"),
+                    Map.entry("/CreditNoteTypeCode", "type_code")),
+            List.of("/InvoiceLine", "/CreditNoteLine"),
+            Map.of(
+                    "/InvoicedQuantity", "quantity",
+                    "/CreditedQuantity", "quantity",
+                    "/LineExtensionAmount", "amount",
+                    "/Item/Name", "description",
+                    "/Item/Description", "description",
+                    "/Price/PriceAmount", "unit_price",
+                    "/Price/BaseQuantity", "base_quantity"));
+
+    private static final String CII_SETTLEMENT = "/SupplyChainTradeTransaction/ApplicableHeaderTradeSettlement";
+
+    private static final Syntax CII = new Syntax(
+            Map.of(
+                    "/ExchangedDocument/ID", "invoice_number",
+                    "/ExchangedDocument/TypeCode", "type_code",
+                    "/ExchangedDocument/IssueDateTime/DateTimeString", "invoice_date",
+                    "/SupplyChainTradeTransaction/ApplicableHeaderTradeAgreement/SellerTradeParty/Name", "vendor_name",
+                    CII_SETTLEMENT + "/InvoiceCurrencyCode", "currency",
+                    CII_SETTLEMENT + "/SpecifiedTradePaymentTerms/DueDateDateTime/DateTimeString", "due_date",
+                    CII_SETTLEMENT + "/SpecifiedTradePaymentTerms/Description", "payment_terms",
+                    CII_SETTLEMENT + "/SpecifiedTradeSettlementHeaderMonetarySummation/GrandTotalAmount", "total_amount",
+                    CII_SETTLEMENT + "/SpecifiedTradeSettlementHeaderMonetarySummation/TaxTotalAmount", "tax_amount"),
+            List.of("/SupplyChainTradeTransaction/IncludedSupplyChainTradeLineItem"),
+            Map.of(
+                    "/SpecifiedTradeProduct/Name", "description",
+                    "/SpecifiedLineTradeAgreement/NetPriceProductTradePrice/ChargeAmount", "unit_price",
+                    "/SpecifiedLineTradeAgreement/NetPriceProductTradePrice/BasisQuantity", "base_quantity",
+                    "/SpecifiedLineTradeDelivery/BilledQuantity", "quantity",
+                    "/SpecifiedLineTradeSettlement/SpecifiedTradeSettlementLineMonetarySummation/LineTotalAmount", "amount"));
+
+    private record Syntax(Map<String, String> headerFields, List<String> linePaths, Map<String, String> lineFields) {
+
+        /**
+         * Depth of the line elements, so other elements skip the path lookup.
+         */
+        int lineDepth() {
+            return (int) linePaths.get(0).chars().filter(c -> c == '/').count();
+        }
+    }
+
+    private EInvoiceXmlParser() {
+    }
+
+    public record Parsed(EInvoiceFormat format, boolean creditNote, Map<String, Object> extractedData) {
+    }
+
+    /**
+     * Parse a UBL or CII document.
+     *
+     * @return the format and extracted_data map, or null if the root element is neither
+     */
+    public static Parsed parse(InputStream xml) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(xml);
+        try {
+            while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+                // Skip prolog, comments and processing instructions
+            }
+            if (!reader.isStartElement()) {
+                return null;
+            }
+            EInvoiceFormat format = formatOf(reader.getNamespaceURI());
+            if (format == null) {
+                return null;
+            }
+            boolean creditNote = UBL_CREDIT_NOTE_NS.equals(reader.getNamespaceURI());
+            Map<String, Object> extractedData = read(reader, format == EInvoiceFormat.UBL ? UBL : CII);
+            Object typeCode = extractedData.remove("type_code");
+            creditNote |= typeCode != null && CREDIT_NOTE_TYPE_CODES.contains(typeCode);
+            return new Parsed(format, creditNote, extractedData);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Format of a document by its root namespace, or null if it is not an e-invoice.
+     */
+    static EInvoiceFormat formatOf(String rootNamespace) {
+        if (UBL_INVOICE_NS.equals(rootNamespace) || UBL_CREDIT_NOTE_NS.equals(rootNamespace)) {
+            return EInvoiceFormat.UBL;
+        }
+        return CII_NS.equals(rootNamespace) ? EInvoiceFormat.CII : null;
+    }
+
+    private static Map<String, Object> read(XMLStreamReader reader, Syntax syntax) throws XMLStreamException {
+        Map<String, Object> invoice = new HashMap<>();
+        List<Map<String, Object>> lineItems = new ArrayList<>();
+        Map<String, Object> line = null;
+        int lineStart = -1;
+        int lineDepth = syntax.lineDepth();
+
+        StringBuilder path = new StringBuilder(128);
+        int[] pathLengths = new int[32];
+        int depth = 0;
+        StringBuilder text = new StringBuilder(64);
+        String dateFormat = null;
+        String value;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == pathLengths.length) {
+                    pathLengths = Arrays.copyOf(pathLengths, depth * 2);
+                }
+                pathLengths[depth++] = path.length();
+                path.append('/').append(reader.getLocalName());
+                text.setLength(0);
+                dateFormat = reader.getAttributeValue(null, "format");
+
+                if (line == null && depth == lineDepth && syntax.linePaths().contains(path.toString())) {
+                    line = new HashMap<>();
+                    lineStart = path.length();
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break; // End of the root element
+                }
+                if (line != null && path.length() == lineStart) {
+                    lineItems.add(finishLine(line));
+                    line = null;
+                } else if (!text.isEmpty() && !(value = text.toString().trim()).isEmpty()) {
+                    if (line != null) {
+                        String field = syntax.lineFields().get(path.substring(lineStart));
+                        if (field != null) {
+                            line.putIfAbsent(field, value);
+                        }
+                    } else {
+                        String field = syntax.headerFields().get(path.toString());
+                        if (field != null) {
+                            invoice.putIfAbsent(field, field.endsWith("_date") ? isoDate(value, dateFormat) : value);
+                        }
+                    }
+                }
+                text.setLength(0);
+                path.setLength(pathLengths[--depth]);
+            }
+        }
+
+        invoice.put("line_items", lineItems);
+        return invoice;
+    }
+
+    private static Map<String, Object> finishLine(Map<String, Object> line) {
+        Object baseQuantity = line.remove("base_quantity");
+        Object unitPrice = line.get("unit_price");
+        if (baseQuantity != null && unitPrice != null) {
+            BigDecimal base = new BigDecimal((String) baseQuantity);
+            if (base.signum() != 0 && base.compareTo(BigDecimal.ONE) != 0) {
+                line.put("unit_price", new BigDecimal((String) unitPrice)
+                        .divide(base, MathContext.DECIMAL64).stripTrailingZeros().toPlainString());
+            }
+        }
+        line.putIfAbsent("description", "");
+        return line;
+    }
+
+    /**
+     * UBL dates are already ISO (yyyy-MM-dd). CII dates use format 102 (yyyyMMdd).
+     */
+    private static String isoDate(String value, String format) {
+        if (value.length() == 8 && (format == null || "102".equals(format))) {
+            return value.substring(0, 4) + "-" + value.substring(4, 6) + "-" + value.substring(6, 8);
+        }
+        return value;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
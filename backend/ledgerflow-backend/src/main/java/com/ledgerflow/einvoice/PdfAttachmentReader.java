@@ -0,0 +1,69 @@
+package com.ledgerflow.einvoice;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentNameDictionary;
+import org.apache.pdfbox.pdmodel.PDEmbeddedFilesNameTreeNode;
+import org.apache.pdfbox.pdmodel.common.PDNameTreeNode;
+import org.apache.pdfbox.pdmodel.common.filespecification.PDComplexFileSpecification;
+import org.apache.pdfbox.pdmodel.common.filespecification.PDEmbeddedFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PDF Attachment Reader
+ *
+ * Finds the invoice XML embedded in a hybrid PDF. Factur-X and ZUGFeRD 2.x
+ * attach it under a fixed file name, and XRechnung-in-PDF uses xrechnung.xml.
+ * Only the document's name tree is read; page content is never parsed.
+ */
+final class PdfAttachmentReader {
+
+    private static final Set<String> INVOICE_ATTACHMENTS = Set.of(
+            "factur-x.xml", "zugferd-invoice.xml", "xrechnung.xml");
+
+    private PdfAttachmentReader() {
+    }
+
+    /**
+     * Bytes of the embedded invoice XML, or null if the PDF carries none.
+     */
+    static byte[] invoiceXml(InputStream pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(pdf))) {
+            PDEmbeddedFilesNameTreeNode embeddedFiles =
+                    new PDDocumentNameDictionary(document.getDocumentCatalog()).getEmbeddedFiles();
+            return embeddedFiles != null ? find(embeddedFiles) : null;
+        }
+    }
+
+    private static byte[] find(PDNameTreeNode<PDComplexFileSpecification> node) throws IOException {
+        Map<String, PDComplexFileSpecification> names = node.getNames();
+        if (names != null) {
+            for (Map.Entry<String, PDComplexFileSpecification> entry : names.entrySet()) {
+                PDComplexFileSpecification spec = entry.getValue();
+                String filename = spec.getFilename() != null ? spec.getFilename() : entry.getKey();
+                if (filename != null && INVOICE_ATTACHMENTS.contains(filename.toLowerCase(Locale.ROOT))) {
+                    PDEmbeddedFile file = spec.getEmbeddedFileUnicode() != null
+                            ? spec.getEmbeddedFileUnicode() : spec.getEmbeddedFile();
+                    if (file != null) {
+                        return file.toByteArray();
+                    }
+                }
+            }
+        }
+        if (node.getKids() != null) {
+            for (PDNameTreeNode<PDComplexFileSpecification> kid : node.getKids()) {
+                byte[] xml = find(kid);
+                if (xml != null) {
+                    return xml;
+                }
+            }
+        }
+        return null;
+    }
+}
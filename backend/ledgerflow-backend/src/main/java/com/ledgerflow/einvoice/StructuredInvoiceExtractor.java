@@ -0,0 +1,141 @@
+package com.ledgerflow.einvoice;
+
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Structured Invoice Extractor
+ *
+ * In-process extraction stage in front of the AI orchestration service. The
+ * first bytes decide the path:
+ * - XML with a UBL or CII root is parsed directly.
+ * - A PDF is checked for an embedded Factur-X / ZUGFeRD / XRechnung XML.
+ * - Anything else, credit notes, and any structured document that fails to
+ *   parse or lacks required fields, return empty so the caller falls back to
+ *   AI extraction.
+ *
+ * The result has the same shape as the AI response, with confidence 1.0,
+ * because the fields are read rather than inferred.
+ */
+@Component
+public class StructuredInvoiceExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(StructuredInvoiceExtractor.class);
+
+    // The PDF header may appear anywhere in the first 1024 bytes
+    private static final int SNIFF_BYTES = 1024;
+    private static final List<String> REQUIRED_FIELDS = List.of(
+            "invoice_number", "vendor_name", "invoice_date", "total_amount");
+
+    private final LedgerFlowMetrics metrics;
+
+    public StructuredInvoiceExtractor(LedgerFlowMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Optional<Map<String, Object>> extract(MultipartFile file, Long tenantId) {
+        try (InputStream in = file.getInputStream()) {
+            return extract(in, file.getOriginalFilename(), tenantId);
+        } catch (IOException e) {
+            log.debug("Structured extraction skipped for {}: {}", file.getOriginalFilename(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public Optional<Map<String, Object>> extract(InputStream content, String filename, Long tenantId)
+            throws IOException {
+        BufferedInputStream in = new BufferedInputStream(content, 8192);
+        in.mark(SNIFF_BYTES);
+        byte[] head = in.readNBytes(SNIFF_BYTES);
+        in.reset();
+
+        boolean pdf = isPdf(head);
+        if (!pdf && !isXml(head)) {
+            return Optional.empty();
+        }
+
+        Timer.Sample sample = metrics.start();
+        String format = "none";
+        String outcome = "fallback";
+        try {
+            InputStream xml = in;
+            if (pdf) {
+                byte[] attachment = PdfAttachmentReader.invoiceXml(in);
+                if (attachment == null) {
+                    return Optional.empty();
+                }
+                xml = new ByteArrayInputStream(attachment);
+            }
+
+            EInvoiceXmlParser.Parsed parsed = EInvoiceXmlParser.parse(xml);
+            if (parsed == null) {
+                return Optional.empty();
+            }
+            format = (pdf ? EInvoiceFormat.FACTUR_X : parsed.format()).name().toLowerCase(Locale.ROOT);
+            if (parsed.creditNote()) {
+                outcome = "credit_note";
+                log.info("{} e-invoice {} is a credit note, falling back to AI extraction", format, filename);
+                return Optional.empty();
+            }
+
+            Map<String, Object> extractedData = parsed.extractedData();
+            for (String field : REQUIRED_FIELDS) {
+                if (extractedData.get(field) == null) {
+                    outcome = "incomplete";
+                    log.info("{} e-invoice {} has no {}, falling back to AI extraction", format, filename, field);
+                    return Optional.empty();
+                }
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("extracted_data", extractedData);
+            result.put("confidence_score", 1.0);
+            result.put("filename", filename);
+            outcome = "extracted";
+            return Optional.of(result);
+        } catch (XMLStreamException | RuntimeException e) {
+            outcome = "error";
+            log.warn("Failed to parse {} e-invoice {}, falling back to AI extraction: {}", format, filename,
+                    e.getMessage());
+            return Optional.empty();
+        } finally {
+            metrics.stop(sample, LedgerFlowMetrics.EXTRACTION_STRUCTURED,
+                    metrics.tenantTags(tenantId).and("format", format, "outcome", outcome));
+        }
+    }
+
+    private static boolean isPdf(byte[] head) {
+        for (int i = 0; i + 5 <= head.length; i++) {
+            if (head[i] == '%' && head[i + 1] == 'P' && head[i + 2] == 'D' && head[i + 3] == 'F' && head[i + 4] == '-') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isXml(byte[] head) {
+        int i = 0;
+        if (head.length >= 3 && (head[0] & 0xff) == 0xEF && (head[1] & 0xff) == 0xBB && (head[2] & 0xff) == 0xBF) {
+            i = 3; // UTF-8 BOM
+        }
+        while (i < head.length && Character.isWhitespace(head[i])) {
+            i++;
+        }
+        return i < head.length && head[i] == '<';
+    }
+}
@@ -0,0 +1,41 @@
+package com.ledgerflow.entity;
+
+import com.ledgerflow.deadline.DeadlineKind;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A deadline that has fired. The unique key is the claim: the node whose
+ * insert succeeds runs the handlers, every other node skips the deadline.
+ * Rows are purged once past the scheduler's catch-up window.
+ */
+@Entity
+@Table(name = "invoice_deadline_fires",
+        uniqueConstraints = @UniqueConstraint(name = "uk_invoice_deadline_fires",
+                columnNames = {"invoice_id", "kind", "due_at"}),
+        indexes = @Index(name = "idx_invoice_deadline_fires_due_at", columnList = "due_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadlineFire {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "invoice_id", nullable = false)
+    private Long invoiceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private DeadlineKind kind;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    @Column(name = "fired_at", nullable = false)
+    private LocalDateTime firedAt;
+}
@@ -9,10 +9,17 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        // Deadline windows (DeadlineScheduler) read only upcoming invoices of one status
+        @Index(name = "idx_invoices_status_due_date", columnList = "status, due_date"),
+        @Index(name = "idx_invoices_status_updated_at", columnList = "status, updated_at"),
+        // Open invoices of a tenant (reconciliation)
+        @Index(name = "idx_invoices_tenant_status", columnList = "tenant_id, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -73,19 +80,35 @@ public class Invoice {
     @Column(name = "confidence_score")
     private Double confidenceScore;
 
+    // Original upload in DocumentStorage, served by GET /api/invoices/{id}/document
+    @Column(name = "document_sha256", length = 64)
+    private String documentSha256;
+
+    @Column(name = "document_size")
+    private Long documentSize;
+
+    @Column(name = "document_content_type")
+    private String documentContentType;
+
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @JsonIgnoreProperties({"invoice", "hibernateLazyInitializer", "handler"})
     private List<InvoiceLineItem> lineItems;
 
+    // Read back from an archived partition (ArchivedInvoices); not attached, read-only
+    @Transient
+    private boolean archived;
+
+    // Truncated to the microseconds PostgreSQL keeps (it would round the rest), so the
+    // ETag of the saved instance matches the one computed after a reload
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
 
@@ -0,0 +1,64 @@
+package com.ledgerflow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catalog entry for one archived month of invoices: the columnar files its
+ * invoices and line items were exported to before the partitions were
+ * dropped. Kept on the shard the partition lived on; ArchivedInvoices finds
+ * an invoice by its id range.
+ */
+@Entity
+@Table(name = "invoice_archives",
+        uniqueConstraints = @UniqueConstraint(name = "uk_invoice_archives_partition", columnNames = "partition_name"),
+        indexes = @Index(name = "idx_invoice_archives_ids", columnList = "min_invoice_id, max_invoice_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceArchive {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "partition_name", nullable = false, length = 63)
+    private String partitionName;
+
+    @Column(name = "range_from", nullable = false)
+    private LocalDateTime rangeFrom;
+
+    @Column(name = "range_to", nullable = false)
+    private LocalDateTime rangeTo;
+
+    @Column(name = "min_invoice_id", nullable = false)
+    private Long minInvoiceId;
+
+    @Column(name = "max_invoice_id", nullable = false)
+    private Long maxInvoiceId;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount;
+
+    @Column(name = "line_item_count", nullable = false)
+    private Long lineItemCount;
+
+    // Relative to app.partitioning.archive.root
+    @Column(name = "invoices_file", nullable = false)
+    private String invoicesFile;
+
+    @Column(name = "invoices_sha256", nullable = false, length = 64)
+    private String invoicesSha256;
+
+    @Column(name = "line_items_file", nullable = false)
+    private String lineItemsFile;
+
+    @Column(name = "line_items_sha256", nullable = false, length = 64)
+    private String lineItemsSha256;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -1,5 +1,6 @@
 package com.ledgerflow.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -12,6 +13,11 @@ import java.util.List;
 
 
 
+/**
+ * Line of an invoice. With app.partitioning on, invoice_line_items is range
+ * partitioned like invoices, on a copy of the invoice's created_at, and
+ * references the invoice by (id, created_at).
+ */
 @Entity
 @Table(name = "invoice_line_items")
 @Data
@@ -35,7 +41,21 @@ public class InvoiceLineItem {
     private BigDecimal amount;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "invoice_id", nullable = false)
+    @JoinColumn(name = "invoice_id", nullable = false,
+            foreignKey = @ForeignKey(name = "fk_invoice_line_items_invoice"))
     @JsonIgnoreProperties({"lineItems", "tenant", "hibernateLazyInitializer", "handler"})
     private Invoice invoice;
+
+    // Partition key; NOT NULL once InvoicePartitions has converted the table
+    @Column(name = "invoice_created_at", updatable = false)
+    @JsonIgnore
+    private LocalDateTime invoiceCreatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        // The invoice is persisted (and stamped) before its line items cascade
+        if (invoice != null) {
+            invoiceCreatedAt = invoice.getCreatedAt();
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.ledgerflow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of an invoice's status timeline: who moved it from which status
+ * to which, and when. Append-only; rows are inserted in batches by
+ * StatusHistoryWriter and never updated. {@code previousStatus} is null for
+ * the entry recording the invoice's creation, {@code changedBy} when no user
+ * was authenticated (system changes).
+ */
+@Entity
+@Immutable
+@Table(name = "invoice_status_history",
+        indexes = @Index(name = "idx_invoice_status_history_invoice", columnList = "invoice_id, changed_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceStatusHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(name = "invoice_id", nullable = false)
+    private Long invoiceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status", length = 32)
+    private InvoiceStatus previousStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "new_status", nullable = false, length = 32)
+    private InvoiceStatus newStatus;
+
+    @Column(name = "changed_by")
+    private Long changedBy;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
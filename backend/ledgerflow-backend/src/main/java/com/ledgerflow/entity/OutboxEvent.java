@@ -0,0 +1,49 @@
+package com.ledgerflow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Invoice change waiting to be published to downstream systems.
+ *
+ * Written in the same transaction as the invoice change and deleted by the
+ * relay once the sink has accepted it. {@code sequence} is the tenant's
+ * invoice list version after the change, so it increases per tenant.
+ */
+@Entity
+@Table(name = "invoice_outbox",
+        indexes = @Index(name = "idx_invoice_outbox_partition", columnList = "partition_no, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    // tenantId mod app.outbox.partitions; a relay drains a partition at a time
+    @Column(name = "partition_no", nullable = false)
+    private Integer partitionNo;
+
+    @Column(name = "tenant_sequence", nullable = false)
+    private Long sequence;
+
+    @Column(name = "invoice_id", nullable = false)
+    private Long invoiceId;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
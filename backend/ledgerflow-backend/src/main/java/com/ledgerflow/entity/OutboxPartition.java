@@ -0,0 +1,26 @@
+package com.ledgerflow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease row for one outbox partition. A relay holds the row lock while it
+ * drains the partition, so each tenant's events are published by one relay at a time.
+ */
+@Entity
+@Table(name = "invoice_outbox_partitions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxPartition {
+    @Id
+    @Column(name = "partition_no")
+    private Integer partitionNo;
+
+    @Column(name = "last_drained_at")
+    private LocalDateTime lastDrainedAt;
+}
@@ -0,0 +1,74 @@
+package com.ledgerflow.entity;
+
+import com.ledgerflow.reconciliation.MatchType;
+import com.ledgerflow.reconciliation.ProposalStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A bank transaction of a reconciliation run and the invoice proposed for it.
+ * Transactions nothing matched are kept too (status UNMATCHED, no invoice) so
+ * the run can be reviewed in full. Rows are inserted in JDBC batches by
+ * ReconciliationService; only status and decidedAt change afterwards.
+ */
+@Entity
+@Table(name = "reconciliation_proposals",
+        indexes = @Index(name = "idx_reconciliation_proposals_run_status", columnList = "run_id, status, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationProposal {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(name = "invoice_id")
+    private Long invoiceId;
+
+    @Column(name = "invoice_number")
+    private String invoiceNumber;
+
+    @Column(name = "transaction_ref", length = 140)
+    private String transactionRef;
+
+    @Column(name = "booking_date", nullable = false)
+    private LocalDate bookingDate;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(length = 255)
+    private String counterparty;
+
+    @Column(length = 500)
+    private String reference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "match_type", length = 16)
+    private MatchType matchType;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ProposalStatus status;
+
+    @Column(name = "decided_at")
+    private LocalDateTime decidedAt;
+}
@@ -0,0 +1,77 @@
+package com.ledgerflow.entity;
+
+import com.ledgerflow.reconciliation.RunStatus;
+import com.ledgerflow.reconciliation.StatementFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One imported bank statement and the outcome of matching it against the
+ * tenant's open invoices. Counts are filled in when matching completes;
+ * {@code applied} grows as confirmed proposals are applied.
+ */
+@Entity
+@Table(name = "reconciliation_runs",
+        indexes = @Index(name = "idx_reconciliation_runs_tenant", columnList = "tenant_id, created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private StatementFormat format;
+
+    @Column(length = 255)
+    private String filename;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RunStatus status;
+
+    @Column(name = "open_invoices")
+    private Long openInvoices;
+
+    private Long transactions;
+
+    // Entries of the statement that could not be read
+    private Long rejected;
+
+    // Incoming payments, not matched against payable invoices
+    private Long credits;
+
+    @Column(name = "matched_reference")
+    private Long matchedReference;
+
+    @Column(name = "matched_amount_vendor")
+    private Long matchedAmountVendor;
+
+    @Column(name = "matched_fuzzy")
+    private Long matchedFuzzy;
+
+    private Long unmatched;
+
+    private Long applied;
+
+    @Column(name = "first_error", length = 500)
+    private String firstError;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -28,6 +28,31 @@ public class Tenant {
     @Column(nullable = false)
     private Boolean active = true;
 
+    // Share of extraction workers under contention (ExtractionScheduler); null = app default
+    @Column(name = "extraction_weight")
+    private Integer extractionWeight;
+
+    // Most extractions running at once for this tenant; null = app default
+    @Column(name = "extraction_max_concurrency")
+    private Integer extractionMaxConcurrency;
+
+    // API rate limits (RateLimitFilter); null = app.rate-limit defaults
+    @Column(name = "upload_rate_limit_per_minute")
+    private Integer uploadRateLimitPerMinute;
+
+    @Column(name = "upload_rate_limit_burst")
+    private Integer uploadRateLimitBurst;
+
+    @Column(name = "read_rate_limit_per_minute")
+    private Integer readRateLimitPerMinute;
+
+    @Column(name = "read_rate_limit_burst")
+    private Integer readRateLimitBurst;
+
+    // Bumped with every invoice write; the ETag of GET /api/invoices (null = 0)
+    @Column(name = "invoice_list_version")
+    private Long invoiceListVersion;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
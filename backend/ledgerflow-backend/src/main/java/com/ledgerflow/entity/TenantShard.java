@@ -0,0 +1,35 @@
+package com.ledgerflow.entity;
+
+import com.ledgerflow.sharding.ShardState;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Shard directory entry: the shard a tenant's data lives on. Used on the
+ * primary shard only, where ShardDirectory reads it over JDBC; tenants
+ * without a row live on the primary.
+ */
+@Entity
+@Table(name = "tenant_shards")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantShard {
+    @Id
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Column(nullable = false, length = 64)
+    private String shard;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ShardState state;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
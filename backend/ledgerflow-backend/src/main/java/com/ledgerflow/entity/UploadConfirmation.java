@@ -0,0 +1,36 @@
+package com.ledgerflow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A confirm in progress for a direct upload. The unique storage key is the
+ * claim: only the confirm whose insert succeeds extracts the document and
+ * creates the invoice; it deletes the row once the invoice is committed. A
+ * claim left behind by a crashed node can be taken over once stale.
+ */
+@Entity
+@Table(name = "upload_confirmations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_upload_confirmations_storage_key",
+                columnNames = "storage_key"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadConfirmation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "storage_key", nullable = false, length = 512)
+    private String storageKey;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+}
@@ -0,0 +1,189 @@
+package com.ledgerflow.extraction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Extraction Merger
+ *
+ * Combines per-chunk extraction results, in page order, into one result with
+ * the shape InvoiceService expects. The merge is deterministic:
+ * - Header text fields (number, vendor, dates, currency, terms) come from the
+ *   first chunk that has them, since invoice headers sit on the first page.
+ * - Line items are concatenated in page order, minus carried-over subtotals:
+ *   rows labelled as such ("Carried forward", "Übertrag", "Page subtotal", ...)
+ *   and unlabelled rows at a chunk boundary whose amount equals the running
+ *   sum of the (two or more) items kept so far.
+ * - total_amount is the chunk total that reconciles with the merged items
+ *   (plus tax and shipping); if none does, the largest, because intermediate
+ *   chunks only see running subtotals. Tax and shipping come from the same
+ *   chunk when it reports them, otherwise from the last chunk that does.
+ * - confidence_score is the lowest chunk score.
+ * Chunks are extracted without being stored, so the result has no s3_key or
+ * s3_url; the caller stores the original once and adds them.
+ */
+public final class ExtractionMerger {
+
+    private static final List<String> HEADER_FIELDS = List.of(
+            "invoice_number", "vendor_name", "invoice_date", "due_date", "currency", "payment_terms");
+    private static final Pattern CARRIED_OVER = Pattern.compile(
+            "^\\s*(?:(?:carried|brought|balance)\\s+(?:forward|fwd|over)|(?:page\\s+)?sub-?total|[cb]/f\\b"
+                    + "|übertrag|uebertrag|zwischensumme)",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    private static final BigDecimal TOLERANCE = new BigDecimal("0.01");
+
+    private ExtractionMerger() {
+    }
+
+    public static Map<String, Object> merge(List<Map<String, Object>> chunkResults, String filename) {
+        List<Map<String, Object>> chunks = new ArrayList<>(chunkResults.size());
+        for (Map<String, Object> result : chunkResults) {
+            chunks.add(extractedData(result));
+        }
+
+        Map<String, Object> merged = new HashMap<>();
+        for (String field : HEADER_FIELDS) {
+            for (Map<String, Object> chunk : chunks) {
+                Object value = chunk.get(field);
+                if (value != null && !value.toString().isBlank()) {
+                    merged.put(field, value);
+                    break;
+                }
+            }
+        }
+
+        List<Map<String, Object>> lineItems = new ArrayList<>();
+        BigDecimal runningSum = BigDecimal.ZERO;
+        for (int c = 0; c < chunks.size(); c++) {
+            List<Map<String, Object>> items = lineItems(chunks.get(c));
+            for (int i = 0; i < items.size(); i++) {
+                Map<String, Object> item = items.get(i);
+                BigDecimal amount = decimal(item.get("amount"));
+                // A running sum of one item is just that item repeated, not a subtotal
+                boolean atBoundary = lineItems.size() > 1
+                        && ((i == 0 && c > 0) || (i == items.size() - 1 && c < chunks.size() - 1));
+                if (isCarriedOver(item, amount, runningSum, atBoundary)) {
+                    continue;
+                }
+                lineItems.add(item);
+                if (amount != null) {
+                    runningSum = runningSum.add(amount);
+                }
+            }
+        }
+        merged.put("line_items", lineItems);
+        mergeAmounts(chunks, runningSum, merged);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("extracted_data", merged);
+        Double confidence = null;
+        for (Map<String, Object> chunkResult : chunkResults) {
+            if (chunkResult.get("confidence_score") instanceof Number score
+                    && (confidence == null || score.doubleValue() < confidence)) {
+                confidence = score.doubleValue();
+            }
+        }
+        if (confidence != null) {
+            result.put("confidence_score", confidence);
+        }
+        if (filename != null) {
+            result.put("filename", filename);
+        }
+        return result;
+    }
+
+    private static boolean isCarriedOver(Map<String, Object> item, BigDecimal amount, BigDecimal runningSum,
+                                         boolean atBoundary) {
+        Object description = item.get("description");
+        if (description != null && CARRIED_OVER.matcher(description.toString()).find()) {
+            return true;
+        }
+        return atBoundary && amount != null && runningSum.signum() != 0
+                && amount.subtract(runningSum).abs().compareTo(TOLERANCE) <= 0;
+    }
+
+    private static void mergeAmounts(List<Map<String, Object>> chunks, BigDecimal itemsSum,
+                                     Map<String, Object> merged) {
+        Object lastTax = lastNonNull(chunks, "tax_amount");
+        Object lastShipping = lastNonNull(chunks, "shipping_amount");
+
+        Map<String, Object> totalChunk = null;
+        BigDecimal largest = null;
+        for (Map<String, Object> chunk : chunks) {
+            BigDecimal total = decimal(chunk.get("total_amount"));
+            if (total == null) {
+                continue;
+            }
+            BigDecimal expected = itemsSum
+                    .add(orZero(decimal(valueOr(chunk, "tax_amount", lastTax))))
+                    .add(orZero(decimal(valueOr(chunk, "shipping_amount", lastShipping))));
+            if (total.subtract(expected).abs().compareTo(TOLERANCE) <= 0
+                    || total.subtract(itemsSum).abs().compareTo(TOLERANCE) <= 0) {
+                totalChunk = chunk;
+                break;
+            }
+            if (largest == null || total.abs().compareTo(largest) > 0) {
+                largest = total.abs();
+                totalChunk = chunk;
+            }
+        }
+
+        if (totalChunk != null) {
+            merged.put("total_amount", totalChunk.get("total_amount"));
+        }
+        Object tax = totalChunk != null ? valueOr(totalChunk, "tax_amount", lastTax) : lastTax;
+        if (tax != null) {
+            merged.put("tax_amount", tax);
+        }
+        Object shipping = totalChunk != null ? valueOr(totalChunk, "shipping_amount", lastShipping) : lastShipping;
+        if (shipping != null) {
+            merged.put("shipping_amount", shipping);
+        }
+    }
+
+    private static Object lastNonNull(List<Map<String, Object>> chunks, String field) {
+        Object last = null;
+        for (Map<String, Object> chunk : chunks) {
+            if (chunk.get(field) != null) {
+                last = chunk.get(field);
+            }
+        }
+        return last;
+    }
+
+    private static Object valueOr(Map<String, Object> chunk, String field, Object fallback) {
+        Object value = chunk.get(field);
+        return value != null ? value : fallback;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> extractedData(Map<String, Object> result) {
+        return result != null && result.get("extracted_data") instanceof Map<?, ?> data
+                ? (Map<String, Object>) data : Map.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> lineItems(Map<String, Object> extractedData) {
+        return extractedData.get("line_items") instanceof List<?> items ? (List<Map<String, Object>>) items : List.of();
+    }
+
+    // Amounts are Doubles from the AI service and strings from the e-invoice parser
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,324 @@
+package com.ledgerflow.extraction;
+
+import com.google.protobuf.ByteString;
+import com.ledgerflow.extraction.grpc.DocumentHeader;
+import com.ledgerflow.extraction.grpc.ExtractByKeyRequest;
+import com.ledgerflow.extraction.grpc.ExtractRequest;
+import com.ledgerflow.extraction.grpc.ExtractResponse;
+import com.ledgerflow.extraction.grpc.ExtractionResult;
+import com.ledgerflow.extraction.grpc.InvoiceData;
+import com.ledgerflow.extraction.grpc.InvoiceExtractionGrpc;
+import com.ledgerflow.extraction.grpc.LineItem;
+import com.ledgerflow.extraction.grpc.StoreResult;
+import io.grpc.ChannelCredentials;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.TlsChannelCredentials;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * gRPC Extraction Client
+ *
+ * Calls the orchestration service's InvoiceExtraction service (proto/ledgerflow/
+ * extraction/v1/extraction.proto) as an alternative to the multipart HTTP calls:
+ * - one long-lived HTTP/2 channel, every extraction multiplexed over it, so no
+ *   connection setup per request
+ * - documents are streamed in chunk-bytes pieces, sent only while the transport
+ *   is ready, so a slow service applies backpressure instead of buffering
+ * - the result arrives as a typed ExtractionResult after progress events
+ * - Store keeps a document without extracting it, for the originals of PDFs
+ *   whose page ranges are extracted with skip_storage set
+ * Results are mapped into the same map shape as
+ * AiOrchestrationService.parseExtractionResponse, so callers do not change.
+ * The channel connects lazily on first use.
+ */
+@Component
+public class GrpcExtractionClient {
+    private static final Logger log = LoggerFactory.getLogger(GrpcExtractionClient.class);
+
+    private final ManagedChannel channel;
+    private final InvoiceExtractionGrpc.InvoiceExtractionStub stub;
+    private final int chunkBytes;
+    private final long deadlineMs;
+
+    public GrpcExtractionClient(
+            @Value("${app.ai-orchestration.grpc.target:localhost:50051}") String target,
+            @Value("${app.ai-orchestration.grpc.tls:false}") boolean tls,
+            @Value("${app.ai-orchestration.grpc.chunk-bytes:65536}") int chunkBytes,
+            @Value("${app.ai-orchestration.grpc.keep-alive-seconds:30}") long keepAliveSeconds,
+            @Value("${app.ai-orchestration.grpc.max-response-bytes:16777216}") int maxResponseBytes,
+            @Value("${app.ai-orchestration.read-timeout-ms:300000}") long deadlineMs) {
+        ChannelCredentials credentials = tls ? TlsChannelCredentials.create() : InsecureChannelCredentials.create();
+        this.channel = Grpc.newChannelBuilder(target, credentials)
+                .keepAliveTime(keepAliveSeconds, TimeUnit.SECONDS)
+                .maxInboundMessageSize(maxResponseBytes)
+                .build();
+        this.stub = InvoiceExtractionGrpc.newStub(channel);
+        this.chunkBytes = chunkBytes;
+        this.deadlineMs = deadlineMs;
+    }
+
+    /**
+     * Stream a document to the service and wait for its extraction result.
+     *
+     * @param store false for page ranges of a larger document, which the service must not keep
+     */
+    public Map<String, Object> extract(InputStream document, long sizeBytes, String filename, String contentType,
+                                       String tenantId, boolean store) throws IOException {
+        ResultObserver<ExtractRequest, ExtractResponse> observer =
+                new ResultObserver<>(GrpcExtractionClient::isResult);
+        upload(stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS).extract(observer), observer,
+                document, sizeBytes, filename, contentType, tenantId, store);
+        return toExtractionResult(observer.await().getResult());
+    }
+
+    /**
+     * Stream a document to the service to be stored without extracting it.
+     *
+     * @return s3_key and s3_url as in an extraction result; empty if the service could not store it
+     */
+    public Map<String, Object> store(InputStream document, long sizeBytes, String filename, String contentType,
+                                     String tenantId) throws IOException {
+        ResultObserver<ExtractRequest, StoreResult> observer = new ResultObserver<>(result -> true);
+        upload(stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS).store(observer), observer,
+                document, sizeBytes, filename, contentType, tenantId, true);
+        StoreResult result = observer.await();
+        Map<String, Object> stored = new HashMap<>();
+        if (result.hasStorageKey()) {
+            stored.put("s3_key", result.getStorageKey());
+        }
+        if (result.hasStorageUrl()) {
+            stored.put("s3_url", result.getStorageUrl());
+        }
+        return stored;
+    }
+
+    private void upload(StreamObserver<ExtractRequest> requests, ResultObserver<ExtractRequest, ?> observer,
+                        InputStream document, long sizeBytes, String filename, String contentType,
+                        String tenantId, boolean store) throws IOException {
+        try {
+            requests.onNext(ExtractRequest.newBuilder()
+                    .setHeader(DocumentHeader.newBuilder()
+                            .setTenantId(tenantId)
+                            .setFilename(filename != null ? filename : "document.pdf")
+                            .setContentType(contentType != null ? contentType : "application/pdf")
+                            .setSizeBytes(sizeBytes)
+                            .setSkipStorage(!store))
+                    .build());
+            byte[] buffer = new byte[chunkBytes];
+            int read;
+            while ((read = document.readNBytes(buffer, 0, buffer.length)) > 0) {
+                if (!observer.awaitReady()) {
+                    // The call already ended; the outcome is reported by await()
+                    break;
+                }
+                requests.onNext(ExtractRequest.newBuilder()
+                        .setChunk(ByteString.copyFrom(buffer, 0, read))
+                        .build());
+            }
+            requests.onCompleted();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            requests.onError(Status.CANCELLED.withDescription("Upload aborted").withCause(e).asRuntimeException());
+            throw asIOException(e);
+        }
+    }
+
+    /**
+     * Extract a document the service reads from storage itself (direct uploads).
+     */
+    public Map<String, Object> extractByKey(String storageKey, String tenantId) throws IOException {
+        ResultObserver<ExtractByKeyRequest, ExtractResponse> observer =
+                new ResultObserver<>(GrpcExtractionClient::isResult);
+        stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS).extractByKey(ExtractByKeyRequest.newBuilder()
+                .setStorageKey(storageKey)
+                .setTenantId(tenantId)
+                .build(), observer);
+        return toExtractionResult(observer.await().getResult());
+    }
+
+    /**
+     * Map a typed result into the extraction result map consumed by
+     * InvoiceService.createInvoiceFromExtraction.
+     */
+    public static Map<String, Object> toExtractionResult(ExtractionResult result) {
+        InvoiceData invoice = result.getInvoice();
+        Map<String, Object> extractedData = new HashMap<>();
+        extractedData.put("invoice_number", invoice.getInvoiceNumber());
+        extractedData.put("vendor_name", invoice.getVendorName());
+        extractedData.put("invoice_date", invoice.getInvoiceDate());
+        if (invoice.hasDueDate()) {
+            extractedData.put("due_date", invoice.getDueDate());
+        }
+        extractedData.put("total_amount", invoice.getTotalAmount());
+        extractedData.put("currency", invoice.getCurrency());
+        if (invoice.hasTaxAmount()) {
+            extractedData.put("tax_amount", invoice.getTaxAmount());
+        }
+        if (invoice.hasShippingAmount()) {
+            extractedData.put("shipping_amount", invoice.getShippingAmount());
+        }
+        if (invoice.hasPaymentTerms()) {
+            extractedData.put("payment_terms", invoice.getPaymentTerms());
+        }
+        List<Map<String, Object>> lineItems = new ArrayList<>(invoice.getLineItemsCount());
+        for (LineItem lineItem : invoice.getLineItemsList()) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("description", lineItem.getDescription());
+            item.put("quantity", lineItem.getQuantity());
+            item.put("unit_price", lineItem.getUnitPrice());
+            item.put("amount", lineItem.getAmount());
+            lineItems.add(item);
+        }
+        extractedData.put("line_items", lineItems);
+
+        Map<String, Object> extraction = new HashMap<>();
+        extraction.put("extracted_data", extractedData);
+        extraction.put("confidence_score", result.getConfidenceScore());
+        if (result.hasStorageKey()) {
+            extraction.put("s3_key", result.getStorageKey());
+        }
+        if (result.hasStorageUrl()) {
+            extraction.put("s3_url", result.getStorageUrl());
+        }
+        extraction.put("filename", result.getFilename());
+        return extraction;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        channel.shutdown();
+        if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+            channel.shutdownNow();
+        }
+    }
+
+    private static boolean isResult(ExtractResponse response) {
+        if (response.hasProgress() && log.isDebugEnabled()) {
+            log.debug("Extraction progress: {} {}", response.getProgress().getStage(),
+                    response.getProgress().getFraction());
+        }
+        return response.hasResult();
+    }
+
+    private static IOException asIOException(Exception e) {
+        if (e instanceof IOException io) {
+            return io;
+        }
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while streaming document");
+            interrupted.initCause(e);
+            return interrupted;
+        }
+        return new IOException("AI orchestration service call failed: " + e.getMessage(), e);
+    }
+
+    /**
+     * Collects the response stream into its single result, and lets the uploading
+     * thread wait for transport readiness between chunks.
+     */
+    private static final class ResultObserver<Q, R> implements ClientResponseObserver<Q, R> {
+        private final Predicate<R> isResult;
+        private final CompletableFuture<R> outcome = new CompletableFuture<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition ready = lock.newCondition();
+        private ClientCallStreamObserver<Q> call;
+        private R result;
+
+        ResultObserver(Predicate<R> isResult) {
+            this.isResult = isResult;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<Q> call) {
+            this.call = call;
+            call.setOnReadyHandler(this::signal);
+        }
+
+        @Override
+        public void onNext(R response) {
+            if (isResult.test(response)) {
+                result = response;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            outcome.completeExceptionally(t);
+            signal();
+        }
+
+        @Override
+        public void onCompleted() {
+            if (result != null) {
+                outcome.complete(result);
+            } else {
+                outcome.completeExceptionally(Status.INTERNAL
+                        .withDescription("Extraction stream ended without a result").asRuntimeException());
+            }
+            signal();
+        }
+
+        /**
+         * Block until the call can take another message without buffering.
+         *
+         * @return false if the call has already finished
+         */
+        boolean awaitReady() throws InterruptedException {
+            lock.lock();
+            try {
+                while (!call.isReady() && !outcome.isDone()) {
+                    ready.await();
+                }
+                return !outcome.isDone();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        R await() throws IOException {
+            try {
+                return outcome.get();
+            } catch (InterruptedException e) {
+                call.cancel("Interrupted", e);
+                throw asIOException(e);
+            } catch (ExecutionException e) {
+                Status status = Status.fromThrowable(e.getCause());
+                throw new RuntimeException("AI orchestration service returned error: " + status.getCode()
+                        + (status.getDescription() != null ? " " + status.getDescription() : ""), e.getCause());
+            }
+        }
+
+        private void signal() {
+            lock.lock();
+            try {
+                ready.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ledgerflow.extraction;
+
+/**
+ * Page Chunk
+ *
+ * A contiguous page range of a larger PDF, saved as a standalone PDF.
+ * Page numbers are 1-based and inclusive.
+ */
+public record PageChunk(int firstPage, int lastPage, String filename, byte[] pdf) {
+}
@@ -0,0 +1,197 @@
+package com.ledgerflow.extraction;
+
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.scheduling.ExtractionScheduler;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Page-Parallel Extractor
+ *
+ * Splits PDFs of at least {@code min-pages} pages into {@code pages-per-chunk}
+ * ranges, extracts the ranges concurrently and merges the results with
+ * {@link ExtractionMerger}. Long utility and telecom bills then take about as
+ * long as their slowest chunk rather than the sum of all pages.
+ *
+ * Concurrency is bounded twice, and both permits are taken before a chunk is
+ * cut, so a waiting chunk holds neither a thread nor its PDF bytes:
+ * - max-concurrency-per-tenant: one tenant's large bills cannot take every slot.
+ * - max-concurrency: total chunk calls in flight across all tenants.
+ * Permits are taken in that order and released together, so they cannot
+ * deadlock. If a chunk fails, the outstanding chunks are cancelled and the
+ * failure is rethrown.
+ *
+ * Chunks do not queue in ExtractionScheduler: the document's own call already
+ * holds a scheduler worker while it waits for them, so chunks queued behind it
+ * could deadlock a tenant at its concurrency cap. Instead every chunk beyond
+ * the first is charged to the tenant's fair share, so a tenant splitting long
+ * bills gives up later turns to the other tenants.
+ */
+@Component
+public class PageParallelExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(PageParallelExtractor.class);
+    private static final Long UNKNOWN_TENANT = -1L;
+
+    private final LedgerFlowMetrics metrics;
+    private final ExtractionScheduler scheduler;
+    private final boolean enabled;
+    private final int minPages;
+    private final int pagesPerChunk;
+    private final int maxConcurrencyPerTenant;
+    private final Semaphore globalPermits;
+    private final ConcurrentMap<Long, Semaphore> tenantPermits = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    @FunctionalInterface
+    public interface ChunkExtraction {
+        Map<String, Object> extract(PageChunk chunk) throws IOException;
+    }
+
+    public PageParallelExtractor(LedgerFlowMetrics metrics,
+                                 ExtractionScheduler scheduler,
+                                 @Value("${app.page-parallel.enabled:true}") boolean enabled,
+                                 @Value("${app.page-parallel.min-pages:20}") int minPages,
+                                 @Value("${app.page-parallel.pages-per-chunk:10}") int pagesPerChunk,
+                                 @Value("${app.page-parallel.max-concurrency:32}") int maxConcurrency,
+                                 @Value("${app.page-parallel.max-concurrency-per-tenant:4}") int maxConcurrencyPerTenant,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.enabled = enabled;
+        this.minPages = minPages;
+        this.pagesPerChunk = Math.max(1, pagesPerChunk);
+        this.maxConcurrencyPerTenant = maxConcurrencyPerTenant;
+        this.globalPermits = new Semaphore(maxConcurrency, true);
+        // The permits bound the thread count, so the executor itself can be unbounded
+        this.executor = Executors.newThreadPerTaskExecutor(virtualThreads
+                ? Thread.ofVirtual().name("page-extract-", 0).factory()
+                : Thread.ofPlatform().name("page-extract-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Extract {@code pdf} chunk by chunk, or return empty if it is not a PDF,
+     * has fewer than min-pages pages, or page-parallel extraction is disabled.
+     */
+    public Optional<Map<String, Object>> extract(File pdf, String filename, Long tenantId,
+                                                 ChunkExtraction extraction) throws IOException {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        PDDocument document;
+        try {
+            document = Loader.loadPDF(pdf);
+        } catch (IOException e) {
+            log.debug("Page-parallel extraction skipped for {}: {}", filename, e.getMessage());
+            return Optional.empty();
+        }
+        try (document) {
+            int pages = document.getNumberOfPages();
+            if (pages < minPages) {
+                return Optional.empty();
+            }
+            return Optional.of(extractChunks(document, pages, filename, tenantId, extraction));
+        }
+    }
+
+    private Map<String, Object> extractChunks(PDDocument document, int pages, String filename, Long tenantId,
+                                              ChunkExtraction extraction) throws IOException {
+        Semaphore tenantSlots = tenantPermits.computeIfAbsent(tenantId != null ? tenantId : UNKNOWN_TENANT,
+                ignored -> new Semaphore(maxConcurrencyPerTenant, true));
+        int chunkCount = (pages + pagesPerChunk - 1) / pagesPerChunk;
+        metrics.record(LedgerFlowMetrics.EXTRACTION_CHUNKS, "chunks", metrics.tenantTags(tenantId), chunkCount);
+        // The document's own scheduler call pays for the first chunk
+        scheduler.charge(tenantId, chunkCount - 1);
+
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(chunkCount);
+        try {
+            for (int first = 1; first <= pages; first += pagesPerChunk) {
+                int last = Math.min(pages, first + pagesPerChunk - 1);
+                acquire(tenantSlots);
+                try {
+                    acquire(globalPermits);
+                } catch (IOException e) {
+                    tenantSlots.release();
+                    throw e;
+                }
+                try {
+                    PageChunk chunk = PdfPageSplitter.chunk(document, first, last, filename);
+                    futures.add(executor.submit(() -> {
+                        try {
+                            return extraction.extract(chunk);
+                        } finally {
+                            globalPermits.release();
+                            tenantSlots.release();
+                        }
+                    }));
+                } catch (IOException | RuntimeException e) {
+                    globalPermits.release();
+                    tenantSlots.release();
+                    throw e;
+                }
+            }
+
+            List<Map<String, Object>> results = new ArrayList<>(chunkCount);
+            for (Future<Map<String, Object>> future : futures) {
+                results.add(await(future));
+            }
+            log.info("Extracted {} ({} pages) in {} chunks for tenant {}", filename, pages, chunkCount, tenantId);
+            return ExtractionMerger.merge(results, filename);
+        } finally {
+            // No-op for completed chunks; interrupts the rest after a failure
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static void acquire(Semaphore permits) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for an extraction slot");
+        }
+    }
+
+    private static Map<String, Object> await(Future<Map<String, Object>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for chunk extraction");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Chunk extraction failed", cause);
+        }
+    }
+}
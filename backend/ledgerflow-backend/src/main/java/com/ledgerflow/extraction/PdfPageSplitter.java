@@ -0,0 +1,42 @@
+package com.ledgerflow.extraction;
+
+import org.apache.pdfbox.multipdf.Splitter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Cuts a page range out of a loaded PDF.
+ */
+final class PdfPageSplitter {
+
+    private PdfPageSplitter() {
+    }
+
+    static PageChunk chunk(PDDocument document, int firstPage, int lastPage, String filename) throws IOException {
+        Splitter splitter = new Splitter();
+        splitter.setStartPage(firstPage);
+        splitter.setEndPage(lastPage);
+        splitter.setSplitAtPage(lastPage - firstPage + 1);
+
+        List<PDDocument> parts = splitter.split(document);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            parts.get(0).save(out);
+            return new PageChunk(firstPage, lastPage, chunkFilename(filename, firstPage, lastPage), out.toByteArray());
+        } finally {
+            for (PDDocument part : parts) {
+                part.close();
+            }
+        }
+    }
+
+    static String chunkFilename(String filename, int firstPage, int lastPage) {
+        String base = filename != null && !filename.isBlank() ? filename : "invoice.pdf";
+        int dot = base.lastIndexOf('.');
+        String stem = dot > 0 ? base.substring(0, dot) : base;
+        return stem + "_p" + firstPage + "-" + lastPage + ".pdf";
+    }
+}
@@ -0,0 +1,191 @@
+package com.ledgerflow.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flight Recording Endpoint
+ *
+ * On-demand JDK Flight Recorder control via actuator, served on the management
+ * port only (SecurityConfig):
+ * - GET    /actuator/flightrecording           status of the current/last recording
+ * - POST   /actuator/flightrecording           start ({"durationSeconds": 300, "maxSizeMb": 100})
+ * - DELETE /actuator/flightrecording           stop and dump to a temp file
+ * - GET    /actuator/flightrecording/download  download the last dump
+ *
+ * Only one recording exists at a time, and duration and size are clamped to the
+ * configured maxima so a forgotten recording cannot fill the disk. Events that
+ * capture the process environment, system properties and JVM arguments are
+ * turned off whatever the settings say, so a dump never carries JWT_SECRET or
+ * cloud credentials. State is
+ * guarded by a ReentrantLock rather than synchronized: dumping does file I/O,
+ * which would pin the carrier thread when running on virtual threads.
+ */
+@Component
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    // Carry environment variables, -D properties and JVM arguments, i.e. secrets
+    private static final List<String> SECRET_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private final String settings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Recording recording;
+    private Path dump;
+    private Instant startedAt;
+
+    public FlightRecordingEndpoint(@Value("${app.jfr.max-duration-seconds:1800}") long maxDurationSeconds,
+                                   @Value("${app.jfr.max-size-mb:250}") long maxSizeMb,
+                                   @Value("${app.jfr.settings:profile}") String settings) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.settings = settings;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            return currentStatus();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(@Nullable Long durationSeconds, @Nullable Long maxSizeMb) {
+        lock.lock();
+        try {
+            return startRecording(durationSeconds, maxSizeMb);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @DeleteOperation
+    public Map<String, Object> stop() {
+        lock.lock();
+        try {
+            return stopRecording();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource download(@Selector String file) {
+        lock.lock();
+        try {
+            if (!"download".equals(file) || dump == null || !Files.exists(dump)) {
+                return null;
+            }
+            return new FileSystemResource(dump);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, Object> currentStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording != null ? recording.getState().name() : "NONE");
+        status.put("startedAt", startedAt);
+        status.put("recordedBytes", recording != null ? recording.getSize() : 0L);
+        status.put("dumpAvailable", dump != null && Files.exists(dump));
+        status.put("maxDurationSeconds", maxDuration.toSeconds());
+        status.put("maxSizeMb", maxSizeBytes / (1024 * 1024));
+        return status;
+    }
+
+    private Map<String, Object> startRecording(Long durationSeconds, Long maxSizeMb) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A flight recording is already running");
+        }
+        closeRecording();
+
+        Duration duration = durationSeconds != null
+                ? min(Duration.ofSeconds(durationSeconds), maxDuration) : maxDuration;
+        long sizeBytes = maxSizeMb != null ? Math.min(maxSizeMb * 1024 * 1024, maxSizeBytes) : maxSizeBytes;
+
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot load JFR settings '" + settings + "'", e);
+        }
+        recording.setName("ledgerflow-on-demand");
+        SECRET_EVENTS.forEach(recording::disable);
+        recording.enable(InvoiceExtractionEvent.class);
+        recording.enable(InvoicePersistEvent.class);
+        recording.enable(JwtVerificationEvent.class);
+        recording.setDuration(duration);
+        recording.setMaxSize(sizeBytes);
+        recording.setToDisk(true);
+        recording.start();
+        startedAt = Instant.now();
+        return currentStatus();
+    }
+
+    private Map<String, Object> stopRecording() {
+        if (recording == null) {
+            return currentStatus();
+        }
+        try {
+            Path target = Files.createTempFile("ledgerflow-", ".jfr");
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            recording.dump(target);
+            deleteDump();
+            dump = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to dump flight recording", e);
+        }
+        return currentStatus();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            startedAt = null;
+        }
+    }
+
+    private void deleteDump() throws IOException {
+        if (dump != null) {
+            Files.deleteIfExists(dump);
+            dump = null;
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
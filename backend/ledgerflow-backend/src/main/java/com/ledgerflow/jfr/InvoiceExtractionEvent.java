@@ -0,0 +1,33 @@
+package com.ledgerflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one call to the AI orchestration service.
+ */
+@Name("com.ledgerflow.InvoiceExtraction")
+@Label("Invoice Extraction")
+@Category({"LedgerFlow", "Invoices"})
+@Description("Round trip to the AI orchestration service for one uploaded document")
+@StackTrace(false)
+public class InvoiceExtractionEvent extends Event {
+
+    @Label("Tenant Id")
+    public long tenantId;
+
+    @Label("Payload Size")
+    @DataAmount
+    public long payloadBytes;
+
+    @Label("Line Items")
+    public int lineItemCount;
+
+    @Label("Succeeded")
+    public boolean success;
+}
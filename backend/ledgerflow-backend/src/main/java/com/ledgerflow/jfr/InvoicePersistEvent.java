@@ -0,0 +1,31 @@
+package com.ledgerflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one invoice save-and-flush.
+ */
+@Name("com.ledgerflow.InvoicePersist")
+@Label("Invoice Persist")
+@Category({"LedgerFlow", "Invoices"})
+@Description("Invoice INSERT/UPDATE including cascaded line items")
+@StackTrace(false)
+public class InvoicePersistEvent extends Event {
+
+    @Label("Tenant Id")
+    public long tenantId;
+
+    @Label("Invoice Id")
+    public long invoiceId;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Line Items")
+    public int lineItemCount;
+}
@@ -0,0 +1,25 @@
+package com.ledgerflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering token extraction and verification in JwtAuthenticationFilter.
+ */
+@Name("com.ledgerflow.JwtVerification")
+@Label("JWT Verification")
+@Category({"LedgerFlow", "Security"})
+@Description("JWT parsing and signature verification for one request")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Tenant Id")
+    public long tenantId;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,114 @@
+package com.ledgerflow.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * LedgerFlow Metrics
+ *
+ * Central place for the invoice pipeline meters, so names and tags stay
+ * consistent across services. Tenant ids are never used as tag values directly;
+ * they are folded into a fixed number of buckets to keep series count bounded.
+ */
+@Component
+public class LedgerFlowMetrics {
+
+    public static final String EXTRACTION = "ledgerflow.extraction";
+    public static final String EXTRACTION_PAYLOAD = "ledgerflow.extraction.payload";
+    public static final String EXTRACTION_STRUCTURED = "ledgerflow.extraction.structured";
+    public static final String EXTRACTION_CHUNKS = "ledgerflow.extraction.chunks";
+    public static final String EXTRACTION_QUEUE_DEPTH = "ledgerflow.extraction.queue.depth";
+    public static final String EXTRACTION_QUEUE_WAIT = "ledgerflow.extraction.queue.wait";
+    public static final String INVOICE_PERSIST = "ledgerflow.invoice.persist";
+    public static final String INVOICE_LINE_ITEMS = "ledgerflow.invoice.line.items";
+    public static final String JWT_FILTER = "ledgerflow.jwt.filter";
+    public static final String RATE_LIMIT_REJECTED = "ledgerflow.ratelimit.rejected";
+    public static final String AUTH_LOGIN = "ledgerflow.auth.login";
+    public static final String OUTBOX_PUBLISHED = "ledgerflow.outbox.published";
+    public static final String OUTBOX_BATCH = "ledgerflow.outbox.batch";
+    public static final String OUTBOX_LAG = "ledgerflow.outbox.lag";
+    public static final String OUTBOX_OLDEST_AGE = "ledgerflow.outbox.oldest.age";
+    public static final String AUDIT_WRITTEN = "ledgerflow.audit.written";
+    public static final String AUDIT_BATCH = "ledgerflow.audit.batch";
+    public static final String AUDIT_QUEUE_DEPTH = "ledgerflow.audit.queue.depth";
+    public static final String DEADLINE_FIRED = "ledgerflow.deadline.fired";
+    public static final String DEADLINE_LATENESS = "ledgerflow.deadline.lateness";
+    public static final String DEADLINE_SCHEDULED = "ledgerflow.deadline.scheduled";
+    public static final String DEADLINE_REFRESH = "ledgerflow.deadline.refresh";
+    public static final String RECONCILIATION_IMPORT = "ledgerflow.reconciliation.import";
+    public static final String RECONCILIATION_MATCHED = "ledgerflow.reconciliation.matched";
+    public static final String RECONCILIATION_APPLIED = "ledgerflow.reconciliation.applied";
+    public static final String ARCHIVE_PARTITIONS = "ledgerflow.archive.partitions";
+    public static final String ARCHIVE_ROWS = "ledgerflow.archive.rows";
+    public static final String ARCHIVE_READS = "ledgerflow.archive.reads";
+
+    private final MeterRegistry registry;
+    private final int tenantBuckets;
+
+    public LedgerFlowMetrics(MeterRegistry registry,
+                             @Value("${app.metrics.tenant-buckets:16}") int tenantBuckets) {
+        this.registry = registry;
+        this.tenantBuckets = Math.max(1, tenantBuckets);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Stop a sample against a timer with the given name and tags.
+     * Meters are looked up in the registry's cache, so this is cheap after the first call.
+     */
+    public long stop(Timer.Sample sample, String name, Tags tags) {
+        return sample.stop(registry.timer(name, tags));
+    }
+
+    public void record(String summaryName, String baseUnit, Tags tags, double amount) {
+        DistributionSummary.builder(summaryName)
+                .baseUnit(baseUnit)
+                .tags(tags)
+                .register(registry)
+                .record(amount);
+    }
+
+    public void increment(String counterName, Tags tags) {
+        registry.counter(counterName, tags).increment();
+    }
+
+    public void increment(String counterName, Tags tags, double amount) {
+        registry.counter(counterName, tags).increment(amount);
+    }
+
+    public void recordTime(String timerName, Tags tags, Duration duration) {
+        registry.timer(timerName, tags).record(duration);
+    }
+
+    public <T> T gauge(String name, Tags tags, T stateObject, ToDoubleFunction<T> valueFunction) {
+        return registry.gauge(name, tags, stateObject, valueFunction);
+    }
+
+    /**
+     * Map a tenant id onto one of {@code app.metrics.tenant-buckets} tag values.
+     */
+    public String tenantBucket(Long tenantId) {
+        if (tenantId == null) {
+            return "none";
+        }
+        return Integer.toString((int) Math.floorMod(tenantId, (long) tenantBuckets));
+    }
+
+    public Tags tenantTags(Long tenantId) {
+        return Tags.of("tenant.bucket", tenantBucket(tenantId));
+    }
+
+    public static String exceptionTag(Throwable t) {
+        return t == null ? "none" : t.getClass().getSimpleName();
+    }
+}
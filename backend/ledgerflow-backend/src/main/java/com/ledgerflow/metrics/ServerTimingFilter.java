@@ -0,0 +1,128 @@
+package com.ledgerflow.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Server-Timing Filter
+ *
+ * Binds a {@link StageTimer} to invoice API requests and reports the stage
+ * breakdown in a {@code Server-Timing} response header and a key=value log line.
+ * Requests where any stage exceeds {@code app.server-timing.slow-stage-threshold-ms}
+ * are logged at INFO (sampled by {@code slow-sample-rate}); the rest at DEBUG.
+ *
+ * Registered after the security filter chain, so unauthenticated uploads are
+ * rejected before any multipart spooling is triggered.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    public static final String HEADER = "Server-Timing";
+
+    @Value("${app.server-timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.server-timing.path-prefix:/api/invoices}")
+    private String pathPrefix;
+
+    @Value("${app.server-timing.slow-stage-threshold-ms:1000}")
+    private long slowStageThresholdMs;
+
+    @Value("${app.server-timing.slow-sample-rate:1.0}")
+    private double slowSampleRate;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(pathPrefix);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        StageTimer timer = StageTimer.bind();
+        HttpServletResponse timedResponse = new OnCommittedResponseWrapper(response) {
+            @Override
+            protected void onResponseCommitted() {
+                response.setHeader(HEADER, formatHeader(timer));
+            }
+        };
+
+        try {
+            if (isMultipart(request)) {
+                // Spool the multipart body here so its cost shows up as its own stage
+                try (StageTimer.Stage ignored = timer.start("spool")) {
+                    request.getParts();
+                } catch (IOException | ServletException | IllegalStateException e) {
+                    // The container caches the failure; MVC re-raises it through the usual error handling
+                }
+            }
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            StageTimer.unbind();
+            if (!response.isCommitted() && !response.containsHeader(HEADER)) {
+                response.setHeader(HEADER, formatHeader(timer));
+            }
+            logTiming(request, response, timer);
+        }
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+
+    static String formatHeader(StageTimer timer) {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, Long> stage : timer.stages().entrySet()) {
+            header.append(stage.getKey()).append(";dur=").append(toMillis(stage.getValue())).append(", ");
+        }
+        header.append("total;dur=").append(toMillis(timer.totalNanos()));
+        return header.toString();
+    }
+
+    private void logTiming(HttpServletRequest request, HttpServletResponse response, StageTimer timer) {
+        long thresholdNanos = slowStageThresholdMs * 1_000_000L;
+        boolean slow = timer.stages().values().stream().anyMatch(nanos -> nanos >= thresholdNanos);
+        boolean sampled = slow && ThreadLocalRandom.current().nextDouble() < slowSampleRate;
+        if (!sampled && !log.isDebugEnabled()) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder("server_timing")
+                .append(" method=").append(request.getMethod())
+                .append(" path=").append(request.getRequestURI())
+                .append(" status=").append(response.getStatus())
+                .append(" slow=").append(slow);
+        for (Map.Entry<String, Long> stage : timer.stages().entrySet()) {
+            line.append(' ').append(stage.getKey()).append("_ms=").append(toMillis(stage.getValue()));
+        }
+        line.append(" total_ms=").append(toMillis(timer.totalNanos()));
+
+        if (sampled) {
+            log.info(line.toString());
+        } else {
+            log.debug(line.toString());
+        }
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
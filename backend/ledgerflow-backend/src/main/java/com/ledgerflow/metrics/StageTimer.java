@@ -0,0 +1,118 @@
+package com.ledgerflow.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Stage Timer
+ *
+ * Per-request breakdown of where time went (spool, temp file, extraction call,
+ * JSON parsing, persistence). The active timer is bound to the request thread
+ * by {@link ServerTimingFilter}; when no timer is bound, {@link #current()}
+ * returns a shared no-op instance, so instrumented code costs one ThreadLocal
+ * read and no allocation.
+ *
+ * Usage:
+ * <pre>
+ * try (StageTimer.Stage ignored = StageTimer.current().start("persist")) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class StageTimer {
+
+    private static final ThreadLocal<StageTimer> CURRENT = new ThreadLocal<>();
+    private static final StageTimer NOOP = new StageTimer(false);
+    private static final Stage NOOP_STAGE = () -> { };
+
+    private final boolean active;
+    private final long startNanos;
+    private final Map<String, Long> stageNanos;
+
+    private StageTimer(boolean active) {
+        this.active = active;
+        this.startNanos = active ? System.nanoTime() : 0L;
+        this.stageNanos = active ? new LinkedHashMap<>() : Map.of();
+    }
+
+    public static StageTimer current() {
+        StageTimer timer = CURRENT.get();
+        return timer != null ? timer : NOOP;
+    }
+
+    static StageTimer bind() {
+        StageTimer timer = new StageTimer(true);
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Start timing a stage; closing the returned handle records its duration.
+     * Repeated stages with the same name are summed.
+     */
+    public Stage start(String name) {
+        if (!active) {
+            return NOOP_STAGE;
+        }
+        long start = System.nanoTime();
+        return () -> stageNanos.merge(name, System.nanoTime() - start, Long::sum);
+    }
+
+    /**
+     * Record a stage measured elsewhere, e.g. time spent queued before a worker
+     * picked the work up.
+     */
+    public void record(String name, long nanos) {
+        if (active) {
+            stageNanos.merge(name, nanos, Long::sum);
+        }
+    }
+
+    /**
+     * Wrap {@code work} so that it records into the calling thread's timer when
+     * run on another thread. The caller must wait for the work to finish before
+     * the timer is read, as a blocking request thread does.
+     */
+    public static <T> Callable<T> propagate(Callable<T> work) {
+        StageTimer timer = CURRENT.get();
+        if (timer == null) {
+            return work;
+        }
+        return () -> {
+            StageTimer previous = CURRENT.get();
+            CURRENT.set(timer);
+            try {
+                return work.call();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    public long totalNanos() {
+        return active ? System.nanoTime() - startNanos : 0L;
+    }
+
+    public Map<String, Long> stages() {
+        return stageNanos;
+    }
+
+    @FunctionalInterface
+    public interface Stage extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,30 @@
+package com.ledgerflow.outbox;
+
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.entity.InvoiceStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Payload of an outbox event: the invoice fields downstream systems (ERP,
+ * payments) act on, as of the change. Consumers order and de-duplicate a
+ * tenant's changes by {@code sequence}; delivery is at least once.
+ */
+public record InvoiceChange(String type, Long tenantId, long sequence, Long invoiceId, String invoiceNumber,
+                            String vendorName, LocalDate invoiceDate, LocalDate dueDate, BigDecimal totalAmount,
+                            BigDecimal taxAmount, String currency, InvoiceStatus status,
+                            InvoiceStatus previousStatus, LocalDateTime occurredAt) {
+
+    public static final String CREATED = "invoice.created";
+    public static final String STATUS_CHANGED = "invoice.status_changed";
+
+    static InvoiceChange of(String type, long sequence, Invoice invoice, InvoiceStatus previousStatus,
+                            LocalDateTime occurredAt) {
+        return new InvoiceChange(type, invoice.getTenant().getId(), sequence, invoice.getId(),
+                invoice.getInvoiceNumber(), invoice.getVendorName(), invoice.getInvoiceDate(),
+                invoice.getDueDate(), invoice.getTotalAmount(), invoice.getTaxAmount(), invoice.getCurrency(),
+                invoice.getStatus(), previousStatus, occurredAt);
+    }
+}
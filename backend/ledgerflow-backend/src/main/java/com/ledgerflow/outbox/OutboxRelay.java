@@ -0,0 +1,220 @@
+package com.ledgerflow.outbox;
+
+import com.ledgerflow.entity.OutboxEvent;
+import com.ledgerflow.entity.OutboxPartition;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.repository.OutboxEventRepository;
+import com.ledgerflow.repository.OutboxPartitionRepository;
+import com.ledgerflow.sharding.ShardContext;
+import com.ledgerflow.sharding.Shards;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Outbox Relay
+ *
+ * Drains invoice_outbox to the configured {@link OutboxSink}. Every
+ * {@code poll-interval-ms}, in one transaction per batch:
+ * - claim up to {@code claim-partitions} partitions that have pending events,
+ *   least recently drained first, with FOR UPDATE SKIP LOCKED; relays on other
+ *   nodes skip them and take the rest
+ * - read up to {@code batch-size} of their events in id order, skipping
+ *   tenants whose publish failed within the last {@code tenant-retry-ms}
+ * - publish them one tenant at a time; a failing tenant keeps its events (and
+ *   their order) and is retried after {@code tenant-retry-ms}
+ * - delete what was published and commit, releasing the partitions
+ * A tenant lives in exactly one partition, so only one relay publishes its
+ * events at a time and they leave in the order they were written. A full
+ * batch is followed by another one straight away; since the next read skips
+ * tenants that just failed, a tenant with a backlog at the head of a
+ * partition cannot keep the other tenants of that partition waiting.
+ *
+ * With sharding on, every shard has its own outbox and partitions; each poll
+ * drains them one shard after the other.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxPartitionRepository outboxPartitionRepository;
+    private final OutboxSink sink;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerFlowMetrics metrics;
+    private final int partitions;
+    private final int claimPartitions;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long tenantRetryMs;
+    // Tenant id to the time (epoch millis) its events are read again; touched by the poller thread only
+    private final Map<Long, Long> failedTenants = new HashMap<>();
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final ScheduledExecutorService poller;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxPartitionRepository outboxPartitionRepository,
+                       OutboxSink sink,
+                       Shards shards,
+                       PlatformTransactionManager transactionManager,
+                       LedgerFlowMetrics metrics,
+                       @Value("${app.outbox.partitions:16}") int partitions,
+                       @Value("${app.outbox.relay.claim-partitions:4}") int claimPartitions,
+                       @Value("${app.outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.relay.poll-interval-ms:200}") long pollIntervalMs,
+                       @Value("${app.outbox.relay.tenant-retry-ms:5000}") long tenantRetryMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxPartitionRepository = outboxPartitionRepository;
+        this.sink = sink;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.partitions = Math.max(1, partitions);
+        this.claimPartitions = Math.max(1, claimPartitions);
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMs = pollIntervalMs;
+        this.tenantRetryMs = Math.max(0, tenantRetryMs);
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.gauge(LedgerFlowMetrics.OUTBOX_OLDEST_AGE, Tags.empty(), oldestPendingMillis,
+                millis -> millis.get() / 1000.0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (String shard : shards.names()) {
+            ShardContext.runOn(shard, this::createPartitions);
+        }
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        poller.shutdown();
+        poller.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    void poll() {
+        long oldestMillis = 0;
+        for (String shard : shards.names()) {
+            oldestMillis = Math.max(oldestMillis, ShardContext.callOn(shard, this::pollShard));
+        }
+        oldestPendingMillis.set(oldestMillis);
+    }
+
+    /**
+     * Drain the current shard's outbox.
+     *
+     * @return age of its oldest pending event in milliseconds (0 if none, or on failure)
+     */
+    private long pollShard() {
+        try {
+            int read;
+            do {
+                read = transactionTemplate.execute(status -> drainBatch());
+            } while (read >= batchSize && !poller.isShutdown());
+
+            LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt().orElse(null);
+            return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next poll retries
+            log.warn("Outbox relay poll failed{}: {}", shards.isSharded() ? " on shard " + ShardContext.current() : "",
+                    e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * @return number of events read, published or not
+     */
+    int drainBatch() {
+        List<Integer> claimed = outboxPartitionRepository.claim(claimPartitions);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxPartitionRepository.markDrained(claimed, now);
+
+        long nowMillis = System.currentTimeMillis();
+        failedTenants.values().removeIf(retryAt -> retryAt <= nowMillis);
+        List<OutboxEvent> batch = failedTenants.isEmpty()
+                ? outboxEventRepository.findBatch(claimed, batchSize)
+                : outboxEventRepository.findBatchExcluding(claimed, failedTenants.keySet(), batchSize);
+        Map<Long, List<OutboxEvent>> byTenant = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byTenant.computeIfAbsent(event.getTenantId(), tenantId -> new ArrayList<>()).add(event);
+        }
+
+        List<Long> published = new ArrayList<>(batch.size());
+        for (List<OutboxEvent> events : byTenant.values()) {
+            Tags tags = metrics.tenantTags(events.get(0).getTenantId());
+            try {
+                sink.publish(events);
+            } catch (Exception e) {
+                metrics.increment(LedgerFlowMetrics.OUTBOX_PUBLISHED, tags.and("outcome", "error"), events.size());
+                log.warn("Outbox sink rejected {} events of tenant {}: {}", events.size(),
+                        events.get(0).getTenantId(), e.getMessage());
+                failedTenants.put(events.get(0).getTenantId(), System.currentTimeMillis() + tenantRetryMs);
+                continue;
+            }
+            LocalDateTime publishedAt = LocalDateTime.now();
+            for (OutboxEvent event : events) {
+                published.add(event.getId());
+                metrics.recordTime(LedgerFlowMetrics.OUTBOX_LAG, tags,
+                        Duration.between(event.getCreatedAt(), publishedAt));
+            }
+            metrics.increment(LedgerFlowMetrics.OUTBOX_PUBLISHED, tags.and("outcome", "success"), events.size());
+        }
+        outboxEventRepository.deleteAllByIdInBatch(published);
+        metrics.record(LedgerFlowMetrics.OUTBOX_BATCH, "events", Tags.empty(), batch.size());
+        return batch.size();
+    }
+
+    private void createPartitions() {
+        Set<Integer> existing = outboxPartitionRepository.findAll().stream()
+                .map(OutboxPartition::getPartitionNo)
+                .collect(Collectors.toSet());
+        List<OutboxPartition> missing = IntStream.range(0, partitions)
+                .filter(partition -> !existing.contains(partition))
+                .mapToObj(partition -> new OutboxPartition(partition, null))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            outboxPartitionRepository.saveAll(missing);
+        } catch (DataIntegrityViolationException e) {
+            // Another node created them first
+            log.debug("Outbox partitions already created: {}", e.getMessage());
+        }
+    }
+}
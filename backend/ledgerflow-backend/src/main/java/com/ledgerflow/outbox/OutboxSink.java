@@ -0,0 +1,28 @@
+package com.ledgerflow.outbox;
+
+import com.ledgerflow.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events, chosen with {@code app.outbox.sink}.
+ *
+ * Each call carries one tenant's events in order. Throwing leaves all of them
+ * in the outbox for the next attempt, so a sink may see an event more than once.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws Exception;
+
+    /**
+     * JSON envelope around an event's payload, shared by the sinks that write JSON.
+     */
+    static String envelope(OutboxEvent event) {
+        return "{\"id\":" + event.getId()
+                + ",\"tenantId\":" + event.getTenantId()
+                + ",\"sequence\":" + event.getSequence()
+                + ",\"type\":\"" + event.getEventType() + "\""
+                + ",\"createdAt\":\"" + event.getCreatedAt() + "\""
+                + ",\"payload\":" + event.getPayload() + "}";
+    }
+}
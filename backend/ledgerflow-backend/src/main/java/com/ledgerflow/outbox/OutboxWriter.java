@@ -0,0 +1,97 @@
+package com.ledgerflow.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.entity.OutboxEvent;
+import com.ledgerflow.repository.OutboxEventRepository;
+import com.ledgerflow.repository.TenantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox Writer
+ *
+ * Records an invoice change in invoice_outbox inside the caller's transaction,
+ * so the change and its event commit or roll back together and no call to a
+ * downstream system happens while the transaction is open.
+ *
+ * Call it after InvoiceService.persist: the tenant-row update there (the
+ * invoice list version) serializes a tenant's writers until commit, so a
+ * tenant's outbox ids and sequences are assigned in commit order.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TenantRepository tenantRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int partitions;
+
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, TenantRepository tenantRepository,
+                        ObjectMapper objectMapper,
+                        @Value("${app.outbox.enabled:true}") boolean enabled,
+                        @Value("${app.outbox.partitions:16}") int partitions) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.tenantRepository = tenantRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.partitions = Math.max(1, partitions);
+    }
+
+    public void append(String type, Invoice invoice, InvoiceStatus previousStatus) {
+        if (!enabled) {
+            return;
+        }
+        long sequence = tenantRepository.findInvoiceListVersion(invoice.getTenant().getId()).orElse(0L);
+        outboxEventRepository.save(eventOf(type, invoice, previousStatus, sequence, LocalDateTime.now()));
+    }
+
+    /**
+     * {@link #append} for invoices of one tenant written together, after a single
+     * TenantRepository.addToInvoiceListVersion by {@code invoices.size()}: they
+     * get consecutive sequences ending at the tenant's new version, in list order.
+     */
+    public void appendAll(String type, List<Invoice> invoices, List<InvoiceStatus> previousStatuses) {
+        if (!enabled || invoices.isEmpty()) {
+            return;
+        }
+        long last = tenantRepository.findInvoiceListVersion(invoices.get(0).getTenant().getId()).orElse(0L);
+        long sequence = last - invoices.size();
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(invoices.size());
+        for (int i = 0; i < invoices.size(); i++) {
+            events.add(eventOf(type, invoices.get(i), previousStatuses.get(i), ++sequence, now));
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    private OutboxEvent eventOf(String type, Invoice invoice, InvoiceStatus previousStatus, long sequence,
+                                LocalDateTime now) {
+        Long tenantId = invoice.getTenant().getId();
+        OutboxEvent event = new OutboxEvent();
+        event.setTenantId(tenantId);
+        event.setPartitionNo(partitionOf(tenantId, partitions));
+        event.setSequence(sequence);
+        event.setInvoiceId(invoice.getId());
+        event.setEventType(type);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(
+                    InvoiceChange.of(type, sequence, invoice, previousStatus, now)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox event for invoice " + invoice.getId(), e);
+        }
+        event.setCreatedAt(now);
+        return event;
+    }
+
+    static int partitionOf(Long tenantId, int partitions) {
+        return (int) Math.floorMod(tenantId, (long) partitions);
+    }
+}
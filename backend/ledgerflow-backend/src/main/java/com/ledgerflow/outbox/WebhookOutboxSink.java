@@ -0,0 +1,70 @@
+package com.ledgerflow.outbox;
+
+import com.ledgerflow.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * POSTs each tenant batch as one JSON array to {@code app.outbox.webhook.url}.
+ * Any non-2xx answer fails the batch, which is retried on the next poll. With
+ * {@code app.outbox.webhook.secret} set, the body is signed in
+ * {@code X-LedgerFlow-Signature: sha256=<hex HMAC>}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "webhook")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final RestTemplate restTemplate;
+    private final String url;
+    private final byte[] secret;
+
+    public WebhookOutboxSink(@Value("${app.outbox.webhook.url}") String url,
+                             @Value("${app.outbox.webhook.secret:}") String secret,
+                             @Value("${app.outbox.webhook.connect-timeout-ms:2000}") long connectTimeoutMs,
+                             @Value("${app.outbox.webhook.read-timeout-ms:10000}") long readTimeoutMs) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.url = url;
+        this.secret = secret.isEmpty() ? null : secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws GeneralSecurityException {
+        StringBuilder body = new StringBuilder(events.size() * 512).append('[');
+        for (OutboxEvent event : events) {
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            body.append(OutboxSink.envelope(event));
+        }
+        byte[] bytes = body.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-LedgerFlow-Tenant", events.get(0).getTenantId().toString());
+        if (secret != null) {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            headers.set("X-LedgerFlow-Signature", "sha256=" + HexFormat.of().formatHex(mac.doFinal(bytes)));
+        }
+        restTemplate.postForEntity(url, new HttpEntity<>(bytes, headers), Void.class);
+    }
+}
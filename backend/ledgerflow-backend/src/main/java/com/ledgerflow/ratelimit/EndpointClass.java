@@ -0,0 +1,36 @@
+package com.ledgerflow.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Endpoint Class
+ *
+ * Groups API endpoints that share a rate limit. Requests outside both classes
+ * (auth, status updates, storage PUTs) are not rate limited.
+ */
+public enum EndpointClass {
+    UPLOAD,
+    READ;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * @return the request's class, or null if it is not rate limited
+     */
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if ("POST".equals(method) && (path.equals("/api/invoices/upload")
+                || path.equals("/api/reactive/invoices/upload")
+                || path.startsWith("/api/invoices/upload-intents")
+                || path.equals("/api/reconciliation/statements"))) {
+            return UPLOAD;
+        }
+        if ("GET".equals(method) && path.startsWith("/api/")) {
+            return READ;
+        }
+        return null;
+    }
+}
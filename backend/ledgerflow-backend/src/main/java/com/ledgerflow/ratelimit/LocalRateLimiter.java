@@ -0,0 +1,47 @@
+package com.ledgerflow.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local Rate Limiter
+ *
+ * In-memory buckets for a single node. Each bucket is one AtomicLong, updated
+ * by compare-and-set, so concurrent requests never take a lock. With several
+ * nodes behind a load balancer, each node enforces the limit separately; use
+ * the Redis limiter (app.rate-limit.backend=redis) for one shared limit.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.backend", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Map<BucketKey, AtomicLong> buckets = new ConcurrentHashMap<>();
+    // nanoTime may be negative; measure from construction so an unused bucket (0) is always in the past
+    private final long origin = System.nanoTime();
+
+    @Override
+    public RateLimitDecision tryAcquire(Long tenantId, EndpointClass endpointClass, RateLimit limit) {
+        AtomicLong arrival = buckets.computeIfAbsent(new BucketKey(tenantId, endpointClass), key -> new AtomicLong());
+        long interval = limit.intervalNanos();
+        long burstWindow = interval * limit.burst();
+        while (true) {
+            long now = System.nanoTime() - origin;
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long allowAt = next - burstWindow;
+            if (now < allowAt) {
+                return RateLimitDecision.reject((allowAt - now + 999_999) / 1_000_000);
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return RateLimitDecision.allow((now - allowAt) / interval);
+            }
+        }
+    }
+
+    private record BucketKey(Long tenantId, EndpointClass endpointClass) {
+    }
+}
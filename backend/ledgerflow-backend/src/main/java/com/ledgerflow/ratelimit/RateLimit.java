@@ -0,0 +1,19 @@
+package com.ledgerflow.ratelimit;
+
+/**
+ * Rate Limit
+ *
+ * Token bucket parameters: a sustained rate, and a burst of requests that may
+ * arrive at once after an idle period.
+ */
+public record RateLimit(int requestsPerMinute, int burst) {
+
+    public RateLimit {
+        requestsPerMinute = Math.max(1, requestsPerMinute);
+        burst = Math.max(1, burst);
+    }
+
+    long intervalNanos() {
+        return 60_000_000_000L / requestsPerMinute;
+    }
+}
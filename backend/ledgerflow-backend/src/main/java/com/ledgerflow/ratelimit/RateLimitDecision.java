@@ -0,0 +1,15 @@
+package com.ledgerflow.ratelimit;
+
+/**
+ * Outcome of one rate-limit check. {@code retryAfterMillis} is 0 when allowed.
+ */
+public record RateLimitDecision(boolean allowed, long remaining, long retryAfterMillis) {
+
+    static RateLimitDecision allow(long remaining) {
+        return new RateLimitDecision(true, remaining, 0L);
+    }
+
+    static RateLimitDecision reject(long retryAfterMillis) {
+        return new RateLimitDecision(false, 0L, Math.max(1L, retryAfterMillis));
+    }
+}
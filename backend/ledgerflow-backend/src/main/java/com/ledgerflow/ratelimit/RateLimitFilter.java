@@ -0,0 +1,91 @@
+package com.ledgerflow.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledgerflow.dto.ErrorResponse;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.util.SecurityUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rate Limit Filter
+ *
+ * Applies the per-tenant limit for uploads and reads, keyed by the tenant id
+ * in the JWT. It runs in the security filter chain right after
+ * JwtAuthenticationFilter. That is before ServerTimingFilter spools multipart
+ * bodies, so a rejected upload is not read.
+ *
+ * Limited requests carry RateLimit-Limit and RateLimit-Remaining. Rejected
+ * ones get 429 with Retry-After (whole seconds) and are counted in
+ * ledgerflow.ratelimit.rejected. Anonymous requests are left to the security
+ * rules.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final TenantRateLimits tenantRateLimits;
+    private final LedgerFlowMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           TenantRateLimits tenantRateLimits,
+                           LedgerFlowMetrics metrics,
+                           ObjectMapper objectMapper,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled) {
+        this.rateLimiter = rateLimiter;
+        this.tenantRateLimits = tenantRateLimits;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        Long tenantId = endpointClass != null ? SecurityUtil.getCurrentTenantId() : null;
+        if (tenantId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimit limit = tenantRateLimits.limitFor(tenantId, endpointClass);
+        RateLimitDecision decision = rateLimiter.tryAcquire(tenantId, endpointClass, limit);
+        response.setHeader("RateLimit-Limit", Integer.toString(limit.burst()));
+        response.setHeader("RateLimit-Remaining", Long.toString(decision.remaining()));
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        metrics.increment(LedgerFlowMetrics.RATE_LIMIT_REJECTED,
+                metrics.tenantTags(tenantId).and("endpoint", endpointClass.tag()));
+        long retryAfterSeconds = (decision.retryAfterMillis() + 999) / 1000;
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                "Rate limit of " + limit.requestsPerMinute() + " " + endpointClass.tag()
+                        + " requests per minute exceeded; retry after " + retryAfterSeconds + "s",
+                HttpStatus.TOO_MANY_REQUESTS.value()));
+    }
+}
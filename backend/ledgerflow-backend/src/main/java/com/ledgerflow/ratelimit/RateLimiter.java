@@ -0,0 +1,15 @@
+package com.ledgerflow.ratelimit;
+
+/**
+ * Rate Limiter
+ *
+ * Token bucket per tenant and endpoint class. Implementations use the GCRA
+ * form of the bucket: the state is a single "theoretical arrival time" that
+ * advances by one interval per admitted request. A request is admitted while
+ * that time is less than {@code burst} intervals ahead of now. The result is
+ * the same as counting tokens, without a separate refill step.
+ */
+public interface RateLimiter {
+
+    RateLimitDecision tryAcquire(Long tenantId, EndpointClass endpointClass, RateLimit limit);
+}
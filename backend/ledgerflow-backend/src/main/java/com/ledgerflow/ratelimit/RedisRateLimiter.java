@@ -0,0 +1,84 @@
+package com.ledgerflow.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Redis Rate Limiter
+ *
+ * Buckets shared by every node, so a tenant's limit holds across the cluster.
+ * The bucket update is a single Lua script, which is atomic in Redis and costs
+ * one round trip. It reads the clock with Redis TIME, so clock skew between
+ * nodes does not matter. Keys expire once their bucket is full again.
+ *
+ * If Redis is unavailable, requests are checked against per-node buckets
+ * instead of failing or being let through unchecked. Redis is not retried for
+ * the next few seconds, so an outage does not add a timeout to every request.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.backend", havingValue = "redis")
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+    private static final long RETRY_AFTER_FAILURE_NANOS = 5_000_000_000L;
+
+    // KEYS[1] bucket; ARGV[1] interval (µs), ARGV[2] burst. Returns {allowed, remaining, retry-after µs}.
+    private static final RedisScript<List> GCRA = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local arrival = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local nextArrival = math.max(arrival, now) + interval
+            local allowAt = nextArrival - burst * interval
+            if now < allowAt then
+              return {0, 0, math.ceil(allowAt - now)}
+            end
+            redis.call('SET', KEYS[1], string.format('%d', nextArrival), 'PX', math.ceil((nextArrival - now) / 1000))
+            return {1, math.floor((now - allowAt) / interval), 0}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LocalRateLimiter fallback = new LocalRateLimiter();
+    private volatile boolean degraded;
+    private volatile long retryRedisAtNanos;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(Long tenantId, EndpointClass endpointClass, RateLimit limit) {
+        if (degraded && System.nanoTime() - retryRedisAtNanos < 0) {
+            return fallback.tryAcquire(tenantId, endpointClass, limit);
+        }
+        String key = "ledgerflow:ratelimit:" + tenantId + ":" + endpointClass.tag();
+        List<?> result;
+        try {
+            result = redisTemplate.execute(GCRA, List.of(key),
+                    Long.toString(limit.intervalNanos() / 1000), Integer.toString(limit.burst()));
+        } catch (RuntimeException e) {
+            retryRedisAtNanos = System.nanoTime() + RETRY_AFTER_FAILURE_NANOS;
+            if (!degraded) {
+                degraded = true;
+                log.warn("Redis rate limiter unavailable, using local buckets: {}", e.getMessage());
+            }
+            return fallback.tryAcquire(tenantId, endpointClass, limit);
+        }
+        if (degraded) {
+            degraded = false;
+            log.info("Redis rate limiter available again");
+        }
+        if (((Number) result.get(0)).longValue() == 1L) {
+            return RateLimitDecision.allow(((Number) result.get(1)).longValue());
+        }
+        return RateLimitDecision.reject((((Number) result.get(2)).longValue() + 999) / 1000);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ledgerflow.ratelimit;
+
+import com.ledgerflow.entity.Tenant;
+import com.ledgerflow.repository.TenantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tenant Rate Limits
+ *
+ * Resolves a tenant's limit for an endpoint class. A tenant's own
+ * {@code *_rate_limit_per_minute} / {@code *_rate_limit_burst} columns win.
+ * Unset columns fall back to app.rate-limit.upload / app.rate-limit.read.
+ * Tenant rows are cached for tenant-ttl-seconds, so most requests do not
+ * touch the database.
+ */
+@Component
+public class TenantRateLimits {
+
+    private final TenantRepository tenantRepository;
+    private final RateLimit defaultUpload;
+    private final RateLimit defaultRead;
+    private final long ttlNanos;
+    private final Map<Long, CachedLimits> cache = new ConcurrentHashMap<>();
+
+    public TenantRateLimits(TenantRepository tenantRepository,
+                            @Value("${app.rate-limit.upload.requests-per-minute:60}") int uploadPerMinute,
+                            @Value("${app.rate-limit.upload.burst:20}") int uploadBurst,
+                            @Value("${app.rate-limit.read.requests-per-minute:600}") int readPerMinute,
+                            @Value("${app.rate-limit.read.burst:100}") int readBurst,
+                            @Value("${app.rate-limit.tenant-ttl-seconds:60}") long ttlSeconds) {
+        this.tenantRepository = tenantRepository;
+        this.defaultUpload = new RateLimit(uploadPerMinute, uploadBurst);
+        this.defaultRead = new RateLimit(readPerMinute, readBurst);
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    public RateLimit limitFor(Long tenantId, EndpointClass endpointClass) {
+        long now = System.nanoTime();
+        CachedLimits cached = cache.get(tenantId);
+        if (cached == null || now - cached.loadedNanos > ttlNanos) {
+            cached = load(tenantId, now);
+            cache.put(tenantId, cached);
+        }
+        return endpointClass == EndpointClass.UPLOAD ? cached.upload : cached.read;
+    }
+
+    private CachedLimits load(Long tenantId, long now) {
+        Optional<Tenant> tenant = tenantRepository.findById(tenantId);
+        RateLimit upload = tenant
+                .map(t -> override(defaultUpload, t.getUploadRateLimitPerMinute(), t.getUploadRateLimitBurst()))
+                .orElse(defaultUpload);
+        RateLimit read = tenant
+                .map(t -> override(defaultRead, t.getReadRateLimitPerMinute(), t.getReadRateLimitBurst()))
+                .orElse(defaultRead);
+        return new CachedLimits(upload, read, now);
+    }
+
+    private static RateLimit override(RateLimit defaults, Integer perMinute, Integer burst) {
+        if (perMinute == null && burst == null) {
+            return defaults;
+        }
+        return new RateLimit(perMinute != null ? perMinute : defaults.requestsPerMinute(),
+                burst != null ? burst : defaults.burst());
+    }
+
+    private record CachedLimits(RateLimit upload, RateLimit read, long loadedNanos) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.ledgerflow.reconciliation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+final class Amounts {
+
+    private Amounts() {
+    }
+
+    /**
+     * Amount in minor units, rounded half-up to two decimals like the invoice columns.
+     */
+    static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
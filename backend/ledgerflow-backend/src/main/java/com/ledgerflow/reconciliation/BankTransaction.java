@@ -0,0 +1,14 @@
+package com.ledgerflow.reconciliation;
+
+import java.time.LocalDate;
+
+/**
+ * One booked bank statement entry. Amounts are in minor units (two decimals)
+ * and unsigned; {@code debit} is true for outgoing payments.
+ *
+ * @param transactionRef bank or end-to-end reference of the entry, may be null
+ * @param reference      remittance information as the payer wrote it, may be null
+ */
+public record BankTransaction(String transactionRef, LocalDate bookingDate, long amountCents, String currency,
+                              boolean debit, String counterparty, String reference) {
+}
@@ -0,0 +1,210 @@
+package com.ledgerflow.reconciliation;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * CAMT.053 Statement Reader
+ *
+ * Single-pass StAX reader for ISO 20022 bank-to-customer statements
+ * (camt.053.001.02 and later). Each {@code Stmt/Ntry} is turned into
+ * transactions as soon as it closes, so memory does not grow with the file.
+ * Elements are matched by their local-name path below the entry, as in
+ * EInvoiceXmlParser; namespaces (and so message versions) are not checked.
+ *
+ * A batch entry with several {@code TxDtls} yields one transaction per
+ * detail, using the detail's own amount; otherwise the entry amount is used.
+ * The counterparty is the creditor of a debit and the debtor of a credit.
+ */
+public final class Camt053StatementReader {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static final String DETAILS = "/NtryDtls/TxDtls";
+
+    private Camt053StatementReader() {
+    }
+
+    public static StatementReadResult read(InputStream xml, String defaultCurrency, Consumer<BankTransaction> sink)
+            throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(xml);
+        long entries = 0;
+        long rejected = 0;
+        String firstError = null;
+        try {
+            List<String> open = new ArrayList<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (!"Ntry".equals(name) || open.isEmpty() || !"Stmt".equals(open.get(open.size() - 1))) {
+                        open.add(name);
+                        continue;
+                    }
+                    Entry entry = readEntry(reader);
+                    try {
+                        for (BankTransaction transaction : entry.toTransactions(defaultCurrency)) {
+                            entries++;
+                            sink.accept(transaction);
+                        }
+                    } catch (RuntimeException e) {
+                        rejected++;
+                        if (firstError == null) {
+                            firstError = "Entry " + (entries + rejected) + ": " + e.getMessage();
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    open.remove(open.size() - 1);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return new StatementReadResult(entries, rejected, firstError);
+    }
+
+    /**
+     * Read one entry; the reader is left on its end element.
+     */
+    private static Entry readEntry(XMLStreamReader reader) throws XMLStreamException {
+        Entry entry = new Entry();
+        StringBuilder path = new StringBuilder(64);
+        List<Integer> marks = new ArrayList<>();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (marks.isEmpty()) {
+                    return entry;
+                }
+                if (DETAILS.contentEquals(path)) {
+                    entry.details.add(entry.detail);
+                    entry.detail = new Detail();
+                }
+                path.setLength(marks.remove(marks.size() - 1));
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            marks.add(path.length());
+            path.append('/').append(reader.getLocalName());
+            String key = path.toString();
+            if (key.startsWith(DETAILS + "/")) {
+                if (readDetail(reader, key.substring(DETAILS.length()), entry.detail)) {
+                    path.setLength(marks.remove(marks.size() - 1));
+                }
+                continue;
+            }
+            switch (key) {
+                case "/Amt" -> {
+                    entry.currency = reader.getAttributeValue(null, "Ccy");
+                    entry.amount = reader.getElementText().trim();
+                }
+                case "/CdtDbtInd" -> entry.indicator = reader.getElementText().trim();
+                case "/BookgDt/Dt", "/BookgDt/DtTm", "/ValDt/Dt" -> {
+                    String date = reader.getElementText().trim();
+                    if (entry.date == null || key.startsWith("/BookgDt")) {
+                        entry.date = date;
+                    }
+                }
+                case "/AcctSvcrRef" -> entry.accountServicerRef = reader.getElementText().trim();
+                default -> {
+                    continue;
+                }
+            }
+            path.setLength(marks.remove(marks.size() - 1));
+        }
+        return entry;
+    }
+
+    /**
+     * @return true if the element's text was consumed (the reader is on its end element)
+     */
+    private static boolean readDetail(XMLStreamReader reader, String path, Detail detail) throws XMLStreamException {
+        switch (path) {
+            case "/Amt", "/AmtDtls/TxAmt/Amt" -> {
+                detail.currency = reader.getAttributeValue(null, "Ccy");
+                detail.amount = reader.getElementText().trim();
+            }
+            case "/Refs/EndToEndId" -> detail.endToEndId = reader.getElementText().trim();
+            case "/RmtInf/Ustrd" -> {
+                String text = reader.getElementText().trim();
+                detail.reference = detail.reference == null ? text : detail.reference + " " + text;
+            }
+            case "/RmtInf/Strd/CdtrRefInf/Ref" -> detail.structuredRef = reader.getElementText().trim();
+            case "/RltdPties/Cdtr/Nm", "/RltdPties/Cdtr/Pty/Nm" -> detail.creditor = reader.getElementText().trim();
+            case "/RltdPties/Dbtr/Nm", "/RltdPties/Dbtr/Pty/Nm" -> detail.debtor = reader.getElementText().trim();
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static final class Entry {
+        private String amount;
+        private String currency;
+        private String indicator;
+        private String date;
+        private String accountServicerRef;
+        private final List<Detail> details = new ArrayList<>(1);
+        private Detail detail = new Detail();
+
+        List<BankTransaction> toTransactions(String defaultCurrency) {
+            if (amount == null || indicator == null || date == null) {
+                throw new IllegalArgumentException("Ntry without Amt, CdtDbtInd or booking date");
+            }
+            boolean debit = indicator.startsWith("D");
+            LocalDate bookingDate = LocalDate.parse(date.substring(0, 10));
+            String entryCurrency = currency != null ? currency : defaultCurrency;
+            if (details.isEmpty()) {
+                details.add(new Detail());
+            }
+
+            List<BankTransaction> transactions = new ArrayList<>(details.size());
+            for (Detail detail : details) {
+                boolean own = details.size() > 1 && detail.amount != null;
+                String reference = detail.structuredRef != null && detail.reference != null
+                        ? detail.structuredRef + " " + detail.reference
+                        : detail.structuredRef != null ? detail.structuredRef : detail.reference;
+                transactions.add(new BankTransaction(
+                        detail.endToEndId != null && !"NOTPROVIDED".equals(detail.endToEndId)
+                                ? detail.endToEndId : accountServicerRef,
+                        bookingDate,
+                        Amounts.toCents(new BigDecimal(own ? detail.amount : amount).abs()),
+                        own && detail.currency != null ? detail.currency : entryCurrency,
+                        debit,
+                        debit ? detail.creditor : detail.debtor,
+                        reference));
+            }
+            return transactions;
+        }
+    }
+
+    private static final class Detail {
+        private String amount;
+        private String currency;
+        private String endToEndId;
+        private String reference;
+        private String structuredRef;
+        private String creditor;
+        private String debtor;
+    }
+}
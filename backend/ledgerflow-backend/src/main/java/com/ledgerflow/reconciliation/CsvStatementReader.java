@@ -0,0 +1,236 @@
+package com.ledgerflow.reconciliation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * CSV Statement Reader
+ *
+ * Streams a bank statement export row by row; only the current row is held in
+ * memory. Columns are found by header name (case-insensitive, common English
+ * and German export names), the delimiter (comma or semicolon) from the header
+ * line. Fields may be quoted, with "" as an escaped quote.
+ *
+ * Outgoing payments are recognised by a negative amount, a separate debit
+ * column, or a D/DBIT/debit value in a direction column. Amounts accept both
+ * 1,234.56 and 1.234,56. Rows that cannot be read are counted and skipped.
+ */
+public final class CsvStatementReader {
+
+    private static final Map<String, String> COLUMNS = Map.ofEntries(
+            Map.entry("date", "date"), Map.entry("booking_date", "date"), Map.entry("bookingdate", "date"),
+            Map.entry("value_date", "date"), Map.entry("transaction_date", "date"), Map.entry("buchungstag", "date"),
+            Map.entry("amount", "amount"), Map.entry("betrag", "amount"),
+            Map.entry("debit", "debit"), Map.entry("soll", "debit"),
+            Map.entry("credit", "credit"), Map.entry("haben", "credit"),
+            Map.entry("direction", "direction"), Map.entry("credit_debit", "direction"),
+            Map.entry("cdtdbtind", "direction"), Map.entry("type", "direction"),
+            Map.entry("currency", "currency"), Map.entry("ccy", "currency"), Map.entry("waehrung", "currency"),
+            Map.entry("counterparty", "counterparty"), Map.entry("counterparty_name", "counterparty"),
+            Map.entry("name", "counterparty"), Map.entry("payee", "counterparty"),
+            Map.entry("beneficiary", "counterparty"), Map.entry("empfaenger", "counterparty"),
+            Map.entry("reference", "reference"), Map.entry("remittance", "reference"),
+            Map.entry("remittance_information", "reference"), Map.entry("description", "reference"),
+            Map.entry("purpose", "reference"), Map.entry("memo", "reference"),
+            Map.entry("verwendungszweck", "reference"),
+            Map.entry("id", "id"), Map.entry("transaction_id", "id"), Map.entry("end_to_end_id", "id"),
+            Map.entry("bank_reference", "id"));
+
+    private static final DateTimeFormatter DOTTED = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter SLASHED = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter BASIC = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private CsvStatementReader() {
+    }
+
+    public static StatementReadResult read(InputStream csv, String defaultCurrency, Consumer<BankTransaction> sink)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8), 1 << 16);
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return new StatementReadResult(0, 0, null);
+        }
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+        char delimiter = count(headerLine, ';') > count(headerLine, ',') ? ';' : ',';
+        Layout layout = Layout.of(split(headerLine, delimiter, reader));
+        if (layout.date < 0 || (layout.amount < 0 && layout.debit < 0)) {
+            throw new IllegalArgumentException("CSV statement needs a date and an amount (or debit/credit) column");
+        }
+
+        long entries = 0;
+        long rejected = 0;
+        String firstError = null;
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                BankTransaction transaction = layout.toTransaction(split(line, delimiter, reader), defaultCurrency);
+                entries++;
+                sink.accept(transaction);
+            } catch (RuntimeException e) {
+                rejected++;
+                if (firstError == null) {
+                    firstError = "Line " + lineNumber + ": " + e.getMessage();
+                }
+            }
+        }
+        return new StatementReadResult(entries, rejected, firstError);
+    }
+
+    /**
+     * Split one record; a quoted field spanning lines pulls the following lines in.
+     */
+    static List<String> split(String line, char delimiter, BufferedReader more) throws IOException {
+        List<String> fields = new ArrayList<>(12);
+        StringBuilder field = new StringBuilder(32);
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String next = more.readLine();
+                if (next == null) {
+                    break;
+                }
+                field.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    static BigDecimal parseAmount(String value) {
+        String amount = value.replace(" ", "").replace("\u00A0", "");
+        int comma = amount.lastIndexOf(',');
+        int dot = amount.lastIndexOf('.');
+        if (comma >= 0 && dot >= 0) {
+            // The later separator is the decimal one
+            amount = comma > dot ? amount.replace(".", "").replace(',', '.') : amount.replace(",", "");
+        } else if (comma >= 0) {
+            amount = amount.length() - comma - 1 <= 2 && amount.indexOf(',') == comma
+                    ? amount.replace(',', '.') : amount.replace(",", "");
+        }
+        if (amount.endsWith("-")) {
+            amount = "-" + amount.substring(0, amount.length() - 1);
+        }
+        return new BigDecimal(amount);
+    }
+
+    static LocalDate parseDate(String value) {
+        if (value.length() >= 10 && value.charAt(4) == '-') {
+            return LocalDate.parse(value.substring(0, 10));
+        }
+        if (value.length() == 10 && value.charAt(2) == '.') {
+            return LocalDate.parse(value, DOTTED);
+        }
+        if (value.length() == 10 && value.charAt(2) == '/') {
+            return LocalDate.parse(value, SLASHED);
+        }
+        if (value.length() == 8) {
+            return LocalDate.parse(value, BASIC);
+        }
+        throw new IllegalArgumentException("Unrecognized date: " + value);
+    }
+
+    private static int count(String line, char c) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private record Layout(int date, int amount, int debit, int credit, int direction, int currency,
+                          int counterparty, int reference, int id) {
+
+        static Layout of(List<String> header) {
+            int[] columns = {-1, -1, -1, -1, -1, -1, -1, -1, -1};
+            List<String> names = List.of("date", "amount", "debit", "credit", "direction", "currency",
+                    "counterparty", "reference", "id");
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).toLowerCase(Locale.ROOT).replace(' ', '_').replace("-", "_");
+                String column = COLUMNS.get(name);
+                if (column != null && columns[names.indexOf(column)] < 0) {
+                    columns[names.indexOf(column)] = i;
+                }
+            }
+            return new Layout(columns[0], columns[1], columns[2], columns[3], columns[4], columns[5], columns[6],
+                    columns[7], columns[8]);
+        }
+
+        BankTransaction toTransaction(List<String> row, String defaultCurrency) {
+            BigDecimal amount;
+            boolean debit;
+            if (this.amount >= 0 && !field(row, this.amount).isEmpty()) {
+                amount = parseAmount(field(row, this.amount));
+                String direction = field(row, this.direction).toUpperCase(Locale.ROOT);
+                debit = direction.isEmpty() ? amount.signum() < 0 : direction.startsWith("D");
+            } else {
+                String debitValue = field(row, this.debit);
+                debit = !debitValue.isEmpty() && parseAmount(debitValue).signum() != 0;
+                amount = parseAmount(debit ? debitValue : field(row, credit));
+            }
+            String currencyValue = field(row, currency);
+            return new BankTransaction(
+                    blankToNull(field(row, id)),
+                    parseDate(field(row, date)),
+                    Amounts.toCents(amount.abs()),
+                    currencyValue.isEmpty() ? defaultCurrency : currencyValue.toUpperCase(Locale.ROOT),
+                    debit,
+                    blankToNull(field(row, counterparty)),
+                    blankToNull(field(row, reference)));
+        }
+
+        private static String field(List<String> row, int index) {
+            return index >= 0 && index < row.size() ? row.get(index) : "";
+        }
+
+        private static String blankToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
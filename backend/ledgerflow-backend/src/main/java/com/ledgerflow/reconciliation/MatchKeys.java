@@ -0,0 +1,158 @@
+package com.ledgerflow.reconciliation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Normalized keys and similarity scores used by the matcher. Keys are
+ * upper-case letters and digits only, so "INV-2024/0042", "inv 2024 0042"
+ * and "INV20240042" compare equal.
+ */
+final class MatchKeys {
+
+    private static final Set<String> LEGAL_FORMS = Set.of(
+            "AB", "AG", "AS", "BV", "CO", "CORP", "CORPORATION", "EK", "GMBH", "INC", "KG", "LLC", "LLP", "LTD",
+            "LIMITED", "MBH", "NV", "OY", "PLC", "SA", "SARL", "SAS", "SE", "SPA", "SRL", "THE", "UG");
+
+    private static final int MIN_REFERENCE_KEY = 3;
+    private static final int MAX_WINDOW = 3;
+
+    private MatchKeys() {
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Vendor or counterparty name without punctuation and legal-form words
+     * ("Acme GmbH" and "ACME" give the same key).
+     */
+    static String vendorKey(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(name.length());
+        for (String word : name.toUpperCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !LEGAL_FORMS.contains(word)) {
+                key.append(word);
+            }
+        }
+        // A name made only of legal-form words keeps them rather than becoming empty
+        return key.isEmpty() ? normalize(name) : key.toString();
+    }
+
+    /**
+     * Candidate invoice-number keys in a remittance text: every run of one to
+     * three consecutive words, normalized, so numbers written with spaces
+     * ("INV 2024 0042") are found as well.
+     */
+    static List<String> referenceKeys(String reference) {
+        if (reference == null || reference.isBlank()) {
+            return List.of();
+        }
+        String[] words = reference.split("[\\s,;:()\\[\\]]+");
+        List<String> keys = new ArrayList<>(words.length * MAX_WINDOW);
+        for (int start = 0; start < words.length; start++) {
+            StringBuilder key = new StringBuilder(24);
+            for (int end = start; end < words.length && end < start + MAX_WINDOW; end++) {
+                key.append(normalize(words[end]));
+                if (key.length() >= MIN_REFERENCE_KEY && (end == start || !keys.get(keys.size() - 1)
+                        .contentEquals(key))) {
+                    keys.add(key.toString());
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 1 - edit distance / longer length; 0 when the lengths alone rule out {@code min}.
+     */
+    static double editSimilarity(String a, String b, double min) {
+        int longer = Math.max(a.length(), b.length());
+        if (longer == 0) {
+            return 0;
+        }
+        int maxDistance = (int) Math.floor((1 - min) * longer);
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return 0;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return 0;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return 1 - (double) previous[b.length()] / longer;
+    }
+
+    /**
+     * Dice coefficient over character trigrams; robust to word order and small
+     * additions ("ACMEBERLIN" vs "ACME").
+     */
+    static double trigramSimilarity(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        if (a.equals(b)) {
+            return 1;
+        }
+        if (a.length() < 3 || b.length() < 3) {
+            return a.startsWith(b) || b.startsWith(a) ? 0.5 : 0;
+        }
+        long[] left = trigrams(a);
+        long[] right = trigrams(b);
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return 2.0 * common / (left.length + right.length);
+    }
+
+    private static long[] trigrams(String value) {
+        long[] grams = new long[value.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        return grams;
+    }
+}
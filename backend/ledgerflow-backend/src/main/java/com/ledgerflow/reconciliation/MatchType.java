@@ -0,0 +1,13 @@
+package com.ledgerflow.reconciliation;
+
+/**
+ * How a transaction was matched to an invoice, strongest first.
+ */
+public enum MatchType {
+    // Invoice number found in the remittance information, same amount and currency
+    REFERENCE,
+    // Same amount and currency, same (normalized) vendor, and the only such open invoice
+    AMOUNT_VENDOR,
+    // Same amount and currency, similar reference and/or vendor (fuzzy pass)
+    FUZZY
+}
@@ -0,0 +1,16 @@
+package com.ledgerflow.reconciliation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The invoice columns matching needs (JPQL constructor projection).
+ */
+public record OpenInvoice(long id, String invoiceNumber, String vendorName, long amountCents, String currency,
+                          LocalDate dueDate) {
+
+    public OpenInvoice(Long id, String invoiceNumber, String vendorName, BigDecimal totalAmount, String currency,
+                       LocalDate dueDate) {
+        this(id, invoiceNumber, vendorName, Amounts.toCents(totalAmount), currency, dueDate);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ledgerflow.reconciliation;
+
+public enum ProposalStatus {
+    PROPOSED,
+    CONFIRMED,
+    REJECTED,
+    // The invoice was marked PAID
+    APPLIED,
+    // Confirmed, but the invoice was no longer open when applied
+    STALE,
+    // No open invoice matched the transaction
+    UNMATCHED
+}
@@ -0,0 +1,360 @@
+package com.ledgerflow.reconciliation;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reconciliation Engine
+ *
+ * Matches bank transactions to a tenant's open invoices as hash joins over
+ * in-memory indexes, built once per run:
+ * - amount index: (amount in cents, currency) to the invoices with that
+ *   total, partitioned into contiguous int arrays (no boxing per invoice)
+ * - number index: normalized invoice number to invoice(s)
+ * Transactions are streamed through pass 1 as they are read; only the ones
+ * it leaves unmatched are kept for the later passes:
+ * 1. REFERENCE: a normalized word run of the remittance text (or bank
+ *    reference) equals an invoice number, and amount and currency agree
+ * 2. AMOUNT_VENDOR: same amount and currency, same normalized vendor, and
+ *    neither side has another such candidate
+ * 3. FUZZY: within the same amount bucket, a weighted score of reference
+ *    edit similarity, vendor trigram similarity and due-date distance;
+ *    candidate pairs at or above {@code minFuzzyScore} are assigned greedily,
+ *    best score first. Very large buckets are narrowed to invoices whose
+ *    vendor shares the counterparty's first letters.
+ * Each invoice is matched at most once per run, and only outgoing (debit)
+ * transactions are considered; incoming ones are counted and skipped.
+ * Amounts must match exactly; partial and combined payments stay unmatched
+ * for manual review.
+ */
+public class ReconciliationEngine {
+
+    private static final int NO_MATCH = -1;
+    private static final int AMBIGUOUS = -2;
+    private static final int MAX_CURRENCIES = 1024;
+    private static final int VENDOR_BLOCK_PREFIX = 3;
+
+    private final double minFuzzyScore;
+    private final int maxFuzzyCandidates;
+    private final int dateWindowDays;
+
+    public ReconciliationEngine(double minFuzzyScore, int maxFuzzyCandidates, int dateWindowDays) {
+        this.minFuzzyScore = minFuzzyScore;
+        this.maxFuzzyCandidates = Math.max(1, maxFuzzyCandidates);
+        this.dateWindowDays = Math.max(1, dateWindowDays);
+    }
+
+    /**
+     * Index {@code invoices} and open a run; results go to {@code sink}, pass 1
+     * matches while transactions are still being added.
+     */
+    public Session start(List<OpenInvoice> invoices, Consumer<ReconciliationMatch> sink) {
+        return new Session(invoices, sink);
+    }
+
+    public record Summary(long transactions, long credits, long reference, long amountVendor, long fuzzy,
+                          long unmatched) {
+
+        public long matched() {
+            return reference + amountVendor + fuzzy;
+        }
+    }
+
+    /**
+     * One run over one invoice snapshot. Not thread-safe.
+     */
+    public final class Session {
+        private final OpenInvoice[] invoices;
+        private final long[] amountKeys;
+        private final String[] numberKeys;
+        private final String[] vendorKeys;
+        private final boolean[] taken;
+        private final Map<String, Integer> currencies = new HashMap<>();
+        // Amount buckets: members[bucketStart[b] .. bucketStart[b + 1]) are the invoices of bucket b
+        private final LongIntIndex buckets;
+        private final int[] bucketStart;
+        private final int[] members;
+        private final Map<String, Integer> firstWithNumber;
+        private final int[] nextWithNumber;
+        private final Consumer<ReconciliationMatch> sink;
+        private final List<BankTransaction> pending = new ArrayList<>();
+        private long transactions;
+        private long credits;
+        private long reference;
+        private long amountVendor;
+        private long fuzzy;
+
+        private Session(List<OpenInvoice> openInvoices, Consumer<ReconciliationMatch> sink) {
+            this.sink = sink;
+            int n = openInvoices.size();
+            invoices = openInvoices.toArray(new OpenInvoice[0]);
+            amountKeys = new long[n];
+            numberKeys = new String[n];
+            vendorKeys = new String[n];
+            taken = new boolean[n];
+            firstWithNumber = new HashMap<>(Math.max(16, n * 4 / 3 + 1));
+            nextWithNumber = new int[n];
+            Map<String, String> vendorKeyCache = new HashMap<>();
+
+            buckets = new LongIntIndex(n);
+            int[] bucketOf = new int[n];
+            int[] sizes = new int[n + 1];
+            int bucketCount = 0;
+            for (int i = 0; i < n; i++) {
+                OpenInvoice invoice = invoices[i];
+                amountKeys[i] = amountKey(invoice.amountCents(), currencyId(invoice.currency(), true));
+                int bucket = buckets.get(amountKeys[i]);
+                if (bucket < 0) {
+                    bucket = bucketCount++;
+                    buckets.put(amountKeys[i], bucket);
+                }
+                bucketOf[i] = bucket;
+                sizes[bucket]++;
+
+                numberKeys[i] = MatchKeys.normalize(invoice.invoiceNumber());
+                Integer head = firstWithNumber.put(numberKeys[i], i);
+                nextWithNumber[i] = head != null ? head : NO_MATCH;
+                vendorKeys[i] = vendorKeyCache.computeIfAbsent(
+                        invoice.vendorName() != null ? invoice.vendorName() : "", MatchKeys::vendorKey);
+            }
+
+            bucketStart = new int[bucketCount + 1];
+            for (int b = 0; b < bucketCount; b++) {
+                bucketStart[b + 1] = bucketStart[b] + sizes[b];
+            }
+            members = new int[n];
+            int[] fill = Arrays.copyOf(bucketStart, bucketCount);
+            for (int i = 0; i < n; i++) {
+                members[fill[bucketOf[i]]++] = i;
+            }
+        }
+
+        /**
+         * Pass 1 for one transaction; anything it cannot settle is kept for {@link #finish}.
+         */
+        public void add(BankTransaction transaction) {
+            transactions++;
+            if (!transaction.debit()) {
+                credits++;
+                return;
+            }
+            long key = amountKeyOf(transaction);
+            if (key != Long.MIN_VALUE) {
+                for (String candidate : referenceKeys(transaction)) {
+                    Integer head = firstWithNumber.get(candidate);
+                    for (int i = head != null ? head : NO_MATCH; i >= 0; i = nextWithNumber[i]) {
+                        if (!taken[i] && amountKeys[i] == key) {
+                            taken[i] = true;
+                            reference++;
+                            sink.accept(new ReconciliationMatch(transaction, invoices[i], MatchType.REFERENCE, 1.0));
+                            return;
+                        }
+                    }
+                }
+            }
+            pending.add(transaction);
+        }
+
+        /**
+         * Run passes 2 and 3 over what pass 1 left, then report the rest as unmatched.
+         */
+        public Summary finish() {
+            int n = pending.size();
+            boolean[] settled = new boolean[n];
+            String[] counterpartyKeys = new String[n];
+            long[] keys = new long[n];
+            for (int t = 0; t < n; t++) {
+                counterpartyKeys[t] = MatchKeys.vendorKey(pending.get(t).counterparty());
+                keys[t] = amountKeyOf(pending.get(t));
+            }
+
+            // Pass 2: exact vendor, accepted only when the pairing is unique on both sides
+            int[] candidate = new int[n];
+            int[] claims = new int[invoices.length];
+            for (int t = 0; t < n; t++) {
+                candidate[t] = NO_MATCH;
+                int bucket = keys[t] != Long.MIN_VALUE && !counterpartyKeys[t].isEmpty() ? buckets.get(keys[t]) : -1;
+                if (bucket < 0) {
+                    continue;
+                }
+                for (int m = bucketStart[bucket]; m < bucketStart[bucket + 1]; m++) {
+                    int i = members[m];
+                    if (!taken[i] && vendorKeys[i].equals(counterpartyKeys[t])) {
+                        candidate[t] = candidate[t] == NO_MATCH ? i : AMBIGUOUS;
+                    }
+                }
+                if (candidate[t] >= 0) {
+                    claims[candidate[t]]++;
+                }
+            }
+            for (int t = 0; t < n; t++) {
+                int i = candidate[t];
+                if (i >= 0 && claims[i] == 1) {
+                    taken[i] = true;
+                    settled[t] = true;
+                    amountVendor++;
+                    double score = 0.9 + 0.1 * dateSimilarity(pending.get(t).bookingDate(), invoices[i].dueDate());
+                    sink.accept(new ReconciliationMatch(pending.get(t), invoices[i], MatchType.AMOUNT_VENDOR, score));
+                }
+            }
+
+            // Pass 3: score every open invoice of the bucket, then assign best-first
+            List<Edge> edges = new ArrayList<>();
+            for (int t = 0; t < n; t++) {
+                int bucket = !settled[t] && keys[t] != Long.MIN_VALUE ? buckets.get(keys[t]) : -1;
+                if (bucket < 0) {
+                    continue;
+                }
+                BankTransaction transaction = pending.get(t);
+                List<String> referenceKeys = referenceKeys(transaction);
+                int size = bucketStart[bucket + 1] - bucketStart[bucket];
+                String block = size > maxFuzzyCandidates && counterpartyKeys[t].length() >= VENDOR_BLOCK_PREFIX
+                        ? counterpartyKeys[t].substring(0, VENDOR_BLOCK_PREFIX) : null;
+                int scored = 0;
+                for (int m = bucketStart[bucket]; m < bucketStart[bucket + 1] && scored < maxFuzzyCandidates; m++) {
+                    int i = members[m];
+                    if (taken[i] || (block != null && !vendorKeys[i].startsWith(block))) {
+                        continue;
+                    }
+                    scored++;
+                    double score = score(transaction, referenceKeys, counterpartyKeys[t], i);
+                    if (score >= minFuzzyScore) {
+                        edges.add(new Edge(t, i, score));
+                    }
+                }
+            }
+            edges.sort(Comparator.comparingDouble(Edge::score).reversed()
+                    .thenComparingInt(Edge::transaction).thenComparingInt(Edge::invoice));
+            for (Edge edge : edges) {
+                if (!settled[edge.transaction()] && !taken[edge.invoice()]) {
+                    settled[edge.transaction()] = true;
+                    taken[edge.invoice()] = true;
+                    fuzzy++;
+                    sink.accept(new ReconciliationMatch(pending.get(edge.transaction()), invoices[edge.invoice()],
+                            MatchType.FUZZY, edge.score()));
+                }
+            }
+
+            long unmatched = 0;
+            for (int t = 0; t < n; t++) {
+                if (!settled[t]) {
+                    unmatched++;
+                    sink.accept(new ReconciliationMatch(pending.get(t), null, null, 0));
+                }
+            }
+            pending.clear();
+            return new Summary(transactions, credits, reference, amountVendor, fuzzy, unmatched);
+        }
+
+        /**
+         * Reference similarity counts only when it resembles an invoice number at
+         * all; otherwise free text ("March rent") would drag good vendor matches down.
+         */
+        private double score(BankTransaction transaction, List<String> referenceKeys, String counterpartyKey, int i) {
+            double referenceScore = 0;
+            for (String key : referenceKeys) {
+                referenceScore = Math.max(referenceScore, MatchKeys.editSimilarity(key, numberKeys[i], 0.5));
+            }
+            double vendorScore = MatchKeys.trigramSimilarity(counterpartyKey, vendorKeys[i]);
+            double dateScore = dateSimilarity(transaction.bookingDate(), invoices[i].dueDate());
+            return referenceScore >= 0.5
+                    ? 0.45 * referenceScore + 0.45 * vendorScore + 0.10 * dateScore
+                    : 0.85 * vendorScore + 0.15 * dateScore;
+        }
+
+        private double dateSimilarity(LocalDate booked, LocalDate due) {
+            if (booked == null || due == null) {
+                return 0.5;
+            }
+            long days = Math.abs(ChronoUnit.DAYS.between(due, booked));
+            return Math.max(0, 1 - (double) days / dateWindowDays);
+        }
+
+        private List<String> referenceKeys(BankTransaction transaction) {
+            List<String> keys = MatchKeys.referenceKeys(transaction.reference());
+            if (transaction.transactionRef() == null) {
+                return keys;
+            }
+            List<String> all = new ArrayList<>(keys);
+            all.addAll(MatchKeys.referenceKeys(transaction.transactionRef()));
+            return all;
+        }
+
+        /**
+         * @return the amount key, or Long.MIN_VALUE if no invoice has the currency
+         */
+        private long amountKeyOf(BankTransaction transaction) {
+            int currency = currencyId(transaction.currency(), false);
+            return currency < 0 ? Long.MIN_VALUE : amountKey(transaction.amountCents(), currency);
+        }
+
+        private int currencyId(String currency, boolean register) {
+            String code = currency != null ? currency : "";
+            Integer id = currencies.get(code);
+            if (id == null && register) {
+                if (currencies.size() >= MAX_CURRENCIES) {
+                    throw new IllegalArgumentException("Too many currencies: " + currencies.size());
+                }
+                id = currencies.size();
+                currencies.put(code, id);
+            }
+            return id != null ? id : -1;
+        }
+    }
+
+    private static long amountKey(long cents, int currencyId) {
+        return cents * MAX_CURRENCIES + currencyId;
+    }
+
+    private record Edge(int transaction, int invoice, double score) {
+    }
+
+    /**
+     * Open-addressing long-to-int map (linear probing), for the amount buckets.
+     */
+    private static final class LongIntIndex {
+        private final long[] keys;
+        private final int[] values;
+        private final boolean[] used;
+        private final int mask;
+
+        LongIntIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        int get(long key) {
+            for (int slot = slot(key); used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            int slot = slot(key);
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ledgerflow.reconciliation;
+
+/**
+ * Outcome for one bank transaction: the invoice it pays and how that was
+ * decided, or {@code invoice == null} (and no type) if nothing matched.
+ *
+ * @param score 1.0 for a reference match, otherwise the matcher's confidence in [0, 1]
+ */
+public record ReconciliationMatch(BankTransaction transaction, OpenInvoice invoice, MatchType type, double score) {
+
+    public boolean matched() {
+        return invoice != null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ledgerflow.reconciliation;
+
+public enum RunStatus {
+    // Statement being read and matched; proposals appear as they are written
+    IMPORTING,
+    COMPLETED,
+    // Reading or matching failed; proposals written so far are kept
+    FAILED
+}
@@ -0,0 +1,24 @@
+package com.ledgerflow.reconciliation;
+
+import java.util.Locale;
+
+public enum StatementFormat {
+    CSV,
+    CAMT053;
+
+    /**
+     * Format from an explicit name, else from the filename or content type.
+     */
+    public static StatementFormat detect(String format, String filename, String contentType) {
+        if (format != null && !format.isBlank()) {
+            String name = format.trim().toUpperCase(Locale.ROOT).replace(".", "").replace("-", "");
+            return name.startsWith("CAMT") ? CAMT053 : valueOf(name);
+        }
+        String lowerName = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+        String lowerType = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        if (lowerName.endsWith(".xml") || lowerType.contains("xml")) {
+            return CAMT053;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ledgerflow.reconciliation;
+
+/**
+ * Outcome of streaming one statement file.
+ *
+ * @param firstError where and why the first rejected entry failed, or null
+ */
+public record StatementReadResult(long entries, long rejected, String firstError) {
+}
@@ -0,0 +1,35 @@
+package com.ledgerflow.repository;
+
+import com.ledgerflow.entity.DeadlineFire;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeadlineFireRepository extends JpaRepository<DeadlineFire, Long> {
+
+    /**
+     * @return 1 if this call recorded the fire, 0 if another node already had
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO invoice_deadline_fires (invoice_id, kind, due_at, fired_at)"
+            + " VALUES (:invoiceId, :kind, :dueAt, :firedAt)"
+            + " ON CONFLICT (invoice_id, kind, due_at) DO NOTHING",
+            nativeQuery = true)
+    int claim(@Param("invoiceId") long invoiceId, @Param("kind") String kind,
+              @Param("dueAt") LocalDateTime dueAt, @Param("firedAt") LocalDateTime firedAt);
+
+    List<DeadlineFire> findByDueAtBetween(LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DeadlineFire f WHERE f.dueAt < :before")
+    int deleteByDueAtBefore(@Param("before") LocalDateTime before);
+}
@@ -1,12 +1,17 @@
 package com.ledgerflow.repository;
 
+import com.ledgerflow.deadline.DeadlineCandidate;
 import com.ledgerflow.entity.Invoice;
 import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.reconciliation.OpenInvoice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +21,37 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     List<Invoice> findByTenantId(@Param("tenantId") Long tenantId);
     List<Invoice> findByTenantIdAndStatus(Long tenantId, InvoiceStatus status);
     Optional<Invoice> findByInvoiceNumberAndTenantId(String invoiceNumber, Long tenantId);
+    Optional<Invoice> findByS3KeyAndTenantId(String s3Key, Long tenantId);
 
     @Query("SELECT i FROM Invoice i WHERE i.tenant.id = :tenantId ORDER BY i.createdAt DESC")
     List<Invoice> findRecentInvoicesByTenant(@Param("tenantId") Long tenantId);
 
     long countByTenantIdAndStatus(Long tenantId, InvoiceStatus status);
-}
\ No newline at end of file
+
+    @Query("SELECT i.updatedAt FROM Invoice i WHERE i.id = :id AND i.tenant.id = :tenantId")
+    Optional<LocalDateTime> findUpdatedAt(@Param("id") Long id, @Param("tenantId") Long tenantId);
+
+    @Query("SELECT new com.ledgerflow.deadline.DeadlineCandidate(i.id, i.tenant.id, i.status, i.dueDate, i.updatedAt)"
+            + " FROM Invoice i WHERE i.status = :status AND i.dueDate BETWEEN :from AND :to")
+    List<DeadlineCandidate> findDeadlineCandidatesByDueDate(@Param("status") InvoiceStatus status,
+                                                            @Param("from") LocalDate from,
+                                                            @Param("to") LocalDate to);
+
+    @Query("SELECT new com.ledgerflow.deadline.DeadlineCandidate(i.id, i.tenant.id, i.status, i.dueDate, i.updatedAt)"
+            + " FROM Invoice i WHERE i.status = :status AND i.updatedAt BETWEEN :from AND :to")
+    List<DeadlineCandidate> findDeadlineCandidatesByUpdatedAt(@Param("status") InvoiceStatus status,
+                                                              @Param("from") LocalDateTime from,
+                                                              @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.ledgerflow.deadline.DeadlineCandidate(i.id, i.tenant.id, i.status, i.dueDate, i.updatedAt)"
+            + " FROM Invoice i WHERE i.id = :id")
+    Optional<DeadlineCandidate> findDeadlineCandidate(@Param("id") Long id);
+
+    @Query("SELECT new com.ledgerflow.reconciliation.OpenInvoice(i.id, i.invoiceNumber, i.vendorName, i.totalAmount,"
+            + " i.currency, i.dueDate) FROM Invoice i WHERE i.tenant.id = :tenantId AND i.status IN :statuses")
+    List<OpenInvoice> findOpenInvoices(@Param("tenantId") Long tenantId,
+                                       @Param("statuses") Collection<InvoiceStatus> statuses);
+
+    List<Invoice> findByIdInAndTenantIdAndStatusIn(Collection<Long> ids, Long tenantId,
+                                                   Collection<InvoiceStatus> statuses);
+}
@@ -0,0 +1,12 @@
+package com.ledgerflow.repository;
+
+import com.ledgerflow.entity.InvoiceStatusHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InvoiceStatusHistoryRepository extends JpaRepository<InvoiceStatusHistory, Long> {
+    List<InvoiceStatusHistory> findByInvoiceIdAndTenantIdOrderByChangedAtAscIdAsc(Long invoiceId, Long tenantId);
+}
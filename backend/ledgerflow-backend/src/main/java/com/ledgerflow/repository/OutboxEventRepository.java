@@ -0,0 +1,31 @@
+package com.ledgerflow.repository;
+
+import com.ledgerflow.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query(value = "SELECT * FROM invoice_outbox WHERE partition_no IN (:partitions) ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<OutboxEvent> findBatch(@Param("partitions") Collection<Integer> partitions, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM invoice_outbox WHERE partition_no IN (:partitions)"
+            + " AND tenant_id NOT IN (:excludedTenants) ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<OutboxEvent> findBatchExcluding(@Param("partitions") Collection<Integer> partitions,
+                                         @Param("excludedTenants") Collection<Long> excludedTenants,
+                                         @Param("limit") int limit);
+
+    // Oldest by id rather than MIN(created_at), so it is a primary-key index lookup
+    @Query(value = "SELECT created_at FROM invoice_outbox ORDER BY id LIMIT 1", nativeQuery = true)
+    Optional<LocalDateTime> findOldestCreatedAt();
+}
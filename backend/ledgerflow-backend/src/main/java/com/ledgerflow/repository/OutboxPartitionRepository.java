@@ -0,0 +1,30 @@
+package com.ledgerflow.repository;
+
+import com.ledgerflow.entity.OutboxPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxPartitionRepository extends JpaRepository<OutboxPartition, Integer> {
+
+    /**
+     * Lock up to {@code limit} partitions with pending events, least recently drained
+     * first. Partitions another relay holds are skipped rather than waited for.
+     */
+    @Query(value = "SELECT p.partition_no FROM invoice_outbox_partitions p"
+            + " WHERE EXISTS (SELECT 1 FROM invoice_outbox o WHERE o.partition_no = p.partition_no)"
+            + " ORDER BY p.last_drained_at NULLS FIRST LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Integer> claim(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxPartition p SET p.lastDrainedAt = :drainedAt WHERE p.partitionNo IN :partitions")
+    int markDrained(@Param("partitions") Collection<Integer> partitions, @Param("drainedAt") LocalDateTime drainedAt);
+}
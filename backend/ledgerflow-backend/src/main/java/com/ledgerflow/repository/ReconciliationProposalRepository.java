@@ -0,0 +1,44 @@
+package com.ledgerflow.repository;
+
+import com.ledgerflow.entity.ReconciliationProposal;
+import com.ledgerflow.reconciliation.ProposalStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Proposals are read in keyset pages (id greater than the last one seen) so
+ * that paging through a run of a million transactions stays cheap.
+ */
+@Repository
+public interface ReconciliationProposalRepository extends JpaRepository<ReconciliationProposal, Long> {
+    List<ReconciliationProposal> findByRunIdAndIdGreaterThanOrderByIdAsc(Long runId, Long afterId,
+                                                                         Pageable page);
+
+    List<ReconciliationProposal> findByRunIdAndStatusAndIdGreaterThanOrderByIdAsc(Long runId, ProposalStatus status,
+                                                                                  Long afterId, Pageable page);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReconciliationProposal p SET p.status = :to, p.decidedAt = :now"
+            + " WHERE p.runId = :runId AND p.status IN :from AND p.score >= :minScore")
+    int updateStatusByScore(@Param("runId") Long runId, @Param("from") Collection<ProposalStatus> from,
+                            @Param("to") ProposalStatus to, @Param("minScore") double minScore,
+                            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReconciliationProposal p SET p.status = :to, p.decidedAt = :now"
+            + " WHERE p.runId = :runId AND p.status IN :from AND p.id IN :ids")
+    int updateStatusByIds(@Param("runId") Long runId, @Param("from") Collection<ProposalStatus> from,
+                          @Param("to") ProposalStatus to, @Param("ids") Collection<Long> ids,
+                          @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,19 @@
+package com.ledgerflow.repository;
+
+import com.ledgerflow.entity.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+    Optional<ReconciliationRun> findByIdAndTenantId(Long id, Long tenantId);
+
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.applied = COALESCE(r.applied, 0) + :count WHERE r.id = :id")
+    int addApplied(@Param("id") Long id, @Param("count") long count);
+}
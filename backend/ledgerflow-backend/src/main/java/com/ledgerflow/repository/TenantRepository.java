@@ -2,6 +2,9 @@ package com.ledgerflow.repository;
 
 import com.ledgerflow.entity.Tenant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,4 +14,15 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
     Optional<Tenant> findBySlug(String slug);
     boolean existsBySlug(String slug);
     boolean existsByName(String name);
-}
\ No newline at end of file
+
+    @Query("SELECT COALESCE(t.invoiceListVersion, 0) FROM Tenant t WHERE t.id = :tenantId")
+    Optional<Long> findInvoiceListVersion(@Param("tenantId") Long tenantId);
+
+    @Modifying
+    @Query("UPDATE Tenant t SET t.invoiceListVersion = COALESCE(t.invoiceListVersion, 0) + 1 WHERE t.id = :tenantId")
+    int incrementInvoiceListVersion(@Param("tenantId") Long tenantId);
+
+    @Modifying
+    @Query("UPDATE Tenant t SET t.invoiceListVersion = COALESCE(t.invoiceListVersion, 0) + :count WHERE t.id = :tenantId")
+    int addToInvoiceListVersion(@Param("tenantId") Long tenantId, @Param("count") long count);
+}
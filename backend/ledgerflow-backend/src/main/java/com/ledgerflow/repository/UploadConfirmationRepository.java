@@ -0,0 +1,38 @@
+package com.ledgerflow.repository;
+
+import com.ledgerflow.entity.UploadConfirmation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UploadConfirmationRepository extends JpaRepository<UploadConfirmation, Long> {
+
+    /**
+     * Claim the confirm of a storage key, taking over a claim older than {@code staleBefore}.
+     *
+     * @return 1 if this call holds the claim, 0 if another confirm does
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO upload_confirmations (storage_key, tenant_id, claimed_at)"
+            + " VALUES (:storageKey, :tenantId, :claimedAt)"
+            + " ON CONFLICT (storage_key) DO UPDATE SET tenant_id = EXCLUDED.tenant_id,"
+            + " claimed_at = EXCLUDED.claimed_at WHERE upload_confirmations.claimed_at < :staleBefore",
+            nativeQuery = true)
+    int claim(@Param("storageKey") String storageKey, @Param("tenantId") Long tenantId,
+              @Param("claimedAt") LocalDateTime claimedAt, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Drop a claim, unless another confirm has taken it over since.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadConfirmation c WHERE c.storageKey = :storageKey AND c.claimedAt = :claimedAt")
+    int release(@Param("storageKey") String storageKey, @Param("claimedAt") LocalDateTime claimedAt);
+}
@@ -0,0 +1,331 @@
+package com.ledgerflow.scheduling;
+
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.metrics.StageTimer;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Extraction Scheduler
+ *
+ * Weighted fair admission of extraction calls across tenants. Each tenant has
+ * its own FIFO queue, and a shared pool of workers drains them by deficit
+ * round-robin with unit cost:
+ * - Backlogged tenants form a ring. The tenant at the head may dispatch up to
+ *   {@code weight} extractions, then moves to the back.
+ * - A tenant already running {@code maxConcurrency} extractions is skipped
+ *   until one finishes, and keeps its unused deficit.
+ * - A tenant with nothing queued leaves the ring. When new work arrives it
+ *   rejoins at the back.
+ * So a tenant dropping thousands of documents gets its share of the workers,
+ * and another tenant's single upload waits for at most one round rather than
+ * for the whole backlog.
+ *
+ * Work an extraction fans out beyond its own worker, such as the page chunks
+ * of PageParallelExtractor, is billed with {@link #charge}. The tenant's
+ * deficit goes negative, and it skips its turns until the rounds have paid the
+ * debt back.
+ *
+ * Callers block in {@link #call} until their work has run. Time spent queued
+ * is recorded as the "queue" stage of the caller's StageTimer and in
+ * ledgerflow.extraction.queue.wait. Queue depth is published as
+ * ledgerflow.extraction.queue.depth. Both are tagged by tenant bucket. A
+ * tenant with max-queued-per-tenant calls already waiting is rejected with
+ * RejectedExecutionException.
+ */
+public class ExtractionScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionScheduler.class);
+    private static final Long UNKNOWN_TENANT = -1L;
+
+    private final Function<Long, TenantShare> shareLookup;
+    private final LedgerFlowMetrics metrics;
+    private final int maxQueuedPerTenant;
+    private final long shareTtlNanos;
+    private final Map<Long, CachedShare> shares = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> queuedByBucket = new ConcurrentHashMap<>();
+    private final List<Thread> workers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    // Guarded by lock
+    private final Map<Long, TenantQueue> queues = new HashMap<>();
+    private final ArrayDeque<TenantQueue> backlogged = new ArrayDeque<>();
+    private boolean running = true;
+
+    public ExtractionScheduler(Function<Long, TenantShare> shareLookup, LedgerFlowMetrics metrics,
+                               int workerCount, int maxQueuedPerTenant, Duration shareTtl,
+                               ThreadFactory threadFactory) {
+        this.shareLookup = shareLookup;
+        this.metrics = metrics;
+        this.maxQueuedPerTenant = maxQueuedPerTenant;
+        this.shareTtlNanos = shareTtl.toNanos();
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queue {@code work} behind {@code tenantId}'s earlier calls and wait for it
+     * to run on a worker.
+     */
+    public <T> T call(Long tenantId, Callable<T> work) throws IOException {
+        Long key = tenantId != null ? tenantId : UNKNOWN_TENANT;
+        TenantShare share = share(key);
+        Tags tenantTags = metrics.tenantTags(tenantId);
+        AtomicInteger bucketDepth = queuedByBucket.computeIfAbsent(metrics.tenantBucket(tenantId),
+                bucket -> metrics.gauge(LedgerFlowMetrics.EXTRACTION_QUEUE_DEPTH, tenantTags,
+                        new AtomicInteger(), AtomicInteger::get));
+
+        long enqueuedNanos = System.nanoTime();
+        Timer.Sample wait = metrics.start();
+        Task<T> task = new Task<>(StageTimer.propagate(() -> {
+            StageTimer.current().record("queue", System.nanoTime() - enqueuedNanos);
+            return work.call();
+        }), wait, tenantTags, bucketDepth);
+
+        lock.lock();
+        try {
+            if (!running) {
+                throw new RejectedExecutionException("Extraction scheduler is shut down");
+            }
+            TenantQueue queue = queues.computeIfAbsent(key, TenantQueue::new);
+            if (queue.tasks.size() >= maxQueuedPerTenant) {
+                throw new RejectedExecutionException("Tenant " + tenantId + " already has "
+                        + queue.tasks.size() + " extractions queued");
+            }
+            queue.weight = share.weight();
+            queue.maxConcurrency = share.maxConcurrency();
+            queue.tasks.addLast(task);
+            bucketDepth.incrementAndGet();
+            if (!queue.backlogged) {
+                queue.backlogged = true;
+                backlogged.addLast(queue);
+            }
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            return task.result.get();
+        } catch (InterruptedException e) {
+            // Not started yet: the worker skips it. Already running: it finishes unobserved.
+            task.result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for extraction");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Extraction failed", cause);
+        }
+    }
+
+    /**
+     * Bill {@code tenantId} for {@code units} extraction calls made outside the
+     * workers, so they count against its share like calls made through {@link #call}.
+     */
+    public void charge(Long tenantId, int units) {
+        if (units <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            queues.computeIfAbsent(tenantId != null ? tenantId : UNKNOWN_TENANT, TenantQueue::new).deficit -= units;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the workers once their current extraction finishes; queued calls
+     * fail with RejectedExecutionException.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            for (TenantQueue queue : queues.values()) {
+                for (Task<?> task : queue.tasks) {
+                    task.depth.decrementAndGet();
+                    task.result.completeExceptionally(new RejectedExecutionException("Extraction scheduler is shut down"));
+                }
+                queue.tasks.clear();
+                queue.backlogged = false;
+            }
+            backlogged.clear();
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task<?> task;
+            lock.lock();
+            try {
+                while ((task = next()) == null) {
+                    if (!running) {
+                        return;
+                    }
+                    workAvailable.await();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.run();
+            } finally {
+                lock.lock();
+                try {
+                    task.queue.running--;
+                    // The freed slot may unblock a capped tenant for another waiting worker
+                    workAvailable.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deficit round-robin over the backlogged tenants; null if every backlogged
+     * tenant is at its concurrency cap. A tenant still in debt from
+     * {@link #charge} gets its weight for the round and waits for the next one;
+     * passes repeat until some tenant can dispatch. Called with the lock held.
+     */
+    private Task<?> next() {
+        boolean indebted = true;
+        while (indebted) {
+            indebted = false;
+            for (int visited = 0, size = backlogged.size(); visited < size; visited++) {
+                TenantQueue queue = backlogged.peekFirst();
+                if (queue.running >= queue.maxConcurrency) {
+                    backlogged.addLast(backlogged.pollFirst());
+                    continue;
+                }
+                if (queue.deficit <= 0) {
+                    queue.deficit += queue.weight;
+                    if (queue.deficit <= 0) {
+                        indebted = true;
+                        backlogged.addLast(backlogged.pollFirst());
+                        continue;
+                    }
+                }
+                return dispatch(queue);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take the next task of the tenant at the head of the ring. Called with the lock held.
+     */
+    private Task<?> dispatch(TenantQueue queue) {
+        Task<?> task = queue.tasks.pollFirst();
+        task.queue = queue;
+        task.depth.decrementAndGet();
+        queue.deficit--;
+        queue.running++;
+        if (queue.tasks.isEmpty()) {
+            backlogged.pollFirst();
+            queue.backlogged = false;
+            // Unused credit lapses, debt from charge() carries over
+            queue.deficit = Math.min(0, queue.deficit);
+        } else if (queue.deficit <= 0) {
+            backlogged.addLast(backlogged.pollFirst());
+        }
+        return task;
+    }
+
+    private TenantShare share(Long tenantId) {
+        long now = System.nanoTime();
+        CachedShare cached = shares.get(tenantId);
+        if (cached == null || now - cached.loadedNanos > shareTtlNanos) {
+            cached = new CachedShare(shareLookup.apply(tenantId), now);
+            shares.put(tenantId, cached);
+        }
+        return cached.share;
+    }
+
+    private record CachedShare(TenantShare share, long loadedNanos) {
+    }
+
+    private static final class TenantQueue {
+        final Long tenantId;
+        final ArrayDeque<Task<?>> tasks = new ArrayDeque<>();
+        int weight = 1;
+        int maxConcurrency = 1;
+        int running;
+        int deficit;
+        boolean backlogged;
+
+        TenantQueue(Long tenantId) {
+            this.tenantId = tenantId;
+        }
+    }
+
+    private final class Task<T> {
+        final Callable<T> work;
+        final Timer.Sample wait;
+        final Tags tenantTags;
+        final AtomicInteger depth;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        TenantQueue queue;
+
+        Task(Callable<T> work, Timer.Sample wait, Tags tenantTags, AtomicInteger depth) {
+            this.work = work;
+            this.wait = wait;
+            this.tenantTags = tenantTags;
+            this.depth = depth;
+        }
+
+        void run() {
+            if (result.isDone()) {
+                return;
+            }
+            metrics.stop(wait, LedgerFlowMetrics.EXTRACTION_QUEUE_WAIT, tenantTags);
+            try {
+                result.complete(work.call());
+            } catch (Throwable t) {
+                if (!(t instanceof Exception)) {
+                    log.error("Extraction for tenant {} failed", queue.tenantId, t);
+                }
+                result.completeExceptionally(t);
+            }
+        }
+    }
+}
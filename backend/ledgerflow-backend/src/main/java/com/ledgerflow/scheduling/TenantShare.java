@@ -0,0 +1,15 @@
+package com.ledgerflow.scheduling;
+
+/**
+ * Tenant Share
+ *
+ * A tenant's scheduling parameters: its weight relative to other backlogged
+ * tenants, and the most of its extractions allowed to run at once.
+ */
+public record TenantShare(int weight, int maxConcurrency) {
+
+    public TenantShare {
+        weight = Math.max(1, weight);
+        maxConcurrency = Math.max(1, maxConcurrency);
+    }
+}
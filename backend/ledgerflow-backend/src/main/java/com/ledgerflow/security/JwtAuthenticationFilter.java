@@ -1,6 +1,11 @@
 package com.ledgerflow.security;
 
+import com.ledgerflow.jfr.JwtVerificationEvent;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
 import com.ledgerflow.util.JwtUtil;
+import com.ledgerflow.util.SecurityUtil;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -32,9 +37,11 @@ import java.util.Collections;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
+    private final LedgerFlowMetrics metrics;
     
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, LedgerFlowMetrics metrics) {
         this.jwtUtil = jwtUtil;
+        this.metrics = metrics;
     }
     
     @Override
@@ -43,9 +50,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) 
             throws ServletException, IOException {
         
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        Timer.Sample sample = metrics.start();
+        String outcome = authenticate(request);
+        metrics.stop(sample, LedgerFlowMetrics.JWT_FILTER, Tags.of("outcome", outcome));
+        event.end();
+        if (event.shouldCommit()) {
+            Long tenantId = SecurityUtil.getCurrentTenantId();
+            event.tenantId = tenantId != null ? tenantId : -1L;
+            event.outcome = outcome;
+            event.commit();
+        }
+        
+        // Continue with the filter chain
+        filterChain.doFilter(request, response);
+    }
+    
+    /**
+     * Validate the request's token and populate the security context.
+     * 
+     * @return "authenticated", "invalid" or "anonymous" (used as a metric tag)
+     */
+    private String authenticate(HttpServletRequest request) {
         String token = getTokenFromRequest(request);
+        if (token == null) {
+            return "anonymous";
+        }
         
-        if (token != null && jwtUtil.validateToken(token)) {
+        if (jwtUtil.validateToken(token)) {
             String username = jwtUtil.extractUsername(token);
             Long userId = jwtUtil.extractUserId(token);
             Long tenantId = jwtUtil.extractTenantId(token);
@@ -66,10 +99,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Set authentication in Spring Security context
             // This makes the user "authenticated" for this request
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            return "authenticated";
         }
         
-        // Continue with the filter chain
-        filterChain.doFilter(request, response);
+        return "invalid";
     }
     
     /**
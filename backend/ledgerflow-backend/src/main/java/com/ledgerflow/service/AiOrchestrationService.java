@@ -2,8 +2,20 @@ package com.ledgerflow.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledgerflow.einvoice.StructuredInvoiceExtractor;
+import com.ledgerflow.extraction.GrpcExtractionClient;
+import com.ledgerflow.extraction.PageChunk;
+import com.ledgerflow.extraction.PageParallelExtractor;
+import com.ledgerflow.jfr.InvoiceExtractionEvent;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.metrics.StageTimer;
+import com.ledgerflow.scheduling.ExtractionScheduler;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
@@ -14,118 +26,150 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class AiOrchestrationService {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final StructuredInvoiceExtractor structuredInvoiceExtractor;
+    private final PageParallelExtractor pageParallelExtractor;
+    private final ExtractionScheduler extractionScheduler;
+    private final GrpcExtractionClient grpcExtractionClient;
+    private final LedgerFlowMetrics metrics;
 
     @Value("${app.ai-orchestration.url:http://localhost:8001}")
     private String aiOrchestrationUrl;
 
-    public AiOrchestrationService() {
-        this.restTemplate = new RestTemplate();
+    // "http" (multipart + JSON) or "grpc" (streamed over one multiplexed channel)
+    @Value("${app.ai-orchestration.transport:http}")
+    private String transport;
+
+    public AiOrchestrationService(RestTemplate extractionRestTemplate,
+                                  StructuredInvoiceExtractor structuredInvoiceExtractor,
+                                  PageParallelExtractor pageParallelExtractor,
+                                  ExtractionScheduler extractionScheduler,
+                                  GrpcExtractionClient grpcExtractionClient,
+                                  LedgerFlowMetrics metrics) {
+        this.restTemplate = extractionRestTemplate;
         this.objectMapper = new ObjectMapper();
+        this.structuredInvoiceExtractor = structuredInvoiceExtractor;
+        this.pageParallelExtractor = pageParallelExtractor;
+        this.extractionScheduler = extractionScheduler;
+        this.grpcExtractionClient = grpcExtractionClient;
+        this.metrics = metrics;
     }
 
     public Map<String, Object> extractInvoice(MultipartFile file, String tenantId) throws IOException {
-        // Create temporary file
-        File tempFile = File.createTempFile("invoice_", ".pdf");
-        try (FileOutputStream fos = new FileOutputStream(tempFile)) {
-            fos.write(file.getBytes());
+        // Structured e-invoices (UBL, CII, Factur-X) are read in-process; only the rest needs the AI round trip
+        Optional<Map<String, Object>> structured;
+        try (StageTimer.Stage ignored = StageTimer.current().start("structured")) {
+            structured = structuredInvoiceExtractor.extract(file, parseTenantId(tenantId));
         }
+        if (structured.isPresent()) {
+            return structured.get();
+        }
+        // AI extraction waits for a worker in the tenant's fair-share queue
+        return extractionScheduler.call(parseTenantId(tenantId),
+                () -> instrumented(tenantId, file.getSize(), () -> doExtractInvoice(file, tenantId)));
+    }
 
+    /**
+     * Extract a document the orchestration service reads from storage itself
+     * (direct uploads), so no bytes pass through this JVM.
+     */
+    public Map<String, Object> extractInvoiceByKey(String storageKey, long payloadBytes, String tenantId)
+            throws IOException {
+        return extractionScheduler.call(parseTenantId(tenantId),
+                () -> instrumented(tenantId, payloadBytes, () -> doExtractInvoiceByKey(storageKey, tenantId)));
+    }
+
+    @FunctionalInterface
+    private interface Extraction {
+        Map<String, Object> run() throws IOException;
+    }
+
+    private Map<String, Object> instrumented(String tenantId, long payloadBytes, Extraction extraction)
+            throws IOException {
+        Long tenant = parseTenantId(tenantId);
+        Tags tenantTags = metrics.tenantTags(tenant);
+        metrics.record(LedgerFlowMetrics.EXTRACTION_PAYLOAD, "bytes", tenantTags, payloadBytes);
+
+        InvoiceExtractionEvent event = new InvoiceExtractionEvent();
+        event.begin();
+        Timer.Sample sample = metrics.start();
+        Map<String, Object> result = null;
+        Throwable failure = null;
         try {
-            // Prepare multipart request
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+            result = extraction.run();
+            return result;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            metrics.stop(sample, LedgerFlowMetrics.EXTRACTION, tenantTags.and(
+                    "outcome", failure == null ? "success" : "error",
+                    "exception", LedgerFlowMetrics.exceptionTag(failure)));
+            event.end();
+            if (event.shouldCommit()) {
+                event.tenantId = tenant != null ? tenant : -1L;
+                event.payloadBytes = payloadBytes;
+                event.lineItemCount = countLineItems(result);
+                event.success = failure == null;
+                event.commit();
+            }
+        }
+    }
 
-            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", new FileSystemResource(tempFile));
-            body.add("tenant_id", tenantId);
+    @SuppressWarnings("unchecked")
+    private static int countLineItems(Map<String, Object> result) {
+        if (result == null || !(result.get("extracted_data") instanceof Map<?, ?> extractedData)) {
+            return 0;
+        }
+        Object lineItems = ((Map<String, Object>) extractedData).get("line_items");
+        return lineItems instanceof List<?> list ? list.size() : 0;
+    }
 
-            HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
-
-            // Call AI orchestration service
-            String url = aiOrchestrationUrl + "/extract-invoice";
-            ResponseEntity<String> response = restTemplate.postForEntity(url, requestEntity, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                // Parse JSON response - keep dates as strings to avoid auto-parsing issues
-                JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                Map<String, Object> result = new HashMap<>();
-
-                // Extract data - manually extract to keep dates as strings
-                if (jsonNode.has("extracted_data")) {
-                    JsonNode extractedDataNode = jsonNode.get("extracted_data");
-                    Map<String, Object> extractedDataMap = new HashMap<>();
-
-                    // Manually extract each field to keep dates as strings
-                    if (extractedDataNode.has("invoice_number")) {
-                        extractedDataMap.put("invoice_number", extractedDataNode.get("invoice_number").asText());
-                    }
-                    if (extractedDataNode.has("vendor_name")) {
-                        extractedDataMap.put("vendor_name", extractedDataNode.get("vendor_name").asText());
-                    }
-                    if (extractedDataNode.has("invoice_date")) {
-                        extractedDataMap.put("invoice_date", extractedDataNode.get("invoice_date").asText());
-                    }
-                    if (extractedDataNode.has("due_date") && !extractedDataNode.get("due_date").isNull()) {
-                        extractedDataMap.put("due_date", extractedDataNode.get("due_date").asText());
-                    }
-                    if (extractedDataNode.has("total_amount")) {
-                        extractedDataMap.put("total_amount", extractedDataNode.get("total_amount").asDouble());
-                    }
-                    if (extractedDataNode.has("currency")) {
-                        extractedDataMap.put("currency", extractedDataNode.get("currency").asText());
-                    }
-                    if (extractedDataNode.has("tax_amount") && !extractedDataNode.get("tax_amount").isNull()) {
-                        extractedDataMap.put("tax_amount", extractedDataNode.get("tax_amount").asDouble());
-                    }
-                    if (extractedDataNode.has("shipping_amount") && !extractedDataNode.get("shipping_amount").isNull()) {
-                        extractedDataMap.put("shipping_amount", extractedDataNode.get("shipping_amount").asDouble());
-                    }
-                    if (extractedDataNode.has("payment_terms") && !extractedDataNode.get("payment_terms").isNull()) {
-                        extractedDataMap.put("payment_terms", extractedDataNode.get("payment_terms").asText());
-                    }
-                    if (extractedDataNode.has("line_items")) {
-                        List<Map<String, Object>> lineItems = new ArrayList<>();
-                        for (JsonNode itemNode : extractedDataNode.get("line_items")) {
-                            Map<String, Object> item = new HashMap<>();
-                            item.put("description", itemNode.get("description").asText());
-                            item.put("quantity", itemNode.get("quantity").asDouble());
-                            item.put("unit_price", itemNode.get("unit_price").asDouble());
-                            item.put("amount", itemNode.get("amount").asDouble());
-                            lineItems.add(item);
-                        }
-                        extractedDataMap.put("line_items", lineItems);
-                    }
-
-                    result.put("extracted_data", extractedDataMap);
-                }
-                if (jsonNode.has("confidence_score")) {
-                    result.put("confidence_score", jsonNode.get("confidence_score").asDouble());
-                }
-                if (jsonNode.has("s3_key") && !jsonNode.get("s3_key").isNull()) {
-                    result.put("s3_key", jsonNode.get("s3_key").asText());
-                }
-                if (jsonNode.has("s3_url") && !jsonNode.get("s3_url").isNull()) {
-                    result.put("s3_url", jsonNode.get("s3_url").asText());
-                }
-                if (jsonNode.has("filename")) {
-                    result.put("filename", jsonNode.get("filename").asText());
-                }
+    private static Long parseTenantId(String tenantId) {
+        try {
+            return tenantId != null ? Long.valueOf(tenantId) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
-                return result;
+    private Map<String, Object> doExtractInvoice(MultipartFile file, String tenantId) throws IOException {
+        StageTimer timer = StageTimer.current();
 
-            } else {
-                throw new RuntimeException("AI orchestration service returned error: " + response.getStatusCode());
+        // Create temporary file
+        File tempFile;
+        try (StageTimer.Stage ignored = timer.start("tempfile")) {
+            tempFile = File.createTempFile("invoice_", ".pdf");
+            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+                fos.write(file.getBytes());
+            }
+        }
+
+        try {
+            // Long PDFs are extracted in page ranges concurrently; the rest in one call
+            Optional<Map<String, Object>> paged;
+            try (StageTimer.Stage ignored = timer.start("extract")) {
+                paged = pageParallelExtractor.extract(tempFile, file.getOriginalFilename(), parseTenantId(tenantId),
+                        chunk -> postDocument(chunkResource(chunk), tenantId, false));
             }
+            if (paged.isPresent()) {
+                // Page ranges are not stored, so the original is, once, after they all succeeded
+                Map<String, Object> merged = paged.get();
+                merged.putAll(storeDocument(namedResource(tempFile, file.getOriginalFilename()), tenantId));
+                return merged;
+            }
+            return postDocument(new FileSystemResource(tempFile), tenantId, true);
         } finally {
             // Clean up temp file
             if (tempFile.exists()) {
@@ -133,4 +177,203 @@ public class AiOrchestrationService {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @param store false for page ranges, so the orchestration service does not keep them
+     */
+    private Map<String, Object> postDocument(Resource document, String tenantId, boolean store) throws IOException {
+        StageTimer timer = StageTimer.current();
+
+        if ("grpc".equals(transport)) {
+            try (StageTimer.Stage ignored = timer.start("extract");
+                 InputStream in = document.getInputStream()) {
+                return grpcExtractionClient.extract(in, document.contentLength(), document.getFilename(),
+                        MediaType.APPLICATION_PDF_VALUE, tenantId, store);
+            }
+        }
+
+        // Prepare multipart request
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", document);
+        body.add("tenant_id", tenantId);
+        body.add("store", Boolean.toString(store));
+
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        // Call AI orchestration service
+        String url = aiOrchestrationUrl + "/extract-invoice";
+        ResponseEntity<String> response;
+        try (StageTimer.Stage ignored = timer.start("extract")) {
+            response = restTemplate.postForEntity(url, requestEntity, String.class);
+        }
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+            try (StageTimer.Stage ignored = timer.start("parse")) {
+                return parseExtractionResponse(response.getBody());
+            }
+        } else {
+            throw new RuntimeException("AI orchestration service returned error: " + response.getStatusCode());
+        }
+    }
+
+    /**
+     * Store a document without extracting it.
+     *
+     * @return s3_key and s3_url, or empty if the orchestration service could not store it
+     */
+    private Map<String, Object> storeDocument(Resource document, String tenantId) throws IOException {
+        try (StageTimer.Stage ignored = StageTimer.current().start("store")) {
+            if ("grpc".equals(transport)) {
+                try (InputStream in = document.getInputStream()) {
+                    return grpcExtractionClient.store(in, document.contentLength(), document.getFilename(),
+                            MediaType.APPLICATION_PDF_VALUE, tenantId);
+                }
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+            body.add("file", document);
+            body.add("tenant_id", tenantId);
+
+            ResponseEntity<String> response = restTemplate.postForEntity(aiOrchestrationUrl + "/store-document",
+                    new HttpEntity<>(body, headers), String.class);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new RuntimeException("AI orchestration service returned error: " + response.getStatusCode());
+            }
+            JsonNode stored = objectMapper.readTree(response.getBody());
+            Map<String, Object> result = new HashMap<>();
+            if (stored.hasNonNull("s3_key")) {
+                result.put("s3_key", stored.get("s3_key").asText());
+            }
+            if (stored.hasNonNull("s3_url")) {
+                result.put("s3_url", stored.get("s3_url").asText());
+            }
+            return result;
+        }
+    }
+
+    private static Resource namedResource(File file, String filename) {
+        // Keep the uploaded name (and its extension) rather than the temp file's
+        return new FileSystemResource(file) {
+            @Override
+            public String getFilename() {
+                return filename != null ? filename : file.getName();
+            }
+        };
+    }
+
+    private static Resource chunkResource(PageChunk chunk) {
+        // The multipart part needs a filename, which ByteArrayResource does not have
+        return new ByteArrayResource(chunk.pdf()) {
+            @Override
+            public String getFilename() {
+                return chunk.filename();
+            }
+        };
+    }
+
+    private Map<String, Object> doExtractInvoiceByKey(String storageKey, String tenantId) throws IOException {
+        StageTimer timer = StageTimer.current();
+
+        if ("grpc".equals(transport)) {
+            try (StageTimer.Stage ignored = timer.start("extract")) {
+                return grpcExtractionClient.extractByKey(storageKey, tenantId);
+            }
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Map<String, String> body = Map.of("storage_key", storageKey, "tenant_id", tenantId);
+
+        String url = aiOrchestrationUrl + "/extract-invoice-by-key";
+        ResponseEntity<String> response;
+        try (StageTimer.Stage ignored = timer.start("extract")) {
+            response = restTemplate.postForEntity(url, new HttpEntity<>(body, headers), String.class);
+        }
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+            try (StageTimer.Stage ignored = timer.start("parse")) {
+                return parseExtractionResponse(response.getBody());
+            }
+        } else {
+            throw new RuntimeException("AI orchestration service returned error: " + response.getStatusCode());
+        }
+    }
+
+    /**
+     * Map the orchestration service's JSON response into the extraction result map
+     * consumed by InvoiceService.createInvoiceFromExtraction.
+     */
+    public Map<String, Object> parseExtractionResponse(String responseBody) throws IOException {
+        // Parse JSON response - keep dates as strings to avoid auto-parsing issues
+        JsonNode jsonNode = objectMapper.readTree(responseBody);
+        Map<String, Object> result = new HashMap<>();
+
+        // Extract data - manually extract to keep dates as strings
+        if (jsonNode.has("extracted_data")) {
+            JsonNode extractedDataNode = jsonNode.get("extracted_data");
+            Map<String, Object> extractedDataMap = new HashMap<>();
+
+            // Manually extract each field to keep dates as strings
+            if (extractedDataNode.has("invoice_number")) {
+                extractedDataMap.put("invoice_number", extractedDataNode.get("invoice_number").asText());
+            }
+            if (extractedDataNode.has("vendor_name")) {
+                extractedDataMap.put("vendor_name", extractedDataNode.get("vendor_name").asText());
+            }
+            if (extractedDataNode.has("invoice_date")) {
+                extractedDataMap.put("invoice_date", extractedDataNode.get("invoice_date").asText());
+            }
+            if (extractedDataNode.has("due_date") && !extractedDataNode.get("due_date").isNull()) {
+                extractedDataMap.put("due_date", extractedDataNode.get("due_date").asText());
+            }
+            if (extractedDataNode.has("total_amount")) {
+                extractedDataMap.put("total_amount", extractedDataNode.get("total_amount").asDouble());
+            }
+            if (extractedDataNode.has("currency")) {
+                extractedDataMap.put("currency", extractedDataNode.get("currency").asText());
+            }
+            if (extractedDataNode.has("tax_amount") && !extractedDataNode.get("tax_amount").isNull()) {
+                extractedDataMap.put("tax_amount", extractedDataNode.get("tax_amount").asDouble());
+            }
+            if (extractedDataNode.has("shipping_amount") && !extractedDataNode.get("shipping_amount").isNull()) {
+                extractedDataMap.put("shipping_amount", extractedDataNode.get("shipping_amount").asDouble());
+            }
+            if (extractedDataNode.has("payment_terms") && !extractedDataNode.get("payment_terms").isNull()) {
+                extractedDataMap.put("payment_terms", extractedDataNode.get("payment_terms").asText());
+            }
+            if (extractedDataNode.has("line_items")) {
+                List<Map<String, Object>> lineItems = new ArrayList<>();
+                for (JsonNode itemNode : extractedDataNode.get("line_items")) {
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("description", itemNode.get("description").asText());
+                    item.put("quantity", itemNode.get("quantity").asDouble());
+                    item.put("unit_price", itemNode.get("unit_price").asDouble());
+                    item.put("amount", itemNode.get("amount").asDouble());
+                    lineItems.add(item);
+                }
+                extractedDataMap.put("line_items", lineItems);
+            }
+
+            result.put("extracted_data", extractedDataMap);
+        }
+        if (jsonNode.has("confidence_score")) {
+            result.put("confidence_score", jsonNode.get("confidence_score").asDouble());
+        }
+        if (jsonNode.has("s3_key") && !jsonNode.get("s3_key").isNull()) {
+            result.put("s3_key", jsonNode.get("s3_key").asText());
+        }
+        if (jsonNode.has("s3_url") && !jsonNode.get("s3_url").isNull()) {
+            result.put("s3_url", jsonNode.get("s3_url").asText());
+        }
+        if (jsonNode.has("filename")) {
+            result.put("filename", jsonNode.get("filename").asText());
+        }
+
+        return result;
+    }
+}
@@ -5,9 +5,14 @@ import com.ledgerflow.dto.LoginRequest;
 import com.ledgerflow.dto.RegisterRequest;
 import com.ledgerflow.entity.Tenant;
 import com.ledgerflow.entity.User;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
 import com.ledgerflow.repository.TenantRepository;
 import com.ledgerflow.repository.UserRepository;
+import com.ledgerflow.sharding.ShardContext;
+import com.ledgerflow.sharding.Shards;
 import com.ledgerflow.util.JwtUtil;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,36 +22,51 @@ import org.springframework.transaction.annotation.Transactional;
  * 
  * Handles user registration, login, and JWT token generation.
  * Uses BCrypt for password hashing (similar to .NET's IPasswordHasher<T>)
+ *
+ * With sharding on, new tenants and their first user are created on the
+ * primary shard; usernames and e-mails are unique across all shards, and
+ * login looks the user up on every shard since there is no JWT yet.
  */
 @Service
 public class AuthService {
+    private static final String USERNAME_EXISTS = "SELECT 1 FROM users WHERE username = ?";
+    private static final String EMAIL_EXISTS = "SELECT 1 FROM users WHERE email = ?";
+
     private final UserRepository userRepository;
     private final TenantRepository tenantRepository;
     private final TenantService tenantService;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final LedgerFlowMetrics metrics;
+    private final Shards shards;
 
     public AuthService(UserRepository userRepository,
                        TenantRepository tenantRepository,
                        TenantService tenantService,
                        PasswordEncoder passwordEncoder,
-                       JwtUtil jwtUtil) {
+                       JwtUtil jwtUtil,
+                       LedgerFlowMetrics metrics,
+                       Shards shards) {
         this.userRepository = userRepository;
         this.tenantRepository = tenantRepository;
         this.tenantService = tenantService;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.metrics = metrics;
+        this.shards = shards;
     }
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         // Check if username already exists
-        if (userRepository.existsByUsername(request.getUsername())) {
+        if (userRepository.existsByUsername(request.getUsername())
+                || !Shards.PRIMARY.equals(shards.locate(USERNAME_EXISTS, request.getUsername()))) {
             throw new RuntimeException("Username already exists");
         }
 
         // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (userRepository.existsByEmail(request.getEmail())
+                || !Shards.PRIMARY.equals(shards.locate(EMAIL_EXISTS, request.getEmail()))) {
             throw new RuntimeException("Email already exists");
         }
 
@@ -82,6 +102,20 @@ public class AuthService {
     }
 
     public AuthResponse login(LoginRequest request) {
+        Timer.Sample sample = metrics.start();
+        String outcome = "failure";
+        try {
+            // Before anything touches the database: the request's EntityManager keeps the first shard it uses
+            String shard = shards.locate(USERNAME_EXISTS, request.getUsername());
+            AuthResponse response = ShardContext.callOn(shard, () -> doLogin(request));
+            outcome = "success";
+            return response;
+        } finally {
+            metrics.stop(sample, LedgerFlowMetrics.AUTH_LOGIN, Tags.of("outcome", outcome));
+        }
+    }
+
+    private AuthResponse doLogin(LoginRequest request) {
         // Find user by username
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("Invalid username or password"));
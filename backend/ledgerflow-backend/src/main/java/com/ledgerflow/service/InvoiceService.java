@@ -1,28 +1,59 @@
 package com.ledgerflow.service;
 
+import com.ledgerflow.archive.ArchivedInvoices;
+import com.ledgerflow.dto.InvoiceEvent;
 import com.ledgerflow.entity.Invoice;
 import com.ledgerflow.entity.InvoiceLineItem;
 import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.entity.InvoiceStatusHistory;
 import com.ledgerflow.entity.Tenant;
+import com.ledgerflow.exception.ResourceNotFoundException;
+import com.ledgerflow.jfr.InvoicePersistEvent;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.metrics.StageTimer;
+import com.ledgerflow.outbox.InvoiceChange;
+import com.ledgerflow.outbox.OutboxWriter;
 import com.ledgerflow.repository.InvoiceRepository;
+import com.ledgerflow.repository.InvoiceStatusHistoryRepository;
 import com.ledgerflow.repository.TenantRepository;
+import com.ledgerflow.storage.StoredDocument;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final TenantRepository tenantRepository;
+    private final InvoiceStatusHistoryRepository statusHistoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final ArchivedInvoices archivedInvoices;
+    private final LedgerFlowMetrics metrics;
 
-    public InvoiceService(InvoiceRepository invoiceRepository, TenantRepository tenantRepository) {
+    public InvoiceService(InvoiceRepository invoiceRepository, TenantRepository tenantRepository,
+                          InvoiceStatusHistoryRepository statusHistoryRepository,
+                          ApplicationEventPublisher eventPublisher, OutboxWriter outboxWriter,
+                          ArchivedInvoices archivedInvoices, LedgerFlowMetrics metrics) {
         this.invoiceRepository = invoiceRepository;
         this.tenantRepository = tenantRepository;
+        this.statusHistoryRepository = statusHistoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.outboxWriter = outboxWriter;
+        this.archivedInvoices = archivedInvoices;
+        this.metrics = metrics;
     }
 
     @Transactional
@@ -61,34 +92,140 @@ public class InvoiceService {
             invoice.setLineItems(new ArrayList<>());
         }
 
-        return invoiceRepository.save(invoice);
+        Invoice saved = persist(invoice, tenantId, "create");
+        outboxWriter.append(InvoiceChange.CREATED, saved, null);
+        eventPublisher.publishEvent(InvoiceEvent.of(InvoiceEvent.Type.CREATED, saved, null));
+        return saved;
+    }
+
+    /**
+     * ETag of the tenant's invoice list, read without loading any invoice.
+     *
+     * Validators are exact but marked weak: Tomcat will not gzip a response carrying a strong
+     * ETag, since the compressed body is a different representation.
+     */
+    public String getInvoiceListETag(Long tenantId) {
+        long version = tenantRepository.findInvoiceListVersion(tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tenant not found"));
+        return "W/\"invoices-" + tenantId + "-" + version + "\"";
+    }
+
+    /**
+     * ETag of one invoice, read without loading the invoice (unless it is archived).
+     */
+    public String getInvoiceETag(Long id, Long tenantId) {
+        LocalDateTime updatedAt = invoiceRepository.findUpdatedAt(id, tenantId)
+                .or(() -> archivedInvoices.find(id, tenantId).map(Invoice::getUpdatedAt))
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
+        return invoiceETag(id, updatedAt);
+    }
+
+    public static String eTagOf(Invoice invoice) {
+        return invoiceETag(invoice.getId(), invoice.getUpdatedAt());
+    }
+
+    private static String invoiceETag(Long id, LocalDateTime updatedAt) {
+        // Microseconds, the precision the database keeps; Invoice truncates updatedAt to it
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + updatedAt.getNano() / 1_000;
+        return "W/\"invoice-" + id + "-" + Long.toString(micros, 36) + "\"";
     }
 
     public List<Invoice> getInvoicesByTenant(Long tenantId) {
         return invoiceRepository.findByTenantId(tenantId);
     }
 
+    /**
+     * The tenant's invoice; closed invoices of archived months come back
+     * read-only (flagged {@code archived}) from ArchivedInvoices.
+     */
     public Invoice getInvoiceById(Long id, Long tenantId) {
-        Invoice invoice = invoiceRepository.findById(id)
+        return findLiveInvoice(id, tenantId)
+                .or(() -> archivedInvoices.find(id, tenantId))
                 .orElseThrow(() -> new RuntimeException("Invoice not found"));
+    }
 
+    private Optional<Invoice> findLiveInvoice(Long id, Long tenantId) {
         // Multi-tenant check
-        if (!invoice.getTenant().getId().equals(tenantId)) {
-            throw new RuntimeException("Invoice not found");
-        }
+        return invoiceRepository.findById(id)
+                .filter(invoice -> invoice.getTenant().getId().equals(tenantId));
+    }
 
-        return invoice;
+    /**
+     * Status timeline of an invoice, oldest first. Entries are written by
+     * StatusHistoryWriter after commit, so the latest change can take up to
+     * app.audit.flush-interval-ms to appear.
+     */
+    public List<InvoiceStatusHistory> getStatusHistory(Long id, Long tenantId) {
+        if (invoiceRepository.findUpdatedAt(id, tenantId).isEmpty()
+                && archivedInvoices.find(id, tenantId).isEmpty()) {
+            throw new ResourceNotFoundException("Invoice not found");
+        }
+        return statusHistoryRepository.findByInvoiceIdAndTenantIdOrderByChangedAtAscIdAsc(id, tenantId);
     }
 
     @Transactional
     public Invoice updateInvoiceStatus(Long id, Long tenantId, InvoiceStatus status) {
-        Invoice invoice = getInvoiceById(id, tenantId);
+        // Archived invoices are read-only
+        Invoice invoice = findLiveInvoice(id, tenantId)
+                .orElseThrow(() -> new RuntimeException("Invoice not found"));
+        InvoiceStatus previousStatus = invoice.getStatus();
         invoice.setStatus(status);
-        return invoiceRepository.save(invoice);
+        Invoice saved = persist(invoice, tenantId, "update_status");
+        outboxWriter.append(InvoiceChange.STATUS_CHANGED, saved, previousStatus);
+        eventPublisher.publishEvent(InvoiceEvent.of(InvoiceEvent.Type.STATUS_CHANGED, saved, previousStatus));
+        return saved;
+    }
+
+    /**
+     * Mark a tenant's open (EXTRACTED or APPROVED) invoices PAID in one
+     * transaction, as applied from bank reconciliation. Ids that are missing,
+     * belong to another tenant or are no longer open are skipped. The list
+     * version moves once for the whole set, outbox events get consecutive
+     * sequences, and each invoice publishes its STATUS_CHANGED event.
+     *
+     * @return ids of the invoices that were marked PAID
+     */
+    @Transactional
+    public List<Long> markPaid(Long tenantId, Collection<Long> invoiceIds) {
+        if (invoiceIds.isEmpty()) {
+            return List.of();
+        }
+        Tags tags = metrics.tenantTags(tenantId).and("operation", "mark_paid");
+        Timer.Sample sample = metrics.start();
+        List<Invoice> invoices = invoiceRepository.findByIdInAndTenantIdAndStatusIn(invoiceIds, tenantId,
+                List.of(InvoiceStatus.EXTRACTED, InvoiceStatus.APPROVED));
+        if (invoices.isEmpty()) {
+            return List.of();
+        }
+        List<InvoiceStatus> previousStatuses = new ArrayList<>(invoices.size());
+        List<Long> paid = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            previousStatuses.add(invoice.getStatus());
+            invoice.setStatus(InvoiceStatus.PAID);
+            paid.add(invoice.getId());
+        }
+        try (StageTimer.Stage ignored = StageTimer.current().start("persist")) {
+            invoiceRepository.saveAllAndFlush(invoices);
+            tenantRepository.addToInvoiceListVersion(tenantId, invoices.size());
+        } finally {
+            metrics.stop(sample, LedgerFlowMetrics.INVOICE_PERSIST, tags);
+        }
+        outboxWriter.appendAll(InvoiceChange.STATUS_CHANGED, invoices, previousStatuses);
+        for (int i = 0; i < invoices.size(); i++) {
+            eventPublisher.publishEvent(InvoiceEvent.of(InvoiceEvent.Type.STATUS_CHANGED, invoices.get(i),
+                    previousStatuses.get(i)));
+        }
+        return paid;
     }
 
     @Transactional
     public Invoice createInvoiceFromExtraction(Long tenantId, Map<String, Object> extractionResult) {
+        return createInvoiceFromExtraction(tenantId, extractionResult, null);
+    }
+
+    @Transactional
+    public Invoice createInvoiceFromExtraction(Long tenantId, Map<String, Object> extractionResult,
+                                               StoredDocument document) {
         @SuppressWarnings("unchecked")
         Map<String, Object> extractedData = (Map<String, Object>) extractionResult.get("extracted_data");
 
@@ -145,6 +282,11 @@ public class InvoiceService {
         invoice.setS3Key(s3Key);
         invoice.setS3Url(s3Url);
         invoice.setConfidenceScore(confidenceScore);
+        if (document != null) {
+            invoice.setDocumentSha256(document.sha256());
+            invoice.setDocumentSize(document.size());
+            invoice.setDocumentContentType(document.contentType());
+        }
         invoice.setStatus(InvoiceStatus.EXTRACTED);
         invoice.setTenant(tenantRepository.findById(tenantId)
                 .orElseThrow(() -> new RuntimeException("Tenant not found")));
@@ -155,10 +297,46 @@ public class InvoiceService {
         }
         invoice.setLineItems(lineItems);
 
-        return invoiceRepository.save(invoice);
+        Invoice saved = persist(invoice, tenantId, "create_from_extraction");
+        outboxWriter.append(InvoiceChange.CREATED, saved, null);
+        eventPublisher.publishEvent(InvoiceEvent.of(InvoiceEvent.Type.EXTRACTION_FINISHED, saved, null));
+        return saved;
+    }
+
+    /**
+     * Save the invoice and record DB time and line-item count for the operation.
+     * Flushes so the timer covers the actual INSERT/UPDATE statements rather than
+     * deferring them to commit.
+     */
+    private Invoice persist(Invoice invoice, Long tenantId, String operation) {
+        Tags tags = metrics.tenantTags(tenantId).and("operation", operation);
+        int lineItemCount = invoice.getLineItems() != null ? invoice.getLineItems().size() : 0;
+        InvoicePersistEvent event = new InvoicePersistEvent();
+        event.begin();
+        Timer.Sample sample = metrics.start();
+        try (StageTimer.Stage ignored = StageTimer.current().start("persist")) {
+            Invoice saved = invoiceRepository.saveAndFlush(invoice);
+            // Same transaction as the write, so list ETags stay exact across nodes
+            tenantRepository.incrementInvoiceListVersion(tenantId);
+            return saved;
+        } finally {
+            metrics.stop(sample, LedgerFlowMetrics.INVOICE_PERSIST, tags);
+            if (!"update_status".equals(operation)) {
+                metrics.record(LedgerFlowMetrics.INVOICE_LINE_ITEMS, "items", tags, lineItemCount);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.tenantId = tenantId != null ? tenantId : -1L;
+                event.invoiceId = invoice.getId() != null ? invoice.getId() : -1L;
+                event.operation = operation;
+                event.lineItemCount = lineItemCount;
+                event.commit();
+            }
+        }
     }
 
-   private LocalDate parseDate(Object dateObj) {
+    // Package-private and static so the JMH benchmarks can call them directly
+    static LocalDate parseDate(Object dateObj) {
     if (dateObj == null) return null;
     
     if (dateObj instanceof String) {
@@ -183,7 +361,7 @@ public class InvoiceService {
         throw new RuntimeException("Cannot parse date: " + dateObj);
     }
 
-    private BigDecimal parseBigDecimal(Object amountObj) {
+    static BigDecimal parseBigDecimal(Object amountObj) {
         if (amountObj == null) return BigDecimal.ZERO;
         if (amountObj instanceof Number) {
             return BigDecimal.valueOf(((Number) amountObj).doubleValue());
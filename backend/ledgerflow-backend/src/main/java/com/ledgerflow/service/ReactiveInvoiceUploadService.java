@@ -0,0 +1,159 @@
+package com.ledgerflow.service;
+
+import com.ledgerflow.einvoice.StructuredInvoiceExtractor;
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.sharding.ShardContext;
+import com.ledgerflow.storage.DocumentStorage;
+import com.ledgerflow.storage.StoredDocument;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reactive Invoice Upload Service
+ *
+ * Non-blocking counterpart of the InvoiceController upload flow. The uploaded
+ * part is streamed to the orchestration service in 64 KB chunks, without copying
+ * it into a byte array or temp file first. The extraction call runs on the
+ * WebClient event loop, so an in-flight extraction holds no thread while it
+ * waits. Only persistence blocks, and it runs on a bounded scheduler sized like
+ * the JDBC pool.
+ *
+ * Admission is bounded at both ends:
+ * - max-in-flight caps concurrent extractions.
+ * - persist-queue-size caps invoices waiting for a persist thread.
+ * Uploads beyond either limit fail with RejectedExecutionException, which the
+ * controller turns into 503. They are rejected rather than queued, so callers
+ * can back off.
+ */
+@Service
+public class ReactiveInvoiceUploadService {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final WebClient extractionWebClient;
+    private final AiOrchestrationService aiOrchestrationService;
+    private final StructuredInvoiceExtractor structuredInvoiceExtractor;
+    private final InvoiceService invoiceService;
+    private final DocumentStorage documentStorage;
+    private final LedgerFlowMetrics metrics;
+    private final Semaphore inFlight;
+    private final Scheduler persistScheduler;
+
+    public ReactiveInvoiceUploadService(WebClient extractionWebClient,
+                                        AiOrchestrationService aiOrchestrationService,
+                                        StructuredInvoiceExtractor structuredInvoiceExtractor,
+                                        InvoiceService invoiceService,
+                                        DocumentStorage documentStorage,
+                                        LedgerFlowMetrics metrics,
+                                        @Value("${app.reactive-upload.max-in-flight:5000}") int maxInFlight,
+                                        @Value("${app.reactive-upload.persist-threads:10}") int persistThreads,
+                                        @Value("${app.reactive-upload.persist-queue-size:1000}") int persistQueueSize) {
+        this.extractionWebClient = extractionWebClient;
+        this.aiOrchestrationService = aiOrchestrationService;
+        this.structuredInvoiceExtractor = structuredInvoiceExtractor;
+        this.invoiceService = invoiceService;
+        this.documentStorage = documentStorage;
+        this.metrics = metrics;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.persistScheduler = Schedulers.newBoundedElastic(persistThreads, persistQueueSize, "invoice-persist");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persistScheduler.dispose();
+    }
+
+    public Mono<Invoice> uploadInvoice(MultipartFile file, Long tenantId) {
+        // Storing the original is blocking file I/O; it overlaps with the extraction call
+        Mono<StoredDocument> document = Mono.fromCallable(
+                        () -> documentStorage.store(file.getInputStream(), file.getContentType()))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        // Persistence runs on another thread; take the request's database shard along
+        String shard = ShardContext.current();
+        return Mono.zip(extractInvoice(file, tenantId), document)
+                .publishOn(persistScheduler)
+                .map(result -> ShardContext.callOn(shard, () -> invoiceService.createInvoiceFromExtraction(
+                        tenantId, result.getT1(), result.getT2())));
+    }
+
+    Mono<Map<String, Object>> extractInvoice(MultipartFile file, Long tenantId) {
+        // Structured e-invoices are parsed in-process (blocking read, off the event loop)
+        return Mono.fromCallable(() -> structuredInvoiceExtractor.extract(file, tenantId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(structured -> structured.map(Mono::just).orElseGet(() -> extractWithAi(file, tenantId)));
+    }
+
+    private Mono<Map<String, Object>> extractWithAi(MultipartFile file, Long tenantId) {
+        return Mono.defer(() -> {
+            if (!inFlight.tryAcquire()) {
+                return Mono.error(new RejectedExecutionException("Too many extractions in flight"));
+            }
+            Tags tenantTags = metrics.tenantTags(tenantId);
+            metrics.record(LedgerFlowMetrics.EXTRACTION_PAYLOAD, "bytes", tenantTags, file.getSize());
+            Timer.Sample sample = metrics.start();
+
+            return extractionWebClient.post()
+                    .uri("/extract-invoice")
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(BodyInserters.fromMultipartData(multipartBody(file, tenantId)))
+                    .retrieve()
+                    .onStatus(HttpStatusCode::isError, response -> Mono.error(new RuntimeException(
+                            "AI orchestration service returned error: " + response.statusCode())))
+                    .bodyToMono(String.class)
+                    .map(this::parseExtractionResponse)
+                    .doOnSuccess(result -> metrics.stop(sample, LedgerFlowMetrics.EXTRACTION,
+                            tenantTags.and("outcome", "success", "exception", "none")))
+                    .doOnError(e -> metrics.stop(sample, LedgerFlowMetrics.EXTRACTION,
+                            tenantTags.and("outcome", "error", "exception", LedgerFlowMetrics.exceptionTag(e))))
+                    .doFinally(signal -> inFlight.release());
+        });
+    }
+
+    private static MultiValueMap<String, HttpEntity<?>> multipartBody(MultipartFile file, Long tenantId) {
+        // Reading the spooled part is blocking file I/O, so it stays off the event loop
+        Flux<DataBuffer> content = DataBufferUtils.readInputStream(file::getInputStream,
+                        DefaultDataBufferFactory.sharedInstance, CHUNK_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.asyncPart("file", content, DataBuffer.class)
+                .filename(file.getOriginalFilename() != null ? file.getOriginalFilename() : "invoice.pdf")
+                .contentType(MediaType.APPLICATION_PDF);
+        body.part("tenant_id", tenantId.toString());
+        return body.build();
+    }
+
+    private Map<String, Object> parseExtractionResponse(String responseBody) {
+        try {
+            return aiOrchestrationService.parseExtractionResponse(responseBody);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
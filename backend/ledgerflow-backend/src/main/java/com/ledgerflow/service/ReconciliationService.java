@@ -0,0 +1,369 @@
+package com.ledgerflow.service;
+
+import com.ledgerflow.entity.InvoiceStatus;
+import com.ledgerflow.entity.ReconciliationProposal;
+import com.ledgerflow.entity.ReconciliationRun;
+import com.ledgerflow.exception.ResourceNotFoundException;
+import com.ledgerflow.exception.ValidationException;
+import com.ledgerflow.metrics.LedgerFlowMetrics;
+import com.ledgerflow.reconciliation.BankTransaction;
+import com.ledgerflow.reconciliation.Camt053StatementReader;
+import com.ledgerflow.reconciliation.CsvStatementReader;
+import com.ledgerflow.reconciliation.OpenInvoice;
+import com.ledgerflow.reconciliation.ProposalStatus;
+import com.ledgerflow.reconciliation.ReconciliationEngine;
+import com.ledgerflow.reconciliation.ReconciliationMatch;
+import com.ledgerflow.reconciliation.RunStatus;
+import com.ledgerflow.reconciliation.StatementFormat;
+import com.ledgerflow.reconciliation.StatementReadResult;
+import com.ledgerflow.repository.InvoiceRepository;
+import com.ledgerflow.repository.ReconciliationProposalRepository;
+import com.ledgerflow.repository.ReconciliationRunRepository;
+import com.ledgerflow.repository.TenantRepository;
+import com.ledgerflow.util.SecurityUtil;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciliation Service
+ *
+ * Bank statement import and the proposal workflow around ReconciliationEngine:
+ * - import: the statement body is streamed through the CSV or CAMT.053 reader
+ *   straight into the engine, which matches against one snapshot of the
+ *   tenant's open (EXTRACTED/APPROVED) invoices; every outcome, matched or
+ *   not, is written to reconciliation_proposals in JDBC batches of
+ *   {@code batch-size}, one transaction per batch
+ * - review: proposals are paged by id, confirmed or rejected by id or in
+ *   bulk by minimum score
+ * - apply: confirmed proposals are applied in chunks of
+ *   {@code apply-chunk-size}; per chunk one transaction marks the invoices
+ *   PAID (InvoiceService.markPaid) and records each proposal as APPLIED, or
+ *   STALE if its invoice was no longer open
+ * A failed apply can be repeated; applied proposals are not picked up again.
+ */
+@Service
+public class ReconciliationService {
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    private static final List<InvoiceStatus> OPEN_STATUSES = List.of(InvoiceStatus.EXTRACTED, InvoiceStatus.APPROVED);
+
+    private static final String INSERT = "INSERT INTO reconciliation_proposals"
+            + " (run_id, tenant_id, invoice_id, invoice_number, transaction_ref, booking_date, amount, currency,"
+            + " counterparty, reference, match_type, score, status)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final InvoiceRepository invoiceRepository;
+    private final TenantRepository tenantRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationProposalRepository proposalRepository;
+    private final InvoiceService invoiceService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerFlowMetrics metrics;
+    private final ReconciliationEngine engine;
+    private final String defaultCurrency;
+    private final int batchSize;
+    private final int applyChunkSize;
+    private final int maxPageSize;
+
+    public ReconciliationService(InvoiceRepository invoiceRepository, TenantRepository tenantRepository,
+                                 ReconciliationRunRepository runRepository,
+                                 ReconciliationProposalRepository proposalRepository,
+                                 InvoiceService invoiceService, JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager, LedgerFlowMetrics metrics,
+                                 @Value("${app.reconciliation.default-currency:USD}") String defaultCurrency,
+                                 @Value("${app.reconciliation.min-fuzzy-score:0.6}") double minFuzzyScore,
+                                 @Value("${app.reconciliation.max-fuzzy-candidates:256}") int maxFuzzyCandidates,
+                                 @Value("${app.reconciliation.date-window-days:60}") int dateWindowDays,
+                                 @Value("${app.reconciliation.batch-size:1000}") int batchSize,
+                                 @Value("${app.reconciliation.apply-chunk-size:500}") int applyChunkSize,
+                                 @Value("${app.reconciliation.max-page-size:1000}") int maxPageSize) {
+        this.invoiceRepository = invoiceRepository;
+        this.tenantRepository = tenantRepository;
+        this.runRepository = runRepository;
+        this.proposalRepository = proposalRepository;
+        this.invoiceService = invoiceService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.engine = new ReconciliationEngine(minFuzzyScore, maxFuzzyCandidates, dateWindowDays);
+        this.defaultCurrency = defaultCurrency;
+        this.batchSize = Math.max(1, batchSize);
+        this.applyChunkSize = Math.max(1, applyChunkSize);
+        this.maxPageSize = Math.max(1, maxPageSize);
+    }
+
+    /**
+     * Read a statement and match it against the tenant's open invoices.
+     *
+     * @param format   csv or camt053; detected from the filename or content type when blank
+     * @param currency currency of entries that do not state one; app.reconciliation.default-currency if null
+     */
+    public ReconciliationRun importStatement(Long tenantId, InputStream statement, String format, String filename,
+                                             String contentType, String currency) {
+        if (!tenantRepository.existsById(tenantId)) {
+            throw new ResourceNotFoundException("Tenant not found");
+        }
+        StatementFormat statementFormat;
+        try {
+            statementFormat = StatementFormat.detect(format, filename, contentType);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unsupported statement format: " + format);
+        }
+        String entryCurrency = currency != null && !currency.isBlank()
+                ? currency.trim().toUpperCase(Locale.ROOT) : defaultCurrency;
+
+        ReconciliationRun run = new ReconciliationRun();
+        run.setTenantId(tenantId);
+        run.setFormat(statementFormat);
+        run.setFilename(truncate(filename, 255));
+        run.setStatus(RunStatus.IMPORTING);
+        run.setCreatedBy(SecurityUtil.getCurrentUserId());
+        run.setCreatedAt(LocalDateTime.now());
+        run = runRepository.save(run);
+
+        Timer.Sample sample = metrics.start();
+        List<OpenInvoice> invoices = invoiceRepository.findOpenInvoices(tenantId, OPEN_STATUSES);
+        ProposalWriter writer = new ProposalWriter(run);
+        ReconciliationEngine.Session session = engine.start(invoices, writer::add);
+        StatementReadResult read;
+        ReconciliationEngine.Summary summary;
+        try {
+            read = switch (statementFormat) {
+                case CSV -> CsvStatementReader.read(statement, entryCurrency, session::add);
+                case CAMT053 -> Camt053StatementReader.read(statement, entryCurrency, session::add);
+            };
+            summary = session.finish();
+            writer.flush();
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            run.setStatus(RunStatus.FAILED);
+            run.setFirstError(truncate(e.getMessage(), 500));
+            run.setCompletedAt(LocalDateTime.now());
+            runRepository.save(run);
+            metrics.stop(sample, LedgerFlowMetrics.RECONCILIATION_IMPORT,
+                    Tags.of("format", statementFormat.name(), "outcome", "failed"));
+            log.warn("Reconciliation run {} for tenant {} failed: {}", run.getId(), tenantId, e.getMessage());
+            if (e instanceof IllegalArgumentException || e instanceof XMLStreamException) {
+                throw new ValidationException("Cannot read statement: " + e.getMessage());
+            }
+            throw e instanceof RuntimeException runtime ? runtime
+                    : new RuntimeException("Cannot read statement: " + e.getMessage(), e);
+        }
+
+        run.setOpenInvoices((long) invoices.size());
+        run.setTransactions(summary.transactions());
+        run.setRejected(read.rejected());
+        run.setCredits(summary.credits());
+        run.setMatchedReference(summary.reference());
+        run.setMatchedAmountVendor(summary.amountVendor());
+        run.setMatchedFuzzy(summary.fuzzy());
+        run.setUnmatched(summary.unmatched());
+        run.setApplied(0L);
+        run.setFirstError(truncate(read.firstError(), 500));
+        run.setStatus(RunStatus.COMPLETED);
+        run.setCompletedAt(LocalDateTime.now());
+        run = runRepository.save(run);
+
+        long nanos = metrics.stop(sample, LedgerFlowMetrics.RECONCILIATION_IMPORT,
+                Tags.of("format", statementFormat.name(), "outcome", "completed"));
+        count("reference", summary.reference());
+        count("amount_vendor", summary.amountVendor());
+        count("fuzzy", summary.fuzzy());
+        count("unmatched", summary.unmatched());
+        log.info("Reconciliation run {} for tenant {}: {} transactions against {} open invoices, {} matched"
+                        + " ({} reference, {} amount+vendor, {} fuzzy), {} unmatched, {} rejected in {} ms",
+                run.getId(), tenantId, summary.transactions(), invoices.size(), summary.matched(),
+                summary.reference(), summary.amountVendor(), summary.fuzzy(), summary.unmatched(), read.rejected(),
+                TimeUnit.NANOSECONDS.toMillis(nanos));
+        return run;
+    }
+
+    public ReconciliationRun getRun(Long runId, Long tenantId) {
+        return runRepository.findByIdAndTenantId(runId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reconciliation run not found"));
+    }
+
+    /**
+     * One page of a run's proposals in id order, optionally of one status;
+     * pass the last id of a page as {@code afterId} to get the next.
+     */
+    public List<ReconciliationProposal> getProposals(Long runId, Long tenantId, ProposalStatus status, Long afterId,
+                                                     int limit) {
+        getRun(runId, tenantId);
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, maxPageSize)));
+        long after = afterId != null ? afterId : 0L;
+        return status != null
+                ? proposalRepository.findByRunIdAndStatusAndIdGreaterThanOrderByIdAsc(runId, status, after, page)
+                : proposalRepository.findByRunIdAndIdGreaterThanOrderByIdAsc(runId, after, page);
+    }
+
+    /**
+     * Confirm proposals, by id or all PROPOSED ones scoring at least {@code minScore}.
+     *
+     * @return number of proposals confirmed
+     */
+    public int confirm(Long runId, Long tenantId, List<Long> proposalIds, Double minScore) {
+        return decide(runId, tenantId, proposalIds, minScore, List.of(ProposalStatus.PROPOSED),
+                ProposalStatus.CONFIRMED);
+    }
+
+    /**
+     * Reject proposals that are not applied yet, by id or by minimum score.
+     *
+     * @return number of proposals rejected
+     */
+    public int reject(Long runId, Long tenantId, List<Long> proposalIds, Double minScore) {
+        return decide(runId, tenantId, proposalIds, minScore,
+                List.of(ProposalStatus.PROPOSED, ProposalStatus.CONFIRMED), ProposalStatus.REJECTED);
+    }
+
+    /**
+     * Mark the invoices of all confirmed proposals PAID.
+     *
+     * @return the run with its updated {@code applied} count
+     */
+    public ReconciliationRun apply(Long runId, Long tenantId) {
+        ReconciliationRun run = getRun(runId, tenantId);
+        if (run.getStatus() != RunStatus.COMPLETED) {
+            throw new ValidationException("Reconciliation run " + runId + " is " + run.getStatus());
+        }
+        long applied = 0;
+        long stale = 0;
+        long afterId = 0;
+        while (true) {
+            List<ReconciliationProposal> chunk = proposalRepository.findByRunIdAndStatusAndIdGreaterThanOrderByIdAsc(
+                    runId, ProposalStatus.CONFIRMED, afterId, PageRequest.of(0, applyChunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            Integer appliedInChunk = transactionTemplate.execute(status -> applyChunk(runId, tenantId, chunk));
+            applied += appliedInChunk != null ? appliedInChunk : 0;
+            stale += chunk.size() - (appliedInChunk != null ? appliedInChunk : 0);
+        }
+        metrics.increment(LedgerFlowMetrics.RECONCILIATION_APPLIED, Tags.of("outcome", "applied"), applied);
+        metrics.increment(LedgerFlowMetrics.RECONCILIATION_APPLIED, Tags.of("outcome", "stale"), stale);
+        log.info("Reconciliation run {} for tenant {}: {} invoices marked paid, {} proposals stale",
+                runId, tenantId, applied, stale);
+        return getRun(runId, tenantId);
+    }
+
+    private int applyChunk(Long runId, Long tenantId, List<ReconciliationProposal> chunk) {
+        List<Long> invoiceIds = new ArrayList<>(chunk.size());
+        for (ReconciliationProposal proposal : chunk) {
+            invoiceIds.add(proposal.getInvoiceId());
+        }
+        Set<Long> paid = new HashSet<>(invoiceService.markPaid(tenantId, invoiceIds));
+        List<Long> appliedIds = new ArrayList<>(paid.size());
+        List<Long> staleIds = new ArrayList<>();
+        for (ReconciliationProposal proposal : chunk) {
+            (paid.contains(proposal.getInvoiceId()) ? appliedIds : staleIds).add(proposal.getId());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ProposalStatus> confirmed = List.of(ProposalStatus.CONFIRMED);
+        if (!appliedIds.isEmpty()) {
+            proposalRepository.updateStatusByIds(runId, confirmed, ProposalStatus.APPLIED, appliedIds, now);
+            runRepository.addApplied(runId, appliedIds.size());
+        }
+        if (!staleIds.isEmpty()) {
+            proposalRepository.updateStatusByIds(runId, confirmed, ProposalStatus.STALE, staleIds, now);
+        }
+        return appliedIds.size();
+    }
+
+    private int decide(Long runId, Long tenantId, List<Long> proposalIds, Double minScore,
+                       List<ProposalStatus> from, ProposalStatus to) {
+        getRun(runId, tenantId);
+        LocalDateTime now = LocalDateTime.now();
+        if (proposalIds != null && !proposalIds.isEmpty()) {
+            return proposalRepository.updateStatusByIds(runId, from, to, proposalIds, now);
+        }
+        if (minScore == null) {
+            throw new ValidationException("Either proposalIds or minScore is required");
+        }
+        return proposalRepository.updateStatusByScore(runId, from, to, minScore, now);
+    }
+
+    private void count(String type, long amount) {
+        metrics.increment(LedgerFlowMetrics.RECONCILIATION_MATCHED, Tags.of("type", type), amount);
+    }
+
+    private static String truncate(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, length) : value;
+    }
+
+    /**
+     * Buffers the engine's results and inserts them in JDBC batches.
+     */
+    private final class ProposalWriter {
+        private final Long runId;
+        private final Long tenantId;
+        private final List<ReconciliationMatch> buffer = new ArrayList<>(batchSize);
+
+        ProposalWriter(ReconciliationRun run) {
+            this.runId = run.getId();
+            this.tenantId = run.getTenantId();
+        }
+
+        void add(ReconciliationMatch match) {
+            buffer.add(match);
+            if (buffer.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, buffer,
+                    buffer.size(), (ps, match) -> {
+                        BankTransaction transaction = match.transaction();
+                        ps.setLong(1, runId);
+                        ps.setLong(2, tenantId);
+                        if (match.matched()) {
+                            ps.setLong(3, match.invoice().id());
+                            ps.setString(4, match.invoice().invoiceNumber());
+                        } else {
+                            ps.setNull(3, Types.BIGINT);
+                            ps.setNull(4, Types.VARCHAR);
+                        }
+                        ps.setString(5, truncate(transaction.transactionRef(), 140));
+                        ps.setDate(6, Date.valueOf(transaction.bookingDate()));
+                        ps.setBigDecimal(7, BigDecimal.valueOf(transaction.amountCents(), 2));
+                        ps.setString(8, truncate(transaction.currency(), 3));
+                        ps.setString(9, truncate(transaction.counterparty(), 255));
+                        ps.setString(10, truncate(transaction.reference(), 500));
+                        ps.setString(11, match.matched() ? match.type().name() : null);
+                        ps.setDouble(12, BigDecimal.valueOf(match.score()).setScale(4, RoundingMode.HALF_UP)
+                                .doubleValue());
+                        ps.setString(13, (match.matched() ? ProposalStatus.PROPOSED : ProposalStatus.UNMATCHED)
+                                .name());
+                    }));
+            buffer.clear();
+        }
+    }
+}
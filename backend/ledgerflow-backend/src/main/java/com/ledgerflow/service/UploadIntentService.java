@@ -0,0 +1,202 @@
+package com.ledgerflow.service;
+
+import com.ledgerflow.dto.UploadIntentResponse;
+import com.ledgerflow.entity.Invoice;
+import com.ledgerflow.exception.ConflictException;
+import com.ledgerflow.exception.ResourceNotFoundException;
+import com.ledgerflow.exception.ValidationException;
+import com.ledgerflow.repository.InvoiceRepository;
+import com.ledgerflow.repository.TenantRepository;
+import com.ledgerflow.repository.UploadConfirmationRepository;
+import com.ledgerflow.storage.DirectUploadStore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Upload Intent Service
+ *
+ * Direct-to-storage uploads, in three steps:
+ * 1. createIntent: reserve a storage key and sign a short-lived upload token.
+ * 2. The client PUTs the PDF to the returned URL. S3 or the local stand-in
+ *    receives it; the API never holds the bytes.
+ * 3. confirm: check the object exists and is within limits, then trigger
+ *    extraction by storage key. The key becomes the invoice's s3Key.
+ *
+ * Tokens are JWTs with their own audience, signed with a key derived from
+ * app.jwt.secret, so an upload token can never pass as a session token. A
+ * token stays valid for confirmation for confirm-grace-seconds after its
+ * upload window closes. Confirm is idempotent per storage key: a claim row in
+ * upload_confirmations admits one confirm at a time, and every other confirm
+ * returns the invoice it created (409 while it is still extracting). The
+ * claim rather than a unique (tenant_id, s3_key) constraint because invoices
+ * may be partitioned by created_at, and PostgreSQL only enforces uniqueness
+ * there together with the partition key.
+ */
+@Service
+public class UploadIntentService {
+
+    private static final String AUDIENCE = "ledgerflow-upload";
+    private static final String CONTENT_TYPE = "application/pdf";
+
+    private final DirectUploadStore store;
+    private final AiOrchestrationService aiOrchestrationService;
+    private final InvoiceService invoiceService;
+    private final InvoiceRepository invoiceRepository;
+    private final UploadConfirmationRepository uploadConfirmationRepository;
+    private final TenantRepository tenantRepository;
+    private final SecretKey signingKey;
+    private final Duration tokenTtl;
+    private final Duration confirmGrace;
+    private final Duration claimTimeout;
+    private final long maxBytes;
+
+    public UploadIntentService(DirectUploadStore store,
+                               AiOrchestrationService aiOrchestrationService,
+                               InvoiceService invoiceService,
+                               InvoiceRepository invoiceRepository,
+                               UploadConfirmationRepository uploadConfirmationRepository,
+                               TenantRepository tenantRepository,
+                               @Value("${app.jwt.secret}") String jwtSecret,
+                               @Value("${app.uploads.token-ttl-seconds:900}") long tokenTtlSeconds,
+                               @Value("${app.uploads.confirm-grace-seconds:3600}") long confirmGraceSeconds,
+                               @Value("${app.uploads.confirm-claim-timeout-seconds:600}") long claimTimeoutSeconds,
+                               @Value("${app.uploads.max-bytes:10485760}") long maxBytes) {
+        this.store = store;
+        this.aiOrchestrationService = aiOrchestrationService;
+        this.invoiceService = invoiceService;
+        this.invoiceRepository = invoiceRepository;
+        this.uploadConfirmationRepository = uploadConfirmationRepository;
+        this.tenantRepository = tenantRepository;
+        this.signingKey = Keys.hmacShaKeyFor(hmac(jwtSecret.getBytes(StandardCharsets.UTF_8), "upload-intent"));
+        this.tokenTtl = Duration.ofSeconds(tokenTtlSeconds);
+        this.confirmGrace = Duration.ofSeconds(confirmGraceSeconds);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.maxBytes = maxBytes;
+    }
+
+    public record UploadGrant(String uploadId, Long tenantId, String storageKey, long maxBytes) {
+    }
+
+    public UploadIntentResponse createIntent(Long tenantId) {
+        if (!tenantRepository.existsById(tenantId)) {
+            throw new ResourceNotFoundException("Tenant", tenantId);
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        // Same tenant/year/month layout the orchestration service uses for its own uploads
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        String storageKey = String.format("uploads/%d/%d/%02d/%s.pdf",
+                tenantId, month.getYear(), month.getMonthValue(), uploadId);
+        Instant expiresAt = Instant.now().plus(tokenTtl);
+
+        String token = Jwts.builder()
+                .subject(uploadId)
+                .audience().add(AUDIENCE).and()
+                .claim("tenantId", tenantId)
+                .claim("key", storageKey)
+                .claim("maxBytes", maxBytes)
+                .issuedAt(new Date())
+                .expiration(Date.from(expiresAt))
+                .signWith(signingKey)
+                .compact();
+
+        return new UploadIntentResponse(uploadId, store.uploadUrl(storageKey, token, tokenTtl), "PUT",
+                CONTENT_TYPE, store.uploadHeaders(), maxBytes, expiresAt, token);
+    }
+
+    /**
+     * Validate a token for the upload itself (strict expiry).
+     */
+    public UploadGrant verifyForUpload(String token) {
+        return parse(token, Duration.ZERO);
+    }
+
+    public Invoice confirm(String uploadId, Long tenantId, String token) throws IOException {
+        UploadGrant grant = parse(token, confirmGrace);
+        if (!grant.uploadId().equals(uploadId) || !grant.tenantId().equals(tenantId)) {
+            throw new ValidationException("Upload token does not match upload " + uploadId);
+        }
+
+        Optional<Invoice> existing = invoiceRepository.findByS3KeyAndTenantId(grant.storageKey(), tenantId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        OptionalLong size = store.size(grant.storageKey());
+        if (size.isEmpty()) {
+            throw new ResourceNotFoundException("No document uploaded for upload " + uploadId);
+        }
+        if (size.getAsLong() > grant.maxBytes()) {
+            store.delete(grant.storageKey());
+            throw new ValidationException("Upload exceeds " + grant.maxBytes() + " bytes");
+        }
+
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (uploadConfirmationRepository.claim(grant.storageKey(), tenantId, claimedAt,
+                claimedAt.minus(claimTimeout)) == 0) {
+            return invoiceRepository.findByS3KeyAndTenantId(grant.storageKey(), tenantId)
+                    .orElseThrow(() -> new ConflictException("Upload " + uploadId + " is already being confirmed"));
+        }
+        try {
+            // A confirm that finished between the check above and the claim has released it by now
+            existing = invoiceRepository.findByS3KeyAndTenantId(grant.storageKey(), tenantId);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+            Map<String, Object> extractionResult = aiOrchestrationService.extractInvoiceByKey(
+                    grant.storageKey(), size.getAsLong(), tenantId.toString());
+            extractionResult.put("s3_key", grant.storageKey());
+            return invoiceService.createInvoiceFromExtraction(tenantId, extractionResult);
+        } finally {
+            uploadConfirmationRepository.release(grant.storageKey(), claimedAt);
+        }
+    }
+
+    private UploadGrant parse(String token, Duration allowedLateness) {
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(signingKey)
+                    .requireAudience(AUDIENCE)
+                    .clockSkewSeconds(allowedLateness.toSeconds())
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            return new UploadGrant(claims.getSubject(), claims.get("tenantId", Long.class),
+                    claims.get("key", String.class), claims.get("maxBytes", Long.class));
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new ValidationException("Invalid or expired upload token");
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ledgerflow.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard Context
+ *
+ * The shard the current thread's database work goes to, read by
+ * TenantRoutingDataSource whenever a connection is opened. Set per request by
+ * ShardRoutingFilter and around background work that acts for a tenant;
+ * unset means the primary shard.
+ *
+ * A connection keeps the shard it was opened on, so switch shards only before
+ * a transaction (or the request's EntityManager) has touched the database.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the current shard, or null for the primary
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Route this thread to {@code shard} until the scope is closed, which
+     * restores the previous shard.
+     */
+    public static Scope open(String shard) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public static <T> T callOn(String shard, Supplier<T> action) {
+        try (Scope ignored = open(shard)) {
+            return action.get();
+        }
+    }
+
+    public static void runOn(String shard, Runnable action) {
+        try (Scope ignored = open(shard)) {
+            action.run();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
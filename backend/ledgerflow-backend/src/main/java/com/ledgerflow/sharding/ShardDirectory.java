@@ -0,0 +1,123 @@
+package com.ledgerflow.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Shard Directory
+ *
+ * Maps tenants to shards through the tenant_shards table on the primary
+ * shard, read over the primary's own pool so a lookup never lands on the
+ * shard the caller is currently routed to. Entries are cached for
+ * {@code directory-ttl-seconds}; a change made on another node is seen within
+ * that time, which TenantShardMover waits out before relying on it.
+ */
+@Component
+public class ShardDirectory {
+
+    private static final String SELECT = "SELECT shard, state FROM tenant_shards WHERE tenant_id = ?";
+    private static final String SELECT_ALL = "SELECT tenant_id, shard, state, updated_at FROM tenant_shards"
+            + " ORDER BY tenant_id";
+    private static final String UPSERT = "INSERT INTO tenant_shards (tenant_id, shard, state, updated_at)"
+            + " VALUES (?, ?, ?, ?) ON CONFLICT (tenant_id)"
+            + " DO UPDATE SET shard = EXCLUDED.shard, state = EXCLUDED.state, updated_at = EXCLUDED.updated_at";
+
+    private static final Assignment PRIMARY = new Assignment(Shards.PRIMARY, ShardState.ACTIVE);
+
+    private final Shards shards;
+    private final JdbcTemplate primary;
+    private final long ttlNanos;
+    private final Map<Long, CachedAssignment> cache = new ConcurrentHashMap<>();
+
+    public ShardDirectory(Shards shards, ShardingProperties properties) {
+        this.shards = shards;
+        this.primary = shards.isSharded() ? new JdbcTemplate(shards.dataSource(Shards.PRIMARY)) : null;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(properties.directoryTtlSeconds());
+    }
+
+    public Assignment assignmentOf(Long tenantId) {
+        if (!shards.isSharded() || tenantId == null) {
+            return PRIMARY;
+        }
+        long now = System.nanoTime();
+        CachedAssignment cached = cache.get(tenantId);
+        if (cached == null || now - cached.loadedNanos > ttlNanos) {
+            cached = new CachedAssignment(load(tenantId), now);
+            cache.put(tenantId, cached);
+        }
+        return cached.assignment;
+    }
+
+    /**
+     * The assignment as stored, bypassing (and refreshing) the cache.
+     */
+    Assignment reload(Long tenantId) {
+        Assignment assignment = load(tenantId);
+        cache.put(tenantId, new CachedAssignment(assignment, System.nanoTime()));
+        return assignment;
+    }
+
+    public String shardOf(Long tenantId) {
+        return assignmentOf(tenantId).shard();
+    }
+
+    /**
+     * Run {@code action} routed to the tenant's shard; for work outside a
+     * request (background threads, other schedulers).
+     */
+    public <T> T callAs(Long tenantId, Supplier<T> action) {
+        return ShardContext.callOn(shardOf(tenantId), action);
+    }
+
+    public void runAs(Long tenantId, Runnable action) {
+        ShardContext.runOn(shardOf(tenantId), action);
+    }
+
+    public List<Map<String, Object>> assignments() {
+        if (!shards.isSharded()) {
+            return List.of();
+        }
+        return primary.query(SELECT_ALL, (resultSet, row) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("tenantId", resultSet.getLong("tenant_id"));
+            entry.put("shard", resultSet.getString("shard"));
+            entry.put("state", resultSet.getString("state"));
+            entry.put("updatedAt", resultSet.getTimestamp("updated_at").toLocalDateTime());
+            return entry;
+        });
+    }
+
+    /**
+     * Record the tenant's shard and state. The local cache is updated at once;
+     * other nodes follow within the TTL.
+     */
+    void assign(Long tenantId, String shard, ShardState state) {
+        primary.update(UPSERT, tenantId, shard, state.name(), Timestamp.valueOf(LocalDateTime.now()));
+        cache.put(tenantId, new CachedAssignment(new Assignment(shard, state), System.nanoTime()));
+    }
+
+    long ttlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(ttlNanos);
+    }
+
+    private Assignment load(Long tenantId) {
+        List<Assignment> found = primary.query(SELECT, (resultSet, row) -> new Assignment(
+                resultSet.getString("shard"), ShardState.valueOf(resultSet.getString("state"))), tenantId);
+        return found.isEmpty() ? PRIMARY : found.get(0);
+    }
+
+    public record Assignment(String shard, ShardState state) {
+    }
+
+    private record CachedAssignment(Assignment assignment, long loadedNanos) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.ledgerflow.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledgerflow.dto.ErrorResponse;
+import com.ledgerflow.util.SecurityUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Shard Routing Filter
+ *
+ * Routes the rest of the request to the shard of the tenant in the JWT. It
+ * runs in the security filter chain right after JwtAuthenticationFilter, so
+ * everything downstream (rate limits, controllers, the request's
+ * EntityManager) is on the tenant's shard. Anonymous requests stay on the
+ * primary.
+ *
+ * Controllers take the tenant from the {@code tenantId} request parameter, so
+ * a request naming another tenant would run that tenant's queries on this
+ * tenant's shard. Such requests get 403 before they are routed. The query
+ * string and multipart form fields are checked; other bodies are left unread,
+ * since statement imports stream theirs.
+ *
+ * While a tenant is being moved its reads keep going to the old shard and its
+ * writes get 503 with Retry-After, so nothing is written behind the mover's
+ * back during the final copy.
+ */
+@Component
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+    private static final String TENANT_PARAMETER = "tenantId";
+
+    private final Shards shards;
+    private final ShardDirectory directory;
+    private final ObjectMapper objectMapper;
+    private final long retryAfterSeconds;
+
+    public ShardRoutingFilter(Shards shards, ShardDirectory directory, ObjectMapper objectMapper,
+                              ShardingProperties properties) {
+        this.shards = shards;
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = Math.max(1, properties.directoryTtlSeconds() + properties.move().settleSeconds());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !shards.isSharded();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        Long tenantId = SecurityUtil.getCurrentTenantId();
+        if (tenantId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!requestedTenants(request).stream().allMatch(tenantId.toString()::equals)) {
+            writeError(response, HttpStatus.FORBIDDEN, "tenantId does not match the authenticated tenant");
+            return;
+        }
+
+        ShardDirectory.Assignment assignment = directory.assignmentOf(tenantId);
+        if (assignment.state() == ShardState.MOVING && !READ_METHODS.contains(request.getMethod())) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            writeError(response, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Tenant data is being moved; retry after " + retryAfterSeconds + "s");
+            return;
+        }
+
+        try (ShardContext.Scope ignored = ShardContext.open(assignment.shard())) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private static List<String> requestedTenants(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            String[] values = request.getParameterValues(TENANT_PARAMETER);
+            return values != null ? List.of(values) : List.of();
+        }
+        String query = request.getQueryString();
+        if (query == null) {
+            return List.of();
+        }
+        List<String> values = UriComponentsBuilder.newInstance().query(query).build().getQueryParams()
+                .getOrDefault(TENANT_PARAMETER, List.of());
+        return values.stream().map(value -> value == null ? "" : UriUtils.decode(value, StandardCharsets.UTF_8)).toList();
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message, status.value()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.ledgerflow.sharding;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shard Schema Initializer
+ *
+ * Flyway migrates and Hibernate validates or updates the schema
+ * (spring.jpa.hibernate.ddl-auto) through the routing DataSource at startup,
+ * which reaches the primary only. Registered as a Hibernate integrator, this
+ * keeps the mapping metadata and, once the context is up but before requests
+ * are served:
+ * - runs the same migrations, then the same schema action, on every other shard
+ * - raises each shard's IDENTITY sequences of the tables TenantShardMover
+ *   copies to its {@code id-offset}, so ids created on different shards
+ *   never collide when a tenant moves
+ */
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    private final Shards shards;
+    private final ObjectProvider<Flyway> flyway;
+    private volatile Metadata metadata;
+    private volatile ServiceRegistry serviceRegistry;
+    private volatile Map<String, Object> settings;
+
+    public ShardSchemaInitializer(Shards shards, ObjectProvider<Flyway> flyway) {
+        this.shards = shards;
+        this.flyway = flyway;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.serviceRegistry = sessionFactory.getServiceRegistry();
+        this.settings = new HashMap<>(sessionFactory.getProperties());
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Flyway primary = flyway.getIfAvailable();
+        for (String shard : shards.names()) {
+            if (!Shards.PRIMARY.equals(shard) && primary != null) {
+                Flyway.configure().configuration(primary.getConfiguration())
+                        .dataSource(shards.dataSource(shard))
+                        .load()
+                        .migrate();
+            }
+            if (!Shards.PRIMARY.equals(shard) && metadata != null) {
+                // Drops on close (create-drop) are left to the primary
+                ShardContext.runOn(shard, () -> SchemaManagementToolCoordinator.process(metadata, serviceRegistry,
+                        settings, action -> { }));
+            }
+            applyIdOffset(shard);
+        }
+    }
+
+    private void applyIdOffset(String shard) {
+        long offset = shards.idOffset(shard);
+        if (offset <= 0) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shards.dataSource(shard));
+        for (String table : TenantShardMover.TABLES) {
+            String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class,
+                    table);
+            if (sequence == null) {
+                log.warn("Shard {}: table {} has no id sequence; id offset not applied", shard, table);
+                continue;
+            }
+            Long last = jdbcTemplate.queryForObject(
+                    "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM " + sequence, Long.class);
+            // Raise only; a sequence already past the offset keeps going
+            if (last != null && last < offset) {
+                jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, false)", Long.class, sequence, offset);
+                log.info("Shard {}: {} ids start at {}", shard, table, offset);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ledgerflow.sharding;
+
+/**
+ * State of a tenant's shard assignment.
+ */
+public enum ShardState {
+    /** Reads and writes go to the assigned shard. */
+    ACTIVE,
+    /** Being moved off the assigned shard: reads still go there, writes are rejected until the cut-over. */
+    MOVING
+}
@@ -0,0 +1,38 @@
+package com.ledgerflow.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Sharding Properties (app.sharding)
+ *
+ * The primary shard is spring.datasource; {@code shards} lists the others by
+ * name. A shard's {@code id-offset} is the lowest IDENTITY value it hands out,
+ * so rows keep their ids when a tenant moves between shards.
+ */
+@ConfigurationProperties(prefix = "app.sharding")
+public record ShardingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5") long directoryTtlSeconds,
+        @DefaultValue Move move,
+        Map<String, Shard> shards) {
+
+    public ShardingProperties {
+        shards = shards != null ? shards : Map.of();
+    }
+
+    public record Shard(String url, String username, String password, long idOffset) {
+    }
+
+    /**
+     * @param chunkSize                 rows copied or deleted per statement and transaction
+     * @param settleSeconds             extra wait after a directory change, on top of the directory TTL
+     * @param outboxDrainTimeoutSeconds how long the cut-over waits for the tenant's pending outbox events
+     */
+    public record Move(@DefaultValue("1000") int chunkSize,
+                       @DefaultValue("2") long settleSeconds,
+                       @DefaultValue("60") long outboxDrainTimeoutSeconds) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.ledgerflow.sharding;
+
+import com.ledgerflow.exception.ValidationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shards
+ *
+ * The configured database shards, primary first, each with its own
+ * connection pool. With sharding off there is a single shard, the primary,
+ * served by Spring Boot's DataSource, and this holds no pools.
+ */
+public class Shards implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> dataSources;
+    private final Map<String, Long> idOffsets;
+
+    /**
+     * @param dataSources shard name to pool, primary first; empty when sharding is off
+     * @param idOffsets   shard name to lowest IDENTITY value
+     */
+    public Shards(Map<String, DataSource> dataSources, Map<String, Long> idOffsets) {
+        this.dataSources = new LinkedHashMap<>(dataSources);
+        this.idOffsets = Map.copyOf(idOffsets);
+    }
+
+    public boolean isSharded() {
+        return !dataSources.isEmpty();
+    }
+
+    public List<String> names() {
+        return isSharded() ? List.copyOf(dataSources.keySet()) : List.of(PRIMARY);
+    }
+
+    public boolean contains(String shard) {
+        return names().contains(shard);
+    }
+
+    /**
+     * The shard's own pool, bypassing the routing DataSource (and the
+     * request's EntityManager with it).
+     */
+    public DataSource dataSource(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new ValidationException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    public long idOffset(String shard) {
+        return idOffsets.getOrDefault(shard, 0L);
+    }
+
+    /**
+     * The first non-primary shard on which {@code sql} returns a row, else
+     * the primary. For lookups by globally unique keys (username, e-mail)
+     * before the tenant is known.
+     */
+    public String locate(String sql, Object... args) {
+        for (String shard : names()) {
+            if (!PRIMARY.equals(shard) && exists(shard, sql, args)) {
+                return shard;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private boolean exists(String shard, String sql, Object... args) {
+        ResultSetExtractor<Boolean> anyRow = ResultSet::next;
+        Boolean found = new JdbcTemplate(dataSource(shard)).query(sql, anyRow, args);
+        return Boolean.TRUE.equals(found);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : dataSources.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
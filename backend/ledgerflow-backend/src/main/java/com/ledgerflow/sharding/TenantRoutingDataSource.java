@@ -0,0 +1,32 @@
+package com.ledgerflow.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The application's DataSource when sharding is on: each connection comes
+ * from the pool of the thread's current shard (ShardContext), the primary's
+ * when none is set. Repositories, JdbcTemplate and transactions are thereby
+ * routed without knowing about shards.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    public TenantRoutingDataSource(Shards shards) {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        for (String shard : shards.names()) {
+            targets.put(shard, shards.dataSource(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.dataSource(Shards.PRIMARY));
+        // A shard name that is not configured is an error, not a silent write to the primary
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ledgerflow.sharding;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tenant Shard Endpoint
+ *
+ * Shard administration via actuator. Served on the management port only:
+ * SecurityConfig denies it on the API port, where any tenant's user could
+ * otherwise move (and freeze) other tenants.
+ *
+ * - GET  /actuator/tenantshards  configured shards, directory entries and the
+ *   running or last move
+ * - POST /actuator/tenantshards  move a tenant ({"tenantId": 42, "shard": "shard-2"});
+ *   runs in the background, poll GET for its phase
+ */
+@Component
+@Endpoint(id = "tenantshards")
+public class TenantShardEndpoint {
+
+    private final Shards shards;
+    private final ShardDirectory directory;
+    private final TenantShardMover mover;
+
+    public TenantShardEndpoint(Shards shards, ShardDirectory directory, TenantShardMover mover) {
+        this.shards = shards;
+        this.directory = directory;
+        this.mover = mover;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("sharded", shards.isSharded());
+        status.put("shards", shards.names());
+        status.put("assignments", directory.assignments());
+        status.put("move", mover.status());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> move(long tenantId, String shard) {
+        return mover.start(tenantId, shard);
+    }
+}
@@ -0,0 +1,385 @@
+package com.ledgerflow.sharding;
+
+import com.ledgerflow.exception.ValidationException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Tenant Shard Mover
+ *
+ * Moves one tenant (its tenant row, users, invoices, line items, status
+ * history and fired deadlines) to another shard while the tenant keeps
+ * working, in chunks of {@code chunk-size} rows, one transaction each:
+ * 1. CLEANING: remove leftovers of an earlier aborted move from the target
+ * 2. COPYING: copy every table by id (keyset), upserting on the target
+ * 3. CATCHING_UP: copy what was written meanwhile, by timestamp (invoices by
+ *    updated_at, history and fired deadlines by their own time), and the
+ *    small tenant and user tables in full
+ * 4. FROZEN: mark the tenant MOVING; after the directory TTL every node
+ *    rejects its writes (reads continue on the source). Catch up once more,
+ *    then wait until the relay has published the tenant's outbox events
+ * 5. CUT_OVER: point the directory at the target and wait out the TTL again
+ * 6. CLEANING_SOURCE: delete the tenant's rows from the source, children
+ *    first. The tenant row stays behind, so its name and slug stay reserved.
+ * A failure before the cut-over puts the tenant back on the source, ACTIVE.
+ *
+ * The API never deletes invoices or users, and line items are only written
+ * with a new invoice, so copying changes and new rows is enough. Rows of
+ * other tenant tables (reconciliation runs and proposals) are per-shard work
+ * and are not moved; finish or re-import them around a move.
+ */
+@Component
+public class TenantShardMover {
+    private static final Logger log = LoggerFactory.getLogger(TenantShardMover.class);
+
+    /**
+     * Tables with tenant data that moves, parents first. Each has an IDENTITY
+     * id (ShardSchemaInitializer applies the shards' id offsets to them).
+     */
+    static final List<String> TABLES = List.of(
+            "tenants", "users", "invoices", "invoice_line_items", "invoice_status_history", "invoice_deadline_fires");
+
+    private static final String OF_TENANT_INVOICES = "invoice_id IN (SELECT id FROM invoices WHERE tenant_id = ?)";
+    private static final Map<String, String> TENANT_FILTERS = Map.of(
+            "tenants", "id = ?",
+            "users", "tenant_id = ?",
+            "invoices", "tenant_id = ?",
+            "invoice_line_items", OF_TENANT_INVOICES,
+            "invoice_status_history", "tenant_id = ?",
+            "invoice_deadline_fires", OF_TENANT_INVOICES);
+
+    /**
+     * Rows written since a point in time, given (tenant id, since). Line items
+     * are only written with a new invoice, whose updated_at is then set.
+     * Tenants and users have no such filter and are copied in full.
+     */
+    private static final Map<String, String> CHANGED_FILTERS = Map.of(
+            "invoices", "tenant_id = ? AND updated_at >= ?",
+            "invoice_line_items", "invoice_id IN (SELECT id FROM invoices WHERE tenant_id = ? AND updated_at >= ?)",
+            "invoice_status_history", "tenant_id = ? AND changed_at >= ?",
+            "invoice_deadline_fires", OF_TENANT_INVOICES + " AND fired_at >= ?");
+
+    // updated_at comes from the writing node's clock
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+
+    private final Shards shards;
+    private final ShardDirectory directory;
+    private final int chunkSize;
+    private final long settleMillis;
+    private final Duration outboxDrainTimeout;
+    private final ExecutorService executor;
+    private volatile Move current;
+
+    public TenantShardMover(Shards shards, ShardDirectory directory, ShardingProperties properties) {
+        this.shards = shards;
+        this.directory = directory;
+        this.chunkSize = Math.max(1, properties.move().chunkSize());
+        this.settleMillis = properties.move().settleSeconds() * 1000;
+        this.outboxDrainTimeout = Duration.ofSeconds(properties.move().outboxDrainTimeoutSeconds());
+        this.executor = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("tenant-shard-mover").daemon().factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start moving the tenant in the background; one move at a time per node.
+     *
+     * @return the move's initial status
+     */
+    public synchronized Map<String, Object> start(long tenantId, String target) {
+        if (!shards.isSharded()) {
+            throw new ValidationException("Sharding is not enabled");
+        }
+        if (!shards.contains(target)) {
+            throw new ValidationException("Unknown shard: " + target);
+        }
+        if (current != null && current.finishedAt == null) {
+            throw new IllegalStateException("Tenant " + current.tenantId + " is still being moved");
+        }
+        ShardDirectory.Assignment assignment = directory.reload(tenantId);
+        if (assignment.state() != ShardState.ACTIVE) {
+            throw new IllegalStateException("Tenant " + tenantId + " is already being moved");
+        }
+        if (assignment.shard().equals(target)) {
+            throw new ValidationException("Tenant " + tenantId + " is already on shard " + target);
+        }
+        if (count(jdbc(assignment.shard()), "tenants", tenantId) == 0) {
+            throw new ValidationException("Tenant " + tenantId + " not found on shard " + assignment.shard());
+        }
+
+        Move move = new Move(tenantId, assignment.shard(), target);
+        try {
+            executor.execute(() -> run(move));
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Shutting down", e);
+        }
+        current = move;
+        return move.status();
+    }
+
+    /**
+     * @return the running or last move, or null if there was none
+     */
+    public Map<String, Object> status() {
+        Move move = current;
+        return move != null ? move.status() : null;
+    }
+
+    private void run(Move move) {
+        log.info("Moving tenant {} from shard {} to {}", move.tenantId, move.source, move.target);
+        boolean cutOver = false;
+        try {
+            move.phase = "CLEANING";
+            deleteTenantRows(move.target, move.tenantId);
+
+            move.phase = "COPYING";
+            LocalDateTime since = LocalDateTime.now().minus(CLOCK_SKEW);
+            for (String table : TABLES) {
+                copy(move, table, TENANT_FILTERS.get(table), move.tenantId);
+            }
+
+            move.phase = "CATCHING_UP";
+            since = catchUp(move, since);
+
+            move.phase = "FROZEN";
+            directory.assign(move.tenantId, move.source, ShardState.MOVING);
+            settle();
+            catchUp(move, since);
+            awaitOutboxDrained(move);
+
+            move.phase = "CUT_OVER";
+            directory.assign(move.tenantId, move.target, ShardState.ACTIVE);
+            cutOver = true;
+            settle();
+
+            move.phase = "CLEANING_SOURCE";
+            deleteTenantRows(move.source, move.tenantId);
+            move.phase = "DONE";
+            log.info("Moved tenant {} to shard {}: {} rows", move.tenantId, move.target, move.rowsCopied.get());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            move.error = e.getMessage();
+            if (!cutOver) {
+                move.phase = "ABORTED";
+                directory.assign(move.tenantId, move.source, ShardState.ACTIVE);
+                log.error("Moving tenant {} to shard {} failed; it stays on {}", move.tenantId, move.target,
+                        move.source, e);
+            } else {
+                // The tenant is live on the target; only the source copy is left to delete
+                move.phase = "SOURCE_NOT_CLEANED";
+                log.error("Tenant {} moved to shard {}, but deleting it from {} failed", move.tenantId,
+                        move.target, move.source, e);
+            }
+        } finally {
+            move.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Copy what was written since {@code since}. Ids are not a reliable
+     * watermark (a transaction may commit after one with a higher id), so
+     * rows are selected by their timestamps, with a margin for clock skew
+     * between nodes.
+     *
+     * @return the start of this round, for the next one
+     */
+    private LocalDateTime catchUp(Move move, LocalDateTime since) {
+        LocalDateTime started = LocalDateTime.now().minus(CLOCK_SKEW);
+        Timestamp from = Timestamp.valueOf(since);
+        for (String table : TABLES) {
+            String changed = CHANGED_FILTERS.get(table);
+            if (changed != null) {
+                copy(move, table, changed, move.tenantId, from);
+            } else {
+                copy(move, table, TENANT_FILTERS.get(table), move.tenantId);
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Upsert the source rows matching {@code filter} into the target, in id order.
+     */
+    private void copy(Move move, String table, String filter, Object... args) {
+        JdbcTemplate source = jdbc(move.source);
+        JdbcTemplate target = jdbc(move.target);
+        TransactionTemplate targetTransaction = transaction(move.target);
+        String select = "SELECT * FROM " + table + " WHERE " + filter + " AND id > ? ORDER BY id LIMIT " + chunkSize;
+        List<String> key = primaryKeyOf(target, table);
+        long lastId = 0;
+        while (true) {
+            Chunk chunk = source.query(select, resultSet -> {
+                ResultSetMetaData meta = resultSet.getMetaData();
+                List<String> columns = new ArrayList<>(meta.getColumnCount());
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    columns.add(meta.getColumnName(i));
+                }
+                List<Object[]> rows = new ArrayList<>(chunkSize);
+                while (resultSet.next()) {
+                    Object[] row = new Object[columns.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = resultSet.getObject(i + 1);
+                    }
+                    rows.add(row);
+                }
+                return new Chunk(columns, rows);
+            }, append(args, lastId));
+            if (chunk == null || chunk.rows.isEmpty()) {
+                return;
+            }
+            String upsert = upsertOf(table, key, chunk.columns);
+            targetTransaction.executeWithoutResult(status -> target.batchUpdate(upsert, chunk.rows));
+            int idColumn = chunk.columns.indexOf("id");
+            lastId = ((Number) chunk.rows.get(chunk.rows.size() - 1)[idColumn]).longValue();
+            move.rowsCopied.addAndGet(chunk.rows.size());
+            if (chunk.rows.size() < chunkSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Delete the tenant's rows (except the tenant row) from a shard, children first.
+     */
+    private void deleteTenantRows(String shard, long tenantId) {
+        JdbcTemplate jdbc = jdbc(shard);
+        TransactionTemplate transaction = transaction(shard);
+        for (int i = TABLES.size() - 1; i >= 0; i--) {
+            String table = TABLES.get(i);
+            if ("tenants".equals(table)) {
+                continue;
+            }
+            String delete = "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table + " WHERE "
+                    + TENANT_FILTERS.get(table) + " LIMIT " + chunkSize + ")";
+            int deleted;
+            do {
+                deleted = transaction.execute(status -> jdbc.update(delete, tenantId));
+            } while (deleted > 0);
+        }
+    }
+
+    private void awaitOutboxDrained(Move move) throws InterruptedException {
+        JdbcTemplate source = jdbc(move.source);
+        long deadline = System.nanoTime() + outboxDrainTimeout.toNanos();
+        while (true) {
+            Long pending = source.queryForObject("SELECT count(*) FROM invoice_outbox WHERE tenant_id = ?",
+                    Long.class, move.tenantId);
+            if (pending == null || pending == 0) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(pending + " outbox events of tenant " + move.tenantId
+                        + " still unpublished on shard " + move.source);
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    /**
+     * Wait until every node has seen the last directory change and finished
+     * the requests it admitted under the previous one.
+     */
+    private void settle() throws InterruptedException {
+        Thread.sleep(directory.ttlMillis() + settleMillis);
+    }
+
+    private long count(JdbcTemplate jdbc, String table, long tenantId) {
+        Long count = jdbc.queryForObject("SELECT count(*) FROM " + table + " WHERE " + TENANT_FILTERS.get(table),
+                Long.class, tenantId);
+        return count != null ? count : 0;
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shards.dataSource(shard));
+    }
+
+    private TransactionTemplate transaction(String shard) {
+        return new TransactionTemplate(new DataSourceTransactionManager(shards.dataSource(shard)));
+    }
+
+    private static Object[] append(Object[] args, Object last) {
+        Object[] all = new Object[args.length + 1];
+        System.arraycopy(args, 0, all, 0, args.length);
+        all[args.length] = last;
+        return all;
+    }
+
+    /**
+     * Primary key columns of the target table: (id) for most, (id, created_at)
+     * style keys once invoices are partitioned (InvoicePartitions).
+     */
+    private static List<String> primaryKeyOf(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForList("SELECT a.attname FROM pg_index i JOIN pg_attribute a"
+                + " ON a.attrelid = i.indrelid AND a.attnum = ANY (i.indkey)"
+                + " WHERE i.indrelid = ?::regclass AND i.indisprimary", String.class, table);
+    }
+
+    private static String upsertOf(String table, List<String> key, List<String> columns) {
+        String names = String.join(", ", columns);
+        String values = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+        String updates = columns.stream()
+                .filter(column -> !key.contains(column))
+                .map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + names + ") VALUES (" + values + ") ON CONFLICT ("
+                + String.join(", ", key) + ") DO UPDATE SET " + updates;
+    }
+
+    private record Chunk(List<String> columns, List<Object[]> rows) {
+    }
+
+    private static final class Move {
+        private final long tenantId;
+        private final String source;
+        private final String target;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong rowsCopied = new AtomicLong();
+        private volatile String phase = "STARTING";
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private Move(long tenantId, String source, String target) {
+            this.tenantId = tenantId;
+            this.source = source;
+            this.target = target;
+        }
+
+        private Map<String, Object> status() {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("tenantId", tenantId);
+            status.put("source", source);
+            status.put("target", target);
+            status.put("phase", phase);
+            status.put("rowsCopied", rowsCopied.get());
+            status.put("startedAt", startedAt);
+            status.put("finishedAt", finishedAt);
+            status.put("error", error);
+            return status;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ledgerflow.storage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Direct Upload Store
+ *
+ * Storage that clients upload to directly with a short-lived signed URL, so the
+ * document bytes never pass through the API. Selected by {@code app.uploads.store}:
+ * - local: LocalDirectUploadStore, a filesystem stand-in served by PUT /storage/uploads
+ * - s3: S3DirectUploadStore, presigned PUT URLs on any S3-compatible endpoint
+ */
+public interface DirectUploadStore {
+
+    /**
+     * URL the client PUTs the document to. It is valid for {@code ttl}.
+     */
+    String uploadUrl(String storageKey, String token, Duration ttl);
+
+    /**
+     * Headers the client must send with the PUT. Uploads never replace an
+     * object that already exists under the key.
+     */
+    default Map<String, String> uploadHeaders() {
+        return Map.of();
+    }
+
+    /**
+     * Size of the uploaded object, or empty if nothing was uploaded under the key.
+     */
+    OptionalLong size(String storageKey) throws IOException;
+
+    void delete(String storageKey) throws IOException;
+}
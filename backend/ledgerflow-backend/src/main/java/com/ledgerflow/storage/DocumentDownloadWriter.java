@@ -0,0 +1,171 @@
+package com.ledgerflow.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Document Download Writer
+ *
+ * Writes a stored document to the servlet response. On Tomcat's NIO connector
+ * a document of at least 48 KB is handed to the connector as a sendfile
+ * request, which uses FileChannel.transferTo to the socket. Only this path is
+ * zero-copy. On other containers, and for smaller documents, the fallback
+ * writes through the response stream. FileChannel.transferTo into a wrapped
+ * OutputStream reads into a temporary buffer and copies the bytes through a
+ * heap array into the container's output buffer, like any streamed body.
+ *
+ * Documents are content-addressed, so the SHA-256 is a strong ETag and the bytes
+ * behind it never change. Responses are cacheable for a year, but private, since
+ * they require authentication. A single byte range is honoured (If-Range aware).
+ * Multi-range requests get the whole document.
+ *
+ * The stored Content-Type is whatever the uploader sent, so it is not trusted
+ * to render on the API origin: only PDF and XML are served inline (XML with a
+ * CSP that blocks scripts); anything else, such as HTML or SVG, is sent as an
+ * application/octet-stream attachment. Responses carry
+ * {@code X-Content-Type-Options: nosniff}, so browsers do not second-guess it.
+ */
+@Component
+public class DocumentDownloadWriter {
+
+    // Tomcat's sendfile request attributes (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Same threshold as Tomcat's DefaultServlet
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+
+    private static final Set<MediaType> INLINE = Set.of(MediaType.APPLICATION_PDF, MediaType.APPLICATION_XML,
+            MediaType.TEXT_XML);
+    private static final String XML_CONTENT_SECURITY_POLICY = "default-src 'none'; style-src 'unsafe-inline'";
+
+    public void write(HttpServletRequest request, HttpServletResponse response, Path file,
+                      StoredDocument document, String filename) throws IOException {
+        long length = Files.size(file);
+        String etag = "\"" + document.sha256() + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        MediaType inline = inlineType(document.contentType());
+        if (inline != null) {
+            response.setContentType(inline.toString());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.inline().filename(filename).build().toString());
+            if (!MediaType.APPLICATION_PDF.equalsTypeAndSubtype(inline)) {
+                response.setHeader("Content-Security-Policy", XML_CONTENT_SECURITY_POLICY);
+            }
+        } else {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(filename).build().toString());
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    HttpRange range = ranges.get(0);
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Unsatisfiable range " + rangeHeader);
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    /**
+     * The stored type, keeping only its charset, if it may be rendered inline.
+     */
+    private static MediaType inlineType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            MediaType bare = new MediaType(type.getType(), type.getSubtype());
+            if (!INLINE.contains(bare)) {
+                return null;
+            }
+            return type.getCharset() != null ? new MediaType(bare, type.getCharset()) : bare;
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
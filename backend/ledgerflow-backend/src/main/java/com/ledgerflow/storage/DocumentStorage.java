@@ -0,0 +1,21 @@
+package com.ledgerflow.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Document Storage
+ *
+ * Content-addressed store for original invoice documents. Documents are keyed by
+ * the SHA-256 of their bytes, so uploading the same PDF twice stores it once.
+ * resolve() returns a local file so downloads can be served with sendfile; a
+ * remote-backed implementation would materialize into a local cache first.
+ */
+public interface DocumentStorage {
+
+    StoredDocument store(InputStream content, String contentType) throws IOException;
+
+    Optional<Path> resolve(String sha256);
+}
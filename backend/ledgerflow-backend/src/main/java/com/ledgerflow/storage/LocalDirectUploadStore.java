@@ -0,0 +1,114 @@
+package com.ledgerflow.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Local Direct Upload Store
+ *
+ * Filesystem stand-in for S3 in development. Storage keys are paths below
+ * {@code app.documents.root}. The AI orchestration service reads them from the
+ * same directory via a shared volume (STORAGE_BACKEND=local, LOCAL_STORAGE_ROOT).
+ * Uploads are streamed to disk in fixed-size chunks by LocalUploadController.
+ */
+@Component
+@ConditionalOnProperty(name = "app.uploads.store", havingValue = "local", matchIfMissing = true)
+public class LocalDirectUploadStore implements DirectUploadStore {
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalDirectUploadStore(@Value("${app.documents.root:./data/documents}") String root,
+                                  @Value("${app.uploads.public-base-url:http://localhost:8080}") String publicBaseUrl) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl;
+    }
+
+    @Override
+    public String uploadUrl(String storageKey, String token, Duration ttl) {
+        return publicBaseUrl + "/storage/uploads?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public OptionalLong size(String storageKey) throws IOException {
+        Path path = pathFor(storageKey);
+        return Files.isRegularFile(path) ? OptionalLong.of(Files.size(path)) : OptionalLong.empty();
+    }
+
+    @Override
+    public void delete(String storageKey) throws IOException {
+        Files.deleteIfExists(pathFor(storageKey));
+    }
+
+    /**
+     * Stream an upload to its key, failing once more than {@code maxBytes} arrive.
+     * The object only becomes visible when complete, so a confirm never sees a
+     * partial upload. It is published with a hard link, which fails if the key
+     * already exists, so a token reused within its TTL cannot replace a
+     * document that was already uploaded.
+     *
+     * @return bytes written
+     */
+    public long write(String storageKey, InputStream content, long maxBytes) throws IOException {
+        Path target = pathFor(storageKey);
+        if (Files.exists(target)) {
+            throw new UploadExistsException(storageKey);
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "upload-", ".part");
+        try {
+            long total = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new UploadTooLargeException(maxBytes);
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            try {
+                Files.createLink(target, temp);
+            } catch (FileAlreadyExistsException e) {
+                throw new UploadExistsException(storageKey);
+            }
+            return total;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path pathFor(String storageKey) {
+        Path path = root.resolve(storageKey).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + storageKey);
+        }
+        return path;
+    }
+
+    public static class UploadTooLargeException extends IOException {
+        public UploadTooLargeException(long maxBytes) {
+            super("Upload exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    public static class UploadExistsException extends IOException {
+        public UploadExistsException(String storageKey) {
+            super("A document was already uploaded to " + storageKey);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.ledgerflow.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+
+/**
+ * S3 Direct Upload Store
+ *
+ * Presigned URLs (AWS Signature V4, query-string auth) against any
+ * S3-compatible endpoint, using path-style addressing so MinIO and LocalStack
+ * work without DNS setup. The backend only signs: the client PUTs the document
+ * to S3, and the AI orchestration service downloads it by key
+ * (STORAGE_BACKEND=s3). Signing is a few HMACs, so no SDK is needed.
+ * HEAD and DELETE on confirm use the same presigned form. The upload URL
+ * signs {@code If-None-Match: *}, so S3 rejects a second PUT to the key with
+ * 412 and a token cannot overwrite a document that was already uploaded.
+ */
+@Component
+@ConditionalOnProperty(name = "app.uploads.store", havingValue = "s3")
+public class S3DirectUploadStore implements DirectUploadStore {
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter DATE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Duration INTERNAL_REQUEST_TTL = Duration.ofMinutes(5);
+    private static final Map<String, String> UPLOAD_HEADERS = Map.of("If-None-Match", "*");
+
+    private final URI endpoint;
+    private final String region;
+    private final String bucket;
+    private final String accessKey;
+    private final String secretKey;
+    private final Clock clock;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public S3DirectUploadStore(@Value("${app.uploads.s3.endpoint}") String endpoint,
+                               @Value("${app.uploads.s3.region}") String region,
+                               @Value("${app.uploads.s3.bucket}") String bucket,
+                               @Value("${app.uploads.s3.access-key}") String accessKey,
+                               @Value("${app.uploads.s3.secret-key}") String secretKey) {
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.region = region;
+        this.bucket = bucket;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.clock = Clock.systemUTC();
+    }
+
+    @Override
+    public String uploadUrl(String storageKey, String token, Duration ttl) {
+        return presign("PUT", storageKey, ttl, UPLOAD_HEADERS);
+    }
+
+    @Override
+    public Map<String, String> uploadHeaders() {
+        return UPLOAD_HEADERS;
+    }
+
+    @Override
+    public OptionalLong size(String storageKey) throws IOException {
+        HttpResponse<Void> response = send(HttpRequest.newBuilder(URI.create(presign("HEAD", storageKey, INTERNAL_REQUEST_TTL)))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()));
+        if (response.statusCode() == 404) {
+            return OptionalLong.empty();
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("S3 HEAD " + storageKey + " returned " + response.statusCode());
+        }
+        return response.headers().firstValueAsLong("Content-Length");
+    }
+
+    @Override
+    public void delete(String storageKey) throws IOException {
+        HttpResponse<Void> response = send(HttpRequest.newBuilder(URI.create(presign("DELETE", storageKey, INTERNAL_REQUEST_TTL)))
+                .DELETE());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("S3 DELETE " + storageKey + " returned " + response.statusCode());
+        }
+    }
+
+    private HttpResponse<Void> send(HttpRequest.Builder request) throws IOException {
+        try {
+            return http.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted calling S3", e);
+        }
+    }
+
+    String presign(String method, String storageKey, Duration ttl) {
+        return presign(method, storageKey, ttl, Map.of());
+    }
+
+    /**
+     * @param headers headers the request must carry, included in the signature
+     */
+    String presign(String method, String storageKey, Duration ttl, Map<String, String> headers) {
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(ZoneOffset.UTC));
+        String amzDate = AMZ_DATE.format(now);
+        String dateStamp = DATE_STAMP.format(now);
+        String scope = dateStamp + "/" + region + "/s3/aws4_request";
+        String host = endpoint.getPort() == -1 ? endpoint.getHost() : endpoint.getHost() + ":" + endpoint.getPort();
+        String canonicalUri = endpoint.getRawPath() + "/" + encode(bucket, false) + "/" + encode(storageKey, true);
+        TreeMap<String, String> signed = new TreeMap<>();
+        signed.put("host", host);
+        headers.forEach((name, value) -> signed.put(name.toLowerCase(Locale.ROOT), value.trim()));
+        String signedHeaders = String.join(";", signed.keySet());
+        StringBuilder canonicalHeaders = new StringBuilder();
+        signed.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value).append('\n'));
+
+        TreeMap<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", "AWS4-HMAC-SHA256");
+        query.put("X-Amz-Credential", accessKey + "/" + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", Long.toString(ttl.toSeconds()));
+        query.put("X-Amz-SignedHeaders", signedHeaders);
+        StringBuilder canonicalQuery = new StringBuilder();
+        query.forEach((name, value) -> {
+            if (!canonicalQuery.isEmpty()) {
+                canonicalQuery.append('&');
+            }
+            canonicalQuery.append(encode(name, false)).append('=').append(encode(value, false));
+        });
+
+        String canonicalRequest = method + "\n" + canonicalUri + "\n" + canonicalQuery + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + "UNSIGNED-PAYLOAD";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + hex(sha256(canonicalRequest));
+
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), dateStamp);
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, "s3");
+        signingKey = hmac(signingKey, "aws4_request");
+        String signature = hex(hmac(signingKey, stringToSign));
+
+        return endpoint.getScheme() + "://" + host + canonicalUri + "?" + canonicalQuery
+                + "&X-Amz-Signature=" + signature;
+    }
+
+    /**
+     * RFC 3986 percent-encoding as SigV4 requires; '/' is kept in object keys.
+     */
+    private static String encode(String value, boolean keepSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static byte[] sha256(String data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ledgerflow.storage;
+
+/**
+ * Stored Document
+ *
+ * Result of storing an uploaded file: its SHA-256 (the storage key), size in
+ * bytes and the content type it was uploaded with.
+ */
+public record StoredDocument(String sha256, long size, String contentType) {
+}
@@ -0,0 +1,136 @@
+package com.ledgerflow.websocket;
+
+import com.ledgerflow.dto.InvoiceEvent;
+import com.ledgerflow.security.JwtAuthenticationFilter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice Event Broadcaster
+ *
+ * Fans invoice events out to the STOMP sessions of the owning tenant.
+ * Publishing only appends to per-session {@link SessionOutbox} buffers; a single
+ * flusher thread drains them every {@code app.websocket.flush-interval-ms} and
+ * hands the messages to the broker, so request threads never wait on sockets.
+ */
+@Component
+public class InvoiceEventBroadcaster {
+    private static final Logger log = LoggerFactory.getLogger(InvoiceEventBroadcaster.class);
+
+    public static final String USER_DESTINATION = "/queue/invoices";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int sessionBufferSize;
+    private final Map<String, SessionOutbox> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SessionOutbox>> sessionsByTenant = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public InvoiceEventBroadcaster(SimpMessagingTemplate messagingTemplate,
+                                   @Value("${app.websocket.session-buffer-size:256}") int sessionBufferSize,
+                                   @Value("${app.websocket.flush-interval-ms:250}") long flushIntervalMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.sessionBufferSize = sessionBufferSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invoice-event-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long tenantId = tenantIdOf(event.getUser());
+        if (tenantId == null || accessor.getSessionId() == null) {
+            return;
+        }
+        SessionOutbox outbox = new SessionOutbox(accessor.getSessionId(), event.getUser().getName(),
+                tenantId, sessionBufferSize);
+        sessions.put(outbox.getSessionId(), outbox);
+        sessionsByTenant.computeIfAbsent(tenantId, id -> ConcurrentHashMap.newKeySet()).add(outbox);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        SessionOutbox outbox = sessions.remove(event.getSessionId());
+        if (outbox == null) {
+            return;
+        }
+        sessionsByTenant.computeIfPresent(outbox.getTenantId(), (id, set) -> {
+            set.remove(outbox);
+            return set.isEmpty() ? null : set;
+        });
+        if (outbox.getDropped() > 0) {
+            log.debug("Session {} dropped {} invoice events due to slow consumption",
+                    outbox.getSessionId(), outbox.getDropped());
+        }
+    }
+
+    /**
+     * Invoked after the publishing transaction commits, so subscribers never
+     * see an invoice that was rolled back.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceEvent(InvoiceEvent event) {
+        Set<SessionOutbox> targets = sessionsByTenant.get(event.getTenantId());
+        if (targets == null) {
+            return;
+        }
+        for (SessionOutbox outbox : targets) {
+            outbox.offer(event);
+        }
+    }
+
+    void flush() {
+        for (SessionOutbox outbox : sessions.values()) {
+            List<InvoiceEvent> events = outbox.drain();
+            if (events.isEmpty()) {
+                continue;
+            }
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(outbox.getSessionId());
+            headers.setLeaveMutable(true);
+            try {
+                messagingTemplate.convertAndSendToUser(outbox.getUsername(), USER_DESTINATION, events,
+                        headers.getMessageHeaders());
+            } catch (RuntimeException e) {
+                log.warn("Failed to push invoice events to session {}: {}", outbox.getSessionId(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    private static Long tenantIdOf(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getDetails() instanceof JwtAuthenticationFilter.UserDetails userDetails) {
+            return userDetails.getTenantId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ledgerflow.websocket;
+
+import com.ledgerflow.dto.InvoiceEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded per-session event buffer.
+ *
+ * Events of the same type for the same invoice are coalesced: the latest is
+ * kept and moves to the end, so a client applying the events in order ends up
+ * with the latest status. A coalesced STATUS_CHANGED keeps the first pending
+ * previousStatus, so the client still sees the whole transition. A CREATED is
+ * never replaced by a later change, and reminders (PAYMENT_DUE_SOON,
+ * PAYMENT_OVERDUE, EXTRACTION_STUCK) never replace each other. When the buffer
+ * is full the oldest pending event is dropped. A slow consumer can therefore
+ * never hold more than {@code capacity} events in memory, and never stalls the
+ * publisher.
+ */
+class SessionOutbox {
+    private final String sessionId;
+    private final String username;
+    private final Long tenantId;
+    private final int capacity;
+    private final Map<Key, InvoiceEvent> pending = new LinkedHashMap<>();
+    private long dropped;
+
+    SessionOutbox(String sessionId, String username, Long tenantId, int capacity) {
+        this.sessionId = sessionId;
+        this.username = username;
+        this.tenantId = tenantId;
+        this.capacity = capacity;
+    }
+
+    synchronized void offer(InvoiceEvent event) {
+        Key key = new Key(event.getInvoiceId(), event.getType());
+        InvoiceEvent replaced = pending.remove(key);
+        if (replaced != null) {
+            if (event.getType() == InvoiceEvent.Type.STATUS_CHANGED) {
+                // A copy: the same event goes to every session of the tenant
+                event = new InvoiceEvent(event.getType(), event.getTenantId(), event.getInvoiceId(),
+                        event.getInvoiceNumber(), event.getStatus(), replaced.getPreviousStatus(),
+                        event.getDueDate(), event.getTimestamp());
+            }
+        } else if (pending.size() >= capacity) {
+            Iterator<Key> oldest = pending.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+            dropped++;
+        }
+        pending.put(key, event);
+    }
+
+    synchronized List<InvoiceEvent> drain() {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<InvoiceEvent> events = new ArrayList<>(pending.values());
+        pending.clear();
+        return events;
+    }
+
+    synchronized long getDropped() {
+        return dropped;
+    }
+
+    String getSessionId() {
+        return sessionId;
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    Long getTenantId() {
+        return tenantId;
+    }
+
+    private record Key(Long invoiceId, InvoiceEvent.Type type) {
+    }
+}
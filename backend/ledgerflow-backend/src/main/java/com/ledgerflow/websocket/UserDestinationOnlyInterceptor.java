@@ -0,0 +1,36 @@
+package com.ledgerflow.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+
+/**
+ * Restricts client subscriptions to {@code /user/**} destinations.
+ *
+ * Tenant isolation relies on events being routed per session, so clients must
+ * not be able to subscribe to raw broker queues of other sessions.
+ */
+public class UserDestinationOnlyInterceptor implements ChannelInterceptor {
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand()) && accessor.getUser() == null) {
+            throw new AccessDeniedException("WebSocket connection is not authenticated");
+        }
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (destination == null || !destination.startsWith("/user/")) {
+                throw new AccessDeniedException("Subscription to " + destination + " is not allowed");
+            }
+        }
+        return message;
+    }
+}
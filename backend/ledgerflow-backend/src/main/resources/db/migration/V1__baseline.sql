@@ -0,0 +1,62 @@
+-- Schema as first deployed: tenants, users, invoices and their line items.
+-- Databases that already have it are baselined at version 1 (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE tenants (
+    id         BIGSERIAL    NOT NULL,
+    name       VARCHAR(255) NOT NULL UNIQUE,
+    slug       VARCHAR(255) NOT NULL UNIQUE,
+    active     BOOLEAN      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id         BIGSERIAL    NOT NULL,
+    username   VARCHAR(255) NOT NULL UNIQUE,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    active     BOOLEAN      NOT NULL,
+    tenant_id  BIGINT       NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE invoices (
+    id               BIGSERIAL      NOT NULL,
+    invoice_number   VARCHAR(255)   NOT NULL,
+    vendor_name      VARCHAR(255)   NOT NULL,
+    invoice_date     DATE           NOT NULL,
+    due_date         DATE,
+    total_amount     NUMERIC(19, 2) NOT NULL,
+    currency         VARCHAR(3)     NOT NULL,
+    status           VARCHAR(255)   NOT NULL
+        CHECK (status IN ('PENDING', 'EXTRACTING', 'EXTRACTED', 'APPROVED', 'REJECTED', 'PAID')),
+    tenant_id        BIGINT         NOT NULL,
+    created_at       TIMESTAMP(6)   NOT NULL,
+    updated_at       TIMESTAMP(6),
+    tax_amount       NUMERIC(19, 2),
+    shipping_amount  NUMERIC(19, 2),
+    payment_terms    VARCHAR(255),
+    s3_key           VARCHAR(255),
+    s3_url           VARCHAR(255),
+    confidence_score FLOAT(53),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE invoice_line_items (
+    id          BIGSERIAL      NOT NULL,
+    description VARCHAR(255)   NOT NULL,
+    quantity    NUMERIC(19, 2) NOT NULL,
+    unit_price  NUMERIC(19, 2) NOT NULL,
+    amount      NUMERIC(19, 2) NOT NULL,
+    invoice_id  BIGINT         NOT NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE users ADD CONSTRAINT fk_users_tenant FOREIGN KEY (tenant_id) REFERENCES tenants;
+ALTER TABLE invoices ADD CONSTRAINT fk_invoices_tenant FOREIGN KEY (tenant_id) REFERENCES tenants;
+ALTER TABLE invoice_line_items ADD CONSTRAINT fk_invoice_line_items_invoice FOREIGN KEY (invoice_id) REFERENCES invoices;
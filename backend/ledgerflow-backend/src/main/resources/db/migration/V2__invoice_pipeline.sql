@@ -0,0 +1,153 @@
+-- Tables and columns added with the invoice pipeline work: events and outbox, status history,
+-- deadlines, reconciliation, direct uploads, sharding and archival. Idempotent (IF NOT EXISTS),
+-- so databases that Hibernate's ddl-auto=update already brought up to date are left as they are.
+
+-- Rate limits and extraction fair share (null = app defaults); invoice list ETag
+ALTER TABLE tenants
+    ADD COLUMN IF NOT EXISTS extraction_weight            INTEGER,
+    ADD COLUMN IF NOT EXISTS extraction_max_concurrency   INTEGER,
+    ADD COLUMN IF NOT EXISTS upload_rate_limit_per_minute INTEGER,
+    ADD COLUMN IF NOT EXISTS upload_rate_limit_burst      INTEGER,
+    ADD COLUMN IF NOT EXISTS read_rate_limit_per_minute   INTEGER,
+    ADD COLUMN IF NOT EXISTS read_rate_limit_burst        INTEGER,
+    ADD COLUMN IF NOT EXISTS invoice_list_version         BIGINT;
+
+-- Original upload in DocumentStorage
+ALTER TABLE invoices
+    ADD COLUMN IF NOT EXISTS document_sha256       VARCHAR(64),
+    ADD COLUMN IF NOT EXISTS document_size         BIGINT,
+    ADD COLUMN IF NOT EXISTS document_content_type VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_invoices_status_due_date ON invoices (status, due_date);
+CREATE INDEX IF NOT EXISTS idx_invoices_status_updated_at ON invoices (status, updated_at);
+CREATE INDEX IF NOT EXISTS idx_invoices_tenant_status ON invoices (tenant_id, status);
+
+-- Partition key of the line items (InvoicePartitions): the invoice's created_at
+ALTER TABLE invoice_line_items ADD COLUMN IF NOT EXISTS invoice_created_at TIMESTAMP(6);
+UPDATE invoice_line_items li SET invoice_created_at = i.created_at
+FROM invoices i
+WHERE li.invoice_id = i.id AND li.invoice_created_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS invoice_outbox (
+    id              BIGSERIAL    NOT NULL,
+    partition_no    INTEGER      NOT NULL,
+    tenant_id       BIGINT       NOT NULL,
+    tenant_sequence BIGINT       NOT NULL,
+    invoice_id      BIGINT       NOT NULL,
+    event_type      VARCHAR(64)  NOT NULL,
+    payload         TEXT         NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_invoice_outbox_partition ON invoice_outbox (partition_no, id);
+
+CREATE TABLE IF NOT EXISTS invoice_outbox_partitions (
+    partition_no    INTEGER      NOT NULL,
+    last_drained_at TIMESTAMP(6),
+    PRIMARY KEY (partition_no)
+);
+
+CREATE TABLE IF NOT EXISTS invoice_status_history (
+    id              BIGSERIAL    NOT NULL,
+    invoice_id      BIGINT       NOT NULL,
+    tenant_id       BIGINT       NOT NULL,
+    previous_status VARCHAR(32)
+        CHECK (previous_status IN ('PENDING', 'EXTRACTING', 'EXTRACTED', 'APPROVED', 'REJECTED', 'PAID')),
+    new_status      VARCHAR(32)  NOT NULL
+        CHECK (new_status IN ('PENDING', 'EXTRACTING', 'EXTRACTED', 'APPROVED', 'REJECTED', 'PAID')),
+    changed_by      BIGINT,
+    changed_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_invoice_status_history_invoice ON invoice_status_history (invoice_id, changed_at);
+
+CREATE TABLE IF NOT EXISTS invoice_deadline_fires (
+    id         BIGSERIAL    NOT NULL,
+    invoice_id BIGINT       NOT NULL,
+    kind       VARCHAR(32)  NOT NULL CHECK (kind IN ('PAYMENT_DUE_SOON', 'PAYMENT_OVERDUE', 'EXTRACTION_STUCK')),
+    due_at     TIMESTAMP(6) NOT NULL,
+    fired_at   TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_invoice_deadline_fires UNIQUE (invoice_id, kind, due_at)
+);
+CREATE INDEX IF NOT EXISTS idx_invoice_deadline_fires_due_at ON invoice_deadline_fires (due_at);
+
+CREATE TABLE IF NOT EXISTS reconciliation_runs (
+    id                    BIGSERIAL    NOT NULL,
+    tenant_id             BIGINT       NOT NULL,
+    created_by            BIGINT,
+    filename              VARCHAR(255),
+    format                VARCHAR(16)  NOT NULL CHECK (format IN ('CSV', 'CAMT053')),
+    status                VARCHAR(16)  NOT NULL CHECK (status IN ('IMPORTING', 'COMPLETED', 'FAILED')),
+    transactions          BIGINT,
+    credits               BIGINT,
+    open_invoices         BIGINT,
+    matched_reference     BIGINT,
+    matched_amount_vendor BIGINT,
+    matched_fuzzy         BIGINT,
+    unmatched             BIGINT,
+    applied               BIGINT,
+    rejected              BIGINT,
+    first_error           VARCHAR(500),
+    created_at            TIMESTAMP(6) NOT NULL,
+    completed_at          TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_reconciliation_runs_tenant ON reconciliation_runs (tenant_id, created_at);
+
+CREATE TABLE IF NOT EXISTS reconciliation_proposals (
+    id              BIGSERIAL      NOT NULL,
+    run_id          BIGINT         NOT NULL,
+    tenant_id       BIGINT         NOT NULL,
+    transaction_ref VARCHAR(140),
+    booking_date    DATE           NOT NULL,
+    amount          NUMERIC(19, 2) NOT NULL,
+    currency        VARCHAR(3)     NOT NULL,
+    counterparty    VARCHAR(255),
+    reference       VARCHAR(500),
+    invoice_id      BIGINT,
+    invoice_number  VARCHAR(255),
+    match_type      VARCHAR(16) CHECK (match_type IN ('REFERENCE', 'AMOUNT_VENDOR', 'FUZZY')),
+    score           FLOAT(53)      NOT NULL,
+    status          VARCHAR(16)    NOT NULL
+        CHECK (status IN ('PROPOSED', 'CONFIRMED', 'REJECTED', 'APPLIED', 'STALE', 'UNMATCHED')),
+    decided_at      TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_reconciliation_proposals_run_status ON reconciliation_proposals (run_id, status, id);
+
+CREATE TABLE IF NOT EXISTS upload_confirmations (
+    id          BIGSERIAL    NOT NULL,
+    storage_key VARCHAR(512) NOT NULL,
+    tenant_id   BIGINT       NOT NULL,
+    claimed_at  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_upload_confirmations_storage_key UNIQUE (storage_key)
+);
+
+CREATE TABLE IF NOT EXISTS tenant_shards (
+    tenant_id  BIGINT       NOT NULL,
+    shard      VARCHAR(64)  NOT NULL,
+    state      VARCHAR(16)  NOT NULL CHECK (state IN ('ACTIVE', 'MOVING')),
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (tenant_id)
+);
+
+CREATE TABLE IF NOT EXISTS invoice_archives (
+    id                BIGSERIAL    NOT NULL,
+    partition_name    VARCHAR(63)  NOT NULL,
+    range_from        TIMESTAMP(6) NOT NULL,
+    range_to          TIMESTAMP(6) NOT NULL,
+    min_invoice_id    BIGINT       NOT NULL,
+    max_invoice_id    BIGINT       NOT NULL,
+    invoice_count     BIGINT       NOT NULL,
+    line_item_count   BIGINT       NOT NULL,
+    invoices_file     VARCHAR(255) NOT NULL,
+    invoices_sha256   VARCHAR(64)  NOT NULL,
+    line_items_file   VARCHAR(255) NOT NULL,
+    line_items_sha256 VARCHAR(64)  NOT NULL,
+    archived_at       TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_invoice_archives_partition UNIQUE (partition_name)
+);
+CREATE INDEX IF NOT EXISTS idx_invoice_archives_ids ON invoice_archives (min_invoice_id, max_invoice_id);